@@ -18,11 +18,14 @@ Contributors:
 package org.datanucleus.store.rdbms;
 
 import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Savepoint;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.WeakHashMap;
 
 import javax.naming.InitialContext;
 import javax.naming.NamingException;
@@ -63,11 +66,28 @@ import org.datanucleus.util.StringUtils;
  */
 public class ConnectionFactoryImpl extends AbstractConnectionFactory
 {
+    /** Option (when creating a connection) to signify that the connection is for read-only work, so can use a read replica. */
+    public static final String OPTION_READ_REPLICA = "read-replica";
+
     /** Datasources. */
     DataSource[] dataSources;
 
+    /** Read replica datasources (if any). */
+    DataSource[] replicaDataSources;
+
+    /** Provider of connections to the read replicas, shared by all connections of this factory. */
+    ReadReplicaConnectionProvider replicaConnProvider = null;
+
     ConnectionPool pool = null;
 
+    /**
+     * State last applied to each physical connection, keyed by the connection of the driver underlying the pool's wrapper.
+     * Null when not caching connection state. This is only valid when the pool doesn't reset the read-only, auto-commit and
+     * isolation of its connections when they are returned (as HikariCP does, for example), and nothing other than DataNucleus
+     * changes them, so the user has to enable it.
+     */
+    Map<Connection, ConnectionState> connectionStates = null;
+
     /**
      * Constructor.
      * @param storeMgr Store Manager
@@ -81,6 +101,156 @@ public class ConnectionFactoryImpl extends AbstractConnectionFactory
             // Primary DataSource to be present always
             initialiseDataSources();
         }
+        if (storeMgr.getBooleanProperty(RDBMSPropertyNames.PROPERTY_RDBMS_CONNECTION_STATE_CACHING))
+        {
+            connectionStates = Collections.synchronizedMap(new WeakHashMap<Connection, ConnectionState>());
+        }
+    }
+
+    /**
+     * Accessor for the state of the specified connection, as last applied by DataNucleus.
+     * When caching connection state this is the state of the physical connection, otherwise (or when the physical connection
+     * can't be found from the connection returned by the pool) it is a new state for this checkout only.
+     * @param cnx The connection (as returned by the pool)
+     * @return The state of the connection
+     */
+    ConnectionState getConnectionState(Connection cnx)
+    {
+        if (connectionStates == null)
+        {
+            return new ConnectionState();
+        }
+
+        Connection physicalCnx = getPhysicalConnection(cnx);
+        if (physicalCnx == null)
+        {
+            // Pools typically return a new wrapper for each checkout, so its state can't be kept
+            return new ConnectionState();
+        }
+
+        synchronized (connectionStates)
+        {
+            ConnectionState state = connectionStates.get(physicalCnx);
+            if (state == null)
+            {
+                state = new ConnectionState();
+                connectionStates.put(physicalCnx, state);
+            }
+            return state;
+        }
+    }
+
+    /**
+     * Accessor for the physical connection underlying the connection returned by a pool. Uses the innermost delegate where the
+     * pool provides it (DBCP, when access to the underlying connection is allowed), otherwise Connection.unwrap.
+     * @param cnx The connection (as returned by the pool)
+     * @return The physical connection, or null if it can't be found
+     */
+    static Connection getPhysicalConnection(Connection cnx)
+    {
+        try
+        {
+            Method getDelegateMethod = cnx.getClass().getMethod("getInnermostDelegate");
+            Object delegate = getDelegateMethod.invoke(cnx);
+            if (delegate instanceof Connection && delegate != cnx)
+            {
+                return (Connection)delegate;
+            }
+        }
+        catch (NoSuchMethodException e)
+        {
+            // Not a DBCP connection
+        }
+        catch (Exception e)
+        {
+            NucleusLogger.CONNECTION.debug("Unable to get innermost delegate of connection " + cnx + " : " + e.getMessage());
+        }
+
+        try
+        {
+            // Note that some pools unwrap a Connection to the wrapper itself, so this is only useful when it returns another object
+            if (cnx.isWrapperFor(Connection.class))
+            {
+                Connection unwrapped = cnx.unwrap(Connection.class);
+                if (unwrapped != null && unwrapped != cnx)
+                {
+                    return unwrapped;
+                }
+            }
+        }
+        catch (SQLException | AbstractMethodError e)
+        {
+            // Driver/pool doesn't support unwrap
+        }
+        return null;
+    }
+
+    /**
+     * Read-only, auto-commit and isolation state of a connection, so that we only query the connection for each of these once,
+     * and only set them when the required value differs.
+     * The state is either for a single checkout, or for the physical connection when caching connection state.
+     * A null value means the value is not known, so will be read from the connection.
+     */
+    static class ConnectionState
+    {
+        Boolean readOnly;
+        Boolean autoCommit;
+        Integer isolation;
+
+        boolean isReadOnly(Connection cnx) throws SQLException
+        {
+            if (readOnly == null)
+            {
+                readOnly = cnx.isReadOnly();
+            }
+            return readOnly;
+        }
+
+        void setReadOnly(Connection cnx, boolean value) throws SQLException
+        {
+            readOnly = null;
+            cnx.setReadOnly(value);
+            readOnly = value;
+        }
+
+        boolean getAutoCommit(Connection cnx) throws SQLException
+        {
+            if (autoCommit == null)
+            {
+                autoCommit = cnx.getAutoCommit();
+            }
+            return autoCommit;
+        }
+
+        void setAutoCommit(Connection cnx, boolean value) throws SQLException
+        {
+            autoCommit = null;
+            cnx.setAutoCommit(value);
+            autoCommit = value;
+        }
+
+        int getTransactionIsolation(Connection cnx) throws SQLException
+        {
+            if (isolation == null)
+            {
+                isolation = cnx.getTransactionIsolation();
+            }
+            return isolation;
+        }
+
+        void setTransactionIsolation(Connection cnx, int value) throws SQLException
+        {
+            isolation = null;
+            cnx.setTransactionIsolation(value);
+            isolation = value;
+        }
+
+        void clear()
+        {
+            readOnly = null;
+            autoCommit = null;
+            isolation = null;
+        }
     }
 
     /* (non-Javadoc)
@@ -119,6 +289,28 @@ public class ConnectionFactoryImpl extends AbstractConnectionFactory
             {
                 throw new NucleusUserException(Localiser.msg("047009", "transactional")).setFatal();
             }
+
+            // Read replicas (optional)
+            Object replicaDS = storeMgr.getProperty(RDBMSPropertyNames.PROPERTY_RDBMS_READ_REPLICA_CONNECTION_FACTORY);
+            String replicaJNDI = storeMgr.getStringProperty(RDBMSPropertyNames.PROPERTY_RDBMS_READ_REPLICA_CONNECTION_FACTORY_NAME);
+            if (replicaDS instanceof DataSource[])
+            {
+                replicaDataSources = (DataSource[]) replicaDS;
+            }
+            else if (replicaDS != null || replicaJNDI != null)
+            {
+                replicaDataSources = generateDataSources(storeMgr, replicaDS, replicaJNDI, "read-replica", null, null);
+            }
+            if (replicaDataSources != null && replicaDataSources.length > 0)
+            {
+                String balancing = storeMgr.getStringProperty(RDBMSPropertyNames.PROPERTY_RDBMS_READ_REPLICA_BALANCING);
+                long ejectionPeriod = storeMgr.getIntProperty(RDBMSPropertyNames.PROPERTY_RDBMS_READ_REPLICA_EJECTION_PERIOD);
+                replicaConnProvider = new ReadReplicaConnectionProvider(balancing, ejectionPeriod);
+                if (NucleusLogger.CONNECTION.isDebugEnabled())
+                {
+                    NucleusLogger.CONNECTION.debug(Localiser.msg("047011", replicaDataSources.length, balancing));
+                }
+            }
         }
         else
         {
@@ -249,7 +441,7 @@ public class ConnectionFactoryImpl extends AbstractConnectionFactory
             initialiseDataSources();
         }
 
-        ManagedConnection mconn = new ManagedConnectionImpl(ec, options);
+        ManagedConnectionImpl mconn = new ManagedConnectionImpl(ec, options);
         boolean singleConnection = storeMgr.getBooleanProperty(PropertyNames.PROPERTY_CONNECTION_SINGLE_CONNECTION);
         boolean releaseAfterUse = storeMgr.getBooleanProperty(PropertyNames.PROPERTY_CONNECTION_NONTX_RELEASE_AFTER_USE);
         if (ec != null && !ec.getTransaction().isActive() && (!releaseAfterUse || singleConnection))
@@ -257,6 +449,21 @@ public class ConnectionFactoryImpl extends AbstractConnectionFactory
             // Non-transactional connection and requested not to close on release
             mconn.setCloseOnRelease(false);
         }
+
+        if (replicaConnProvider != null && ec != null)
+        {
+            if (ec.getBooleanProperty(PropertyNames.PROPERTY_DATASTORE_READONLY))
+            {
+                // Datastore is read-only for this ExecutionContext so all work can go to a replica
+                mconn.useReadReplica = true;
+            }
+            else if (options != null && Boolean.TRUE.equals(options.get(OPTION_READ_REPLICA)) && !ec.getTransaction().isActive() &&
+                releaseAfterUse && !singleConnection)
+            {
+                // Read-only work outside of a transaction, and the connection is closed after this work so won't be used for any writes
+                mconn.useReadReplica = true;
+            }
+        }
         return mconn;
     }
 
@@ -267,6 +474,12 @@ public class ConnectionFactoryImpl extends AbstractConnectionFactory
         int isolation;
         boolean needsCommitting = false;
 
+        /** Whether this connection is only used for read-only work, so should be obtained from a read replica (when available). */
+        boolean useReadReplica = false;
+
+        /** State of the connection (when obtained). */
+        ConnectionState connState = null;
+
         ConnectionProvider connProvider = null;
 
         ManagedConnectionImpl(ExecutionContext ec, Map options)
@@ -328,7 +541,7 @@ public class ConnectionFactoryImpl extends AbstractConnectionFactory
                     }
 
                     Connection conn = getSqlConnection();
-                    if (conn != null && !conn.isClosed() && !conn.getAutoCommit())
+                    if (conn != null && !conn.isClosed() && !getAutoCommit(conn))
                     {
                         // Make sure any remaining statements are executed and commit the connection
                         ((RDBMSStoreManager)storeMgr).getSQLController().processConnectionStatement(this);
@@ -400,35 +613,51 @@ public class ConnectionFactoryImpl extends AbstractConnectionFactory
                             reqdIsolationLevel = rdba.getRequiredTransactionIsolationLevel();
                         }
 
-                        cnx = connProvider.getConnection(dataSources);
+                        if (useReadReplica)
+                        {
+                            cnx = replicaConnProvider.getConnection(replicaDataSources);
+                            if (cnx != null)
+                            {
+                                readOnly = true;
+                            }
+                            else if (NucleusLogger.CONNECTION.isDebugEnabled())
+                            {
+                                NucleusLogger.CONNECTION.debug(Localiser.msg("047013", this.toString()));
+                            }
+                        }
+                        if (cnx == null)
+                        {
+                            cnx = connProvider.getConnection(dataSources);
+                        }
+                        ConnectionState state = getConnectionState(cnx);
                         boolean succeeded = false;
                         try
                         {
-                            if (cnx.isReadOnly() != readOnly)
+                            if (state.isReadOnly(cnx) != readOnly)
                             {
                                 NucleusLogger.CONNECTION.debug("Setting readonly=" + readOnly + " to connection: " + cnx.toString());
-                                cnx.setReadOnly(readOnly);
+                                state.setReadOnly(cnx, readOnly);
                             }
 
                             if (reqdIsolationLevel == TransactionIsolation.NONE)
                             {
-                                if (!cnx.getAutoCommit())
+                                if (!state.getAutoCommit(cnx))
                                 {
-                                    cnx.setAutoCommit(true);
+                                    state.setAutoCommit(cnx, true);
                                 }
                             }
                             else
                             {
-                                if (cnx.getAutoCommit())
+                                if (state.getAutoCommit(cnx))
                                 {
-                                    cnx.setAutoCommit(false);
+                                    state.setAutoCommit(cnx, false);
                                 }
                                 if (rdba.supportsTransactionIsolation(reqdIsolationLevel))
                                 {
-                                    int currentIsolationLevel = cnx.getTransactionIsolation();
+                                    int currentIsolationLevel = state.getTransactionIsolation(cnx);
                                     if (currentIsolationLevel != reqdIsolationLevel)
                                     {
-                                        cnx.setTransactionIsolation(reqdIsolationLevel);
+                                        state.setTransactionIsolation(cnx, reqdIsolationLevel);
                                     }
                                 }
                                 else
@@ -440,19 +669,20 @@ public class ConnectionFactoryImpl extends AbstractConnectionFactory
                             if (NucleusLogger.CONNECTION.isDebugEnabled())
                             {
                                 NucleusLogger.CONNECTION.debug(Localiser.msg("009012", this.toString(),
-                                    TransactionUtils.getNameForTransactionIsolationLevel(reqdIsolationLevel), cnx.getAutoCommit()));
+                                    TransactionUtils.getNameForTransactionIsolationLevel(reqdIsolationLevel), state.getAutoCommit(cnx)));
                             }
 
                             if (reqdIsolationLevel != isolation && isolation == TransactionIsolation.NONE)
                             {
                                 // User asked for a level that implies auto-commit so make sure it has that
-                                if (!cnx.getAutoCommit())
+                                if (!state.getAutoCommit(cnx))
                                 {
                                     NucleusLogger.CONNECTION.debug("Setting autocommit=true for connection: "+StringUtils.toJVMIDString(cnx));
-                                    cnx.setAutoCommit(true);
+                                    state.setAutoCommit(cnx, true);
                                 }
                             }
 
+                            connState = state;
                             succeeded = true;
                         }
                         catch (SQLException e)
@@ -463,6 +693,12 @@ public class ConnectionFactoryImpl extends AbstractConnectionFactory
                         {
                             if (!succeeded)
                             {
+                                // State of the connection is not known
+                                state.clear();
+                                if (replicaConnProvider != null)
+                                {
+                                    replicaConnProvider.connectionClosed(cnx);
+                                }
                                 try
                                 {
                                     cnx.close();
@@ -523,7 +759,7 @@ public class ConnectionFactoryImpl extends AbstractConnectionFactory
                     if (commitOnRelease && needsCommitting)
                     {
                         // Non-transactional context, so need to commit the connection
-                        if (!conn.isClosed() && !conn.getAutoCommit())
+                        if (!conn.isClosed() && !getAutoCommit(conn))
                         {
                             // Make sure any remaining statements are executed and commit the connection
                             SQLController sqlController = ((RDBMSStoreManager)storeMgr).getSQLController();
@@ -547,6 +783,10 @@ public class ConnectionFactoryImpl extends AbstractConnectionFactory
                 }
                 finally
                 {
+                    if (replicaConnProvider != null)
+                    {
+                        replicaConnProvider.connectionClosed(conn);
+                    }
                     try
                     {
                         if (!conn.isClosed())
@@ -583,11 +823,23 @@ public class ConnectionFactoryImpl extends AbstractConnectionFactory
             }
             this.xaRes = null;
             this.connProvider = null;
+            this.connState = null;
             this.ec = null;
 
             super.close();
         }
 
+        /**
+         * Accessor for the auto-commit of the connection, using the state of the connection when known.
+         * @param conn The connection
+         * @return Whether the connection is auto-commit
+         * @throws SQLException if the auto-commit can't be read
+         */
+        private boolean getAutoCommit(Connection conn) throws SQLException
+        {
+            return (connState != null) ? connState.getAutoCommit(conn) : conn.getAutoCommit();
+        }
+
         /**
          * Convenience accessor for the java.sql.Connection in use (if any).
          * @return SQL Connection
@@ -17,23 +17,38 @@ Contributors:
 **********************************************************************/
 package org.datanucleus.store.rdbms;
 
+import java.sql.SQLException;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 
+import org.datanucleus.ClassLoaderResolver;
 import org.datanucleus.ExecutionContext;
+import org.datanucleus.exceptions.NucleusDataStoreException;
 import org.datanucleus.exceptions.NucleusOptimisticException;
 import org.datanucleus.metadata.AbstractClassMetaData;
+import org.datanucleus.metadata.AbstractMemberMetaData;
+import org.datanucleus.metadata.RelationType;
 import org.datanucleus.state.ObjectProvider;
+import org.datanucleus.store.connection.ManagedConnection;
+import org.datanucleus.store.rdbms.adapter.DatastoreAdapter;
 import org.datanucleus.store.rdbms.table.ClassTable;
 import org.datanucleus.flush.FlushNonReferential;
 import org.datanucleus.flush.FlushOrdered;
 import org.datanucleus.flush.OperationQueue;
+import org.datanucleus.util.Localiser;
 
 /**
  * Flush process extending the core "ordered flush" to catch particular situations present
  * in a referential datastore and attempt to optimise them.
+ * <ul>
+ * <li>Objects of classes with no relations are processed first, grouped by type so their statements can be batched.</li>
+ * <li>New objects whose related objects (via FK) are all already flushed are then inserted in rounds, grouped by type,
+ * so that their INSERTs can be batched. The batches are processed at the end of each round, so the objects (and any identity
+ * generated for them) are in the datastore, making the related objects of further objects flushed.</li>
+ * <li>Any remaining objects are processed using the core "ordered flush".</li>
+ * </ul>
  */
 public class FlushReferential extends FlushOrdered
 {
@@ -85,12 +100,26 @@ public class FlushReferential extends FlushOrdered
         if (unrelatedOPs != null)
         {
             // Process DELETEs, then INSERTs, then UPDATEs
-            FlushNonReferential groupedFlush = new FlushNonReferential();
-            flushExcps = groupedFlush.flushDeleteInsertUpdateGrouped(unrelatedOPs, ec);
+            flushExcps = flushGrouped(ec, unrelatedOPs);
+            processBatchedStatements(ec);
         }
 
-        // Phase 2 : Fallback to FlushOrdered handling for remaining objects
-        List<NucleusOptimisticException> excps = super.execute(ec, primaryOPs, secondaryOPs, opQueue);
+        // Phase 2 : Insert new objects whose related objects are already flushed, in dependency order
+        List<NucleusOptimisticException> excps = flushNewObjectsWithRelatedObjectsFlushed(ec, primaryOPs, secondaryOPs);
+        if (excps != null)
+        {
+            if (flushExcps == null)
+            {
+                flushExcps = excps;
+            }
+            else
+            {
+                flushExcps.addAll(excps);
+            }
+        }
+
+        // Phase 3 : Fallback to FlushOrdered handling for remaining objects
+        excps = super.execute(ec, primaryOPs, secondaryOPs, opQueue);
 
         // Return any exceptions
         if (excps != null)
@@ -107,18 +136,218 @@ public class FlushReferential extends FlushOrdered
         return flushExcps;
     }
 
+    /**
+     * Method to insert the new objects whose related objects (via FK in their tables) are already flushed, in rounds.
+     * Each round inserts the objects found, grouped by type, and then processes the batched statements. The objects of a round
+     * can then be the related objects of the objects in the next round.
+     * @param ec ExecutionContext
+     * @param primaryOPs Primary ObjectProviders still to be flushed (updated)
+     * @param secondaryOPs Secondary ObjectProviders still to be flushed (updated)
+     * @return Any optimistic exceptions
+     */
+    List<NucleusOptimisticException> flushNewObjectsWithRelatedObjectsFlushed(ExecutionContext ec, List<ObjectProvider> primaryOPs,
+        List<ObjectProvider> secondaryOPs)
+    {
+        List<NucleusOptimisticException> flushExcps = null;
+        while (true)
+        {
+            Set<ObjectProvider> insertableOPs = addNewObjectsWithRelatedObjectsFlushed(ec, primaryOPs, null);
+            insertableOPs = addNewObjectsWithRelatedObjectsFlushed(ec, secondaryOPs, insertableOPs);
+            if (insertableOPs == null)
+            {
+                break;
+            }
+
+            List<NucleusOptimisticException> excps = flushGrouped(ec, insertableOPs);
+            if (excps != null)
+            {
+                if (flushExcps == null)
+                {
+                    flushExcps = excps;
+                }
+                else
+                {
+                    flushExcps.addAll(excps);
+                }
+            }
+            processBatchedStatements(ec);
+        }
+        return flushExcps;
+    }
+
+    /**
+     * Method to flush the supplied objects grouped by type, processing DELETEs, then INSERTs, then UPDATEs.
+     * @param ec ExecutionContext
+     * @param ops The ObjectProviders to flush
+     * @return Any optimistic exceptions
+     */
+    List<NucleusOptimisticException> flushGrouped(ExecutionContext ec, Set<ObjectProvider> ops)
+    {
+        FlushNonReferential groupedFlush = new FlushNonReferential();
+        return groupedFlush.flushDeleteInsertUpdateGrouped(ops, ec);
+    }
+
+    /**
+     * Method to process the statements batched for the connection of the ExecutionContext, so that the objects inserted are in
+     * the datastore (with any identity assigned) before objects relating to them are flushed.
+     * @param ec ExecutionContext
+     */
+    void processBatchedStatements(ExecutionContext ec)
+    {
+        RDBMSStoreManager storeMgr = (RDBMSStoreManager) ec.getStoreManager();
+        ManagedConnection mconn = storeMgr.getConnection(ec);
+        try
+        {
+            storeMgr.getSQLController().processStatementsForConnection(mconn);
+        }
+        catch (SQLException sqle)
+        {
+            throw new NucleusDataStoreException(Localiser.msg("052108"), sqle);
+        }
+        finally
+        {
+            mconn.release();
+        }
+    }
+
+    /**
+     * Convenience method to remove the new objects from the supplied list that can be inserted now with their related objects
+     * (via FK in their tables) already flushed, adding them to the supplied set.
+     * @param ec ExecutionContext
+     * @param ops The ObjectProviders still to be flushed (updated)
+     * @param insertableOPs Set to add the insertable ObjectProviders to (or null, in which case it is created when needed)
+     * @return The set of insertable ObjectProviders (or null if none)
+     */
+    private Set<ObjectProvider> addNewObjectsWithRelatedObjectsFlushed(ExecutionContext ec, List<ObjectProvider> ops, Set<ObjectProvider> insertableOPs)
+    {
+        if (ops == null)
+        {
+            return insertableOPs;
+        }
+
+        Iterator<ObjectProvider> opIter = ops.iterator();
+        while (opIter.hasNext())
+        {
+            ObjectProvider op = opIter.next();
+            if (!op.isEmbedded() && op.isWaitingToBeFlushedToDatastore() && isClassTablesSuitableForBatching(ec, op.getClassMetaData()) &&
+                isRelatedObjectsFlushed(ec, op))
+            {
+                if (insertableOPs == null)
+                {
+                    insertableOPs = new HashSet<>();
+                }
+                insertableOPs.add(op);
+                opIter.remove();
+            }
+        }
+        return insertableOPs;
+    }
+
+    /**
+     * Convenience method to check whether the objects that the supplied (new) object refers to with a FK are all in the datastore.
+     * @param ec ExecutionContext
+     * @param op ObjectProvider of the new object
+     * @return Whether the related objects are all flushed
+     */
+    boolean isRelatedObjectsFlushed(ExecutionContext ec, ObjectProvider op)
+    {
+        int[] memberPositions = getRelatedObjectMemberPositions(ec, op.getClassMetaData());
+        if (memberPositions == null)
+        {
+            return false;
+        }
+        for (int i=0;i<memberPositions.length;i++)
+        {
+            Object value = op.provideField(memberPositions[i]);
+            if (value != null)
+            {
+                if (ec.getApiAdapter().isDetached(value))
+                {
+                    return false;
+                }
+                ObjectProvider valueOP = ec.findObjectProvider(value);
+                if (valueOP == null || valueOP.isWaitingToBeFlushedToDatastore())
+                {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Accessor for the absolute positions of the members of the class that relate to another object with a FK in the table
+     * of the class.
+     * @param ec ExecutionContext
+     * @param cmd Metadata for the class
+     * @return The member positions, or null if any of these relations is embedded or serialised (so isn't a FK)
+     */
+    int[] getRelatedObjectMemberPositions(ExecutionContext ec, AbstractClassMetaData cmd)
+    {
+        ClassLoaderResolver clr = ec.getClassLoaderResolver();
+        int[] memberPositions = cmd.getAllMemberPositions();
+        int[] relatedPositions = new int[memberPositions.length];
+        int numRelated = 0;
+        for (int i=0;i<memberPositions.length;i++)
+        {
+            AbstractMemberMetaData mmd = cmd.getMetaDataForManagedMemberAtAbsolutePosition(memberPositions[i]);
+            RelationType relationType = mmd.getRelationType(clr);
+            if (relationType == RelationType.NONE || mmd.getMappedBy() != null)
+            {
+                // No relation, or the FK is at the other side
+                continue;
+            }
+            if (!RelationType.isRelationSingleValued(relationType))
+            {
+                // Multi-valued relations are persisted after the owner is inserted
+                continue;
+            }
+            if (mmd.isEmbedded() || mmd.isSerialized())
+            {
+                return null;
+            }
+            relatedPositions[numRelated++] = memberPositions[i];
+        }
+
+        int[] positions = new int[numRelated];
+        System.arraycopy(relatedPositions, 0, positions, 0, numRelated);
+        return positions;
+    }
+
     private boolean isClassSuitableForBatching(ExecutionContext ec, AbstractClassMetaData cmd)
     {
         if (cmd.hasRelations(ec.getClassLoaderResolver(), ec.getMetaDataManager()))
         {
             return false;
         }
+        return isClassTablesSuitableForBatching(ec, cmd);
+    }
 
+    /**
+     * Convenience method to check whether the INSERTs of objects of the class can be batched, based on its tables.
+     * @param ec ExecutionContext
+     * @param cmd Metadata for the class
+     * @return Whether the tables are suitable for batching
+     */
+    boolean isClassTablesSuitableForBatching(ExecutionContext ec, AbstractClassMetaData cmd)
+    {
         RDBMSStoreManager storeMgr = (RDBMSStoreManager) ec.getStoreManager();
         ClassTable table = (ClassTable)storeMgr.getDatastoreClass(cmd.getFullClassName(), ec.getClassLoaderResolver());
+        if (table == null)
+        {
+            // Subclass-table, so stored in the tables of subclasses
+            return false;
+        }
+
+        // A table with an identity column can only be batched when the datastore returns the generated keys of a batch, and the
+        // class has no other table (whose INSERT would need the identity)
+        DatastoreAdapter dba = storeMgr.getDatastoreAdapter();
+        boolean identityBatchable = dba.supportsOption(DatastoreAdapter.GET_GENERATED_KEYS_STATEMENT) &&
+            dba.supportsOption(DatastoreAdapter.GET_GENERATED_KEYS_STATEMENT_BATCH) && table.getSuperDatastoreClass() == null &&
+            (table.getSecondaryDatastoreClasses() == null || table.getSecondaryDatastoreClasses().isEmpty());
         while (true)
         {
-            if (!isTableSuitableForBatching(table))
+            if (!isTableSuitableForBatching(table, identityBatchable))
             {
                 return false;
             }
@@ -133,13 +362,13 @@ public class FlushReferential extends FlushOrdered
         return true;
     }
 
-    private boolean isTableSuitableForBatching(ClassTable table)
+    private boolean isTableSuitableForBatching(ClassTable table, boolean identityBatchable)
     {
         if (table.hasExternalFkMappings())
         {
             return false;
         }
-        else if (table.isObjectIdDatastoreAttributed())
+        else if (table.isObjectIdDatastoreAttributed() && !identityBatchable)
         {
             return false;
         }
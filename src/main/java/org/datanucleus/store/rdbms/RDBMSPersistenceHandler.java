@@ -26,6 +26,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.datanucleus.ClassLoaderResolver;
 import org.datanucleus.ExecutionContext;
@@ -65,6 +66,9 @@ public class RDBMSPersistenceHandler extends AbstractPersistenceHandler
     /** The cache of database requests. Access is synchronized on the map object itself. */
     private Map<RequestIdentifier, Request> requestsByID = Collections.synchronizedMap(new SoftValueMap());
 
+    /** The cache of bulk locate requests, keyed by the (root) table. */
+    private Map<DatastoreClass, LocateBulkRequest> locateBulkRequestsByTable = new ConcurrentHashMap<>();
+
     /**
      * Constructor.
      * @param storeMgr StoreManager
@@ -81,6 +85,7 @@ public class RDBMSPersistenceHandler extends AbstractPersistenceHandler
     {
         requestsByID.clear();
         requestsByID = null;
+        locateBulkRequestsByTable.clear();
     }
 
     private DatastoreClass getDatastoreClass(String className, ClassLoaderResolver clr)
@@ -212,6 +217,110 @@ public class RDBMSPersistenceHandler extends AbstractPersistenceHandler
         ClassLoaderResolver clr = ec.getClassLoaderResolver();
 
         // Extract metadata of members to process
+        AbstractMemberMetaData[] mmds = getMemberMetaDataToFetch(op, memberNumbers, clr);
+
+        if (op.isEmbedded())
+        {
+            StringBuilder str = new StringBuilder();
+            if (mmds != null)
+            {
+                for (int i=0;i<mmds.length;i++)
+                {
+                    if (i > 0)
+                    {
+                        str.append(',');
+                    }
+                    str.append(mmds[i].getName());
+                }
+            }
+            NucleusLogger.PERSISTENCE.info("Request to load fields \"" + str.toString() +
+                "\" of class " + op.getClassMetaData().getFullClassName() + " but object is embedded, so ignored");
+        }
+        else
+        {
+            if (ec.getStatistics() != null)
+            {
+                ec.getStatistics().incrementFetchCount();
+            }
+
+            DatastoreClass table = getDatastoreClass(op.getClassMetaData().getFullClassName(), clr);
+            Request req = getFetchRequest(table, mmds, op.getClassMetaData(), clr);
+            req.execute(op);
+        }
+    }
+
+    /**
+     * Fetches (fields of) many persistent objects from the database.
+     * The objects are grouped by their table and the members to be fetched, and each group is fetched using a single
+     * SELECT restricting to the identities of the objects (where the identity is stored in a single column).
+     * @param memberNumbers The numbers of the members to be fetched.
+     * @param ops Object Providers of the objects to be fetched.
+     * @throws NucleusObjectNotFoundException if any of the objects don't exist
+     * @throws NucleusDataStoreException when an error occurs in the datastore communication
+     * @see org.datanucleus.store.AbstractPersistenceHandler#fetchObjects(int[], org.datanucleus.state.ObjectProvider[])
+     */
+    @Override
+    public void fetchObjects(int[] memberNumbers, ObjectProvider... ops)
+    {
+        if (ops == null || ops.length == 0)
+        {
+            return;
+        }
+        else if (ops.length == 1)
+        {
+            fetchObject(ops[0], memberNumbers);
+            return;
+        }
+
+        ExecutionContext ec = ops[0].getExecutionContext();
+        ClassLoaderResolver clr = ec.getClassLoaderResolver();
+        Map<RequestIdentifier, List<ObjectProvider>> opsByRequest = new HashMap<>();
+        Map<RequestIdentifier, FetchRequest> requests = new HashMap<>();
+        for (int i=0;i<ops.length;i++)
+        {
+            ObjectProvider op = ops[i];
+            if (op.isEmbedded())
+            {
+                fetchObject(op, memberNumbers);
+                continue;
+            }
+
+            AbstractMemberMetaData[] mmds = getMemberMetaDataToFetch(op, memberNumbers, clr);
+            if (ec.getStatistics() != null)
+            {
+                ec.getStatistics().incrementFetchCount();
+            }
+
+            AbstractClassMetaData cmd = op.getClassMetaData();
+            DatastoreClass table = getDatastoreClass(cmd.getFullClassName(), clr);
+            RequestIdentifier reqID = new RequestIdentifier(table, mmds, RequestType.FETCH, cmd.getFullClassName());
+            List<ObjectProvider> reqOps = opsByRequest.get(reqID);
+            if (reqOps == null)
+            {
+                reqOps = new ArrayList<>();
+                opsByRequest.put(reqID, reqOps);
+                requests.put(reqID, (FetchRequest)getFetchRequest(table, mmds, cmd, clr));
+            }
+            reqOps.add(op);
+        }
+
+        for (Map.Entry<RequestIdentifier, List<ObjectProvider>> entry : opsByRequest.entrySet())
+        {
+            List<ObjectProvider> reqOps = entry.getValue();
+            requests.get(entry.getKey()).execute(reqOps.toArray(new ObjectProvider[reqOps.size()]));
+        }
+    }
+
+    /**
+     * Convenience method to return the metadata of the members to fetch for the specified object, adding any other
+     * unloaded members that can be fetched in the same SELECT when "datanucleus.rdbms.fetchUnloadedAutomatically" is set.
+     * @param op Object Provider of the object to be fetched.
+     * @param memberNumbers The numbers of the members requested.
+     * @param clr ClassLoader resolver
+     * @return MetaData for the members to fetch (or null if none requested)
+     */
+    private AbstractMemberMetaData[] getMemberMetaDataToFetch(ObjectProvider op, int[] memberNumbers, ClassLoaderResolver clr)
+    {
         AbstractMemberMetaData[] mmds = null;
         if (memberNumbers != null && memberNumbers.length > 0)
         {
@@ -289,35 +398,7 @@ public class RDBMSPersistenceHandler extends AbstractPersistenceHandler
                 mmds[i] = cmd.getMetaDataForManagedMemberAtAbsolutePosition(memberNumbersToProcess[i]);
             }
         }
-
-        if (op.isEmbedded())
-        {
-            StringBuilder str = new StringBuilder();
-            if (mmds != null)
-            {
-                for (int i=0;i<mmds.length;i++)
-                {
-                    if (i > 0)
-                    {
-                        str.append(',');
-                    }
-                    str.append(mmds[i].getName());
-                }
-            }
-            NucleusLogger.PERSISTENCE.info("Request to load fields \"" + str.toString() +
-                "\" of class " + op.getClassMetaData().getFullClassName() + " but object is embedded, so ignored");
-        }
-        else
-        {
-            if (ec.getStatistics() != null)
-            {
-                ec.getStatistics().incrementFetchCount();
-            }
-
-            DatastoreClass table = getDatastoreClass(op.getClassMetaData().getFullClassName(), clr);
-            Request req = getFetchRequest(table, mmds, op.getClassMetaData(), clr);
-            req.execute(op);
-        }
+        return mmds;
     }
 
     /**
@@ -560,7 +641,12 @@ public class RDBMSPersistenceHandler extends AbstractPersistenceHandler
 
             // TODO This just uses the base table. Could change to use the most-derived table
             // which would permit us to join to supertables and load more fields during this process
-            LocateBulkRequest req = new LocateBulkRequest(table);
+            LocateBulkRequest req = locateBulkRequestsByTable.get(table);
+            if (req == null)
+            {
+                req = new LocateBulkRequest(table);
+                locateBulkRequestsByTable.put(table, req);
+            }
             req.execute(tableOps.toArray(new ObjectProvider[tableOps.size()]));
         }
     }
@@ -634,6 +720,7 @@ public class RDBMSPersistenceHandler extends AbstractPersistenceHandler
         {
             requestsByID.clear();
         }
+        locateBulkRequestsByTable.clear();
     }
 
     /**
@@ -657,6 +744,7 @@ public class RDBMSPersistenceHandler extends AbstractPersistenceHandler
                 }
             }
         }
+        locateBulkRequestsByTable.remove(table);
     }
 
     /**
@@ -675,6 +763,7 @@ public class RDBMSPersistenceHandler extends AbstractPersistenceHandler
             if (dynamicSchemaFM.hasPerformedSchemaUpdates())
             {
                 requestsByID.clear();
+                locateBulkRequestsByTable.clear();
             }
         }
     }
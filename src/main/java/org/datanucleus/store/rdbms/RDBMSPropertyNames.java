@@ -29,6 +29,7 @@ public class RDBMSPropertyNames
     public static final String PROPERTY_RDBMS_TABLE_COLUMN_ORDER = "datanucleus.rdbms.tableColumnOrder";
 
     public static final String PROPERTY_RDBMS_CLASS_ADDER_MAX_RETRIES = "datanucleus.rdbms.classAdditionMaxRetries";
+    public static final String PROPERTY_RDBMS_CLASS_ADDER_VALIDATION_THREADS = "datanucleus.rdbms.classAdditionValidationThreads";
     public static final String PROPERTY_RDBMS_DISCRIM_PER_SUBCLASS_TABLE = "datanucleus.rdbms.discriminatorPerSubclassTable";
     public static final String PROPERTY_RDBMS_CONSTRAINT_CREATE_MODE = "datanucleus.rdbms.constraintCreateMode";
     public static final String PROPERTY_RDBMS_UNIQUE_CONSTRAINTS_MAP_INVERSE = "datanucleus.rdbms.uniqueConstraints.mapInverse";
@@ -41,6 +42,13 @@ public class RDBMSPropertyNames
     public static final String PROPERTY_RDBMS_SCHEMA_TABLE_NAME = "datanucleus.rdbms.schemaTable.tableName";
     public static final String PROPERTY_RDBMS_CONNECTION_PROVIDER_NAME = "datanucleus.rdbms.connectionProviderName";
     public static final String PROPERTY_RDBMS_CONNECTION_PROVIDER_FAIL_ON_ERROR = "datanucleus.rdbms.connectionProviderFailOnError";
+    public static final String PROPERTY_RDBMS_SCHEMA_INFO_SNAPSHOT_FILE = "datanucleus.rdbms.schemaInfoSnapshot.file";
+    public static final String PROPERTY_RDBMS_SCHEMA_INFO_SNAPSHOT_VALIDATION_QUERY = "datanucleus.rdbms.schemaInfoSnapshot.validationQuery";
+    public static final String PROPERTY_RDBMS_CONNECTION_STATE_CACHING = "datanucleus.rdbms.connectionStateCaching";
+    public static final String PROPERTY_RDBMS_READ_REPLICA_CONNECTION_FACTORY = "datanucleus.rdbms.readReplica.connectionFactory";
+    public static final String PROPERTY_RDBMS_READ_REPLICA_CONNECTION_FACTORY_NAME = "datanucleus.rdbms.readReplica.connectionFactoryName";
+    public static final String PROPERTY_RDBMS_READ_REPLICA_BALANCING = "datanucleus.rdbms.readReplica.balancing";
+    public static final String PROPERTY_RDBMS_READ_REPLICA_EJECTION_PERIOD = "datanucleus.rdbms.readReplica.ejectionPeriod";
     public static final String PROPERTY_RDBMS_DATASTORE_ADAPTER_CLASS_NAME = "datanucleus.rdbms.datastoreAdapterClassName";
     public static final String PROPERTY_RDBMS_OMIT_DATABASEMETADATA_GETCOLUMNS = "datanucleus.rdbms.omitDatabaseMetaDataGetColumns";
     public static final String PROPERTY_RDBMS_ALLOW_COLUMN_REUSE = "datanucleus.rdbms.allowColumnReuse";
@@ -50,11 +58,20 @@ public class RDBMSPropertyNames
     public static final String PROPERTY_RDBMS_QUERY_FETCH_DIRECTION = "datanucleus.rdbms.query.fetchDirection";
     public static final String PROPERTY_RDBMS_QUERY_RESULT_SET_TYPE = "datanucleus.rdbms.query.resultSetType";
     public static final String PROPERTY_RDBMS_QUERY_RESULT_SET_CONCURRENCY = "datanucleus.rdbms.query.resultSetConcurrency";
+    public static final String PROPERTY_RDBMS_QUERY_USE_READ_REPLICA = "datanucleus.rdbms.query.useReadReplica";
+    public static final String PROPERTY_RDBMS_QUERY_RESULT_WINDOW_BLOCK_SIZE = "datanucleus.rdbms.query.resultWindowBlockSize";
+    public static final String PROPERTY_RDBMS_QUERY_RESULT_WINDOW_MAX_ROWS = "datanucleus.rdbms.query.resultWindowMaxRows";
     public static final String PROPERTY_RDBMS_FETCH_UNLOADED_AUTO = "datanucleus.rdbms.fetchUnloadedAutomatically";
+    public static final String PROPERTY_RDBMS_STREAMING_COLLECTION_ITERATORS = "datanucleus.rdbms.streamingCollectionIterators";
+    public static final String PROPERTY_RDBMS_COMPILED_ROW_READERS = "datanucleus.rdbms.compiledRowReaders";
 
     public static final String PROPERTY_RDBMS_SQL_TABLE_NAMING_STRATEGY = "datanucleus.rdbms.sqlTableNamingStrategy";
     public static final String PROPERTY_RDBMS_STATEMENT_LOGGING = "datanucleus.rdbms.statementLogging";
     public static final String PROPERTY_RDBMS_STATEMENT_BATCH_LIMIT = "datanucleus.rdbms.statementBatchLimit";
+    public static final String PROPERTY_RDBMS_STATEMENT_BATCH_MAX_PENDING = "datanucleus.rdbms.statementBatchMaxPending";
+    public static final String PROPERTY_RDBMS_FLUSH_REFERENTIAL = "datanucleus.rdbms.flushReferential";
+    public static final String PROPERTY_RDBMS_VALUEGEN_PREFETCH_THRESHOLD = "datanucleus.rdbms.valuegeneration.prefetchThreshold";
+    public static final String PROPERTY_RDBMS_VALUEGEN_STRIPES = "datanucleus.rdbms.valuegeneration.stripes";
 
     // TODO Likely these should move to core plugin
     public static final String PROPERTY_CONNECTION_POOL_MAX_CONNECTIONS = "datanucleus.connectionPool.maxConnections";
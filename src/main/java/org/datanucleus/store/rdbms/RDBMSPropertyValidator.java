@@ -81,6 +81,8 @@ public class RDBMSPropertyValidator implements PropertyValidator
             {
                 String strVal = (String)value;
                 if (strVal.equalsIgnoreCase("exists") ||
+                    strVal.equalsIgnoreCase("exists-ordered") ||
+                    strVal.equalsIgnoreCase("in") ||
                     strVal.equalsIgnoreCase("none"))
                 {
                     return true;
@@ -124,6 +126,18 @@ public class RDBMSPropertyValidator implements PropertyValidator
                 }
             }
         }
+        else if (name.equalsIgnoreCase(RDBMSPropertyNames.PROPERTY_RDBMS_READ_REPLICA_BALANCING))
+        {
+            if (value instanceof String)
+            {
+                String strVal = (String)value;
+                if (strVal.equalsIgnoreCase(ReadReplicaConnectionProvider.BALANCING_ROUND_ROBIN) ||
+                    strVal.equalsIgnoreCase(ReadReplicaConnectionProvider.BALANCING_LEAST_BUSY))
+                {
+                    return true;
+                }
+            }
+        }
         else if (name.equalsIgnoreCase(RDBMSPropertyNames.PROPERTY_RDBMS_STATEMENT_LOGGING))
         {
             if (value instanceof String)
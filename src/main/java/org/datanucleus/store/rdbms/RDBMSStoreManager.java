@@ -68,7 +68,14 @@ import java.util.Set;
 import java.util.StringTokenizer;
 import java.util.TimeZone;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -121,6 +128,7 @@ import org.datanucleus.store.rdbms.exceptions.NoTableManagedException;
 import org.datanucleus.store.rdbms.exceptions.UnsupportedDataTypeException;
 import org.datanucleus.store.rdbms.fieldmanager.ParameterSetter;
 import org.datanucleus.store.rdbms.fieldmanager.ResultSetGetter;
+import org.datanucleus.store.rdbms.fieldmanager.ResultSetRowReader;
 import org.datanucleus.store.rdbms.identifier.DatastoreIdentifier;
 import org.datanucleus.store.rdbms.identifier.IdentifierFactory;
 import org.datanucleus.store.rdbms.identifier.IdentifierType;
@@ -163,6 +171,7 @@ import org.datanucleus.store.rdbms.table.ProbeTable;
 import org.datanucleus.store.rdbms.table.Table;
 import org.datanucleus.store.rdbms.table.TableImpl;
 import org.datanucleus.store.rdbms.table.ViewImpl;
+import org.datanucleus.store.rdbms.valuegenerator.AbstractRDBMSGenerator;
 import org.datanucleus.store.rdbms.valuegenerator.SequenceTable;
 import org.datanucleus.store.rdbms.valuegenerator.TableGenerator;
 import org.datanucleus.store.schema.SchemaAwareStoreManager;
@@ -239,6 +248,21 @@ public class RDBMSStoreManager extends AbstractStoreManager implements BackedSCO
      */
     protected ReadWriteLock schemaLock = new ReentrantReadWriteLock();
 
+    /**
+     * Immutable snapshot of the committed schema, so that table lookups for known classes/members don't need the schemaLock.
+     * Replaced (under the write lock of the schemaLock) whenever the managed classes change.
+     */
+    protected volatile SchemaSnapshot schemaSnapshot = SchemaSnapshot.EMPTY;
+
+    /**
+     * Index of the registered RDBMSStoreData (including uncommitted), keyed by the table identifier, to avoid scanning all StoreData.
+     * Updated as StoreData is registered, and rebuilt when StoreData is removed or rolled back. Guarded by the schemaLock.
+     */
+    protected Map<DatastoreIdentifier, List<RDBMSStoreData>> storeDataByTableIdentifier = new HashMap<>();
+
+    /** The RDBMSStoreData currently in storeDataByTableIdentifier, keyed by the StoreData name. Guarded by the schemaLock. */
+    protected Map<String, RDBMSStoreData> indexedStoreDataByName = new HashMap<>();
+
     /** Controller for SQL executed on this store. */
     private SQLController sqlController = null;
 
@@ -255,6 +279,9 @@ public class RDBMSStoreManager extends AbstractStoreManager implements BackedSCO
      */
     private ClassAdder classAdder = null;
 
+    /** Executor for reserving blocks of values in the background, when value generation prefetch is enabled. */
+    private ExecutorService valueGenerationExecutor = null;
+
     /** Writer for use when this RDBMSManager is configured to write DDL. */
     private Writer ddlWriter = null;
 
@@ -269,6 +296,9 @@ public class RDBMSStoreManager extends AbstractStoreManager implements BackedSCO
 
     private Map<String, Store> backingStoreByMemberName = new ConcurrentHashMap<>();
 
+    /** Whether to read the simple members of result rows using readers compiled for the statement mapping. */
+    private boolean compiledRowReaders = false;
+
     /**
      * Constructs a new RDBMSManager. 
      * On successful return the new RDBMSManager will have successfully connected to the database with the given
@@ -286,9 +316,18 @@ public class RDBMSStoreManager extends AbstractStoreManager implements BackedSCO
 
         mappedTypeMgr = new MappedTypeManager(nucleusContext);
         persistenceHandler = new RDBMSPersistenceHandler(this);
-        flushProcess = new FlushOrdered(); // TODO Change this to FlushReferential when we have it complete
+        if (getBooleanProperty(RDBMSPropertyNames.PROPERTY_RDBMS_FLUSH_REFERENTIAL))
+        {
+            // Flush grouping objects so their statements can be batched, in the order of their relations
+            flushProcess = new FlushReferential();
+        }
+        else
+        {
+            flushProcess = new FlushOrdered();
+        }
         schemaHandler = new RDBMSSchemaHandler(this);
         expressionFactory = new SQLExpressionFactory(this);
+        compiledRowReaders = getBooleanProperty(RDBMSPropertyNames.PROPERTY_RDBMS_COMPILED_ROW_READERS);
 
         // Retrieve the Database Adapter for this datastore
         try
@@ -360,6 +399,7 @@ public class RDBMSStoreManager extends AbstractStoreManager implements BackedSCO
                 // Create the SQL controller
                 sqlController = new SQLController(dba.supportsOption(DatastoreAdapter.STATEMENT_BATCHING), 
                     getIntProperty(RDBMSPropertyNames.PROPERTY_RDBMS_STATEMENT_BATCH_LIMIT),
+                    getIntProperty(RDBMSPropertyNames.PROPERTY_RDBMS_STATEMENT_BATCH_MAX_PENDING),
                     getIntProperty(PropertyNames.PROPERTY_DATASTORE_READ_TIMEOUT),
                     getStringProperty(RDBMSPropertyNames.PROPERTY_RDBMS_STATEMENT_LOGGING));
 
@@ -577,10 +617,29 @@ public class RDBMSStoreManager extends AbstractStoreManager implements BackedSCO
      */
     public StoreData[] getStoreDataForDatastoreContainerObject(DatastoreIdentifier tableIdentifier)
     {
+        StoreData[] ownerData = schemaSnapshot.ownerStoreDataByTableId.get(tableIdentifier);
+        if (ownerData != null)
+        {
+            return ownerData;
+        }
+
         schemaLock.readLock().lock();
         try
         {
-            return storeDataMgr.getStoreDataForProperties("tableId", tableIdentifier, "table-owner", "true");
+            List<RDBMSStoreData> tableData = storeDataByTableIdentifier.get(tableIdentifier);
+            if (tableData == null)
+            {
+                return null;
+            }
+            List<StoreData> tableOwnerData = new ArrayList<>(tableData.size());
+            for (RDBMSStoreData sd : tableData)
+            {
+                if (sd.isTableOwner())
+                {
+                    tableOwnerData.add(sd);
+                }
+            }
+            return tableOwnerData.isEmpty() ? null : tableOwnerData.toArray(new StoreData[tableOwnerData.size()]);
         }
         finally
         {
@@ -596,6 +655,12 @@ public class RDBMSStoreManager extends AbstractStoreManager implements BackedSCO
      */
     public Table getTable(AbstractMemberMetaData mmd)
     {
+        Table table = schemaSnapshot.tableByMember.get(mmd);
+        if (table != null)
+        {
+            return table;
+        }
+
         schemaLock.readLock().lock();
         try
         {
@@ -633,6 +698,13 @@ public class RDBMSStoreManager extends AbstractStoreManager implements BackedSCO
             return null;
         }
 
+        RDBMSStoreData knownData = schemaSnapshot.storeDataByClassName.get(className);
+        if (knownData != null)
+        {
+            // Class known about (will be null table for "subclass-table" etc)
+            return (DatastoreClass)knownData.getTable();
+        }
+
         schemaLock.readLock().lock();
         try
         {
@@ -713,20 +785,29 @@ public class RDBMSStoreManager extends AbstractStoreManager implements BackedSCO
         schemaLock.readLock().lock();
         try
         {
-            Iterator iterator = storeDataMgr.getManagedStoreData().iterator();
-            while (iterator.hasNext())
+            List<RDBMSStoreData> tableData = storeDataByTableIdentifier.get(name);
+            if (tableData == null)
             {
-                StoreData sd = (StoreData) iterator.next();
-                if (sd instanceof RDBMSStoreData)
+                return null;
+            }
+
+            // Prefer the StoreData of the class owning the table
+            DatastoreClass table = null;
+            for (RDBMSStoreData sd : tableData)
+            {
+                if (sd.getTable() instanceof DatastoreClass)
                 {
-                    RDBMSStoreData tsd = (RDBMSStoreData)sd;
-                    if (tsd.hasTable() && tsd.getDatastoreIdentifier().equals(name))
+                    if (sd.isTableOwner())
+                    {
+                        return (DatastoreClass) sd.getTable();
+                    }
+                    else if (table == null)
                     {
-                        return (DatastoreClass) tsd.getTable();
+                        table = (DatastoreClass) sd.getTable();
                     }
                 }
             }
-            return null;
+            return table;
         }
         finally
         {
@@ -1321,6 +1402,16 @@ public class RDBMSStoreManager extends AbstractStoreManager implements BackedSCO
      */
     public synchronized void close()
     {
+        if (valueGenerationExecutor != null)
+        {
+            valueGenerationExecutor.shutdownNow();
+            valueGenerationExecutor = null;
+        }
+        if (schemaHandler instanceof RDBMSSchemaHandler)
+        {
+            // Persist any schema information snapshot for the next start
+            ((RDBMSSchemaHandler)schemaHandler).saveSnapshot();
+        }
         dba = null;
         super.close();
         classAdder = null;
@@ -1337,6 +1428,26 @@ public class RDBMSStoreManager extends AbstractStoreManager implements BackedSCO
         return new NucleusSequenceImpl(ec, this, seqmd);
     }
 
+    /**
+     * Accessor for a connection for read-only work (e.g fetching fields, or a query) for the ExecutionContext.
+     * When there is no active transaction the connection can be obtained from a read replica (when configured),
+     * otherwise this is the same as {@link #getConnection(ExecutionContext)}.
+     * @param ec execution context
+     * @return The connection
+     */
+    public ManagedConnection getConnectionForRead(ExecutionContext ec)
+    {
+        if (ec.getTransaction().isActive())
+        {
+            return getConnection(ec);
+        }
+
+        ConnectionFactory cf = connectionMgr.lookupConnectionFactory(primaryConnectionFactoryName);
+        Map<String, Object> options = new HashMap<>();
+        options.put(ConnectionFactoryImpl.OPTION_READ_REPLICA, Boolean.TRUE);
+        return cf.getConnection(ec, ec.getTransaction(), options);
+    }
+
     /**
      * Method to return a NucleusConnection for the ExecutionContext.
      * @param ec execution context
@@ -1492,6 +1603,8 @@ public class RDBMSStoreManager extends AbstractStoreManager implements BackedSCO
     private void clearSchemaData()
     {
         deregisterAllStoreData();
+        rebuildStoreDataIndex();
+        publishSchemaSnapshot();
 
         // Clear and reinitialise the schemaHandler
         schemaHandler.clear();
@@ -1649,6 +1762,17 @@ public class RDBMSStoreManager extends AbstractStoreManager implements BackedSCO
         }
     }
 
+    /* (non-Javadoc)
+     * @see org.datanucleus.store.AbstractStoreManager#unmanageClass(org.datanucleus.ClassLoaderResolver, java.lang.String, boolean)
+     */
+    @Override
+    public void unmanageClass(ClassLoaderResolver clr, String className, boolean removeFromDatastore)
+    {
+        super.unmanageClass(clr, className, removeFromDatastore);
+        rebuildStoreDataIndex();
+        publishSchemaSnapshot();
+    }
+
     /**
      * Utility to remove all classes that we are managing.
      * @param clr The ClassLoaderResolver
@@ -1949,6 +2073,11 @@ public class RDBMSStoreManager extends AbstractStoreManager implements BackedSCO
 
     public FieldManager getFieldManagerForResultProcessing(ObjectProvider op, ResultSet rs, StatementClassMapping resultMappings)
     {
+        if (compiledRowReaders)
+        {
+            ResultSetRowReader rowReader = ResultSetRowReader.getReader(op.getClassMetaData(), resultMappings, op.getExecutionContext().getClassLoaderResolver());
+            return new ResultSetGetter(this, op, rs, resultMappings, rowReader);
+        }
         return new ResultSetGetter(this, op, rs, resultMappings);
     }
 
@@ -1998,73 +2127,116 @@ public class RDBMSStoreManager extends AbstractStoreManager implements BackedSCO
      */
     protected Object getStrategyValueForGenerator(ValueGenerator generator, final ExecutionContext ec)
     {
-        Object oid = null;
+        if (generator instanceof AbstractDatastoreGenerator)
+        {
+            // RDBMS-based generator so needs a connection provider for this ExecutionContext
+            ValueGenerationConnectionProvider connProvider = getConnectionProviderForGenerator((AbstractDatastoreGenerator)generator, ec);
+            if (generator instanceof AbstractRDBMSGenerator)
+            {
+                // Generator handles its own synchronisation, only using the connection provider when it needs more values
+                return ((AbstractRDBMSGenerator)generator).next(connProvider);
+            }
+
+            synchronized (generator)
+            {
+                // Note : this is synchronised since we dont want to risk handing out this generator
+                // while its connectionProvider is set to that of a different ExecutionContext
+                ((AbstractDatastoreGenerator)generator).setConnectionProvider(connProvider);
+                return generator.next();
+            }
+        }
+
         synchronized (generator)
         {
-            // Get the next value for this generator for this ExecutionContext
-            // Note : this is synchronised since we dont want to risk handing out this generator
-            // while its connectionProvider is set to that of a different ExecutionContext
-            // It maybe would be good to change ValueGenerator to have a next taking the connectionProvider
-            if (generator instanceof AbstractDatastoreGenerator)
+            return generator.next();
+        }
+    }
+
+    /**
+     * Method to return a provider of connections for use by the specified generator when reserving values for an ExecutionContext.
+     * @param generator The generator
+     * @param ec execution context
+     * @return The connection provider
+     */
+    protected ValueGenerationConnectionProvider getConnectionProviderForGenerator(AbstractDatastoreGenerator generator, final ExecutionContext ec)
+    {
+        final boolean newConnection = isNewConnectionForGenerator(generator);
+        final RDBMSStoreManager thisStoreMgr = this;
+        return new ValueGenerationConnectionProvider()
+        {
+            ManagedConnection mconn;
+            public ManagedConnection retrieveConnection()
             {
-                ConnectionPreference connPref = ((AbstractDatastoreGenerator)generator).getConnectionPreference();
-                final boolean newConnection;
-                if (connPref == ConnectionPreference.NONE)
+                if (newConnection)
                 {
-                    // No preference from the generator so use NEW unless overridden by the persistence property
-                    if (getStringProperty(PropertyNames.PROPERTY_VALUEGEN_TXN_ATTRIBUTE).equalsIgnoreCase("UsePM") || // TODO Deprecated
-                        getStringProperty(PropertyNames.PROPERTY_VALUEGEN_TXN_ATTRIBUTE).equalsIgnoreCase("EXISTING"))
-                    {
-                        newConnection = false;
-                    }
-                    else
-                    {
-                        newConnection = true;
-                    }
+                    mconn = thisStoreMgr.getConnection(TransactionUtils.getTransactionIsolationLevelForName(getStringProperty(PropertyNames.PROPERTY_VALUEGEN_TXN_ISOLATION)));
                 }
                 else
                 {
-                    newConnection = connPref == ConnectionPreference.NEW;
+                    mconn = thisStoreMgr.getConnection(ec);
                 }
+                return mconn;
+            }
 
-                // RDBMS-based generator so set the connection provider
-                final RDBMSStoreManager thisStoreMgr = this;
-                ValueGenerationConnectionProvider connProvider = new ValueGenerationConnectionProvider()
+            public void releaseConnection()
+            {
+                try
                 {
-                    ManagedConnection mconn;
-                    public ManagedConnection retrieveConnection()
-                    {
-                        if (newConnection)
-                        {
-                            mconn = thisStoreMgr.getConnection(TransactionUtils.getTransactionIsolationLevelForName(getStringProperty(PropertyNames.PROPERTY_VALUEGEN_TXN_ISOLATION)));
-                        }
-                        else
-                        {
-                            mconn = thisStoreMgr.getConnection(ec);
-                        }
-                        return mconn;
-                    }
+                    mconn.release();
+                    mconn = null;
+                }
+                catch (NucleusException e)
+                {
+                    String msg = Localiser.msg("050025", e);
+                    NucleusLogger.VALUEGENERATION.error(msg);
+                    throw new NucleusDataStoreException(msg, e);
+                }
+            }
+        };
+    }
 
-                    public void releaseConnection()
-                    {
-                        try
-                        {
-                            mconn.release();
-                            mconn = null;
-                        }
-                        catch (NucleusException e)
-                        {
-                            String msg = Localiser.msg("050025", e);
-                            NucleusLogger.VALUEGENERATION.error(msg);
-                            throw new NucleusDataStoreException(msg, e);
-                        }
-                    }
-                };
-                ((AbstractDatastoreGenerator)generator).setConnectionProvider(connProvider);
+    /**
+     * Method to return whether the specified generator should use a new connection (rather than that of the ExecutionContext)
+     * when reserving values.
+     * @param generator The generator
+     * @return Whether to use a new connection
+     */
+    public boolean isNewConnectionForGenerator(AbstractDatastoreGenerator generator)
+    {
+        ConnectionPreference connPref = generator.getConnectionPreference();
+        if (connPref == ConnectionPreference.NONE)
+        {
+            // No preference from the generator so use NEW unless overridden by the persistence property
+            if (getStringProperty(PropertyNames.PROPERTY_VALUEGEN_TXN_ATTRIBUTE).equalsIgnoreCase("UsePM") || // TODO Deprecated
+                getStringProperty(PropertyNames.PROPERTY_VALUEGEN_TXN_ATTRIBUTE).equalsIgnoreCase("EXISTING"))
+            {
+                return false;
             }
-            oid = generator.next();
+            return true;
+        }
+        return connPref == ConnectionPreference.NEW;
+    }
+
+    /**
+     * Accessor for the executor to use for reserving blocks of values in the background (see
+     * {@link RDBMSPropertyNames#PROPERTY_RDBMS_VALUEGEN_PREFETCH_THRESHOLD}). Created when first required.
+     * @return The executor
+     */
+    public synchronized ExecutorService getValueGenerationExecutor()
+    {
+        if (valueGenerationExecutor == null)
+        {
+            valueGenerationExecutor = Executors.newCachedThreadPool(new ThreadFactory()
+            {
+                public Thread newThread(Runnable r)
+                {
+                    Thread thread = new Thread(r, "DataNucleus-ValueGeneration");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
         }
-        return oid;
+        return valueGenerationExecutor;
     }
 
     /**
@@ -2434,6 +2606,7 @@ public class RDBMSStoreManager extends AbstractStoreManager implements BackedSCO
             return Collections.EMPTY_LIST;
         }
 
+        // Table info is replaced rather than updated when refreshed, so can be copied without the lock of the schema handler
         List cols = new ArrayList(tableInfo.getNumberOfChildren());
         cols.addAll(tableInfo.getChildren());
         return cols;
@@ -2448,9 +2621,15 @@ public class RDBMSStoreManager extends AbstractStoreManager implements BackedSCO
     public void invalidateColumnInfoForTable(Table table)
     {
         RDBMSSchemaInfo schemaInfo = (RDBMSSchemaInfo)schemaHandler.getSchemaData(null, "tables", null);
-        if (schemaInfo != null && schemaInfo.getNumberOfChildren() > 0)
+        if (schemaInfo != null)
         {
-            schemaInfo.getChildren().remove(table.getIdentifier().getFullyQualifiedName(true));
+            synchronized (schemaHandler)
+            {
+                if (schemaInfo.getNumberOfChildren() > 0)
+                {
+                    schemaInfo.getChildren().remove(table.getIdentifier().getFullyQualifiedName(true));
+                }
+            }
         }
     }
 
@@ -2804,6 +2983,165 @@ public class RDBMSStoreManager extends AbstractStoreManager implements BackedSCO
         }
     }
 
+    /* (non-Javadoc)
+     * @see org.datanucleus.store.AbstractStoreManager#registerStoreData(org.datanucleus.store.StoreData)
+     */
+    @Override
+    protected void registerStoreData(StoreData data)
+    {
+        super.registerStoreData(data);
+        if (data instanceof RDBMSStoreData)
+        {
+            indexStoreData((RDBMSStoreData)data);
+        }
+    }
+
+    /**
+     * Method to add the supplied StoreData to the index by table identifier, replacing any StoreData previously indexed with the same name.
+     * @param data The StoreData
+     */
+    protected void indexStoreData(RDBMSStoreData data)
+    {
+        schemaLock.writeLock().lock();
+        try
+        {
+            RDBMSStoreData previous = indexedStoreDataByName.put(data.getName(), data);
+            if (previous != null && previous.getDatastoreIdentifier() != null)
+            {
+                List<RDBMSStoreData> previousTableData = storeDataByTableIdentifier.get(previous.getDatastoreIdentifier());
+                if (previousTableData != null)
+                {
+                    previousTableData.remove(previous);
+                    if (previousTableData.isEmpty())
+                    {
+                        storeDataByTableIdentifier.remove(previous.getDatastoreIdentifier());
+                    }
+                }
+            }
+
+            if (data.hasTable() && data.getDatastoreIdentifier() != null)
+            {
+                List<RDBMSStoreData> tableData = storeDataByTableIdentifier.get(data.getDatastoreIdentifier());
+                if (tableData == null)
+                {
+                    tableData = new ArrayList<>(1);
+                    storeDataByTableIdentifier.put(data.getDatastoreIdentifier(), tableData);
+                }
+                tableData.add(data);
+            }
+        }
+        finally
+        {
+            schemaLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Method to rebuild the index of StoreData by table identifier from the currently registered StoreData.
+     * Used when StoreData is removed, or rolled back.
+     */
+    protected void rebuildStoreDataIndex()
+    {
+        schemaLock.writeLock().lock();
+        try
+        {
+            storeDataByTableIdentifier.clear();
+            indexedStoreDataByName.clear();
+            for (StoreData sd : storeDataMgr.getManagedStoreData())
+            {
+                if (sd instanceof RDBMSStoreData)
+                {
+                    indexStoreData((RDBMSStoreData)sd);
+                }
+            }
+        }
+        finally
+        {
+            schemaLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Method to publish a new snapshot of the schema from the currently registered StoreData, for lock-free lookups.
+     * Must be called whenever StoreData is committed or removed.
+     */
+    protected void publishSchemaSnapshot()
+    {
+        schemaLock.writeLock().lock();
+        try
+        {
+            schemaSnapshot = new SchemaSnapshot(storeDataMgr.getManagedStoreData());
+        }
+        finally
+        {
+            schemaLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Immutable snapshot of the tables for the managed classes and members at a point in time.
+     * Lookups that miss in the snapshot fall back to the StoreDataManager under the read lock of the schemaLock, which also covers
+     * the thread adding classes seeing its own (uncommitted) StoreData.
+     */
+    protected static class SchemaSnapshot
+    {
+        static final SchemaSnapshot EMPTY = new SchemaSnapshot(Collections.<StoreData>emptyList());
+
+        /** StoreData for each managed class, keyed by the class name. */
+        final Map<String, RDBMSStoreData> storeDataByClassName;
+
+        /** Table for each managed member with its own (join) table, keyed by the member metadata. */
+        final Map<AbstractMemberMetaData, Table> tableByMember;
+
+        /** StoreData of the classes/members owning each table, keyed by the table identifier. */
+        final Map<DatastoreIdentifier, StoreData[]> ownerStoreDataByTableId;
+
+        SchemaSnapshot(Collection<StoreData> storeData)
+        {
+            Map<String, RDBMSStoreData> dataByClassName = new HashMap<>();
+            Map<AbstractMemberMetaData, Table> tblByMember = new HashMap<>();
+            Map<DatastoreIdentifier, List<StoreData>> ownerDataByTableId = new HashMap<>();
+            for (StoreData sd : storeData)
+            {
+                if (!(sd instanceof RDBMSStoreData))
+                {
+                    continue;
+                }
+
+                RDBMSStoreData rdbmsData = (RDBMSStoreData)sd;
+                if (rdbmsData.isFCO())
+                {
+                    dataByClassName.put(rdbmsData.getName(), rdbmsData);
+                }
+                else if (rdbmsData.getMetaData() instanceof AbstractMemberMetaData && rdbmsData.hasTable())
+                {
+                    tblByMember.put((AbstractMemberMetaData)rdbmsData.getMetaData(), (Table)rdbmsData.getTable());
+                }
+
+                if (rdbmsData.isTableOwner() && rdbmsData.getDatastoreIdentifier() != null)
+                {
+                    List<StoreData> ownerData = ownerDataByTableId.get(rdbmsData.getDatastoreIdentifier());
+                    if (ownerData == null)
+                    {
+                        ownerData = new ArrayList<>(1);
+                        ownerDataByTableId.put(rdbmsData.getDatastoreIdentifier(), ownerData);
+                    }
+                    ownerData.add(rdbmsData);
+                }
+            }
+
+            Map<DatastoreIdentifier, StoreData[]> ownerArraysByTableId = new HashMap<>();
+            for (Map.Entry<DatastoreIdentifier, List<StoreData>> entry : ownerDataByTableId.entrySet())
+            {
+                ownerArraysByTableId.put(entry.getKey(), entry.getValue().toArray(new StoreData[entry.getValue().size()]));
+            }
+
+            this.storeDataByClassName = Collections.unmodifiableMap(dataByClassName);
+            this.tableByMember = Collections.unmodifiableMap(tblByMember);
+            this.ownerStoreDataByTableId = Collections.unmodifiableMap(ownerArraysByTableId);
+        }
+    }
+
     /**
      * A schema transaction that adds a set of classes to the RDBMSManager, making them usable for persistence.
      * <p>
@@ -2978,11 +3316,13 @@ public class RDBMSStoreManager extends AbstractStoreManager implements BackedSCO
                         if (!completed)
                         {
                             storeDataMgr.rollback();
+                            rebuildStoreDataIndex();
                             rollbackSchemaCreation(viewsCreated,tableConstraintsCreated,tablesCreated);
                         }
                         else
                         {
                             storeDataMgr.commit();
+                            publishSchemaSnapshot();
                         }
                         schemaDataAdded.clear();
                     }
@@ -3065,6 +3405,7 @@ public class RDBMSStoreManager extends AbstractStoreManager implements BackedSCO
                                     }
                                     superTable = (DatastoreClass) superData.getTable();
                                     data.setDatastoreContainerObject(superTable);
+                                    indexStoreData(data);
                                 }
                             }
                         }
@@ -3376,78 +3717,19 @@ public class RDBMSStoreManager extends AbstractStoreManager implements BackedSCO
             // a). Check for existence of the table
             // b). If autocreate, create the table if necessary
             // c). If validate, validate the table
-            Iterator i = tablesToValidate.iterator();
-            while (i.hasNext())
+            int numThreads = getIntProperty(RDBMSPropertyNames.PROPERTY_RDBMS_CLASS_ADDER_VALIDATION_THREADS);
+            if (numThreads > 1 && tablesToValidate.size() > 1 && ddlWriter == null &&
+                !rdbmsMgr.getSchemaHandler().isAutoCreateTables() && !rdbmsMgr.getSchemaHandler().isAutoCreateColumns())
             {
-                TableImpl t = (TableImpl) i.next();
-
-                boolean columnsValidated = false;
-                boolean columnsInitialised = false;
-                if (checkExistTablesOrViews)
-                {
-                    if (ddlWriter != null)
-                    {
-                        try
-                        {
-                            if (t instanceof ClassTable)
-                            {
-                                ddlWriter.write("-- Table " + t.toString() + " for classes " + StringUtils.objectArrayToString(((ClassTable)t).getManagedClasses()) + "\n");
-                            }
-                            else if (t instanceof JoinTable)
-                            {
-                                ddlWriter.write("-- Table " + t.toString() + " for join relationship\n");
-                            }
-                        }
-                        catch (IOException ioe)
-                        {
-                            NucleusLogger.DATASTORE_SCHEMA.error("error writing DDL into file for table " + t, ioe);
-                        }
-                    }
-
-                    if (!tablesCreated.contains(t) && t.exists(getCurrentConnection(), rdbmsMgr.getSchemaHandler().isAutoCreateTables()))
-                    {
-                        // Table has been created so add to our list so we don't process it multiple times
-                        // Any subsequent instance of this table in the list will have the columns checked only
-                        tablesCreated.add(t);
-                        columnsValidated = true;
-                    }
-                    else
-                    {
-                        // Table wasn't just created, so do any autocreate of columns necessary
-                        if (t.isInitializedModified() || rdbmsMgr.getSchemaHandler().isAutoCreateColumns())
-                        {
-                            // Check for existence of the required columns and add where required
-                            t.validateColumns(getCurrentConnection(), false, rdbmsMgr.getSchemaHandler().isAutoCreateColumns(), autoCreateErrors);
-                            columnsValidated = true;
-                        }
-                    }
-                }
-
-                if (rdbmsMgr.getSchemaHandler().isValidateTables() && !columnsValidated) // Table not just created and validation requested
-                {
-                    // Check down to the column structure where required
-                    t.validate(getCurrentConnection(), rdbmsMgr.getSchemaHandler().isValidateColumns(), false, autoCreateErrors);
-                    columnsInitialised = rdbmsMgr.getSchemaHandler().isValidateColumns();
-                }
-
-                if (!columnsInitialised)
+                // Validation only (no schema changes), so validate the tables in parallel, each thread using its own connection
+                validateTablesInParallel(tablesToValidate, numThreads, tablesCreated, autoCreateErrors);
+            }
+            else
+            {
+                for (Table tbl : tablesToValidate)
                 {
-                    // Allow initialisation of the column information TODO Arguably we should always do this
-                    String initInfo = getStringProperty(RDBMSPropertyNames.PROPERTY_RDBMS_INIT_COLUMN_INFO);
-                    if (initInfo.equalsIgnoreCase("PK"))
-                    {
-                        // Initialise the PK columns only
-                        t.initializeColumnInfoForPrimaryKeyColumns(getCurrentConnection());
-                    }
-                    else if (initInfo.equalsIgnoreCase("ALL"))
-                    {
-                        // Initialise all columns
-                        t.initializeColumnInfoFromDatastore(getCurrentConnection());
-                    }
+                    validateTable((TableImpl) tbl, getCurrentConnection(), tablesCreated, autoCreateErrors);
                 }
-
-                // Discard any cached column info used to validate the table
-                invalidateColumnInfoForTable(t);
             }
 
             // Table constraint existence and validation
@@ -3456,7 +3738,7 @@ public class RDBMSStoreManager extends AbstractStoreManager implements BackedSCO
             // c). If validate, validate the constraint
             // Constraint processing is done as a separate step from table processing
             // since the constraints are dependent on tables being available
-            i = tablesToValidate.iterator();
+            Iterator i = tablesToValidate.iterator();
             while (i.hasNext())
             {
                 TableImpl t = (TableImpl) i.next();
@@ -3510,6 +3792,193 @@ public class RDBMSStoreManager extends AbstractStoreManager implements BackedSCO
             return new List[] { tablesCreated, tableConstraintsCreated, autoCreateErrors };
         }
 
+        /**
+         * Method to check the existence of, and validate, the specified table (and its columns).
+         * @param t The table
+         * @param conn Connection to use
+         * @param tablesCreated List of the tables created, which the table is added to if created
+         * @param autoCreateErrors List of errors, which any auto creation errors are added to
+         * @throws SQLException When an error occurs in validation
+         */
+        private void validateTable(TableImpl t, Connection conn, List<Table> tablesCreated, List autoCreateErrors)
+        throws SQLException
+        {
+            boolean columnsValidated = false;
+            boolean columnsInitialised = false;
+            if (checkExistTablesOrViews)
+            {
+                if (ddlWriter != null)
+                {
+                    try
+                    {
+                        if (t instanceof ClassTable)
+                        {
+                            ddlWriter.write("-- Table " + t.toString() + " for classes " + StringUtils.objectArrayToString(((ClassTable)t).getManagedClasses()) + "\n");
+                        }
+                        else if (t instanceof JoinTable)
+                        {
+                            ddlWriter.write("-- Table " + t.toString() + " for join relationship\n");
+                        }
+                    }
+                    catch (IOException ioe)
+                    {
+                        NucleusLogger.DATASTORE_SCHEMA.error("error writing DDL into file for table " + t, ioe);
+                    }
+                }
+
+                if (!tablesCreated.contains(t) && t.exists(conn, rdbmsMgr.getSchemaHandler().isAutoCreateTables()))
+                {
+                    // Table has been created so add to our list so we don't process it multiple times
+                    // Any subsequent instance of this table in the list will have the columns checked only
+                    tablesCreated.add(t);
+                    columnsValidated = true;
+                }
+                else
+                {
+                    // Table wasn't just created, so do any autocreate of columns necessary
+                    if (t.isInitializedModified() || rdbmsMgr.getSchemaHandler().isAutoCreateColumns())
+                    {
+                        // Check for existence of the required columns and add where required
+                        t.validateColumns(conn, false, rdbmsMgr.getSchemaHandler().isAutoCreateColumns(), autoCreateErrors);
+                        columnsValidated = true;
+                    }
+                }
+            }
+
+            if (rdbmsMgr.getSchemaHandler().isValidateTables() && !columnsValidated) // Table not just created and validation requested
+            {
+                // Check down to the column structure where required
+                t.validate(conn, rdbmsMgr.getSchemaHandler().isValidateColumns(), false, autoCreateErrors);
+                columnsInitialised = rdbmsMgr.getSchemaHandler().isValidateColumns();
+            }
+
+            if (!columnsInitialised)
+            {
+                // Allow initialisation of the column information TODO Arguably we should always do this
+                String initInfo = getStringProperty(RDBMSPropertyNames.PROPERTY_RDBMS_INIT_COLUMN_INFO);
+                if (initInfo.equalsIgnoreCase("PK"))
+                {
+                    // Initialise the PK columns only
+                    t.initializeColumnInfoForPrimaryKeyColumns(conn);
+                }
+                else if (initInfo.equalsIgnoreCase("ALL"))
+                {
+                    // Initialise all columns
+                    t.initializeColumnInfoFromDatastore(conn);
+                }
+            }
+
+            // Discard any cached column info used to validate the table
+            invalidateColumnInfoForTable(t);
+        }
+
+        /**
+         * Method to validate the specified tables (existence, columns and primary key) in parallel, fanning them out over the specified
+         * number of threads, each with its own connection. Only used when no schema components are to be created, since any creation must
+         * be done using the connection of this schema transaction. Constraints are not validated here since determining the expected
+         * constraints can require lookups of other tables that need the schema lock held by this transaction.
+         * Waits for all tables to be processed, and throws the first exception from any thread.
+         * @param tablesToValidate The tables to validate
+         * @param numThreads Number of threads to use
+         * @param tablesCreated List of the tables created
+         * @param autoCreateErrors List of auto creation errors
+         * @throws SQLException When an error occurs in validation
+         */
+        private void validateTablesInParallel(List<Table> tablesToValidate, int numThreads, List<Table> tablesCreated, List autoCreateErrors)
+        throws SQLException
+        {
+            final Queue<Table> tablesQueue = new ConcurrentLinkedQueue<>(tablesToValidate);
+            final List<Table> tablesCreatedSync = Collections.synchronizedList(new ArrayList<Table>());
+            final List autoCreateErrorsSync = Collections.synchronizedList(new ArrayList());
+
+            numThreads = Math.min(numThreads, tablesToValidate.size());
+            if (NucleusLogger.DATASTORE_SCHEMA.isDebugEnabled())
+            {
+                NucleusLogger.DATASTORE_SCHEMA.debug(Localiser.msg("050058", tablesToValidate.size(), numThreads));
+            }
+            ExecutorService executor = Executors.newFixedThreadPool(numThreads, new ThreadFactory()
+            {
+                public Thread newThread(Runnable r)
+                {
+                    Thread thread = new Thread(r, "DataNucleus-SchemaValidation");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            try
+            {
+                List<Future<Void>> results = new ArrayList<>(numThreads);
+                for (int j=0; j<numThreads; j++)
+                {
+                    results.add(executor.submit(new Callable<Void>()
+                    {
+                        public Void call() throws SQLException
+                        {
+                            // Use a separate connection from the schema transaction, with the same isolation level
+                            ManagedConnection validationConn = rdbmsMgr.getConnection(isolationLevel);
+                            try
+                            {
+                                Connection conn = (Connection) validationConn.getConnection();
+                                Table tbl;
+                                while ((tbl = tablesQueue.poll()) != null)
+                                {
+                                    validateTable((TableImpl) tbl, conn, tablesCreatedSync, autoCreateErrorsSync);
+                                }
+                                return null;
+                            }
+                            finally
+                            {
+                                validationConn.release();
+                            }
+                        }
+                    }));
+                }
+
+                Throwable error = null;
+                for (Future<Void> result : results)
+                {
+                    try
+                    {
+                        result.get();
+                    }
+                    catch (ExecutionException ee)
+                    {
+                        if (error == null)
+                        {
+                            // Stop any other threads from taking further tables, and keep the first error
+                            tablesQueue.clear();
+                            error = ee.getCause();
+                        }
+                    }
+                    catch (InterruptedException ie)
+                    {
+                        Thread.currentThread().interrupt();
+                        throw new NucleusDataStoreException(Localiser.msg("050059"), ie);
+                    }
+                }
+
+                if (error instanceof SQLException)
+                {
+                    throw (SQLException) error;
+                }
+                else if (error instanceof RuntimeException)
+                {
+                    throw (RuntimeException) error;
+                }
+                else if (error instanceof Error)
+                {
+                    throw (Error) error;
+                }
+            }
+            finally
+            {
+                executor.shutdownNow();
+            }
+
+            tablesCreated.addAll(tablesCreatedSync);
+            autoCreateErrors.addAll(autoCreateErrorsSync);
+        }
+
         /**
          * Check if duplicated tables are in the list.
          * @param newTables the list of DatastoreContainerObject
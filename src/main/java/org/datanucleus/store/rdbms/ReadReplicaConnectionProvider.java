@@ -0,0 +1,184 @@
+/**********************************************************************
+Copyright (c) 2026 DataNucleus contributors. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+package org.datanucleus.store.rdbms;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.datanucleus.util.Localiser;
+import org.datanucleus.util.NucleusLogger;
+
+/**
+ * ConnectionProvider for read-only work that balances connections across a set of read replica DataSources.
+ * Unlike {@link ConnectionProviderPriorityList} one instance is shared by all connections of a ConnectionFactory, since it maintains
+ * the state of the replicas. The replica to use is selected in turn ("round-robin"), or as the replica with fewest connections
+ * currently obtained from it ("least-busy"). A replica that fails to provide a connection is ejected for a period, after which it is
+ * tried again. When no replica can provide a connection, null is returned, so the caller can use the primary DataSource(s).
+ */
+public class ReadReplicaConnectionProvider implements ConnectionProvider
+{
+    public static final String BALANCING_ROUND_ROBIN = "round-robin";
+    public static final String BALANCING_LEAST_BUSY = "least-busy";
+
+    /** Whether to select the replica with the fewest active connections, otherwise use round-robin. */
+    private final boolean leastBusy;
+
+    /** Time (millisecs) that a failing replica is ejected for. */
+    private final long ejectionPeriod;
+
+    /** Counter used to select the next replica for round-robin. */
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    /** Number of connections currently obtained from each replica, keyed by the DataSource. */
+    private final Map<DataSource, AtomicInteger> activeByReplica = Collections.synchronizedMap(new IdentityHashMap<DataSource, AtomicInteger>());
+
+    /** Time until which each failing replica is ejected, keyed by the DataSource. */
+    private final Map<DataSource, Long> ejectedUntilByReplica = Collections.synchronizedMap(new IdentityHashMap<DataSource, Long>());
+
+    /** Replica that each (open) connection was obtained from. */
+    private final Map<Connection, DataSource> replicaByConnection = Collections.synchronizedMap(new IdentityHashMap<Connection, DataSource>());
+
+    /**
+     * Constructor.
+     * @param balancing Balancing strategy ("round-robin", "least-busy")
+     * @param ejectionPeriod Time (millisecs) to eject a failing replica for
+     */
+    public ReadReplicaConnectionProvider(String balancing, long ejectionPeriod)
+    {
+        this.leastBusy = BALANCING_LEAST_BUSY.equalsIgnoreCase(balancing);
+        this.ejectionPeriod = ejectionPeriod;
+    }
+
+    /**
+     * Errors always cause a switch to the next replica, so this is ignored.
+     * @param flag Ignored
+     */
+    public void setFailOnError(boolean flag)
+    {
+    }
+
+    /**
+     * Obtain a connection from one of the replica datasources, balancing across the replicas that are not ejected.
+     * Any replica that fails to provide a connection is ejected, and the next replica tried.
+     * @param ds The replica datasources
+     * @return The Connection, or null if no replica could provide one
+     */
+    public Connection getConnection(DataSource[] ds)
+    {
+        if (ds == null || ds.length == 0)
+        {
+            return null;
+        }
+
+        long now = System.currentTimeMillis();
+        int start = leastBusy ? getLeastBusyReplica(ds, now) : ((nextReplica.getAndIncrement() & Integer.MAX_VALUE) % ds.length);
+        for (int i = 0; i < ds.length; i++)
+        {
+            DataSource replica = ds[(start + i) % ds.length];
+            if (isEjected(replica, now))
+            {
+                continue;
+            }
+
+            try
+            {
+                Connection conn = replica.getConnection();
+                if (conn != null)
+                {
+                    getActiveCount(replica).incrementAndGet();
+                    replicaByConnection.put(conn, replica);
+                    return conn;
+                }
+            }
+            catch (SQLException e)
+            {
+                NucleusLogger.CONNECTION.warn(Localiser.msg("047012", replica, ejectionPeriod, e.getMessage()));
+                ejectedUntilByReplica.put(replica, now + ejectionPeriod);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Method to notify that a connection obtained from this provider has been closed.
+     * @param conn The connection
+     */
+    public void connectionClosed(Connection conn)
+    {
+        DataSource replica = replicaByConnection.remove(conn);
+        if (replica != null)
+        {
+            getActiveCount(replica).decrementAndGet();
+        }
+    }
+
+    private boolean isEjected(DataSource replica, long now)
+    {
+        Long ejectedUntil = ejectedUntilByReplica.get(replica);
+        if (ejectedUntil == null)
+        {
+            return false;
+        }
+        if (ejectedUntil <= now)
+        {
+            // Ejection period is over, so try this replica again
+            ejectedUntilByReplica.remove(replica);
+            return false;
+        }
+        return true;
+    }
+
+    private int getLeastBusyReplica(DataSource[] ds, long now)
+    {
+        int leastBusyPos = 0;
+        int leastActive = Integer.MAX_VALUE;
+        for (int i = 0; i < ds.length; i++)
+        {
+            if (!isEjected(ds[i], now))
+            {
+                int active = getActiveCount(ds[i]).get();
+                if (active < leastActive)
+                {
+                    leastActive = active;
+                    leastBusyPos = i;
+                }
+            }
+        }
+        return leastBusyPos;
+    }
+
+    private AtomicInteger getActiveCount(DataSource replica)
+    {
+        synchronized (activeByReplica)
+        {
+            AtomicInteger active = activeByReplica.get(replica);
+            if (active == null)
+            {
+                active = new AtomicInteger();
+                activeByReplica.put(replica, active);
+            }
+            return active;
+        }
+    }
+}
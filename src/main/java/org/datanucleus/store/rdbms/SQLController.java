@@ -22,14 +22,22 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.datanucleus.ExecutionContext;
 import org.datanucleus.exceptions.NucleusDataStoreException;
+import org.datanucleus.exceptions.NucleusOptimisticException;
 import org.datanucleus.store.connection.ManagedConnection;
 import org.datanucleus.store.connection.ManagedConnectionResourceListener;
 import org.datanucleus.store.rdbms.query.RDBMSQueryUtils;
+import org.datanucleus.store.rdbms.table.Table;
 import org.datanucleus.util.Localiser;
 import org.datanucleus.util.NucleusLogger;
 import org.datanucleus.util.StringUtils;
@@ -76,6 +84,14 @@ import org.datanucleus.util.StringUtils;
  * sql.executeStatementUpdate(myStmt, ps, false); // Execute later
  * sql.closeStatement(ps);
  * </pre>
+ *
+ * <p>
+ * A connection can have several batches pending at once, one per statement text, so that a flush that alternates between statements
+ * (INSERT into A, INSERT into B, INSERT into A, ...) still batches. The pending batches are executed in the order they were started.
+ * A statement is only added to an existing batch when the caller provides its {@link BatchDependencies} and it doesn't depend on
+ * any statement pending in a batch started later (since it will be executed before those); otherwise the pending batches are
+ * processed first. Pending batches are processed when a statement that isn't batchable, or a query, is to be executed, or when a
+ * batch reaches the maximum batch size (with the batches started before it).
  * 
  * <p>
  * Things to note :-
@@ -83,6 +99,11 @@ import org.datanucleus.util.StringUtils;
  * <li>Batching only takes place if the underlying datastore supports it, and if the maximum batch size is not reached.</li>
  * <li>When ExecutionContext.flush() is called the RDBMSManager will call "processStatementsForConnection"
  * so that any batched statement is pushed to the datastore.</li>
+ * <li>Where the caller needs the update count of its statement (e.g optimistic checks) it can pass a 
+ * {@link UpdateCountCheck} when executing, and this is invoked with the update count when the batch is processed.</li>
+ * <li>Where the caller needs the generated key of its statement (e.g INSERT with an identity column) it can pass a
+ * {@link GeneratedKeyCallback} when executing, and this is invoked with the generated key when the batch is processed. The datastore
+ * must return the generated keys of all statements of a batch for this.</li>
  * </ul>
  */
 public class SQLController
@@ -93,6 +114,9 @@ public class SQLController
     /** Maximum batch size (-1 implies no limit). */
     protected int maxBatchSize = -1;
 
+    /** Maximum number of batches that can be pending for a connection at any time. */
+    protected int maxPendingBatches = 1;
+
     /** Timeout to apply to queries (where required) in milliseconds. */
     protected int queryTimeout = 0;
 
@@ -121,6 +145,15 @@ public class SQLController
         /** Whether to close the statement on processing */
         boolean closeStatementOnProcess = false;
 
+        /** Checks to make on the update counts when processed, keyed by the position in the batch. */
+        Map<Integer, UpdateCountCheck> updateCountChecks = null;
+
+        /** Callbacks for the generated keys when processed, keyed by the position in the batch (in order). */
+        SortedMap<Integer, GeneratedKeyCallback> generatedKeyCallbacks = null;
+
+        /** Tables affected by the statement (or null if not known). */
+        BatchDependencies dependencies = null;
+
         public String toString()
         {
             return "StmtState : stmt=" + StringUtils.toJVMIDString(stmt) + " sql=" + stmtText + 
@@ -128,8 +161,102 @@ public class SQLController
         }
     }
 
-    /** Map of the ConnectionStatementState keyed by the Connection */
-    Map<ManagedConnection, ConnectionStatementState> connectionStatements = new ConcurrentHashMap();
+    /** Map of the pending ConnectionStatementStates (in the order they were started) keyed by the Connection */
+    Map<ManagedConnection, List<ConnectionStatementState>> connectionStatements = new ConcurrentHashMap();
+
+    /**
+     * The tables affected by an update statement, used to decide whether the statement can be added to a pending batch, since it will
+     * then be executed ahead of the statements in any batches started after that batch.
+     * An INSERT/UPDATE has to follow pending statements for its table or for a table that it references (that may write the rows
+     * it references). A DELETE has to follow pending statements for its table or for a table that references its table (that may
+     * delete or update the rows referencing the rows being deleted).
+     */
+    public static class BatchDependencies
+    {
+        final Table table;
+
+        final Set<? extends Table> referencedTables;
+
+        final boolean delete;
+
+        /**
+         * Constructor.
+         * @param table The table that the statement is for
+         * @param referencedTables The tables that this table references (has FKs to)
+         * @param delete Whether the statement is a DELETE
+         */
+        public BatchDependencies(Table table, Set<? extends Table> referencedTables, boolean delete)
+        {
+            this.table = table;
+            this.referencedTables = referencedTables;
+            this.delete = delete;
+        }
+
+        /**
+         * Method to return whether a statement with these dependencies has to be executed after the pending statements of a batch.
+         * @param other Dependencies of the pending batch (or null if not known)
+         * @return Whether this statement has to follow the statements of that batch
+         */
+        boolean mustFollow(BatchDependencies other)
+        {
+            if (other == null || table == other.table)
+            {
+                return true;
+            }
+            if (delete)
+            {
+                return other.referencedTables.contains(table);
+            }
+            return referencedTables.contains(other.table);
+        }
+    }
+
+    /**
+     * Check to be made on the update count of a statement, allowing the check to be deferred until a batch is processed.
+     */
+    public interface UpdateCountCheck
+    {
+        /**
+         * Method to check the number of rows affected by the statement.
+         * Should throw a NucleusOptimisticException if the update count is not as expected.
+         * @param updateCount The update count for the statement
+         */
+        void checkUpdateCount(int updateCount);
+    }
+
+    /**
+     * Callback for the generated key of a statement, allowing the processing that needs the key to be deferred until a batch is
+     * processed. Callbacks are invoked in the order of the statements in the batch, after all generated keys of the batch are read
+     * and the batch is removed from the connection, so they can execute other statements.
+     */
+    public interface GeneratedKeyCallback
+    {
+        /**
+         * Method to process the generated key for the statement.
+         * @param generatedKey The generated key (first column of the generated keys), or null if none was returned
+         */
+        void generatedKeyAvailable(Object generatedKey);
+    }
+
+    /**
+     * Reader of a ResultSet that is left open on a connection between calls, for example by a streaming iterator.
+     * Before any other statement is created on the connection the reader is told of it, so that it can read in its remaining
+     * rows and close the ResultSet when needed. For example when the other statement may change the rows being read, or when the
+     * JDBC driver doesn't allow another statement while a streamed ResultSet is open.
+     */
+    public interface OpenResultSetReader
+    {
+        /**
+         * Method called before another statement is created on the connection, to read in any unread rows and close the
+         * ResultSet if needed for that statement.
+         * @param stmtText Text of the other statement
+         * @param update Whether the other statement is an update (otherwise a query)
+         */
+        void otherStatementCreating(String stmtText, boolean update);
+    }
+
+    /** Readers of ResultSets that are open on the connection, keyed by the Connection. */
+    Map<ManagedConnection, List<OpenResultSetReader>> openResultSetReaders = new ConcurrentHashMap();
 
     /**
      * Constructor.
@@ -139,8 +266,22 @@ public class SQLController
      * @param stmtLogging Setting for statement logging
      */
     public SQLController(boolean supportsBatching, int maxBatchSize, int queryTimeout, String stmtLogging)
+    {
+        this(supportsBatching, maxBatchSize, 1, queryTimeout, stmtLogging);
+    }
+
+    /**
+     * Constructor.
+     * @param supportsBatching Whether batching is to be supported.
+     * @param maxBatchSize The maximum batch size
+     * @param maxPendingBatches The maximum number of batches that can be pending for a connection
+     * @param queryTimeout Timeout for queries (ms)
+     * @param stmtLogging Setting for statement logging
+     */
+    public SQLController(boolean supportsBatching, int maxBatchSize, int maxPendingBatches, int queryTimeout, String stmtLogging)
     {
         this.supportsBatching = supportsBatching;
+        this.maxPendingBatches = Math.max(maxPendingBatches, 1);
         this.maxBatchSize = maxBatchSize;
         this.queryTimeout = queryTimeout;
         if (maxBatchSize == 0)
@@ -190,24 +331,62 @@ public class SQLController
             boolean getGeneratedKeysFlag)
     throws SQLException
     {
+        return getStatementForUpdate(conn, stmtText, batchable, getGeneratedKeysFlag, null);
+    }
+
+    /**
+     * Convenience method to create a new PreparedStatement for an update.
+     * When the tables affected by the statement are provided, a batchable statement can be added to a pending batch even when
+     * batches for other statements have been started since, provided it doesn't depend on the statements pending in those batches.
+     * @param conn The Connection to use for the statement
+     * @param stmtText Statement text
+     * @param batchable Whether this statement is batchable. Whether we will process the statement before any other statement
+     * @param getGeneratedKeysFlag whether to request getGeneratedKeys for this statement
+     * @param dependencies The tables affected by the statement (or null if not known)
+     * @return The PreparedStatement
+     * @throws SQLException thrown if an error occurs creating the statement
+     */
+    public PreparedStatement getStatementForUpdate(ManagedConnection conn, String stmtText, boolean batchable,
+            boolean getGeneratedKeysFlag, BatchDependencies dependencies)
+    throws SQLException
+    {
+        readOpenResultSets(conn, stmtText, true);
+
         Connection c = (Connection) conn.getConnection();
         if (supportsBatching)
         {
-            ConnectionStatementState state = getConnectionStatementState(conn);
-            if (state != null)
+            List<ConnectionStatementState> states = getConnectionStatementStates(conn);
+            if (states != null)
             {
-                if (state.processable)
+                ConnectionStatementState unprocessableState = getUnprocessableConnectionStatementState(states);
+                if (unprocessableState != null)
                 {
-                    // We have a batchable statement in the queue that could be processed now if necessary
-                    if (!batchable)
+                    if (batchable)
                     {
-                        // This new statement isnt batchable so process the existing one before returning our new statement
-                        processConnectionStatement(conn);
+                        // A statement is being batched so we cant batch this since cant process the current statement now
+                        if (NucleusLogger.DATASTORE_PERSIST.isDebugEnabled())
+                        {
+                            NucleusLogger.DATASTORE_PERSIST.debug(Localiser.msg("052102", unprocessableState.stmtText, stmtText));
+                        }
+                        batchable = false;
                     }
-                    else
+                }
+                else if (!batchable)
+                {
+                    // This new statement isnt batchable so process the existing batches before returning our new statement
+                    processConnectionStatements(conn, null);
+                }
+                else if (isAwaitingGeneratedKeys(states, stmtText))
+                {
+                    // A batch of another statement is awaiting its generated keys, which this statement may need (e.g FK values)
+                    processConnectionStatements(conn, null);
+                }
+                else
+                {
+                    ConnectionStatementState state = getConnectionStatementState(states, stmtText);
+                    if (state != null)
                     {
-                        // Check if we could batch onto this existing statement
-                        if (state.stmtText.equals(stmtText))
+                        if (canAddToBatch(states, state, dependencies))
                         {
                             // We can batch onto this statement
                             if (maxBatchSize == -1 || state.batchSize < maxBatchSize)
@@ -222,30 +401,31 @@ public class SQLController
                                 return state.stmt;
                             }
 
-                            // Reached max batch size so process it now and start again for this one
+                            // Reached max batch size so process it (and any batches started before it) now and start again for this one
                             if (NucleusLogger.DATASTORE_PERSIST.isDebugEnabled())
                             {
                                 NucleusLogger.DATASTORE_PERSIST.debug(Localiser.msg("052101", state.stmtText));
                             }
-                            processConnectionStatement(conn);
+                            processConnectionStatements(conn, state);
                         }
                         else
                         {
-                            // We cant batch using the current batch statement so process it first and return our new one
-                            processConnectionStatement(conn);
+                            // This statement may depend on statements in batches started after its batch, so process them all first
+                            if (NucleusLogger.DATASTORE_PERSIST.isDebugEnabled())
+                            {
+                                NucleusLogger.DATASTORE_PERSIST.debug(Localiser.msg("052111", stmtText));
+                            }
+                            processConnectionStatements(conn, null);
                         }
                     }
-                }
-                else
-                {
-                    if (batchable)
+                    else if (dependencies == null || states.size() >= maxPendingBatches)
                     {
-                        // The current statement is being batched so we cant batch this since cant process the current statement now
-                        if (NucleusLogger.DATASTORE_PERSIST.isDebugEnabled())
-                        {
-                            NucleusLogger.DATASTORE_PERSIST.debug(Localiser.msg("052102", state.stmtText, stmtText));
-                        }
-                        batchable = false;
+                        // We cant leave the current batches pending alongside our new one so process them first
+                        processConnectionStatements(conn, null);
+                    }
+                    else if (NucleusLogger.DATASTORE_PERSIST.isDebugEnabled())
+                    {
+                        NucleusLogger.DATASTORE_PERSIST.debug(Localiser.msg("052112", "" + states.size(), stmtText));
                     }
                 }
             }
@@ -277,7 +457,8 @@ public class SQLController
             state.stmt = ps;
             state.stmtText = stmtText;
             state.batchSize = 1;
-            setConnectionStatementState(conn, state);
+            state.dependencies = dependencies;
+            addConnectionStatementState(conn, state);
         }
 
         return ps;
@@ -309,16 +490,13 @@ public class SQLController
             String resultSetType, String resultSetConcurrency)
     throws SQLException
     {
+        readOpenResultSets(conn, stmtText, false);
+
         Connection c = (Connection) conn.getConnection();
         if (supportsBatching)
         {
-            // Check for a waiting batched statement that is ready for processing
-            ConnectionStatementState state = getConnectionStatementState(conn);
-            if (state != null && state.processable)
-            {
-                // Process the batch statement before returning our new query statement
-                processConnectionStatement(conn);
-            }
+            // Process any waiting batched statements that are ready for processing
+            processConnectionStatements(conn, null);
         }
 
         // Create a new PreparedStatement for this query
@@ -386,10 +564,54 @@ public class SQLController
     public int[] executeStatementUpdate(ExecutionContext ec, ManagedConnection conn, String stmt, PreparedStatement ps, boolean processNow)
     throws SQLException
     {
-        ConnectionStatementState state = getConnectionStatementState(conn);
-        if (state != null)
+        return executeStatementUpdate(ec, conn, stmt, ps, processNow, null);
+    }
+
+    /**
+     * Method to execute a PreparedStatement update, checking the update count of the statement.
+     * If the statement is batched and not processed now then the check is made when the batch is processed.
+     * Prints logging information about timings.
+     * @param ec ExecutionContext
+     * @param conn The connection (required since the one on PreparedStatement is not always the same so we cant use it)
+     * @param stmt The statement text
+     * @param ps The Prepared Statement
+     * @param processNow Whether to process this statement now (only applies if is batched)
+     * @param check Check to make on the update count of this statement (or null if not needed)
+     * @return The numer of rows affected (as per PreparedStatement.executeUpdate), or null if batched for later processing
+     * @throws SQLException Thrown if an error occurs
+     */
+    public int[] executeStatementUpdate(ExecutionContext ec, ManagedConnection conn, String stmt, PreparedStatement ps, boolean processNow,
+            UpdateCountCheck check)
+    throws SQLException
+    {
+        return executeStatementUpdate(ec, conn, stmt, ps, processNow, check, null);
+    }
+
+    /**
+     * Method to execute a PreparedStatement update, checking the update count of the statement and deferring the processing of its
+     * generated key when it is batched.
+     * If the statement is batched and not processed now then null is returned, and the callback is invoked with the generated key
+     * of the statement when the batch is processed. Otherwise the callback is not used, and the caller retrieves the generated keys
+     * from the statement itself.
+     * @param ec ExecutionContext
+     * @param conn The connection (required since the one on PreparedStatement is not always the same so we cant use it)
+     * @param stmt The statement text
+     * @param ps The Prepared Statement (created requesting generated keys when a callback is supplied)
+     * @param processNow Whether to process this statement now (only applies if is batched)
+     * @param check Check to make on the update count of this statement (or null if not needed)
+     * @param callback Callback for the generated key of this statement when batched (or null if not needed)
+     * @return The numer of rows affected (as per PreparedStatement.executeUpdate), or null if batched for later processing
+     * @throws SQLException Thrown if an error occurs
+     */
+    public int[] executeStatementUpdate(ExecutionContext ec, ManagedConnection conn, String stmt, PreparedStatement ps, boolean processNow,
+            UpdateCountCheck check, GeneratedKeyCallback callback)
+    throws SQLException
+    {
+        List<ConnectionStatementState> states = getConnectionStatementStates(conn);
+        if (states != null)
         {
-            if (state.stmt == ps)
+            ConnectionStatementState state = getConnectionStatementState(states, ps);
+            if (state != null)
             {
                 // Mark as processable
                 if (NucleusLogger.DATASTORE_PERSIST.isDebugEnabled())
@@ -398,21 +620,37 @@ public class SQLController
                 }
                 state.processable = true;
                 state.stmt.addBatch();
+                if (check != null)
+                {
+                    if (state.updateCountChecks == null)
+                    {
+                        state.updateCountChecks = new HashMap<>();
+                    }
+                    state.updateCountChecks.put(state.batchSize - 1, check);
+                }
+                if (callback != null && !processNow)
+                {
+                    if (state.generatedKeyCallbacks == null)
+                    {
+                        state.generatedKeyCallbacks = new TreeMap<>();
+                    }
+                    state.generatedKeyCallbacks.put(state.batchSize - 1, callback);
+                }
 
                 if (processNow)
                 {
                     // Process the batch now
                     state.closeStatementOnProcess = false; // user method has requested execution so they can close it themselves now
-                    return processConnectionStatement(conn);
+                    return processConnectionStatements(conn, state);
                 }
 
                 // Leave processing til later
                 return null;
             }
 
-            // There is a waiting batch yet it is a different statement, so process that one now since we need
+            // There are waiting batches yet for different statements, so process those now since we need
             // our statement executing
-            processConnectionStatement(conn);
+            processConnectionStatements(conn, null);
         }
 
         // Process the normal update statement
@@ -444,6 +682,11 @@ public class SQLController
                 StringUtils.toJVMIDString(ps)));
         }
 
+        if (check != null)
+        {
+            check.checkUpdateCount(ind);
+        }
+
         return new int[] {ind};
     }
 
@@ -462,13 +705,8 @@ public class SQLController
     {
         if (supportsBatching)
         {
-            // Check for a waiting batched statement that is ready for processing
-            ConnectionStatementState state = getConnectionStatementState(conn);
-            if (state != null && state.processable)
-            {
-                // Process the batch statement before returning our new query statement
-                processConnectionStatement(conn);
-            }
+            // Process any waiting batched statements that are ready for processing
+            processConnectionStatements(conn, null);
         }
 
         // Process the normal execute statement
@@ -517,20 +755,17 @@ public class SQLController
     {
         if (supportsBatching)
         {
-            ConnectionStatementState state = getConnectionStatementState(conn);
-            if (state != null)
+            List<ConnectionStatementState> states = getConnectionStatementStates(conn);
+            if (states != null)
             {
-                if (state.processable)
-                {
-                    // Current batch statement is processable now so lets just process it before processing our query
-                    processConnectionStatement(conn);
-                }
-                else
+                // Process any batches that are processable now before processing our query
+                processConnectionStatements(conn, null);
+                if (!states.isEmpty())
                 {
                     // Current wait statement is not processable now so leave it in wait state
                     if (NucleusLogger.DATASTORE_RETRIEVE.isDebugEnabled())
                     {
-                        NucleusLogger.DATASTORE_RETRIEVE.debug(Localiser.msg("052106", state.stmtText, stmt));
+                        NucleusLogger.DATASTORE_RETRIEVE.debug(Localiser.msg("052106", states.get(0).stmtText, stmt));
                     }
                 }
             }
@@ -574,12 +809,13 @@ public class SQLController
      */
     public void abortStatementForConnection(ManagedConnection conn, PreparedStatement ps)
     {
-        ConnectionStatementState state = getConnectionStatementState(conn);
-        if (state != null && state.stmt == ps)
+        List<ConnectionStatementState> states = getConnectionStatementStates(conn);
+        ConnectionStatementState state = (states != null) ? getConnectionStatementState(states, ps) : null;
+        if (state != null)
         {
             try
             {
-                removeConnectionStatementState(conn);
+                removeConnectionStatementState(conn, state);
                 ps.close();
             }
             catch (SQLException sqe)
@@ -600,10 +836,11 @@ public class SQLController
     public void closeStatement(ManagedConnection conn, PreparedStatement ps)
     throws SQLException
     {
-        ConnectionStatementState state = getConnectionStatementState(conn);
-        if (state != null && state.stmt == ps)
+        List<ConnectionStatementState> states = getConnectionStatementStates(conn);
+        ConnectionStatementState state = (states != null) ? getConnectionStatementState(states, ps) : null;
+        if (state != null)
         {
-            // Statement to be closed is the current batch, so register it for closing when it gets processed
+            // Statement to be closed is a pending batch, so register it for closing when it gets processed
             state.closeStatementOnProcess = true;
         }
         else
@@ -630,7 +867,7 @@ public class SQLController
     }
 
     /**
-     * Convenience method to process any batched statement for the specified connection.
+     * Convenience method to process any batched statements for the specified connection.
      * Typically called when flush() or commit() are called.
      * @param conn The connection
      * @throws SQLException Thrown if an error occurs on processing of the batch
@@ -638,29 +875,71 @@ public class SQLController
     public void processStatementsForConnection(ManagedConnection conn)
     throws SQLException
     {
-        if (!supportsBatching || getConnectionStatementState(conn) == null)
+        if (!supportsBatching || getConnectionStatementStates(conn) == null)
         {
             return;
         }
-        processConnectionStatement(conn);
+        processConnectionStatements(conn, null);
     }
 
     /**
-     * Convenience method to process the currently waiting statement for the passed Connection.
-     * Only processes the statement if it is in processable state.
+     * Convenience method to process the currently waiting statements for the passed Connection.
+     * Only processes the statements that are in processable state.
      * @param conn The connection
-     * @return The return codes from the statement batch
+     * @return The return codes from the last statement batch processed
      * @throws SQLException if an error occurs processing the batch
      */
     protected int[] processConnectionStatement(ManagedConnection conn)
     throws SQLException
     {
-        ConnectionStatementState state = getConnectionStatementState(conn);
-        if (state == null || !state.processable)
+        return processConnectionStatements(conn, null);
+    }
+
+    /**
+     * Convenience method to process the waiting statements for the passed Connection, in the order they were started.
+     * Stops at the first statement that is not in processable state, since the later statements can't be executed before it.
+     * @param conn The connection
+     * @param lastState The last state to process (or null to process all)
+     * @return The return codes from the last statement batch processed
+     * @throws SQLException if an error occurs processing a batch
+     */
+    private int[] processConnectionStatements(ManagedConnection conn, ConnectionStatementState lastState)
+    throws SQLException
+    {
+        List<ConnectionStatementState> states = getConnectionStatementStates(conn);
+        if (states == null)
         {
             return null;
         }
 
+        int[] ind = null;
+        while (!states.isEmpty())
+        {
+            ConnectionStatementState state = states.get(0);
+            if (!state.processable)
+            {
+                break;
+            }
+
+            ind = processConnectionStatement(conn, state);
+            if (state == lastState)
+            {
+                break;
+            }
+        }
+        return ind;
+    }
+
+    /**
+     * Convenience method to process the specified waiting statement for the passed Connection.
+     * @param conn The connection
+     * @param state The state of the statement batch
+     * @return The return codes from the statement batch
+     * @throws SQLException if an error occurs processing the batch
+     */
+    private int[] processConnectionStatement(ManagedConnection conn, ConnectionStatementState state)
+    throws SQLException
+    {
         long startTime = System.currentTimeMillis();
         if (NucleusLogger.DATASTORE_NATIVE.isDebugEnabled())
         {
@@ -677,14 +956,32 @@ public class SQLController
         int[] ind = state.stmt.executeBatch();
         state.stmt.clearBatch();
 
+        Object[] generatedKeys = null;
+        if (state.generatedKeyCallbacks != null)
+        {
+            try
+            {
+                generatedKeys = getBatchGeneratedKeys(state);
+            }
+            catch (SQLException sqle)
+            {
+                removeConnectionStatementState(conn, state);
+                if (state.closeStatementOnProcess)
+                {
+                    state.stmt.close();
+                }
+                throw sqle;
+            }
+        }
+
         if (NucleusLogger.DATASTORE.isDebugEnabled())
         {
             NucleusLogger.DATASTORE.debug(Localiser.msg("045001",""+(System.currentTimeMillis() - startTime),
                 StringUtils.intArrayToString(ind), StringUtils.toJVMIDString(state.stmt)));
         }
 
-        // Remove the current connection statement
-        removeConnectionStatementState(conn);
+        // Remove the processed connection statement
+        removeConnectionStatementState(conn, state);
 
         // Close the statement if it is registered for closing after processing
         if (state.closeStatementOnProcess)
@@ -692,12 +989,171 @@ public class SQLController
             state.stmt.close();
         }
 
+        if (state.updateCountChecks != null)
+        {
+            checkBatchUpdateCounts(state, ind);
+        }
+
+        if (state.generatedKeyCallbacks != null)
+        {
+            for (Map.Entry<Integer, GeneratedKeyCallback> callbackEntry : state.generatedKeyCallbacks.entrySet())
+            {
+                int position = callbackEntry.getKey();
+                callbackEntry.getValue().generatedKeyAvailable(position < generatedKeys.length ? generatedKeys[position] : null);
+            }
+        }
+
         return ind;
     }
 
     /**
-     * Convenience method to remove the state for this connection.
-     * This is typically called when a Connection is closed.
+     * Convenience method to read the generated keys of a processed batch, one per statement in the order of the batch.
+     * @param state The state of the (processed) batch
+     * @return The generated keys (first column), with an element for each statement of the batch
+     * @throws SQLException Thrown if an error occurs reading the generated keys
+     */
+    private Object[] getBatchGeneratedKeys(ConnectionStatementState state)
+    throws SQLException
+    {
+        Object[] generatedKeys = new Object[state.batchSize];
+        ResultSet rs = state.stmt.getGeneratedKeys();
+        if (rs != null)
+        {
+            try
+            {
+                int position = 0;
+                while (position < generatedKeys.length && rs.next())
+                {
+                    generatedKeys[position++] = rs.getObject(1);
+                }
+            }
+            finally
+            {
+                rs.close();
+            }
+        }
+        return generatedKeys;
+    }
+
+    /**
+     * Convenience method to make the registered update count checks for the statements of a processed batch.
+     * Update counts that aren't known (SUCCESS_NO_INFO) are not checked.
+     * @param state The state of the (processed) batch
+     * @param updateCounts The update counts returned by the batch
+     * @throws NucleusOptimisticException if any check fails, with the failures of each statement nested when more than one
+     */
+    private void checkBatchUpdateCounts(ConnectionStatementState state, int[] updateCounts)
+    {
+        List<NucleusOptimisticException> failures = null;
+        for (Map.Entry<Integer, UpdateCountCheck> checkEntry : state.updateCountChecks.entrySet())
+        {
+            int position = checkEntry.getKey();
+            if (updateCounts == null || position >= updateCounts.length || updateCounts[position] < 0)
+            {
+                continue;
+            }
+
+            try
+            {
+                checkEntry.getValue().checkUpdateCount(updateCounts[position]);
+            }
+            catch (NucleusOptimisticException noe)
+            {
+                if (failures == null)
+                {
+                    failures = new ArrayList<>();
+                }
+                failures.add(noe);
+            }
+        }
+
+        if (failures != null)
+        {
+            if (failures.size() == 1)
+            {
+                throw failures.get(0);
+            }
+            throw new NucleusOptimisticException(Localiser.msg("052107", state.stmtText, "" + failures.size()),
+                failures.toArray(new Throwable[failures.size()]));
+        }
+    }
+
+    /**
+     * Convenience method to return whether the specified statement can be added to its pending batch, which means that it will be
+     * executed ahead of the statements pending in any batches started after that batch.
+     * @param states The pending states for the connection
+     * @param state The state of the batch for this statement
+     * @param dependencies The tables affected by the statement (or null if not known)
+     * @return Whether it can be added to the batch
+     */
+    private boolean canAddToBatch(List<ConnectionStatementState> states, ConnectionStatementState state, BatchDependencies dependencies)
+    {
+        for (int i=states.indexOf(state)+1;i<states.size();i++)
+        {
+            if (dependencies == null || dependencies.mustFollow(states.get(i).dependencies))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Method to register a reader of a ResultSet that is left open on the connection, so that it is told of any other statement
+     * created on the connection (and can read in its remaining rows).
+     * @param conn The connection
+     * @param reader The reader
+     */
+    public void registerOpenResultSetReader(ManagedConnection conn, OpenResultSetReader reader)
+    {
+        List<OpenResultSetReader> readers = openResultSetReaders.get(conn);
+        if (readers == null)
+        {
+            readers = new ArrayList<>();
+            openResultSetReaders.put(conn, readers);
+        }
+        readers.add(reader);
+    }
+
+    /**
+     * Method to deregister a reader of a ResultSet, for when its ResultSet is closed.
+     * @param conn The connection
+     * @param reader The reader
+     */
+    public void deregisterOpenResultSetReader(ManagedConnection conn, OpenResultSetReader reader)
+    {
+        List<OpenResultSetReader> readers = openResultSetReaders.get(conn);
+        if (readers != null)
+        {
+            readers.remove(reader);
+            if (readers.isEmpty())
+            {
+                openResultSetReaders.remove(conn);
+            }
+        }
+    }
+
+    /**
+     * Method to tell the readers of any ResultSets open on the connection that another statement is being created on the
+     * connection, so they can read in their remaining rows when needed. A reader that closes its ResultSet deregisters itself.
+     * @param conn The connection
+     * @param stmtText Text of the statement being created
+     * @param update Whether the statement is an update (otherwise a query)
+     */
+    protected void readOpenResultSets(ManagedConnection conn, String stmtText, boolean update)
+    {
+        List<OpenResultSetReader> readers = openResultSetReaders.get(conn);
+        if (readers != null)
+        {
+            for (OpenResultSetReader reader : new ArrayList<>(readers))
+            {
+                reader.otherStatementCreating(stmtText, update);
+            }
+        }
+    }
+
+    /**
+     * Convenience method to remove all states for this connection.
      * @param conn The Connection
      */
     protected void removeConnectionStatementState(ManagedConnection conn)
@@ -706,23 +1162,98 @@ public class SQLController
     }
 
     /**
-     * Convenience method to get the state for this connection.
+     * Convenience method to remove the specified state for this connection.
      * @param conn The Connection
-     * @return The state (if any)
+     * @param state The state
      */
-    protected ConnectionStatementState getConnectionStatementState(ManagedConnection conn)
+    protected void removeConnectionStatementState(ManagedConnection conn, ConnectionStatementState state)
+    {
+        List<ConnectionStatementState> states = connectionStatements.get(conn);
+        if (states != null)
+        {
+            states.remove(state);
+            if (states.isEmpty())
+            {
+                connectionStatements.remove(conn);
+            }
+        }
+    }
+
+    /**
+     * Convenience method to get the pending states for this connection, in the order they were started.
+     * @param conn The Connection
+     * @return The states (if any)
+     */
+    protected List<ConnectionStatementState> getConnectionStatementStates(ManagedConnection conn)
     {
         return connectionStatements.get(conn);
     }
 
+    private static ConnectionStatementState getConnectionStatementState(List<ConnectionStatementState> states, String stmtText)
+    {
+        for (ConnectionStatementState state : states)
+        {
+            if (state.stmtText.equals(stmtText))
+            {
+                return state;
+            }
+        }
+        return null;
+    }
+
+    private static ConnectionStatementState getConnectionStatementState(List<ConnectionStatementState> states, PreparedStatement ps)
+    {
+        for (ConnectionStatementState state : states)
+        {
+            if (state.stmt == ps)
+            {
+                return state;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isAwaitingGeneratedKeys(List<ConnectionStatementState> states, String stmtText)
+    {
+        for (ConnectionStatementState state : states)
+        {
+            if (state.generatedKeyCallbacks != null && !state.stmtText.equals(stmtText))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static ConnectionStatementState getUnprocessableConnectionStatementState(List<ConnectionStatementState> states)
+    {
+        for (ConnectionStatementState state : states)
+        {
+            if (!state.processable)
+            {
+                return state;
+            }
+        }
+        return null;
+    }
+
     /**
-     * Convenience method to set the state for this connection.
+     * Convenience method to add a state for this connection, after any pending states.
      * @param conn The Connection
      * @param state The state
      */
-    protected void setConnectionStatementState(final ManagedConnection conn, ConnectionStatementState state)
+    protected void addConnectionStatementState(final ManagedConnection conn, ConnectionStatementState state)
     {
-        connectionStatements.put(conn, state);
+        List<ConnectionStatementState> states = connectionStatements.get(conn);
+        if (states != null)
+        {
+            states.add(state);
+            return;
+        }
+
+        states = new ArrayList<>();
+        states.add(state);
+        connectionStatements.put(conn, states);
         conn.addListener(new ManagedConnectionResourceListener()
         {
             public void transactionFlushed()
@@ -733,23 +1264,26 @@ public class SQLController
                 }
                 catch (SQLException e)
                 {
-                    // cleanup state
-                    ConnectionStatementState state = getConnectionStatementState(conn);
-                    if (state != null)
+                    // cleanup states
+                    List<ConnectionStatementState> states = getConnectionStatementStates(conn);
+                    if (states != null)
                     {
-                        // Remove the current connection statement
+                        // Remove the pending connection statements
                         removeConnectionStatementState(conn);
-    
-                        // Close the statement if it is registered for closing after processing
-                        if (state.closeStatementOnProcess)
+
+                        // Close the statements if registered for closing after processing
+                        for (ConnectionStatementState state : states)
                         {
-                            try
-                            {
-                                state.stmt.close();
-                            }
-                            catch (SQLException ex)
+                            if (state.closeStatementOnProcess)
                             {
-                                //ignore
+                                try
+                                {
+                                    state.stmt.close();
+                                }
+                                catch (SQLException ex)
+                                {
+                                    //ignore
+                                }
                             }
                         }
                     }
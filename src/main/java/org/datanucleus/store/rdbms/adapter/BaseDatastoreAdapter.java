@@ -366,6 +366,7 @@ public class BaseDatastoreAdapter implements DatastoreAdapter
             if (metadata.supportsBatchUpdates())
             {
                 supportedOptions.add(STATEMENT_BATCHING);
+                supportedOptions.add(STATEMENT_BATCHING_UPDATE_COUNTS);
             }
 
             // Save the identifier cases available
@@ -422,6 +423,7 @@ public class BaseDatastoreAdapter implements DatastoreAdapter
         supportedOptions.add(RESULTSET_TYPE_FORWARD_ONLY);
         supportedOptions.add(RESULTSET_TYPE_SCROLL_SENSITIVE);
         supportedOptions.add(RESULTSET_TYPE_SCROLL_INSENSITIVE);
+        supportedOptions.add(MULTIPLE_OPEN_RESULTSETS);
 
         supportedOptions.add(RIGHT_OUTER_JOIN);
         supportedOptions.add(SOME_ANY_ALL_SUBQUERY_EXPRESSIONS);
@@ -886,6 +888,16 @@ public class BaseDatastoreAdapter implements DatastoreAdapter
         return 9999;
     }
 
+    /**
+     * Accessor for the maximum number of input parameters that should be used in a single statement.
+     * Defaults to 1000, being the most restrictive "IN" list size of the common datastores (Oracle).
+     * @return Max number of statement parameters
+     */
+    public int getMaxStatementParameters()
+    {
+        return 1000;
+    }
+
     /**
      * Iterator for the reserved words constructed from the method
      * DataBaseMetaData.getSQLKeywords + standard SQL reserved words
@@ -83,6 +83,7 @@ public class DB2Adapter extends BaseDatastoreAdapter
         supportedOptions.add(ANALYSIS_METHODS);
         supportedOptions.add(STORED_PROCEDURES);
         supportedOptions.add(USE_UNION_ALL);
+        supportedOptions.add(UPDATE_STATEMENT_UNIQUE_CHECK_AT_END);
         supportedOptions.add(ORDERBY_NULLS_DIRECTIVES);
         supportedOptions.remove(BOOLEAN_COMPARISON);
         supportedOptions.remove(DEFERRED_CONSTRAINTS);
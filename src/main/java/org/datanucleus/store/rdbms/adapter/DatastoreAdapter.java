@@ -166,6 +166,12 @@ public interface DatastoreAdapter
     public static final String UPDATE_STATEMENT_ALLOW_TABLE_ALIAS_IN_SET_CLAUSE = "UpdateStmtAllowTableAliasInSet";
     public static final String UPDATE_DELETE_STATEMENT_ALLOW_TABLE_ALIAS_IN_WHERE_CLAUSE = "UpdateDeleteStmtAllowTableAliasInWhere";
 
+    /**
+     * Whether unique/primary key constraints are only checked at the end of an UPDATE statement (rather than row by row),
+     * so something like "UPDATE TBL SET IDX = IDX + 1 WHERE IDX &gt;= ?" can be issued without violating (OWNER, IDX).
+     */
+    public static final String UPDATE_STATEMENT_UNIQUE_CHECK_AT_END = "UpdateStmtUniqueCheckAtEnd";
+
     /** Whether the GROUP BY has to include all primary expressions selected. */
     public static final String GROUP_BY_REQUIRES_ALL_SELECT_PRIMARIES = "GroupByIncludesAllSelectPrimaries";
 
@@ -191,6 +197,12 @@ public interface DatastoreAdapter
      */
     public static final String STATEMENT_BATCHING = "StatementBatching";
 
+    /**
+     * Whether the update counts returned for a batch of statements are the number of rows affected by each
+     * statement (rather than just success/failure), so can be used for optimistic checks.
+     */
+    public static final String STATEMENT_BATCHING_UPDATE_COUNTS = "StatementBatchingUpdateCounts";
+
     /**
      * Whether this datastore supports the use of "CHECK" in CREATE TABLE statements (DDL).
      */
@@ -250,6 +262,12 @@ public interface DatastoreAdapter
      */
     public static final String GET_GENERATED_KEYS_STATEMENT = "GetGeneratedKeysStatement";
 
+    /**
+     * Whether the datastore returns "Statement.getGeneratedKeys" for all statements of a batch (one row per statement, in order),
+     * so that INSERTs with identity columns can be batched.
+     */
+    public static final String GET_GENERATED_KEYS_STATEMENT_BATCH = "GetGeneratedKeysStatementBatch";
+
     /**
      * Whether we support NULLs in candidate keys.
      */
@@ -393,6 +411,12 @@ public interface DatastoreAdapter
 
     public static final String HOLD_CURSORS_OVER_COMMIT = "HoldCursorsOverCommit";
 
+    /**
+     * Whether a connection can have several ResultSets open at once, so a ResultSet being streamed can stay open while other
+     * statements are executed on the connection.
+     */
+    public static final String MULTIPLE_OPEN_RESULTSETS = "MultipleOpenResultSets";
+
     public static final String OPERATOR_BITWISE_AND = "BitwiseAndOperator";
     public static final String OPERATOR_BITWISE_OR = "BitwiseOrOperator";
     public static final String OPERATOR_BITWISE_XOR = "BitwiseXOrOperator";
@@ -559,6 +583,13 @@ public interface DatastoreAdapter
      */
     int getMaxIndexes();
 
+    /**
+     * Accessor for the maximum number of input parameters that should be used in a single statement.
+     * Used when splitting large "IN (...)" lists into chunks.
+     * @return Max number of statement parameters
+     */
+    int getMaxStatementParameters();
+
     /**
      * Whether the datastore will support setting the query fetch size to the supplied value.
      * @param size The value to set to
@@ -110,8 +110,10 @@ public class MSSQLServerAdapter extends BaseDatastoreAdapter
         supportedOptions.add(LOCK_OPTION_PLACED_WITHIN_JOIN);
         supportedOptions.add(ANALYSIS_METHODS);
         supportedOptions.add(STORED_PROCEDURES);
+        supportedOptions.add(UPDATE_STATEMENT_UNIQUE_CHECK_AT_END);
 
         supportedOptions.remove(BOOLEAN_COMPARISON);
+        supportedOptions.remove(MULTIPLE_OPEN_RESULTSETS); // Only with MARS enabled on the connection
         supportedOptions.remove(DEFERRED_CONSTRAINTS);
         supportedOptions.remove(FK_DELETE_ACTION_DEFAULT);
         supportedOptions.remove(FK_DELETE_ACTION_RESTRICT);
@@ -191,6 +193,16 @@ public class MSSQLServerAdapter extends BaseDatastoreAdapter
         return "sqlserver";
     }
 
+    /**
+     * SQLServer permits a maximum of 2100 parameters per statement, so leave some headroom.
+     * @return Max number of statement parameters
+     */
+    @Override
+    public int getMaxStatementParameters()
+    {
+        return 2000;
+    }
+
     /**
      * Accessor for the catalog name.
      * @param conn The Connection to use
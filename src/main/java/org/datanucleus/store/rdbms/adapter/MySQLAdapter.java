@@ -134,8 +134,10 @@ public class MySQLAdapter extends BaseDatastoreAdapter
         supportedOptions.add(OPERATOR_BITWISE_AND);
         supportedOptions.add(OPERATOR_BITWISE_OR);
         supportedOptions.add(OPERATOR_BITWISE_XOR);
+        supportedOptions.add(GET_GENERATED_KEYS_STATEMENT_BATCH);
 
         supportedOptions.remove(VALUE_GENERATION_UUID_STRING); // MySQL charsets don't seem to allow this
+        supportedOptions.remove(MULTIPLE_OPEN_RESULTSETS); // A streamed ResultSet has to be read fully before any other statement
     }
 
     /**
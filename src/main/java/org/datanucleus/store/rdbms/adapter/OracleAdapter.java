@@ -154,6 +154,7 @@ public class OracleAdapter extends BaseDatastoreAdapter
         supportedOptions.add(ORDERBY_NULLS_DIRECTIVES);
         supportedOptions.add(GROUP_BY_REQUIRES_ALL_SELECT_PRIMARIES);
         supportedOptions.add(PRIMARYKEY_IN_CREATE_STATEMENTS);
+        supportedOptions.add(UPDATE_STATEMENT_UNIQUE_CHECK_AT_END);
 
         supportedOptions.remove(BOOLEAN_COMPARISON);
         if (datastoreMajorVersion < 9)
@@ -172,6 +173,12 @@ public class OracleAdapter extends BaseDatastoreAdapter
         supportedOptions.remove(FK_UPDATE_ACTION_RESTRICT);
         supportedOptions.remove(FK_UPDATE_ACTION_NULL);
         supportedOptions.remove(FK_UPDATE_ACTION_CASCADE);
+
+        if (datastoreMajorVersion < 12)
+        {
+            // Oracle prior to 12 returns SUCCESS_NO_INFO for each statement in a batch
+            supportedOptions.remove(STATEMENT_BATCHING_UPDATE_COUNTS);
+        }
     }
 
     /**
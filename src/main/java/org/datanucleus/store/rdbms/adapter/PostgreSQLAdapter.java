@@ -110,6 +110,7 @@ public class PostgreSQLAdapter extends BaseDatastoreAdapter
         supportedOptions.add(OPERATOR_BITWISE_AND);
         supportedOptions.add(OPERATOR_BITWISE_OR);
         supportedOptions.add(OPERATOR_BITWISE_XOR);
+        supportedOptions.add(GET_GENERATED_KEYS_STATEMENT_BATCH);
 
         supportedOptions.remove(VALUE_GENERATION_UUID_STRING); // PostgreSQL charsets don't seem to allow this
     }
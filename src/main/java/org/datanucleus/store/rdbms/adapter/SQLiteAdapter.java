@@ -76,6 +76,13 @@ public class SQLiteAdapter extends BaseDatastoreAdapter
         return "sqlite";
     }
 
+    @Override
+    public int getMaxStatementParameters()
+    {
+        // SQLITE_MAX_VARIABLE_NUMBER defaults to 999
+        return 999;
+    }
+
     @Override
     public void initialiseTypes(StoreSchemaHandler handler, ManagedConnection mconn)
     {
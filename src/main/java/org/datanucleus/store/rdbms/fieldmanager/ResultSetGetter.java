@@ -53,6 +53,9 @@ public class ResultSetGetter extends AbstractFieldManager
     private final ResultSet resultSet;
     private final StatementClassMapping resultMappings;
 
+    /** Compiled reader for the simple members of the results (if any). */
+    private final ResultSetRowReader rowReader;
+
     /**
      * Constructor where we know the object to put the field values in.
      * @param storeMgr RDBMS StoreManager
@@ -61,6 +64,19 @@ public class ResultSetGetter extends AbstractFieldManager
      * @param resultMappings Mappings for the results for this class
      */
     public ResultSetGetter(RDBMSStoreManager storeMgr, ObjectProvider op, ResultSet rs, StatementClassMapping resultMappings)
+    {
+        this(storeMgr, op, rs, resultMappings, null);
+    }
+
+    /**
+     * Constructor where we know the object to put the field values in, and have a compiled reader for the results.
+     * @param storeMgr RDBMS StoreManager
+     * @param op ObjectProvider where we are putting the results
+     * @param rs the ResultSet
+     * @param resultMappings Mappings for the results for this class
+     * @param rowReader Compiled reader for the results of this class (or null)
+     */
+    public ResultSetGetter(RDBMSStoreManager storeMgr, ObjectProvider op, ResultSet rs, StatementClassMapping resultMappings, ResultSetRowReader rowReader)
     {
         this.storeMgr = storeMgr;
         this.op = op;
@@ -68,6 +84,7 @@ public class ResultSetGetter extends AbstractFieldManager
         this.ec = op.getExecutionContext();
         this.resultSet = rs;
         this.resultMappings = resultMappings;
+        this.rowReader = rowReader;
     }
 
     /**
@@ -86,64 +103,106 @@ public class ResultSetGetter extends AbstractFieldManager
         this.ec = ec;
         this.resultSet = rs;
         this.resultMappings = resultMappings;
+        this.rowReader = null;
     }
 
     public boolean fetchBooleanField(int fieldNumber)
     {
+        if (rowReader != null && rowReader.isCompiled(fieldNumber))
+        {
+            return rowReader.getBoolean(resultSet, fieldNumber);
+        }
         StatementMappingIndex mapIdx = resultMappings.getMappingForMemberPosition(fieldNumber);
         return mapIdx.getMapping().getBoolean(ec, resultSet, mapIdx.getColumnPositions());
     }
 
     public char fetchCharField(int fieldNumber)
     {
+        if (rowReader != null && rowReader.isCompiled(fieldNumber))
+        {
+            return rowReader.getChar(resultSet, fieldNumber);
+        }
         StatementMappingIndex mapIdx = resultMappings.getMappingForMemberPosition(fieldNumber);
         return mapIdx.getMapping().getChar(ec, resultSet, mapIdx.getColumnPositions());
     }
 
     public byte fetchByteField(int fieldNumber)
     {
+        if (rowReader != null && rowReader.isCompiled(fieldNumber))
+        {
+            return rowReader.getByte(resultSet, fieldNumber);
+        }
         StatementMappingIndex mapIdx = resultMappings.getMappingForMemberPosition(fieldNumber);
         return mapIdx.getMapping().getByte(ec, resultSet, mapIdx.getColumnPositions());
     }
 
     public short fetchShortField(int fieldNumber)
     {
+        if (rowReader != null && rowReader.isCompiled(fieldNumber))
+        {
+            return rowReader.getShort(resultSet, fieldNumber);
+        }
         StatementMappingIndex mapIdx = resultMappings.getMappingForMemberPosition(fieldNumber);
         return mapIdx.getMapping().getShort(ec, resultSet, mapIdx.getColumnPositions());
     }
 
     public int fetchIntField(int fieldNumber)
     {
+        if (rowReader != null && rowReader.isCompiled(fieldNumber))
+        {
+            return rowReader.getInt(resultSet, fieldNumber);
+        }
         StatementMappingIndex mapIdx = resultMappings.getMappingForMemberPosition(fieldNumber);
         return mapIdx.getMapping().getInt(ec, resultSet, mapIdx.getColumnPositions());
     }
 
     public long fetchLongField(int fieldNumber)
     {
+        if (rowReader != null && rowReader.isCompiled(fieldNumber))
+        {
+            return rowReader.getLong(resultSet, fieldNumber);
+        }
         StatementMappingIndex mapIdx = resultMappings.getMappingForMemberPosition(fieldNumber);
         return mapIdx.getMapping().getLong(ec, resultSet, mapIdx.getColumnPositions());
     }
 
     public float fetchFloatField(int fieldNumber)
     {
+        if (rowReader != null && rowReader.isCompiled(fieldNumber))
+        {
+            return rowReader.getFloat(resultSet, fieldNumber);
+        }
         StatementMappingIndex mapIdx = resultMappings.getMappingForMemberPosition(fieldNumber);
         return mapIdx.getMapping().getFloat(ec, resultSet, mapIdx.getColumnPositions());
     }
 
     public double fetchDoubleField(int fieldNumber)
     {
+        if (rowReader != null && rowReader.isCompiled(fieldNumber))
+        {
+            return rowReader.getDouble(resultSet, fieldNumber);
+        }
         StatementMappingIndex mapIdx = resultMappings.getMappingForMemberPosition(fieldNumber);
         return mapIdx.getMapping().getDouble(ec, resultSet, mapIdx.getColumnPositions());
     }
 
     public String fetchStringField(int fieldNumber)
     {
+        if (rowReader != null && rowReader.isCompiled(fieldNumber))
+        {
+            return rowReader.getString(resultSet, fieldNumber);
+        }
         StatementMappingIndex mapIdx = resultMappings.getMappingForMemberPosition(fieldNumber);
         return mapIdx.getMapping().getString(ec, resultSet, mapIdx.getColumnPositions());
     }
 
     public Object fetchObjectField(int fieldNumber)
     {
+        if (rowReader != null && rowReader.isCompiled(fieldNumber))
+        {
+            // Simple member, not wrappable or a relation, so just return the value
+            return rowReader.getObject(resultSet, fieldNumber);
+        }
         StatementMappingIndex mapIdx = resultMappings.getMappingForMemberPosition(fieldNumber);
         JavaTypeMapping mapping = mapIdx.getMapping();
         AbstractMemberMetaData mmd = cmd.getMetaDataForManagedMemberAtAbsolutePosition(fieldNumber);
@@ -0,0 +1,334 @@
+/**********************************************************************
+Copyright (c) 2026 DataNucleus contributors. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+package org.datanucleus.store.rdbms.fieldmanager;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.datanucleus.ClassLoaderResolver;
+import org.datanucleus.exceptions.NucleusDataStoreException;
+import org.datanucleus.metadata.AbstractClassMetaData;
+import org.datanucleus.metadata.AbstractMemberMetaData;
+import org.datanucleus.metadata.RelationType;
+import org.datanucleus.store.rdbms.exceptions.NullValueException;
+import org.datanucleus.store.rdbms.mapping.StatementClassMapping;
+import org.datanucleus.store.rdbms.mapping.StatementMappingIndex;
+import org.datanucleus.store.rdbms.mapping.datastore.BigIntRDBMSMapping;
+import org.datanucleus.store.rdbms.mapping.datastore.DatastoreMapping;
+import org.datanucleus.store.rdbms.mapping.datastore.DoubleRDBMSMapping;
+import org.datanucleus.store.rdbms.mapping.datastore.IntegerRDBMSMapping;
+import org.datanucleus.store.rdbms.mapping.java.BooleanMapping;
+import org.datanucleus.store.rdbms.mapping.java.ByteMapping;
+import org.datanucleus.store.rdbms.mapping.java.CharacterMapping;
+import org.datanucleus.store.rdbms.mapping.java.DoubleMapping;
+import org.datanucleus.store.rdbms.mapping.java.FloatMapping;
+import org.datanucleus.store.rdbms.mapping.java.IntegerMapping;
+import org.datanucleus.store.rdbms.mapping.java.JavaTypeMapping;
+import org.datanucleus.store.rdbms.mapping.java.LongMapping;
+import org.datanucleus.store.rdbms.mapping.java.ShortMapping;
+import org.datanucleus.store.rdbms.mapping.java.StringMapping;
+import org.datanucleus.store.rdbms.table.Column;
+import org.datanucleus.util.Localiser;
+
+/**
+ * Reader for the members of a class from a row of a ResultSet, compiled for a particular class and StatementClassMapping.
+ * For each member that is a primitive, wrapper or String stored in a single column, the datastore mapping, column position
+ * and nullability of the column are resolved when the reader is compiled. Reading such a member for a row then goes straight
+ * to the datastore mapping (or to the JDBC getter for INTEGER, BIGINT and DOUBLE columns), without looking up the
+ * mapping definition, member metadata and relation type for each row. All other members are read by {@link ResultSetGetter}
+ * as normal.
+ * <p>
+ * Readers are immutable, and are cached on the StatementClassMapping so that they are reused by later rows and executions.
+ */
+public class ResultSetRowReader
+{
+    /** Java type mappings that read the value from their (single) datastore mapping without any further processing. */
+    private static final Set<Class> SIMPLE_JAVA_MAPPINGS = new HashSet<Class>(Arrays.asList(new Class[] {BooleanMapping.class, ByteMapping.class,
+        CharacterMapping.class, ShortMapping.class, IntegerMapping.class, LongMapping.class, FloatMapping.class, DoubleMapping.class, StringMapping.class}));
+
+    private static final byte COLUMN_OTHER = 0;
+    private static final byte COLUMN_INTEGER = 1;
+    private static final byte COLUMN_BIGINT = 2;
+    private static final byte COLUMN_DOUBLE = 3;
+
+    /** Metadata for the class that this reader is for. */
+    private final AbstractClassMetaData cmd;
+
+    /** Datastore mapping for each compiled member, indexed by the absolute member number (null when not compiled). */
+    private final DatastoreMapping[] datastoreMappings;
+
+    /** Position of the column in the ResultSet for each compiled member. */
+    private final int[] columnPositions;
+
+    /** Type of column for each compiled member, where it can be read using the JDBC getter directly. */
+    private final byte[] columnTypes;
+
+    /** Whether the column allows null values for each compiled member. */
+    private final boolean[] allowsNull;
+
+    /**
+     * Accessor for the reader for the specified class and mapping definition, compiling it if not yet available.
+     * @param cmd Metadata for the class being read
+     * @param mappingDefinition Mapping definition for the results
+     * @param clr ClassLoader resolver
+     * @return The reader
+     */
+    public static ResultSetRowReader getReader(AbstractClassMetaData cmd, StatementClassMapping mappingDefinition, ClassLoaderResolver clr)
+    {
+        ResultSetRowReader reader = mappingDefinition.getRowReader(cmd.getFullClassName());
+        if (reader == null || reader.cmd != cmd)
+        {
+            reader = new ResultSetRowReader(cmd, mappingDefinition, clr);
+            mappingDefinition.setRowReader(cmd.getFullClassName(), reader);
+        }
+        return reader;
+    }
+
+    /**
+     * Constructor, compiling the reader for the members of the mapping definition.
+     * @param cmd Metadata for the class being read
+     * @param mappingDefinition Mapping definition for the results
+     * @param clr ClassLoader resolver
+     */
+    public ResultSetRowReader(AbstractClassMetaData cmd, StatementClassMapping mappingDefinition, ClassLoaderResolver clr)
+    {
+        this.cmd = cmd;
+
+        int[] memberNumbers = mappingDefinition.getMemberNumbers();
+        int numMembers = 0;
+        if (memberNumbers != null)
+        {
+            for (int i=0;i<memberNumbers.length;i++)
+            {
+                numMembers = Math.max(numMembers, memberNumbers[i] + 1);
+            }
+        }
+        datastoreMappings = new DatastoreMapping[numMembers];
+        columnPositions = new int[numMembers];
+        columnTypes = new byte[numMembers];
+        allowsNull = new boolean[numMembers];
+
+        boolean[] scoMutableFlags = cmd.getSCOMutableMemberFlags();
+        for (int i=0;i<(memberNumbers != null ? memberNumbers.length : 0);i++)
+        {
+            int memberNumber = memberNumbers[i];
+            if (memberNumber < 0 || (scoMutableFlags != null && memberNumber < scoMutableFlags.length && scoMutableFlags[memberNumber]))
+            {
+                continue;
+            }
+
+            StatementMappingIndex mapIdx = mappingDefinition.getMappingForMemberPosition(memberNumber);
+            if (mapIdx == null)
+            {
+                continue;
+            }
+            JavaTypeMapping mapping = mapIdx.getMapping();
+            int[] colPositions = mapIdx.getColumnPositions();
+            if (mapping == null || colPositions == null || colPositions.length != 1 || !SIMPLE_JAVA_MAPPINGS.contains(mapping.getClass()) ||
+                mapping.getNumberOfDatastoreMappings() != 1)
+            {
+                continue;
+            }
+
+            AbstractMemberMetaData mmd = cmd.getMetaDataForManagedMemberAtAbsolutePosition(memberNumber);
+            if (mmd == null || mmd.isSingleCollection() || mmd.getRelationType(clr) != RelationType.NONE)
+            {
+                continue;
+            }
+
+            compileMember(memberNumber, mapping.getDatastoreMapping(0), colPositions[0]);
+        }
+    }
+
+    /**
+     * Constructor for a reader of members already resolved to their datastore mapping and column position.
+     * @param cmd Metadata for the class being read
+     * @param dsMappings Datastore mapping for each member, indexed by the absolute member number (null when not compiled)
+     * @param colPositions Position of the column in the ResultSet for each member
+     */
+    ResultSetRowReader(AbstractClassMetaData cmd, DatastoreMapping[] dsMappings, int[] colPositions)
+    {
+        this.cmd = cmd;
+
+        datastoreMappings = new DatastoreMapping[dsMappings.length];
+        columnPositions = new int[dsMappings.length];
+        columnTypes = new byte[dsMappings.length];
+        allowsNull = new boolean[dsMappings.length];
+        for (int i=0;i<dsMappings.length;i++)
+        {
+            if (dsMappings[i] != null)
+            {
+                compileMember(i, dsMappings[i], colPositions[i]);
+            }
+        }
+    }
+
+    /**
+     * Method to compile the reading of a member from the specified column.
+     * @param memberNumber Absolute number of the member
+     * @param dsMapping Datastore mapping for the column
+     * @param colPosition Position of the column in the ResultSet
+     */
+    private void compileMember(int memberNumber, DatastoreMapping dsMapping, int colPosition)
+    {
+        Column col = dsMapping.getColumn();
+        datastoreMappings[memberNumber] = dsMapping;
+        columnPositions[memberNumber] = colPosition;
+        allowsNull[memberNumber] = (col != null && col.getColumnMetaData() != null && col.getColumnMetaData().isAllowsNull());
+        if (dsMapping.getClass() == IntegerRDBMSMapping.class)
+        {
+            columnTypes[memberNumber] = COLUMN_INTEGER;
+        }
+        else if (dsMapping.getClass() == BigIntRDBMSMapping.class)
+        {
+            columnTypes[memberNumber] = COLUMN_BIGINT;
+        }
+        else if (dsMapping.getClass() == DoubleRDBMSMapping.class)
+        {
+            columnTypes[memberNumber] = COLUMN_DOUBLE;
+        }
+        else
+        {
+            columnTypes[memberNumber] = COLUMN_OTHER;
+        }
+    }
+
+    public AbstractClassMetaData getClassMetaData()
+    {
+        return cmd;
+    }
+
+    /**
+     * Accessor for whether the specified member is read by this reader.
+     * @param memberNumber Absolute number of the member
+     * @return Whether it is compiled
+     */
+    public boolean isCompiled(int memberNumber)
+    {
+        return memberNumber >= 0 && memberNumber < datastoreMappings.length && datastoreMappings[memberNumber] != null;
+    }
+
+    public boolean getBoolean(ResultSet rs, int memberNumber)
+    {
+        return datastoreMappings[memberNumber].getBoolean(rs, columnPositions[memberNumber]);
+    }
+
+    public char getChar(ResultSet rs, int memberNumber)
+    {
+        return datastoreMappings[memberNumber].getChar(rs, columnPositions[memberNumber]);
+    }
+
+    public byte getByte(ResultSet rs, int memberNumber)
+    {
+        return datastoreMappings[memberNumber].getByte(rs, columnPositions[memberNumber]);
+    }
+
+    public short getShort(ResultSet rs, int memberNumber)
+    {
+        return datastoreMappings[memberNumber].getShort(rs, columnPositions[memberNumber]);
+    }
+
+    public int getInt(ResultSet rs, int memberNumber)
+    {
+        byte columnType = columnTypes[memberNumber];
+        if (columnType != COLUMN_INTEGER && columnType != COLUMN_BIGINT)
+        {
+            return datastoreMappings[memberNumber].getInt(rs, columnPositions[memberNumber]);
+        }
+
+        int param = columnPositions[memberNumber];
+        try
+        {
+            int value = (columnType == COLUMN_INTEGER ? rs.getInt(param) : (int) rs.getLong(param));
+            if (!allowsNull[memberNumber] && rs.wasNull())
+            {
+                throw new NullValueException(Localiser.msg("055003", datastoreMappings[memberNumber].getColumn()));
+            }
+            return value;
+        }
+        catch (SQLException e)
+        {
+            throw new NucleusDataStoreException(Localiser.msg("055002", "int", "" + param, datastoreMappings[memberNumber].getColumn(), e.getMessage()), e);
+        }
+    }
+
+    public long getLong(ResultSet rs, int memberNumber)
+    {
+        byte columnType = columnTypes[memberNumber];
+        if (columnType != COLUMN_INTEGER && columnType != COLUMN_BIGINT)
+        {
+            return datastoreMappings[memberNumber].getLong(rs, columnPositions[memberNumber]);
+        }
+
+        int param = columnPositions[memberNumber];
+        try
+        {
+            long value = rs.getLong(param);
+            if (!allowsNull[memberNumber] && rs.wasNull())
+            {
+                throw new NullValueException(Localiser.msg("055003", datastoreMappings[memberNumber].getColumn()));
+            }
+            return value;
+        }
+        catch (SQLException e)
+        {
+            throw new NucleusDataStoreException(Localiser.msg("055002", "long", "" + param, datastoreMappings[memberNumber].getColumn(), e.getMessage()), e);
+        }
+    }
+
+    public float getFloat(ResultSet rs, int memberNumber)
+    {
+        return datastoreMappings[memberNumber].getFloat(rs, columnPositions[memberNumber]);
+    }
+
+    public double getDouble(ResultSet rs, int memberNumber)
+    {
+        if (columnTypes[memberNumber] != COLUMN_DOUBLE)
+        {
+            return datastoreMappings[memberNumber].getDouble(rs, columnPositions[memberNumber]);
+        }
+
+        int param = columnPositions[memberNumber];
+        try
+        {
+            double value = rs.getDouble(param);
+            if (!allowsNull[memberNumber] && rs.wasNull())
+            {
+                throw new NullValueException(Localiser.msg("055003", datastoreMappings[memberNumber].getColumn()));
+            }
+            return value;
+        }
+        catch (SQLException e)
+        {
+            throw new NucleusDataStoreException(Localiser.msg("055002", "double", "" + param, datastoreMappings[memberNumber].getColumn(), e.getMessage()), e);
+        }
+    }
+
+    public String getString(ResultSet rs, int memberNumber)
+    {
+        return datastoreMappings[memberNumber].getString(rs, columnPositions[memberNumber]);
+    }
+
+    public Object getObject(ResultSet rs, int memberNumber)
+    {
+        return datastoreMappings[memberNumber].getObject(rs, columnPositions[memberNumber]);
+    }
+}
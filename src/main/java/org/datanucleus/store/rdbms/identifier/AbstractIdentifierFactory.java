@@ -17,6 +17,7 @@
  **********************************************************************/
 package org.datanucleus.store.rdbms.identifier;
 
+import java.util.Collections;
 import java.util.Map;
 import java.util.WeakHashMap;
 
@@ -78,14 +79,15 @@ public abstract class AbstractIdentifierFactory implements IdentifierFactory
     /** Separator to use for words in the identifiers. */
     protected String wordSeparator = "_";
 
-    protected Map<String, DatastoreIdentifier> tables = new WeakHashMap();
-    protected Map<String, DatastoreIdentifier> columns = new WeakHashMap();
-    protected Map<String, DatastoreIdentifier> foreignkeys = new WeakHashMap();
-    protected Map<String, DatastoreIdentifier> indexes = new WeakHashMap();
-    protected Map<String, DatastoreIdentifier> candidates = new WeakHashMap();
-    protected Map<String, DatastoreIdentifier> primarykeys = new WeakHashMap();
-    protected Map<String, DatastoreIdentifier> sequences = new WeakHashMap();
-    protected Map<String, DatastoreIdentifier> references = new WeakHashMap();
+    /** Caches of identifiers, which can be accessed by multiple threads (e.g parallel schema validation). */
+    protected Map<String, DatastoreIdentifier> tables = Collections.synchronizedMap(new WeakHashMap<String, DatastoreIdentifier>());
+    protected Map<String, DatastoreIdentifier> columns = Collections.synchronizedMap(new WeakHashMap<String, DatastoreIdentifier>());
+    protected Map<String, DatastoreIdentifier> foreignkeys = Collections.synchronizedMap(new WeakHashMap<String, DatastoreIdentifier>());
+    protected Map<String, DatastoreIdentifier> indexes = Collections.synchronizedMap(new WeakHashMap<String, DatastoreIdentifier>());
+    protected Map<String, DatastoreIdentifier> candidates = Collections.synchronizedMap(new WeakHashMap<String, DatastoreIdentifier>());
+    protected Map<String, DatastoreIdentifier> primarykeys = Collections.synchronizedMap(new WeakHashMap<String, DatastoreIdentifier>());
+    protected Map<String, DatastoreIdentifier> sequences = Collections.synchronizedMap(new WeakHashMap<String, DatastoreIdentifier>());
+    protected Map<String, DatastoreIdentifier> references = Collections.synchronizedMap(new WeakHashMap<String, DatastoreIdentifier>());
 
     /** Default catalog name for any created identifiers. */
     protected String defaultCatalogName = null;
@@ -20,6 +20,9 @@ package org.datanucleus.store.rdbms.mapping;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.datanucleus.store.rdbms.fieldmanager.ResultSetRowReader;
 
 /**
  * Definition of statement mapping for a particular class.
@@ -85,6 +88,9 @@ public class StatementClassMapping
     /** Mapping definition for a member that is a relation in this statement, keyed by the member number. */
     Map<Integer, StatementClassMapping> children;
 
+    /** Compiled readers for rows of this definition, keyed by the name of the class being read. */
+    volatile Map<String, ResultSetRowReader> rowReaders;
+
     public StatementClassMapping()
     {
         this(null, null);
@@ -208,9 +214,37 @@ public class StatementClassMapping
     public void addMappingForMember(int position, StatementMappingIndex mapping)
     {
         memberNumbers = null;
+        rowReaders = null;
         mappings.put(position, mapping);
     }
 
+    /**
+     * Accessor for the compiled reader for rows of this definition when reading the specified class.
+     * @param className Name of the class being read
+     * @return The reader, or null if not yet compiled
+     */
+    public ResultSetRowReader getRowReader(String className)
+    {
+        Map<String, ResultSetRowReader> readers = rowReaders;
+        return (readers != null ? readers.get(className) : null);
+    }
+
+    /**
+     * Method to register the compiled reader for rows of this definition when reading the specified class.
+     * @param className Name of the class being read
+     * @param reader The reader
+     */
+    public synchronized void setRowReader(String className, ResultSetRowReader reader)
+    {
+        Map<String, ResultSetRowReader> readers = rowReaders;
+        if (readers == null)
+        {
+            readers = new ConcurrentHashMap<>();
+            rowReaders = readers;
+        }
+        readers.put(className, reader);
+    }
+
     public void addMappingDefinitionForMember(int position, StatementClassMapping defn)
     {
         memberNumbers = null;
@@ -21,23 +21,15 @@ package org.datanucleus.store.rdbms.query;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
-import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.datanucleus.ExecutionContext;
-import org.datanucleus.exceptions.NucleusDataStoreException;
 import org.datanucleus.metadata.AbstractMemberMetaData;
 import org.datanucleus.store.query.AbstractQueryResult;
 import org.datanucleus.store.query.Query;
-import org.datanucleus.store.rdbms.RDBMSStoreManager;
-import org.datanucleus.store.rdbms.mapping.java.EmbeddedElementPCMapping;
-import org.datanucleus.store.rdbms.mapping.java.ReferenceMapping;
-import org.datanucleus.store.rdbms.mapping.java.SerialisedPCMapping;
-import org.datanucleus.store.rdbms.mapping.java.SerialisedReferenceMapping;
-import org.datanucleus.store.rdbms.scostore.ElementContainerStore;
 import org.datanucleus.store.rdbms.scostore.IteratorStatement;
-import org.datanucleus.store.types.SCOUtils;
 import org.datanucleus.util.Localiser;
 import org.datanucleus.util.NucleusLogger;
 import org.datanucleus.util.StringUtils;
@@ -80,6 +72,12 @@ public abstract class AbstractRDBMSQueryResult<E> extends AbstractQueryResult<E>
         this.closeStatementWithResultSet = flag;
     }
 
+    /**
+     * Method to register a ResultSet for bulk-fetch of a multi-valued member.
+     * The ResultSet is read fully now, holding the member values for all owners until the owners are returned.
+     * @param iterStmt The iterator statement for the member
+     * @param rs The ResultSet of the iterator statement
+     */
     public void registerMemberBulkResultSet(IteratorStatement iterStmt, ResultSet rs)
     {
         if (bulkLoadedValueByMemberNumber == null)
@@ -87,78 +85,10 @@ public abstract class AbstractRDBMSQueryResult<E> extends AbstractQueryResult<E>
             bulkLoadedValueByMemberNumber = new HashMap<>();
         }
 
+        BulkFetchResultSetReader reader = new BulkFetchResultSetReader(query, iterStmt, rs);
         try
         {
-            ExecutionContext ec = query.getExecutionContext();
-            AbstractMemberMetaData mmd = iterStmt.getBackingStore().getOwnerMemberMetaData();
-            if (mmd.hasCollection() || mmd.hasArray())
-            {
-                ElementContainerStore backingStore = (ElementContainerStore) iterStmt.getBackingStore();
-                if (backingStore.isElementsAreEmbedded() || backingStore.isElementsAreSerialised())
-                {
-                    int param[] = new int[backingStore.getElementMapping().getNumberOfDatastoreMappings()];
-                    for (int i = 0; i < param.length; ++i)
-                    {
-                        param[i] = i + 1;
-                    }
-
-                    if (backingStore.getElementMapping() instanceof SerialisedPCMapping ||
-                        backingStore.getElementMapping() instanceof SerialisedReferenceMapping ||
-                        backingStore.getElementMapping() instanceof EmbeddedElementPCMapping)
-                    {
-                        // Element = Serialised
-                        while (rs.next())
-                        {
-                            Object owner = iterStmt.getOwnerMapIndex().getMapping().getObject(ec, rs, iterStmt.getOwnerMapIndex().getColumnPositions());
-                            Object element = backingStore.getElementMapping().getObject(ec, rs, param, ec.findObjectProvider(owner), 
-                                backingStore.getOwnerMemberMetaData().getAbsoluteFieldNumber());
-                            addOwnerMemberValue(mmd, owner, element);
-                        }
-                    }
-                    else
-                    {
-                        // Element = Non-PC
-                        while (rs.next())
-                        {
-                            Object owner = iterStmt.getOwnerMapIndex().getMapping().getObject(ec, rs, iterStmt.getOwnerMapIndex().getColumnPositions());
-                            Object element = backingStore.getElementMapping().getObject(ec, rs, param);
-                            addOwnerMemberValue(mmd, owner, element);
-                        }
-                    }
-                }
-                else if (backingStore.getElementMapping() instanceof ReferenceMapping)
-                {
-                    // Element is Reference (interface/Object) so just use elementMapping
-                    int param[] = new int[backingStore.getElementMapping().getNumberOfDatastoreMappings()];
-                    for (int i = 0; i < param.length; ++i)
-                    {
-                        param[i] = i + 1;
-                    }
-                    while (rs.next())
-                    {
-                        Object owner = iterStmt.getOwnerMapIndex().getMapping().getObject(ec, rs, iterStmt.getOwnerMapIndex().getColumnPositions());
-                        Object element = backingStore.getElementMapping().getObject(ec, rs, param);
-                        addOwnerMemberValue(mmd, owner, element);
-                    }
-                }
-                else
-                {
-                    String elementType = mmd.hasCollection() ? 
-                            backingStore.getOwnerMemberMetaData().getCollection().getElementType() : backingStore.getOwnerMemberMetaData().getArray().getElementType();
-                    ResultObjectFactory<E> scoROF = new PersistentClassROF((RDBMSStoreManager)query.getStoreManager(), backingStore.getElementClassMetaData(),
-                        iterStmt.getStatementClassMapping(), false, null, ec.getClassLoaderResolver().classForName(elementType));
-                    while (rs.next())
-                    {
-                        Object owner = iterStmt.getOwnerMapIndex().getMapping().getObject(ec, rs, iterStmt.getOwnerMapIndex().getColumnPositions());
-                        Object element = scoROF.getObject(ec, rs);
-                        addOwnerMemberValue(mmd, owner, element);
-                    }
-                }
-            }
-            else if (mmd.hasMap())
-            {
-                // TODO Cater for maps
-            }
+            reader.readAll(bulkLoadedValueByMemberNumber);
         }
         catch (SQLException sqle)
         {
@@ -167,72 +97,37 @@ public abstract class AbstractRDBMSQueryResult<E> extends AbstractQueryResult<E>
         finally
         {
             // Close the ResultSet (and its Statement)
-            try
-            {
-                Statement stmt = null;
-                try
-                {
-                    stmt = rs.getStatement();
-
-                    // Close the result set
-                    rs.close();
-                }
-                catch (SQLException e)
-                {
-                    NucleusLogger.DATASTORE.error(Localiser.msg("052605",e));
-                }
-                finally
-                {
-                    try
-                    {
-                        if (stmt != null)
-                        {
-                            // Close the original statement
-                            stmt.close();
-                        }
-                    }
-                    catch (SQLException e)
-                    {
-                        // Do nothing
-                    }
-                }
-            }
-            finally
-            {
-                rs = null;
-            }
+            reader.close();
         }
     }
 
-    public abstract void initialise()
-    throws SQLException;
+    /**
+     * Method to register a ResultSet for bulk-fetch of a multi-valued member, where the ResultSet is ordered by the owner id
+     * in the same order as the candidate results. By default this reads the whole ResultSet now, as for
+     * {@link #registerMemberBulkResultSet(IteratorStatement, ResultSet)}; query results that process the candidates in
+     * ResultSet order can override this to read the member values in step with the candidates.
+     * @param iterStmt The iterator statement for the member
+     * @param rs The ResultSet of the iterator statement
+     */
+    public void registerMemberBulkResultSetOrderedByOwner(IteratorStatement iterStmt, ResultSet rs)
+    {
+        registerMemberBulkResultSet(iterStmt, rs);
+    }
 
-    private void addOwnerMemberValue(AbstractMemberMetaData mmd, Object owner, Object element)
+    /**
+     * Method to register multi-valued members for bulk-fetch by owner id, retrieving the members for the candidates as they are read.
+     * By default this isn't supported, so the members will be loaded when accessed; query results that read the candidates
+     * in order can override this.
+     * @param mmds Metadata for the multi-valued members
+     */
+    public void registerMembersForBulkFetchByOwnerIds(List<AbstractMemberMetaData> mmds)
     {
-        Object ownerId = api.getIdForObject(owner);
-        Map<Integer, Object> fieldValuesForOwner = bulkLoadedValueByMemberNumber.get(ownerId);
-        if (fieldValuesForOwner == null)
-        {
-            fieldValuesForOwner = new HashMap<>();
-            bulkLoadedValueByMemberNumber.put(ownerId, fieldValuesForOwner);
-        }
-        Collection coll = (Collection) fieldValuesForOwner.get(mmd.getAbsoluteFieldNumber());
-        if (coll == null)
-        {
-            try
-            {
-                Class instanceType = SCOUtils.getContainerInstanceType(mmd.getType(), mmd.getOrderMetaData() != null);
-                coll = (Collection<Object>) instanceType.newInstance();
-                fieldValuesForOwner.put(mmd.getAbsoluteFieldNumber(), coll);
-            }
-            catch (Exception e)
-            {
-                throw new NucleusDataStoreException(e.getMessage(), e);
-            }
-        }
-        coll.add(element);
+        NucleusLogger.QUERY.debug("Bulk-fetch of multi-valued fields by owner id is not supported for " + getClass().getName() + " so they will be loaded when accessed");
     }
 
+    public abstract void initialise()
+    throws SQLException;
+
     /**
      * Method to disconnect the results from the ExecutionContext, meaning that thereafter it just behaves
      * like a List. All remaining results are read in at this point (unless selected not to be).
@@ -34,6 +34,7 @@ import org.datanucleus.store.query.Query;
 import org.datanucleus.store.rdbms.RDBMSStoreManager;
 import org.datanucleus.store.rdbms.mapping.StatementMappingIndex;
 import org.datanucleus.store.rdbms.mapping.java.JavaTypeMapping;
+import org.datanucleus.store.rdbms.scostore.AbstractMapStore;
 import org.datanucleus.store.rdbms.scostore.BaseContainerStore;
 import org.datanucleus.store.rdbms.scostore.FKArrayStore;
 import org.datanucleus.store.rdbms.scostore.FKListStore;
@@ -47,6 +48,7 @@ import org.datanucleus.store.rdbms.scostore.JoinSetStore;
 import org.datanucleus.store.rdbms.sql.SQLStatement;
 import org.datanucleus.store.rdbms.sql.SQLStatementHelper;
 import org.datanucleus.store.rdbms.sql.SQLStatementParameter;
+import org.datanucleus.store.rdbms.sql.SQLTable;
 import org.datanucleus.store.rdbms.sql.SelectStatement;
 import org.datanucleus.store.rdbms.sql.expression.BooleanExpression;
 import org.datanucleus.store.rdbms.sql.expression.BooleanSubqueryExpression;
@@ -64,7 +66,7 @@ import org.datanucleus.store.types.scostore.Store;
  * Obviously there are differences when using a join-table, or when the elements are embedded into the join-table, but the
  * basic idea is we generate an iterator statement for the elements (just like the backing store normally would) except
  * instead of restricting the statement to just a particular owner, it adds an EXISTS clause with the query as the exists
- * subquery).
+ * subquery). For a map field the iterator statement is that of the map entries, selecting the key and value.
  */
 public class BulkFetchExistsHelper
 {
@@ -86,6 +88,24 @@ public class BulkFetchExistsHelper
      */
     public IteratorStatement getSQLStatementForContainerField(AbstractClassMetaData candidateCmd, Map parameters, AbstractMemberMetaData mmd,
             RDBMSQueryCompilation datastoreCompilation, Set<String> mapperOptions)
+    {
+        return getSQLStatementForContainerField(candidateCmd, parameters, mmd, datastoreCompilation, mapperOptions, false);
+    }
+
+    /**
+     * Convenience method to generate a bulk-fetch statement for the specified multi-valued field of the owning query.
+     * When ordering by owner the statement is ordered by the owner id ahead of any ordering of the container itself, so that the
+     * results can be read in step with a candidate statement that is ordered by its id.
+     * @param candidateCmd Metadata for the candidate
+     * @param parameters Parameters for the query
+     * @param mmd Metadata for the multi-valued field
+     * @param datastoreCompilation The datastore compilation of the query
+     * @param mapperOptions Any options for the query to SQL mapper
+     * @param orderByOwner Whether to order the results by the owner id
+     * @return The bulk-fetch statement for retrieving this multi-valued field.
+     */
+    public IteratorStatement getSQLStatementForContainerField(AbstractClassMetaData candidateCmd, Map parameters, AbstractMemberMetaData mmd,
+            RDBMSQueryCompilation datastoreCompilation, Set<String> mapperOptions, boolean orderByOwner)
     {
         IteratorStatement iterStmt = null;
         ExecutionContext ec = query.getExecutionContext();
@@ -116,15 +136,9 @@ public class BulkFetchExistsHelper
         {
             iterStmt = ((FKArrayStore)backingStore).getIteratorStatement(ec, ec.getFetchPlan(), false);
         }
-        else if (backingStore instanceof JoinMapStore)
-        {
-            // TODO Implement this
-            return null;
-        }
-        else if (backingStore instanceof FKMapStore)
+        else if (backingStore instanceof JoinMapStore || backingStore instanceof FKMapStore)
         {
-            // TODO Implement this
-            return null;
+            iterStmt = ((AbstractMapStore)backingStore).getIteratorStatement(false);
         }
 
         if (backingStore instanceof JoinSetStore || backingStore instanceof JoinListStore || backingStore instanceof JoinArrayStore)
@@ -162,6 +176,10 @@ public class BulkFetchExistsHelper
 
             // Select the owner candidate so we can separate the collection elements out to their owner
             int[] ownerColIndexes = sqlStmt.select(joinTblOwnerExpr, null);
+            if (orderByOwner)
+            {
+                orderByOwner(sqlStmt, joinTblOwnerExpr);
+            }
             StatementMappingIndex ownerMapIdx = new StatementMappingIndex(existsStmt.getPrimaryTable().getTable().getIdMapping());
             ownerMapIdx.setColumnPositions(ownerColIndexes);
             iterStmt.setOwnerMapIndex(ownerMapIdx);
@@ -200,19 +218,81 @@ public class BulkFetchExistsHelper
 
             // Select the owner candidate so we can separate the collection elements out to their owner
             int[] ownerColIndexes = sqlStmt.select(elemTblOwnerExpr, null);
+            if (orderByOwner)
+            {
+                orderByOwner(sqlStmt, elemTblOwnerExpr);
+            }
             StatementMappingIndex ownerMapIdx = new StatementMappingIndex(existsStmt.getPrimaryTable().getTable().getIdMapping());
             ownerMapIdx.setColumnPositions(ownerColIndexes);
             iterStmt.setOwnerMapIndex(ownerMapIdx);
         }
-        else if (backingStore instanceof JoinMapStore)
+        else if (backingStore instanceof JoinMapStore || backingStore instanceof FKMapStore)
         {
-            // TODO Implement this
+            // Map using join-table or foreign-key : Generate an iterator query of the form
+            // SELECT MAP_TBL.KEY, MAP_TBL.VALUE FROM MAP_TBL
+            // WHERE EXISTS (SELECT OWNER_TBL.ID FROM OWNER_TBL WHERE (queryWhereClause) AND MAP_TBL.OWNER_ID = OWNER_TBL.ID)
+            SelectStatement sqlStmt = iterStmt.getSelectStatement();
+
+            // Generate the EXISTS subquery (based on the JDOQL/JPQL query)
+            SelectStatement existsStmt = RDBMSQueryUtils.getStatementForCandidates(storeMgr, sqlStmt, candidateCmd,
+                datastoreCompilation.getResultDefinitionForClass(), ec, query.getCandidateClass(), query.isSubclasses(), query.getResult(), null, null);
+            Set<String> options = new HashSet<>();
+            if (mapperOptions != null)
+            {
+                options.addAll(mapperOptions);
+            }
+            options.add(QueryToSQLMapper.OPTION_SELECT_CANDIDATE_ID_ONLY);
+            QueryToSQLMapper sqlMapper = new QueryToSQLMapper(existsStmt, query.getCompilation(), parameters,
+                null, null, candidateCmd, query.isSubclasses(), query.getFetchPlan(), ec, query.getParsedImports(), options, query.getExtensions());
+            sqlMapper.compile();
+
+            // Add EXISTS clause on iterator statement so we can restrict to just the owners in this query
+            existsStmt.setOrdering(null, null); // ORDER BY in EXISTS is forbidden by some RDBMS
+            BooleanExpression existsExpr = new BooleanSubqueryExpression(sqlStmt, "EXISTS", existsStmt);
+            sqlStmt.whereAnd(existsExpr, true);
+
+            // Join to outer statement so we restrict to map entries for the query candidates
+            JavaTypeMapping mapOwnerMapping = ((BaseContainerStore) backingStore).getOwnerMapping();
+            SQLTable mapOwnerSqlTbl = SQLStatementHelper.getSQLTableForMappingOfTable(sqlStmt, sqlStmt.getPrimaryTable(), mapOwnerMapping);
+            SQLExpression mapTblOwnerExpr = sqlStmt.getRDBMSManager().getSQLExpressionFactory().newExpression(sqlStmt, mapOwnerSqlTbl, mapOwnerMapping);
+            SQLExpression existsOwnerExpr = sqlStmt.getRDBMSManager().getSQLExpressionFactory().newExpression(existsStmt, existsStmt.getPrimaryTable(), 
+                existsStmt.getPrimaryTable().getTable().getIdMapping());
+            existsStmt.whereAnd(mapTblOwnerExpr.eq(existsOwnerExpr), true);
+
+            // Select the owner candidate so we can separate the map entries out to their owner
+            int[] ownerColIndexes = sqlStmt.select(mapTblOwnerExpr, null);
+            if (orderByOwner)
+            {
+                orderByOwner(sqlStmt, mapTblOwnerExpr);
+            }
+            StatementMappingIndex ownerMapIdx = new StatementMappingIndex(existsStmt.getPrimaryTable().getTable().getIdMapping());
+            ownerMapIdx.setColumnPositions(ownerColIndexes);
+            iterStmt.setOwnerMapIndex(ownerMapIdx);
         }
-        else if (backingStore instanceof FKMapStore)
+        return iterStmt;
+    }
+
+    /**
+     * Method to order the bulk-fetch statement by the owner, retaining any existing ordering (e.g list index) within each owner.
+     * @param sqlStmt The bulk-fetch statement
+     * @param ownerExpr Expression for the owner in the bulk-fetch statement
+     */
+    private void orderByOwner(SelectStatement sqlStmt, SQLExpression ownerExpr)
+    {
+        SQLExpression[] currentOrderExprs = sqlStmt.getOrderingExpressions();
+        boolean[] currentOrderDirs = sqlStmt.getOrderingDirections();
+        int numCurrent = (currentOrderExprs != null ? currentOrderExprs.length : 0);
+
+        SQLExpression[] orderExprs = new SQLExpression[numCurrent + 1];
+        boolean[] orderDirs = new boolean[numCurrent + 1];
+        orderExprs[0] = ownerExpr;
+        orderDirs[0] = false;
+        for (int i=0;i<numCurrent;i++)
         {
-            // TODO Implement this
+            orderExprs[i+1] = currentOrderExprs[i];
+            orderDirs[i+1] = (currentOrderDirs != null ? currentOrderDirs[i] : false);
         }
-        return iterStmt;
+        sqlStmt.setOrdering(orderExprs, orderDirs);
     }
 
     /**
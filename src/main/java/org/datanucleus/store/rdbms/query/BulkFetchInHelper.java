@@ -0,0 +1,266 @@
+/**********************************************************************
+Copyright (c) 2026 DataNucleus contributors. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+package org.datanucleus.store.rdbms.query;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.datanucleus.ClassLoaderResolver;
+import org.datanucleus.ExecutionContext;
+import org.datanucleus.exceptions.NucleusDataStoreException;
+import org.datanucleus.metadata.AbstractMemberMetaData;
+import org.datanucleus.store.connection.ManagedConnection;
+import org.datanucleus.store.query.Query;
+import org.datanucleus.store.rdbms.RDBMSStoreManager;
+import org.datanucleus.store.rdbms.SQLController;
+import org.datanucleus.store.rdbms.mapping.StatementMappingIndex;
+import org.datanucleus.store.rdbms.mapping.java.JavaTypeMapping;
+import org.datanucleus.store.rdbms.scostore.AbstractMapStore;
+import org.datanucleus.store.rdbms.scostore.BaseContainerStore;
+import org.datanucleus.store.rdbms.scostore.FKArrayStore;
+import org.datanucleus.store.rdbms.scostore.FKListStore;
+import org.datanucleus.store.rdbms.scostore.FKMapStore;
+import org.datanucleus.store.rdbms.scostore.FKSetStore;
+import org.datanucleus.store.rdbms.scostore.IteratorStatement;
+import org.datanucleus.store.rdbms.scostore.JoinArrayStore;
+import org.datanucleus.store.rdbms.scostore.JoinListStore;
+import org.datanucleus.store.rdbms.scostore.JoinMapStore;
+import org.datanucleus.store.rdbms.scostore.JoinSetStore;
+import org.datanucleus.store.rdbms.sql.SQLStatementHelper;
+import org.datanucleus.store.rdbms.sql.SQLTable;
+import org.datanucleus.store.rdbms.sql.SelectStatement;
+import org.datanucleus.store.rdbms.sql.expression.BooleanExpression;
+import org.datanucleus.store.rdbms.sql.expression.InExpression;
+import org.datanucleus.store.rdbms.sql.expression.SQLExpression;
+import org.datanucleus.store.rdbms.sql.expression.SQLExpressionFactory;
+import org.datanucleus.store.types.scostore.Store;
+import org.datanucleus.util.Localiser;
+import org.datanucleus.util.NucleusLogger;
+
+/**
+ * Helper class to generate and execute bulk-fetch statements for multi-valued fields of a batch of candidates that have
+ * already been retrieved by a query, restricting the container to the owners by their ids. So we generate
+ * <pre>
+ * SELECT ELEM_TBL.COL1, ELEM_TBL.COL2, ..., ELEM_TBL.OWNER_ID FROM ELEM_TBL WHERE ELEM_TBL.OWNER_ID IN (?, ?, ...)
+ * </pre>
+ * rather than re-evaluating the query filter as an EXISTS subquery (see {@link BulkFetchExistsHelper}). The owners are split
+ * into chunks so as not to exceed the maximum number of parameters for a statement on the datastore. Composite owner ids
+ * use an OR of the owner conditions in place of the IN.
+ */
+public class BulkFetchInHelper
+{
+    Query query;
+
+    /** Cache of bulk-fetch statements, keyed by the member name and the number of owners. */
+    Map<String, IteratorStatement> iterStmtByMemberAndSize = new HashMap<>();
+
+    public BulkFetchInHelper(Query q)
+    {
+        this.query = q;
+    }
+
+    /**
+     * Accessor for the maximum number of owners to restrict a single bulk-fetch statement to, for the specified member.
+     * @param mmd Metadata for the multi-valued field
+     * @return The maximum number of owners for a bulk-fetch statement
+     */
+    public int getMaxNumberOfOwnersForStatement(AbstractMemberMetaData mmd)
+    {
+        RDBMSStoreManager storeMgr = (RDBMSStoreManager) query.getStoreManager();
+        Store backingStore = storeMgr.getBackingStoreForField(query.getExecutionContext().getClassLoaderResolver(), mmd, null);
+        int numOwnerCols = ((BaseContainerStore)backingStore).getOwnerMapping().getNumberOfDatastoreMappings();
+        return Math.max(1, storeMgr.getDatastoreAdapter().getMaxStatementParameters() / numOwnerCols);
+    }
+
+    /**
+     * Convenience method to generate a bulk-fetch statement for the specified multi-valued field, restricted to the specified
+     * number of owners. The owners are parameters named "OWNER0", "OWNER1", etc.
+     * @param mmd Metadata for the multi-valued field
+     * @param numOwners Number of owners to restrict to
+     * @return The bulk-fetch statement, or null if not supported for this type of field
+     */
+    public IteratorStatement getSQLStatementForContainerField(AbstractMemberMetaData mmd, int numOwners)
+    {
+        IteratorStatement iterStmt = null;
+        ExecutionContext ec = query.getExecutionContext();
+        ClassLoaderResolver clr = ec.getClassLoaderResolver();
+        RDBMSStoreManager storeMgr = (RDBMSStoreManager) query.getStoreManager();
+        Store backingStore = storeMgr.getBackingStoreForField(clr, mmd, null);
+        if (backingStore instanceof JoinSetStore)
+        {
+            iterStmt = ((JoinSetStore)backingStore).getIteratorStatement(ec, ec.getFetchPlan(), false);
+        }
+        else if (backingStore instanceof FKSetStore)
+        {
+            iterStmt = ((FKSetStore)backingStore).getIteratorStatement(ec, ec.getFetchPlan(), false);
+        }
+        else if (backingStore instanceof JoinListStore)
+        {
+            iterStmt = ((JoinListStore)backingStore).getIteratorStatement(ec, ec.getFetchPlan(), false, -1, -1);
+        }
+        else if (backingStore instanceof FKListStore)
+        {
+            iterStmt = ((FKListStore)backingStore).getIteratorStatement(ec, ec.getFetchPlan(), false, -1, -1);
+        }
+        else if (backingStore instanceof JoinArrayStore)
+        {
+            iterStmt = ((JoinArrayStore)backingStore).getIteratorStatement(ec, ec.getFetchPlan(), false);
+        }
+        else if (backingStore instanceof FKArrayStore)
+        {
+            iterStmt = ((FKArrayStore)backingStore).getIteratorStatement(ec, ec.getFetchPlan(), false);
+        }
+        else if (backingStore instanceof JoinMapStore || backingStore instanceof FKMapStore)
+        {
+            iterStmt = ((AbstractMapStore)backingStore).getIteratorStatement(false);
+        }
+        if (iterStmt == null)
+        {
+            return null;
+        }
+
+        SelectStatement sqlStmt = iterStmt.getSelectStatement();
+        SQLExpressionFactory exprFactory = sqlStmt.getRDBMSManager().getSQLExpressionFactory();
+        JavaTypeMapping ownerMapping = ((BaseContainerStore) backingStore).getOwnerMapping();
+        SQLTable ownerSqlTbl = SQLStatementHelper.getSQLTableForMappingOfTable(sqlStmt, sqlStmt.getPrimaryTable(), ownerMapping);
+        SQLExpression ownerExpr = exprFactory.newExpression(sqlStmt, ownerSqlTbl, ownerMapping);
+
+        // Restrict to the owners
+        SQLExpression[] ownerVals = new SQLExpression[numOwners];
+        for (int i=0;i<numOwners;i++)
+        {
+            ownerVals[i] = exprFactory.newLiteralParameter(sqlStmt, ownerMapping, null, "OWNER" + i);
+        }
+        BooleanExpression ownerRestrictExpr = null;
+        if (ownerExpr.getNumberOfSubExpressions() == 1)
+        {
+            ownerRestrictExpr = new InExpression(ownerExpr, ownerVals);
+        }
+        else
+        {
+            for (int i=0;i<numOwners;i++)
+            {
+                BooleanExpression ownerEqExpr = ownerExpr.eq(ownerVals[i]);
+                ownerRestrictExpr = (ownerRestrictExpr == null ? ownerEqExpr : ownerRestrictExpr.ior(ownerEqExpr));
+            }
+        }
+        sqlStmt.whereAnd(ownerRestrictExpr, true);
+
+        // Select the owner so we can separate the container contents out to their owner
+        int[] ownerColIndexes = sqlStmt.select(ownerExpr, null);
+        StatementMappingIndex ownerMapIdx = new StatementMappingIndex(ownerMapping);
+        ownerMapIdx.setColumnPositions(ownerColIndexes);
+        iterStmt.setOwnerMapIndex(ownerMapIdx);
+
+        return iterStmt;
+    }
+
+    /**
+     * Method to retrieve the values of the specified multi-valued field for the supplied owners, adding the value for each owner
+     * into the supplied map. Owners that have no rows in the datastore are given an empty container.
+     * @param mmd Metadata for the multi-valued field
+     * @param owners The owners
+     * @param valuesByOwnerId Map of member values keyed by the owner id, with value "Map&lt;fieldNumber, fieldValue&gt;"
+     * @return Whether the values were retrieved (false if not supported for this type of field)
+     */
+    public boolean fetchContainerFieldForOwners(AbstractMemberMetaData mmd, List owners, Map<Object, Map<Integer, Object>> valuesByOwnerId)
+    {
+        ExecutionContext ec = query.getExecutionContext();
+        RDBMSStoreManager storeMgr = (RDBMSStoreManager) query.getStoreManager();
+        int chunkSize = getMaxNumberOfOwnersForStatement(mmd);
+
+        String iterStmtSQL = null;
+        BulkFetchResultSetReader reader = null;
+        try
+        {
+            ManagedConnection mconn = storeMgr.getConnection(ec);
+            SQLController sqlControl = storeMgr.getSQLController();
+            try
+            {
+                for (int start = 0; start < owners.size(); start += chunkSize)
+                {
+                    List chunk = owners.subList(start, Math.min(start + chunkSize, owners.size()));
+                    String stmtKey = mmd.getFullFieldName() + "_" + chunk.size();
+                    IteratorStatement iterStmt = iterStmtByMemberAndSize.get(stmtKey);
+                    if (iterStmt == null)
+                    {
+                        iterStmt = getSQLStatementForContainerField(mmd, chunk.size());
+                        if (iterStmt == null)
+                        {
+                            return false;
+                        }
+                        iterStmtByMemberAndSize.put(stmtKey, iterStmt);
+                    }
+
+                    iterStmtSQL = iterStmt.getSelectStatement().getSQLText().toSQL();
+                    NucleusLogger.DATASTORE_RETRIEVE.debug("Bulk-Fetch of " + mmd.getFullFieldName() + " for " + chunk.size() + " owners");
+                    PreparedStatement ps = sqlControl.getStatementForQuery(mconn, iterStmtSQL);
+                    Map<String, Object> ownerByParamName = new HashMap<>();
+                    for (int i=0;i<chunk.size();i++)
+                    {
+                        ownerByParamName.put("OWNER" + i, chunk.get(i));
+                    }
+                    SQLStatementHelper.applyParametersToStatement(ps, ec, iterStmt.getSelectStatement().getSQLText().getParametersForStatement(),
+                        null, ownerByParamName);
+
+                    ResultSet rs = sqlControl.executeStatementQuery(ec, mconn, iterStmtSQL, ps);
+                    reader = new BulkFetchResultSetReader(query, iterStmt, rs);
+                    try
+                    {
+                        reader.readAll(valuesByOwnerId);
+                    }
+                    finally
+                    {
+                        // Close the ResultSet (and its Statement)
+                        reader.close();
+                    }
+                }
+            }
+            finally
+            {
+                mconn.release();
+            }
+        }
+        catch (SQLException e)
+        {
+            throw new NucleusDataStoreException(Localiser.msg("056006", iterStmtSQL), e);
+        }
+
+        // Owners with no rows have an empty container
+        int fieldNumber = mmd.getAbsoluteFieldNumber();
+        for (Object owner : owners)
+        {
+            Object ownerId = ec.getApiAdapter().getIdForObject(owner);
+            Map<Integer, Object> fieldValuesForOwner = valuesByOwnerId.get(ownerId);
+            if (fieldValuesForOwner == null)
+            {
+                fieldValuesForOwner = new HashMap<>();
+                valuesByOwnerId.put(ownerId, fieldValuesForOwner);
+            }
+            if (!fieldValuesForOwner.containsKey(fieldNumber) && reader != null)
+            {
+                fieldValuesForOwner.put(fieldNumber, reader.newContainer());
+            }
+        }
+        return true;
+    }
+}
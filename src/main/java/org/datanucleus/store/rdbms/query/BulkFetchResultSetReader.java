@@ -0,0 +1,373 @@
+/**********************************************************************
+Copyright (c) 2026 DataNucleus contributors. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+package org.datanucleus.store.rdbms.query;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.datanucleus.ExecutionContext;
+import org.datanucleus.api.ApiAdapter;
+import org.datanucleus.exceptions.NucleusDataStoreException;
+import org.datanucleus.metadata.AbstractMemberMetaData;
+import org.datanucleus.store.query.Query;
+import org.datanucleus.store.rdbms.RDBMSStoreManager;
+import org.datanucleus.store.rdbms.mapping.java.EmbeddedElementPCMapping;
+import org.datanucleus.store.rdbms.mapping.java.EmbeddedKeyPCMapping;
+import org.datanucleus.store.rdbms.mapping.java.EmbeddedValuePCMapping;
+import org.datanucleus.store.rdbms.mapping.java.JavaTypeMapping;
+import org.datanucleus.store.rdbms.mapping.java.ReferenceMapping;
+import org.datanucleus.store.rdbms.mapping.java.SerialisedPCMapping;
+import org.datanucleus.store.rdbms.mapping.java.SerialisedReferenceMapping;
+import org.datanucleus.store.rdbms.scostore.AbstractMapStore;
+import org.datanucleus.store.rdbms.scostore.ElementContainerStore;
+import org.datanucleus.store.rdbms.scostore.IteratorStatement;
+import org.datanucleus.store.types.SCOUtils;
+import org.datanucleus.util.Localiser;
+import org.datanucleus.util.NucleusLogger;
+
+/**
+ * Reader for the ResultSet of a bulk-fetch of a multi-valued member (see {@link BulkFetchExistsHelper}).
+ * Each row is converted into its owner and the element (or map key and value), and added to the container for that owner.
+ * The ResultSet can either be read fully up front via {@link #readAll(Map)}, or, when both the bulk-fetch statement and the candidate
+ * statement are ordered by the owner id, be read in step with the candidate results via {@link #getValueForOwner(Object)} so that
+ * only the container of the current owner is held in memory.
+ */
+public class BulkFetchResultSetReader
+{
+    protected final ExecutionContext ec;
+
+    protected final ApiAdapter api;
+
+    protected final IteratorStatement iterStmt;
+
+    /** Member being bulk-fetched. */
+    protected final AbstractMemberMetaData mmd;
+
+    protected ResultSet rs;
+
+    /** Mapping for the element (collection/array), or null for a map. */
+    protected JavaTypeMapping elementMapping;
+
+    /** Column positions of the element when read via its mapping. */
+    protected int[] elementCols;
+
+    /** Whether the element mapping needs the owner to create the element (embedded/serialised). */
+    protected boolean elementNeedsOwner = false;
+
+    /** Factory for the element when it is a persistable object in its own table. */
+    protected ResultObjectFactory elementROF;
+
+    protected JavaTypeMapping keyMapping;
+
+    protected JavaTypeMapping valueMapping;
+
+    protected int[] keyCols;
+
+    protected int[] valueCols;
+
+    protected boolean keyNeedsOwner = false;
+
+    protected boolean valueNeedsOwner = false;
+
+    /** Whether the ResultSet is positioned at a row that hasn't yet been added to a container (when reading in step). */
+    protected boolean hasCurrentRow = false;
+
+    protected Object currentOwner;
+
+    protected Object currentOwnerId;
+
+    /** Id of the owner that the last value was returned for (when reading in step). */
+    protected Object lastOwnerId;
+
+    /**
+     * Constructor for a reader of a bulk-fetch ResultSet.
+     * @param query The query that the bulk-fetch is for
+     * @param iterStmt The iterator statement for the member
+     * @param rs The ResultSet of the iterator statement
+     */
+    public BulkFetchResultSetReader(Query query, IteratorStatement iterStmt, ResultSet rs)
+    {
+        this(query.getExecutionContext(), iterStmt, iterStmt.getBackingStore().getOwnerMemberMetaData(), rs);
+
+        if (mmd.hasCollection() || mmd.hasArray())
+        {
+            ElementContainerStore backingStore = (ElementContainerStore) iterStmt.getBackingStore();
+            elementMapping = backingStore.getElementMapping();
+            if (backingStore.isElementsAreEmbedded() || backingStore.isElementsAreSerialised() || elementMapping instanceof ReferenceMapping)
+            {
+                elementCols = new int[elementMapping.getNumberOfDatastoreMappings()];
+                for (int i = 0; i < elementCols.length; ++i)
+                {
+                    elementCols[i] = i + 1;
+                }
+
+                if (backingStore.isElementsAreEmbedded() || backingStore.isElementsAreSerialised())
+                {
+                    elementNeedsOwner = (elementMapping instanceof SerialisedPCMapping || elementMapping instanceof SerialisedReferenceMapping ||
+                            elementMapping instanceof EmbeddedElementPCMapping);
+                }
+            }
+            else
+            {
+                String elementType = mmd.hasCollection() ? mmd.getCollection().getElementType() : mmd.getArray().getElementType();
+                elementROF = new PersistentClassROF((RDBMSStoreManager)query.getStoreManager(), backingStore.getElementClassMetaData(),
+                    iterStmt.getStatementClassMapping(), false, null, ec.getClassLoaderResolver().classForName(elementType));
+            }
+        }
+        else if (mmd.hasMap())
+        {
+            AbstractMapStore backingStore = (AbstractMapStore) iterStmt.getBackingStore();
+            keyMapping = backingStore.getKeyMapping();
+            valueMapping = backingStore.getValueMapping();
+            keyCols = iterStmt.getKeyMapIndex().getColumnPositions();
+            valueCols = iterStmt.getValueMapIndex().getColumnPositions();
+            keyNeedsOwner = (keyMapping instanceof EmbeddedKeyPCMapping || keyMapping instanceof SerialisedPCMapping ||
+                    keyMapping instanceof SerialisedReferenceMapping);
+            valueNeedsOwner = (valueMapping instanceof EmbeddedValuePCMapping || valueMapping instanceof SerialisedPCMapping ||
+                    valueMapping instanceof SerialisedReferenceMapping);
+        }
+    }
+
+    /**
+     * Constructor for use by subclasses that convert the rows of the ResultSet themselves.
+     * @param ec ExecutionContext
+     * @param iterStmt The iterator statement for the member (if any)
+     * @param mmd Metadata for the member being bulk-fetched
+     * @param rs The ResultSet of the bulk-fetch
+     */
+    protected BulkFetchResultSetReader(ExecutionContext ec, IteratorStatement iterStmt, AbstractMemberMetaData mmd, ResultSet rs)
+    {
+        this.ec = ec;
+        this.api = ec.getApiAdapter();
+        this.iterStmt = iterStmt;
+        this.mmd = mmd;
+        this.rs = rs;
+    }
+
+    /**
+     * Accessor for the metadata of the member being bulk-fetched.
+     * @return Metadata for the member
+     */
+    public AbstractMemberMetaData getMemberMetaData()
+    {
+        return mmd;
+    }
+
+    /**
+     * Method to read all rows of the ResultSet, adding the container value of each owner into the supplied map.
+     * @param valuesByOwnerId Map of member values keyed by the owner id, with value "Map&lt;fieldNumber, fieldValue&gt;"
+     * @throws SQLException Thrown if an error occurs reading the ResultSet
+     */
+    public void readAll(Map<Object, Map<Integer, Object>> valuesByOwnerId)
+    throws SQLException
+    {
+        while (rs.next())
+        {
+            Object owner = getOwner();
+            Object ownerId = api.getIdForObject(owner);
+            Map<Integer, Object> fieldValuesForOwner = valuesByOwnerId.get(ownerId);
+            if (fieldValuesForOwner == null)
+            {
+                fieldValuesForOwner = new HashMap<>();
+                valuesByOwnerId.put(ownerId, fieldValuesForOwner);
+            }
+            Object container = fieldValuesForOwner.get(mmd.getAbsoluteFieldNumber());
+            if (container == null)
+            {
+                container = newContainer();
+                fieldValuesForOwner.put(mmd.getAbsoluteFieldNumber(), container);
+            }
+            addRowToContainer(owner, container);
+        }
+    }
+
+    /**
+     * Method to position the ResultSet at its first row, ready for reading in step with the candidate results.
+     * @throws SQLException Thrown if an error occurs reading the ResultSet
+     */
+    public void start()
+    throws SQLException
+    {
+        moveToNextRow();
+    }
+
+    /**
+     * Method to return the container value for the specified owner, reading the (contiguous) rows for that owner from the ResultSet.
+     * The owners must be requested in the same order as they appear in the ResultSet, and an owner with no rows is given an empty container.
+     * Since the owner ids cannot be compared in the order of the datastore, an owner in the ResultSet that is never requested (for example
+     * one that is not a candidate) cannot be detected here, and will hold up the reading of later owners. Once all owners have been requested
+     * the caller must therefore check that the ResultSet was fully read, using {@link #getUnreadOwnerId()}.
+     * @param ownerId Id of the owner
+     * @return The container value, or null if the value was already returned for this owner (the candidate row is repeated)
+     * @throws SQLException Thrown if an error occurs reading the ResultSet
+     */
+    public Object getValueForOwner(Object ownerId)
+    throws SQLException
+    {
+        if (lastOwnerId != null && lastOwnerId.equals(ownerId))
+        {
+            return null;
+        }
+        lastOwnerId = ownerId;
+
+        Object container = newContainer();
+        while (hasCurrentRow && currentOwnerId.equals(ownerId))
+        {
+            addRowToContainer(currentOwner, container);
+            moveToNextRow();
+        }
+        return container;
+    }
+
+    /**
+     * Accessor for the id of the owner of the current row of the ResultSet when reading in step, if it has not been read.
+     * When called after the values of all owners have been requested, a non-null value means that the ResultSet has rows for an owner
+     * that wasn't requested (in order), and so the values returned for later owners are incomplete.
+     * @return Id of the owner of the current unread row, or null if all rows have been read
+     */
+    public Object getUnreadOwnerId()
+    {
+        return hasCurrentRow ? currentOwnerId : null;
+    }
+
+    /**
+     * Method to close the ResultSet (and its Statement).
+     */
+    public void close()
+    {
+        if (rs == null)
+        {
+            return;
+        }
+
+        try
+        {
+            Statement stmt = null;
+            try
+            {
+                stmt = rs.getStatement();
+
+                // Close the result set
+                rs.close();
+            }
+            catch (SQLException e)
+            {
+                NucleusLogger.DATASTORE.error(Localiser.msg("052605",e));
+            }
+            finally
+            {
+                try
+                {
+                    if (stmt != null)
+                    {
+                        // Close the original statement
+                        stmt.close();
+                    }
+                }
+                catch (SQLException e)
+                {
+                    // Do nothing
+                }
+            }
+        }
+        finally
+        {
+            rs = null;
+            hasCurrentRow = false;
+            currentOwner = null;
+            currentOwnerId = null;
+        }
+    }
+
+    protected void moveToNextRow()
+    throws SQLException
+    {
+        hasCurrentRow = rs.next();
+        if (hasCurrentRow)
+        {
+            currentOwner = getOwner();
+            currentOwnerId = api.getIdForObject(currentOwner);
+        }
+        else
+        {
+            currentOwner = null;
+            currentOwnerId = null;
+        }
+    }
+
+    protected Object getOwner()
+    {
+        return iterStmt.getOwnerMapIndex().getMapping().getObject(ec, rs, iterStmt.getOwnerMapIndex().getColumnPositions());
+    }
+
+    /**
+     * Method to create an (empty) container of the type for the member.
+     * @return The container
+     */
+    public Object newContainer()
+    {
+        try
+        {
+            Class instanceType = SCOUtils.getContainerInstanceType(mmd.getType(), mmd.getOrderMetaData() != null);
+            return instanceType.newInstance();
+        }
+        catch (Exception e)
+        {
+            throw new NucleusDataStoreException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Method to convert the current row of the ResultSet and add it to the container.
+     * @param owner The owner of the row
+     * @param container The container (Collection or Map) for this owner
+     */
+    protected void addRowToContainer(Object owner, Object container)
+    {
+        int ownerFieldNum = mmd.getAbsoluteFieldNumber();
+        if (mmd.hasMap())
+        {
+            Object key = keyNeedsOwner ? keyMapping.getObject(ec, rs, keyCols, ec.findObjectProvider(owner), ownerFieldNum) :
+                keyMapping.getObject(ec, rs, keyCols);
+            Object value = valueNeedsOwner ? valueMapping.getObject(ec, rs, valueCols, ec.findObjectProvider(owner), ownerFieldNum) :
+                valueMapping.getObject(ec, rs, valueCols);
+            ((Map) container).put(key, value);
+        }
+        else
+        {
+            Object element = null;
+            if (elementROF != null)
+            {
+                element = elementROF.getObject(ec, rs);
+            }
+            else if (elementNeedsOwner)
+            {
+                element = elementMapping.getObject(ec, rs, elementCols, ec.findObjectProvider(owner), ownerFieldNum);
+            }
+            else
+            {
+                element = elementMapping.getObject(ec, rs, elementCols);
+            }
+            ((Collection) container).add(element);
+        }
+    }
+}
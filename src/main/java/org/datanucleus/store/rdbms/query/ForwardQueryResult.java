@@ -26,6 +26,7 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
@@ -34,11 +35,14 @@ import java.util.NoSuchElementException;
 
 import org.datanucleus.ExecutionContext;
 import org.datanucleus.FetchPlan;
+import org.datanucleus.exceptions.NucleusDataStoreException;
 import org.datanucleus.exceptions.NucleusUserException;
+import org.datanucleus.metadata.AbstractMemberMetaData;
 import org.datanucleus.state.ObjectProvider;
 import org.datanucleus.store.query.AbstractQueryResultIterator;
 import org.datanucleus.store.query.Query;
 import org.datanucleus.store.rdbms.JDBCUtils;
+import org.datanucleus.store.rdbms.scostore.IteratorStatement;
 import org.datanucleus.util.Localiser;
 import org.datanucleus.util.NucleusLogger;
 
@@ -66,6 +70,17 @@ public final class ForwardQueryResult<E> extends AbstractRDBMSQueryResult<E> imp
 
     private boolean applyRangeChecks = false;
 
+    /** Readers for bulk-fetch ResultSets that are ordered by owner, so are read in step with the candidate ResultSet. */
+    private List<BulkFetchResultSetReader> orderedBulkFetchReaders = null;
+
+    /** Multi-valued members to bulk-fetch for each batch of candidates, restricting to the ids of the batch. */
+    private List<AbstractMemberMetaData> ownerIdBulkFetchMembers = null;
+
+    private BulkFetchInHelper ownerIdBulkFetchHelper = null;
+
+    /** Number of candidates to read as a batch when bulk-fetching members by owner id. */
+    private int ownerIdBulkFetchBatchSize = 1;
+
     /**
      * Constructor of the result from a Query.
      * @param query The Query
@@ -92,6 +107,60 @@ public final class ForwardQueryResult<E> extends AbstractRDBMSQueryResult<E> imp
         }
     }
 
+    /**
+     * Method to register a ResultSet for bulk-fetch of a multi-valued member, where the ResultSet is ordered by the owner id
+     * in the same order as the candidate results. The member values are read as each candidate is processed, so only the
+     * values of the current candidate are held in memory.
+     * @param iterStmt The iterator statement for the member
+     * @param rs The ResultSet of the iterator statement
+     */
+    public void registerMemberBulkResultSetOrderedByOwner(IteratorStatement iterStmt, ResultSet rs)
+    {
+        BulkFetchResultSetReader reader = new BulkFetchResultSetReader(query, iterStmt, rs);
+        try
+        {
+            reader.start();
+        }
+        catch (SQLException sqle)
+        {
+            NucleusLogger.DATASTORE.error("Exception thrown processing bulk loaded field " + iterStmt.getBackingStore().getOwnerMemberMetaData().getFullFieldName(), sqle);
+            reader.close();
+            return;
+        }
+
+        if (orderedBulkFetchReaders == null)
+        {
+            orderedBulkFetchReaders = new ArrayList<>();
+        }
+        orderedBulkFetchReaders.add(reader);
+    }
+
+    /**
+     * Method to register multi-valued members for bulk-fetch by owner id. The candidates are read in batches (of the FetchPlan
+     * fetch size where specified) and the members are then retrieved for the batch restricting to the candidate ids.
+     * @param mmds Metadata for the multi-valued members
+     */
+    public void registerMembersForBulkFetchByOwnerIds(List<AbstractMemberMetaData> mmds)
+    {
+        ownerIdBulkFetchMembers = new ArrayList<>(mmds);
+        ownerIdBulkFetchHelper = new BulkFetchInHelper(query);
+
+        int fetchSize = query.getFetchPlan().getFetchSize();
+        if (fetchSize > 0)
+        {
+            ownerIdBulkFetchBatchSize = fetchSize;
+        }
+        else
+        {
+            // Default to the most owners that a single bulk-fetch statement can be restricted to
+            ownerIdBulkFetchBatchSize = Integer.MAX_VALUE;
+            for (AbstractMemberMetaData mmd : ownerIdBulkFetchMembers)
+            {
+                ownerIdBulkFetchBatchSize = Math.min(ownerIdBulkFetchBatchSize, ownerIdBulkFetchHelper.getMaxNumberOfOwnersForStatement(mmd));
+            }
+        }
+    }
+
     public void initialise()
     throws SQLException
     {
@@ -176,6 +245,27 @@ public final class ForwardQueryResult<E> extends AbstractRDBMSQueryResult<E> imp
             return null;
         }
 
+        E nextElement = processNextResultSetRow();
+        if (ownerIdBulkFetchMembers != null)
+        {
+            // Read a batch of candidates, and bulk-fetch their multi-valued members restricting to the ids of the batch
+            List<E> batch = new ArrayList<>();
+            batch.add(nextElement);
+            while (moreResultSetRows && batch.size() < ownerIdBulkFetchBatchSize)
+            {
+                batch.add(processNextResultSetRow());
+            }
+            bulkFetchMembersForOwners(batch);
+        }
+        return nextElement;
+    }
+
+    /**
+     * Method to convert the current row of the ResultSet into its object, and advance the ResultSet.
+     * @return The object for the row
+     */
+    private E processNextResultSetRow()
+    {
         // Convert this row into its associated object and save it
         ExecutionContext ec = query.getExecutionContext();
         E nextElement = rof.getObject(ec, rs);
@@ -202,6 +292,33 @@ public final class ForwardQueryResult<E> extends AbstractRDBMSQueryResult<E> imp
                 op.replaceAllLoadedSCOFieldsWithWrappers();
             }
         }
+        if (orderedBulkFetchReaders != null)
+        {
+            // Read the bulk loaded members for this candidate from their (owner-ordered) ResultSets
+            Object id = api.getIdForObject(nextElement);
+            ObjectProvider op = ec.findObjectProvider(nextElement);
+            boolean replaced = false;
+            for (BulkFetchResultSetReader reader : orderedBulkFetchReaders)
+            {
+                try
+                {
+                    Object memberValue = reader.getValueForOwner(id);
+                    if (memberValue != null)
+                    {
+                        op.replaceField(reader.getMemberMetaData().getAbsoluteFieldNumber(), memberValue);
+                        replaced = true;
+                    }
+                }
+                catch (SQLException e)
+                {
+                    throw api.getDataStoreExceptionForException(Localiser.msg("052601",e.getMessage()), e);
+                }
+            }
+            if (replaced)
+            {
+                op.replaceAllLoadedSCOFieldsWithWrappers();
+            }
+        }
 
         // Update the status of whether there are more results outstanding
         if (rs == null)
@@ -223,7 +340,14 @@ public final class ForwardQueryResult<E> extends AbstractRDBMSQueryResult<E> imp
 
             if (!moreResultSetRows)
             {
-                closeResults();
+                try
+                {
+                    checkOrderedBulkFetchReadersComplete();
+                }
+                finally
+                {
+                    closeResults();
+                }
             }
         }
         catch (SQLException e)
@@ -234,6 +358,58 @@ public final class ForwardQueryResult<E> extends AbstractRDBMSQueryResult<E> imp
         return nextElement;
     }
 
+    /**
+     * Method to check, once all candidates have been read, that each bulk-fetch ResultSet read in step with the candidates has been fully
+     * read. Rows left unread belong to an owner that was not matched to a candidate, and will have held up the values of the candidates
+     * after it, so rather than return incomplete values this throws an exception.
+     * @throws NucleusDataStoreException if a bulk-fetch ResultSet has unread rows
+     */
+    private void checkOrderedBulkFetchReadersComplete()
+    {
+        if (orderedBulkFetchReaders != null)
+        {
+            for (BulkFetchResultSetReader reader : orderedBulkFetchReaders)
+            {
+                Object unreadOwnerId = reader.getUnreadOwnerId();
+                if (unreadOwnerId != null)
+                {
+                    throw new NucleusDataStoreException(Localiser.msg("052302", reader.getMemberMetaData().getFullFieldName(), unreadOwnerId));
+                }
+            }
+        }
+    }
+
+    /**
+     * Method to bulk-fetch the multi-valued members registered for fetching by owner id, for the supplied owners.
+     * @param owners The owners
+     */
+    private void bulkFetchMembersForOwners(List<E> owners)
+    {
+        Map<Object, Map<Integer, Object>> valuesByOwnerId = new HashMap<>();
+        for (AbstractMemberMetaData mmd : ownerIdBulkFetchMembers)
+        {
+            if (!ownerIdBulkFetchHelper.fetchContainerFieldForOwners(mmd, owners, valuesByOwnerId))
+            {
+                NucleusLogger.QUERY.debug("Note that query has field " + mmd.getFullFieldName() + " marked in the FetchPlan, yet this is currently not fetched by this query");
+            }
+        }
+
+        ExecutionContext ec = query.getExecutionContext();
+        for (E owner : owners)
+        {
+            Map<Integer, Object> memberValues = valuesByOwnerId.get(api.getIdForObject(owner));
+            if (memberValues != null && !memberValues.isEmpty())
+            {
+                ObjectProvider op = ec.findObjectProvider(owner);
+                for (Map.Entry<Integer, Object> memberValueEntry : memberValues.entrySet())
+                {
+                    op.replaceField(memberValueEntry.getKey(), memberValueEntry.getValue());
+                }
+                op.replaceAllLoadedSCOFieldsWithWrappers();
+            }
+        }
+    }
+
     /**
      * Internal method to close the ResultSet.
      */
@@ -242,6 +418,16 @@ public final class ForwardQueryResult<E> extends AbstractRDBMSQueryResult<E> imp
         // Close ResultSet
         super.closeResults();
 
+        if (orderedBulkFetchReaders != null)
+        {
+            // Close any bulk-fetch ResultSets being read in step with the candidates
+            for (BulkFetchResultSetReader reader : orderedBulkFetchReaders)
+            {
+                reader.close();
+            }
+            orderedBulkFetchReaders = null;
+        }
+
         if (resultIds != null)
         {
             // Cache the results with the QueryManager
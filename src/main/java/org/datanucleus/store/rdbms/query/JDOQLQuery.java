@@ -221,11 +221,14 @@ public class JDOQLQuery extends AbstractJDOQLQuery
      */
     protected String getQueryCacheKey()
     {
+        String queryCacheKey = KeysetPaginationHelper.getQueryCacheKey(super.getQueryCacheKey(), getExtension(KeysetPaginationHelper.EXTENSION_KEYSET_AFTER));
+        queryCacheKey = RDBMSQueryUtils.getQueryCacheKeyForBulkFetch(queryCacheKey, getStringExtensionProperty(RDBMSPropertyNames.PROPERTY_RDBMS_QUERY_MULTIVALUED_FETCH, null),
+            candidateCollection != null, range != null, RDBMSQueryUtils.getResultSetTypeForQuery(this));
         if (getSerializeRead() != null && getSerializeRead())
         {
-            return super.getQueryCacheKey() + " FOR UPDATE";
+            return queryCacheKey + " FOR UPDATE";
         }
-        return super.getQueryCacheKey();
+        return queryCacheKey;
     }
 
     /**
@@ -569,6 +572,12 @@ public class JDOQLQuery extends AbstractJDOQLQuery
             return Collections.EMPTY_LIST;
         }
 
+        if (type == QueryType.SELECT)
+        {
+            // Add the values for any keyset pagination, for the parameters of its predicate
+            parameters = KeysetPaginationHelper.getParameterValues(parameters, getExtension(KeysetPaginationHelper.EXTENSION_KEYSET_AFTER));
+        }
+
         boolean inMemory = evaluateInMemory();
         if (candidateCollection != null)
         {
@@ -594,7 +603,8 @@ public class JDOQLQuery extends AbstractJDOQLQuery
 
         Object results = null;
         RDBMSStoreManager storeMgr = (RDBMSStoreManager)getStoreManager();
-        ManagedConnection mconn = storeMgr.getConnection(ec);
+        ManagedConnection mconn = (type == QueryType.SELECT && RDBMSQueryUtils.useReadReplicaForQuery(this)) ?
+                storeMgr.getConnectionForRead(ec) : storeMgr.getConnection(ec);
         try
         {
             // Execute the query
@@ -676,6 +686,12 @@ public class JDOQLQuery extends AbstractJDOQLQuery
                                 qr = new ForwardQueryResult(this, rof, rs, getResultDistinct() ? null : candidateCollection);
                             }
 
+                            // Register any members to bulk-fetch for each batch of candidates
+                            if (datastoreCompilation.getSCOMembersForBulkFetchByOwnerIds() != null)
+                            {
+                                qr.registerMembersForBulkFetchByOwnerIds(datastoreCompilation.getSCOMembersForBulkFetchByOwnerIds());
+                            }
+
                             // Register any bulk loaded member resultSets that need loading
                             Map<String, IteratorStatement> scoIterStmts = datastoreCompilation.getSCOIteratorStatements();
                             if (scoIterStmts != null)
@@ -696,7 +712,14 @@ public class JDOQLQuery extends AbstractJDOQLQuery
                                             helper.applyParametersToStatement(psSco, datastoreCompilation, iterStmt.getSelectStatement(), parameters);
                                         }
                                         ResultSet rsSCO = sqlControl.executeStatementQuery(ec, mconn, iterStmtSQL, psSco);
-                                        qr.registerMemberBulkResultSet(iterStmt, rsSCO);
+                                        if (datastoreCompilation.isSCOIteratorStatementsOrderedByOwner())
+                                        {
+                                            qr.registerMemberBulkResultSetOrderedByOwner(iterStmt, rsSCO);
+                                        }
+                                        else
+                                        {
+                                            qr.registerMemberBulkResultSet(iterStmt, rsSCO);
+                                        }
                                     }
                                     catch (SQLException e)
                                     {
@@ -963,9 +986,7 @@ public class JDOQLQuery extends AbstractJDOQLQuery
             stmt.addExtension(SQLStatement.EXTENSION_LOCK_FOR_UPDATE_NOWAIT, Boolean.TRUE);
         }
 
-        datastoreCompilation.addStatement(stmt, stmt.getSQLText().toSQL(), false);
-        datastoreCompilation.setStatementParameters(stmt.getSQLText().getParametersForStatement());
-
+        boolean bulkFetchOrderedByOwner = false;
         if (result == null && !(resultClass != null && resultClass != candidateClass))
         {
             // Select of candidates, so check for any immediate multi-valued fields that are marked for fetching
@@ -986,7 +1007,7 @@ public class JDOQLQuery extends AbstractJDOQLQuery
                             " from the query FetchPlan. If this bulk-fetch generates an invalid or unoptimised query, please report it with a way of reproducing it");
                         multifetchType = "exists";
                     }
-                    if (multifetchType.equalsIgnoreCase("exists"))
+                    if (multifetchType.equalsIgnoreCase("exists") || multifetchType.equalsIgnoreCase("exists-ordered") || multifetchType.equalsIgnoreCase("in"))
                     {
                         if (fpMmd.hasCollection() && SCOUtils.collectionHasSerialisedElements(fpMmd))
                         {
@@ -996,14 +1017,21 @@ public class JDOQLQuery extends AbstractJDOQLQuery
                         {
                             // Ignore maps serialised into the owner (retrieved in main query)
                         }
+                        else if (multifetchType.equalsIgnoreCase("in") && canBulkFetchByOwnerIds())
+                        {
+                            // Fetch container contents for each batch of candidates as they are read, restricting to the ids of the batch
+                            datastoreCompilation.addSCOMemberForBulkFetchByOwnerIds(fpMmd);
+                        }
                         else
                         {
                             // Fetch container contents for all candidate owners
+                            boolean orderByOwner = multifetchType.equalsIgnoreCase("exists-ordered") && canOrderBulkFetchByOwner(stmt);
                             BulkFetchExistsHelper helper = new BulkFetchExistsHelper(this);
-                            IteratorStatement iterStmt = helper.getSQLStatementForContainerField(candidateCmd, parameters, fpMmd, datastoreCompilation, options);
+                            IteratorStatement iterStmt = helper.getSQLStatementForContainerField(candidateCmd, parameters, fpMmd, datastoreCompilation, options, orderByOwner);
                             if (iterStmt != null)
                             {
                                 datastoreCompilation.setSCOIteratorStatement(fpMmd.getFullFieldName(), iterStmt);
+                                bulkFetchOrderedByOwner |= orderByOwner;
                             }
                             else
                             {
@@ -1024,12 +1052,56 @@ public class JDOQLQuery extends AbstractJDOQLQuery
             }
         }
 
+        if (bulkFetchOrderedByOwner)
+        {
+            // Order the candidates by id so that the bulk-fetch results (ordered by owner id) can be read in step with the candidates
+            SQLExpression candidateIdExpr = stmt.getSQLExpressionFactory().newExpression(stmt, stmt.getPrimaryTable(), stmt.getPrimaryTable().getTable().getIdMapping());
+            stmt.setOrdering(new SQLExpression[] {candidateIdExpr}, new boolean[] {false});
+            datastoreCompilation.setSCOIteratorStatementsOrderedByOwner(true);
+        }
+
+        datastoreCompilation.addStatement(stmt, stmt.getSQLText().toSQL(), false);
+        datastoreCompilation.setStatementParameters(stmt.getSQLText().getParametersForStatement());
+
         if (NucleusLogger.QUERY.isDebugEnabled())
         {
             NucleusLogger.QUERY.debug(Localiser.msg("021084", getLanguage(), System.currentTimeMillis()-startTime));
         }
     }
 
+    /**
+     * Convenience method for whether bulk-fetch of multi-valued members can be read in step with the candidates, ordering the candidate
+     * statement by its id. Not possible when the query has its own ordering, when the candidates are restricted by a range or candidate
+     * collection (these are not applied to the bulk-fetch EXISTS subquery), when using UNIONs, or when using a scrollable ResultSet.
+     * The range, candidate collection and ResultSet type are part of the query cache key, so a cached compilation is only reused where
+     * they are the same.
+     * @param stmt The candidate statement
+     * @return Whether the bulk-fetch can be ordered by owner
+     */
+    private boolean canOrderBulkFetchByOwner(SelectStatement stmt)
+    {
+        if (compilation.getExprOrdering() != null || range != null || candidateCollection != null || stmt.getNumberOfUnions() > 0)
+        {
+            return false;
+        }
+        return RDBMSQueryUtils.QUERY_RESULTSET_TYPE_FORWARD_ONLY.equals(RDBMSQueryUtils.getResultSetTypeForQuery(this));
+    }
+
+    /**
+     * Convenience method for whether bulk-fetch of multi-valued members can be done for each batch of candidates as they are read,
+     * restricting to the candidate ids. Requires a forward-only ResultSet, and no candidate collection (where candidates can be
+     * returned multiple times). Otherwise bulk-fetch uses EXISTS.
+     * @return Whether the bulk-fetch can be done by owner ids
+     */
+    private boolean canBulkFetchByOwnerIds()
+    {
+        if (candidateCollection != null)
+        {
+            return false;
+        }
+        return RDBMSQueryUtils.QUERY_RESULTSET_TYPE_FORWARD_ONLY.equals(RDBMSQueryUtils.getResultSetTypeForQuery(this));
+    }
+
     /**
      * Method to set the statement (and parameter/results definitions) to retrieve all candidates.
      * This is used when we want to evaluate in-memory and so just retrieve all possible candidates
@@ -0,0 +1,123 @@
+/**********************************************************************
+Copyright (c) 2026 DataNucleus contributors. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+package org.datanucleus.store.rdbms.query;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.datanucleus.exceptions.NucleusUserException;
+import org.datanucleus.util.Localiser;
+
+/**
+ * Helper for keyset pagination of a query, using the extension "datanucleus.rdbms.query.keysetAfter" that provides the values
+ * of the ordering expressions for the last row seen. The SQL statement compares the ordering expressions with parameters,
+ * so that the datastore compilation can be cached and reused for other values. The values of these parameters are added to
+ * the query parameters when the query is executed.
+ */
+public class KeysetPaginationHelper
+{
+    /** Extension providing the values of the ordering expressions for the last row seen, for keyset pagination. */
+    public static final String EXTENSION_KEYSET_AFTER = "datanucleus.rdbms.query.keysetAfter";
+
+    /** Prefix for the name of the parameter for the value of each ordering expression. */
+    private static final String PARAMETER_NAME_PREFIX = "DN_KEYSET_AFTER_";
+
+    private KeysetPaginationHelper()
+    {
+        // Static methods only
+    }
+
+    /**
+     * Accessor for the values of the ordering expressions provided by the extension.
+     * @param extensionValue Value of the extension (an Object[], Collection or single value), or null when not specified
+     * @return The values, or null when the extension is not specified
+     */
+    public static Object[] getKeysetValues(Object extensionValue)
+    {
+        if (extensionValue == null)
+        {
+            return null;
+        }
+        else if (extensionValue instanceof Collection)
+        {
+            return ((Collection)extensionValue).toArray();
+        }
+        else if (extensionValue instanceof Object[])
+        {
+            return (Object[])extensionValue;
+        }
+        return new Object[] {extensionValue};
+    }
+
+    /**
+     * Accessor for the name of the parameter for the value of the specified ordering expression.
+     * @param position Position of the ordering expression (0-based)
+     * @return The parameter name
+     */
+    public static String getParameterName(int position)
+    {
+        return PARAMETER_NAME_PREFIX + position;
+    }
+
+    /**
+     * Method to return the parameter values to use when executing a query, including the values of the extension under the
+     * names of their parameters.
+     * @param parameters The query parameter values (may be null)
+     * @param extensionValue Value of the extension, or null when not specified
+     * @return The parameter values (the input parameters when the extension is not specified)
+     * @throws NucleusUserException if any of the values is null
+     */
+    public static Map getParameterValues(Map parameters, Object extensionValue)
+    {
+        Object[] keysetValues = getKeysetValues(extensionValue);
+        if (keysetValues == null)
+        {
+            return parameters;
+        }
+
+        Map paramValues = (parameters != null ? new HashMap(parameters) : new HashMap());
+        for (int i=0;i<keysetValues.length;i++)
+        {
+            if (keysetValues[i] == null)
+            {
+                // A null value has no ordering
+                throw new NucleusUserException(Localiser.msg("021216", EXTENSION_KEYSET_AFTER, i, null));
+            }
+            paramValues.put(getParameterName(i), keysetValues[i]);
+        }
+        return paramValues;
+    }
+
+    /**
+     * Method to return the key for caching the datastore compilation of a query. The SQL for a query using the extension
+     * has the keyset predicate, so needs a different key to the same query without it.
+     * @param queryCacheKey Key for the query without the extension (may be null)
+     * @param extensionValue Value of the extension, or null when not specified
+     * @return The key
+     */
+    public static String getQueryCacheKey(String queryCacheKey, Object extensionValue)
+    {
+        Object[] keysetValues = getKeysetValues(extensionValue);
+        if (queryCacheKey == null || keysetValues == null)
+        {
+            return queryCacheKey;
+        }
+        return queryCacheKey + " KEYSET AFTER " + keysetValues.length;
+    }
+}
@@ -151,6 +151,9 @@ import org.datanucleus.util.StringUtils;
  * <li><b>datanucleus.query.jdoql.{varName}.join</b> defines the join type for that alias. This only currently
  * applies if the variable is (finally) bound using the equality operator (e.g var.field == this.field).
  * The extension should be set to "LEFTOUTERJOIN", "INNERJOIN"</li>
+ * <li><b>datanucleus.rdbms.query.keysetAfter</b> defines the values of the ordering expressions for the last row seen
+ * (as an Object[] or List, in the order of the ordering expressions), and restricts the results to those after that row.
+ * This provides keyset ("seek") pagination, to be used with a range of "0 to pageSize" rather than an offset.</li>
  * </ul>
  * <p>
  * TODO This class currently takes in an SQLStatement and updates it with filter, result, from etc. If the input statement is a UNION of statements
@@ -169,6 +172,9 @@ public class QueryToSQLMapper extends AbstractExpressionEvaluator implements Que
 
     public static final String MAP_VALUE_ALIAS_SUFFIX = "_VALUE";
 
+    /** Extension providing the values of the ordering expressions for the last row seen, for keyset pagination. */
+    public static final String EXTENSION_KEYSET_AFTER = KeysetPaginationHelper.EXTENSION_KEYSET_AFTER;
+
     final String candidateAlias;
 
     final AbstractClassMetaData candidateCmd;
@@ -1162,8 +1168,83 @@ public class QueryToSQLMapper extends AbstractExpressionEvaluator implements Que
                 nullOrders[i] = orderExpr.getNullOrder();
             }
             stmt.setOrdering(orderSqlExprs, directions, nullOrders);
+
+            if (parentMapper == null && hasExtension(EXTENSION_KEYSET_AFTER))
+            {
+                compileKeysetPagination(stmt, orderSqlExprs, directions);
+            }
             compileComponent = null;
         }
+        else if (parentMapper == null && hasExtension(EXTENSION_KEYSET_AFTER))
+        {
+            throw new NucleusUserException(Localiser.msg("021215", EXTENSION_KEYSET_AFTER));
+        }
+    }
+
+    /**
+     * Method to restrict the statement to the rows after the last row seen, using the values of the ordering expressions for that
+     * row provided by the extension "datanucleus.rdbms.query.keysetAfter". This is the equivalent of "(k1, k2) &gt; (v1, v2)"
+     * allowing for the direction of each ordering expression, so is added to the WHERE clause as
+     * "k1 &gt;= v1 AND (k1 &gt; v1 OR (k1 = v1 AND k2 &gt; v2))", where the leading bound allows the datastore to seek using an index.
+     * The values are parameters of the statement (see {@link KeysetPaginationHelper}), so the compilation can be reused for other values.
+     * The ordering should be unique (e.g end with the id) otherwise rows with the same ordering values as the last row are skipped.
+     * Columns that allow nulls are not supported since a null compares as neither before nor after a value, so would be skipped.
+     * @param stmt SELECT statement
+     * @param orderSqlExprs The ordering expressions
+     * @param directions The ordering directions (true implies descending)
+     */
+    protected void compileKeysetPagination(SelectStatement stmt, SQLExpression[] orderSqlExprs, boolean[] directions)
+    {
+        if (compilation.getExprGrouping() != null || stmt.getNumberOfUnions() > 0)
+        {
+            throw new NucleusUserException(Localiser.msg("021215", EXTENSION_KEYSET_AFTER));
+        }
+
+        Object[] keysetValues = KeysetPaginationHelper.getKeysetValues(getValueForExtension(EXTENSION_KEYSET_AFTER));
+        if (keysetValues.length != orderSqlExprs.length)
+        {
+            throw new NucleusUserException(Localiser.msg("021214", EXTENSION_KEYSET_AFTER, orderSqlExprs.length, keysetValues.length));
+        }
+
+        BooleanExpression leadingExpr = null;
+        BooleanExpression seekExpr = null;
+        BooleanExpression precedingEqualExpr = null;
+        for (int i=0;i<orderSqlExprs.length;i++)
+        {
+            if (orderSqlExprs[i] instanceof ResultAliasExpression || keysetValues[i] == null)
+            {
+                // Can't refer to a result alias in the WHERE clause, and a null value has no ordering
+                throw new NucleusUserException(Localiser.msg("021216", EXTENSION_KEYSET_AFTER, orderSqlExprs[i], keysetValues[i]));
+            }
+
+            JavaTypeMapping orderMapping = orderSqlExprs[i].getJavaTypeMapping();
+            for (int j=0;j<orderMapping.getNumberOfDatastoreMappings();j++)
+            {
+                if (orderMapping.getDatastoreMapping(j).isNullable())
+                {
+                    throw new NucleusUserException(Localiser.msg("021217", EXTENSION_KEYSET_AFTER, orderSqlExprs[i],
+                        orderMapping.getDatastoreMapping(j).getColumn()));
+                }
+            }
+
+            SQLExpression valueExpr = exprFactory.newLiteralParameter(stmt, orderMapping, keysetValues[i], KeysetPaginationHelper.getParameterName(i));
+            if (i == 0)
+            {
+                leadingExpr = directions[i] ? orderSqlExprs[i].le(valueExpr) : orderSqlExprs[i].ge(valueExpr);
+            }
+
+            // (k1 = v1 AND ... AND ki > vi)
+            BooleanExpression afterExpr = directions[i] ? orderSqlExprs[i].lt(valueExpr) : orderSqlExprs[i].gt(valueExpr);
+            if (precedingEqualExpr != null)
+            {
+                afterExpr = precedingEqualExpr.and(afterExpr);
+            }
+            seekExpr = (seekExpr == null) ? afterExpr : seekExpr.ior(afterExpr);
+
+            BooleanExpression equalExpr = orderSqlExprs[i].eq(valueExpr);
+            precedingEqualExpr = (precedingEqualExpr == null) ? equalExpr : precedingEqualExpr.and(equalExpr);
+        }
+        stmt.whereAnd(orderSqlExprs.length > 1 ? leadingExpr.and(seekExpr) : seekExpr, true);
     }
 
     /**
@@ -22,6 +22,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.datanucleus.metadata.AbstractMemberMetaData;
 import org.datanucleus.store.rdbms.mapping.StatementClassMapping;
 import org.datanucleus.store.rdbms.scostore.IteratorStatement;
 import org.datanucleus.store.rdbms.sql.SQLStatement;
@@ -50,6 +51,12 @@ public class RDBMSQueryCompilation
     /** Map of statements to get SCO containers that are in the fetch plan (bulk fetch). Only for SELECT queries. */
     Map<String, IteratorStatement> scoIteratorStatementByMemberName;
 
+    /** Whether the SCO iterator statements, and the candidate statement, are ordered by the owner id. */
+    boolean scoIteratorStatementsOrderedByOwner = false;
+
+    /** Multi-valued members to bulk-fetch for each batch of candidates, restricting to the ids of the batch. */
+    List<AbstractMemberMetaData> scoMembersForBulkFetchByOwnerIds;
+
     boolean precompilable = true;
 
     public class StatementCompilation
@@ -193,4 +200,28 @@ public class RDBMSQueryCompilation
     {
         return scoIteratorStatementByMemberName;
     }
+
+    public void setSCOIteratorStatementsOrderedByOwner(boolean flag)
+    {
+        this.scoIteratorStatementsOrderedByOwner = flag;
+    }
+
+    public boolean isSCOIteratorStatementsOrderedByOwner()
+    {
+        return scoIteratorStatementsOrderedByOwner;
+    }
+
+    public void addSCOMemberForBulkFetchByOwnerIds(AbstractMemberMetaData mmd)
+    {
+        if (scoMembersForBulkFetchByOwnerIds == null)
+        {
+            scoMembersForBulkFetchByOwnerIds = new ArrayList<>();
+        }
+        scoMembersForBulkFetchByOwnerIds.add(mmd);
+    }
+
+    public List<AbstractMemberMetaData> getSCOMembersForBulkFetchByOwnerIds()
+    {
+        return scoMembersForBulkFetchByOwnerIds;
+    }
 }
\ No newline at end of file
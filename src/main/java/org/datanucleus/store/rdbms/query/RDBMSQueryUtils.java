@@ -97,6 +97,29 @@ public class RDBMSQueryUtils extends QueryUtils
         return rowClassName;
     }
 
+    /**
+     * Method to return the key for caching the datastore compilation of a query, allowing for the bulk-fetch of multi-valued members.
+     * Whether the "exists-ordered" and "in" bulk-fetch are used depends on whether the query has a candidate collection or range, and
+     * on the type of ResultSet, so the compilation can only be reused where these are the same.
+     * @param queryCacheKey Key for the query (may be null)
+     * @param multifetchType The type of bulk-fetch of multi-valued members (may be null)
+     * @param candidates Whether the query has a candidate collection
+     * @param range Whether the query has a range
+     * @param resultSetType The type of ResultSet
+     * @return The key
+     */
+    public static String getQueryCacheKeyForBulkFetch(String queryCacheKey, String multifetchType, boolean candidates, boolean range,
+            String resultSetType)
+    {
+        if (queryCacheKey == null || multifetchType == null ||
+            (!multifetchType.equalsIgnoreCase("exists-ordered") && !multifetchType.equalsIgnoreCase("in")))
+        {
+            return queryCacheKey;
+        }
+        return queryCacheKey + " BULKFETCH " + multifetchType.toLowerCase() + (candidates ? " CANDIDATES" : "") + (range ? " RANGE" : "") +
+            " " + resultSetType;
+    }
+
     /**
      * Accessor for the result set type for the specified query.
      * Uses the persistence property "datanucleus.rdbms.query.resultSetType" and allows it to be overridden by the query extension of the same name.
@@ -157,6 +180,29 @@ public class RDBMSQueryUtils extends QueryUtils
     	return query.getExecutionContext().getSerializeReadForClass(query.getCandidateClassName());
     }
 
+    /**
+     * Convenience method to return if the specified query can be executed using a read replica (when outside of a transaction).
+     * Uses the persistence property "datanucleus.rdbms.query.useReadReplica" and allows it to be overridden by the query extension of the same name.
+     * A query that uses an "UPDATE" lock always uses the primary datastore.
+     * @param query The query
+     * @return Whether the query can use a read replica
+     */
+    public static boolean useReadReplicaForQuery(Query query)
+    {
+        if (useUpdateLockForQuery(query))
+        {
+            return false;
+        }
+
+        boolean useReplica = query.getExecutionContext().getNucleusContext().getConfiguration().getBooleanProperty(RDBMSPropertyNames.PROPERTY_RDBMS_QUERY_USE_READ_REPLICA);
+        Object useReplicaExt = query.getExtension(RDBMSPropertyNames.PROPERTY_RDBMS_QUERY_USE_READ_REPLICA);
+        if (useReplicaExt != null)
+        {
+            useReplica = Boolean.valueOf(useReplicaExt.toString());
+        }
+        return useReplica;
+    }
+
     /**
      * Method to create a PreparedStatement for use with the query.
      * @param conn the Connection
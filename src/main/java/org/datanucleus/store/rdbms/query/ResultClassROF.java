@@ -17,13 +17,19 @@ Contributors:
 **********************************************************************/
 package org.datanucleus.store.rdbms.query;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.math.BigDecimal;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -62,9 +68,18 @@ import org.datanucleus.util.StringUtils;
  * available. The second is where no candidate class is available and so
  * only the field names are available, and the results are taken in ResultSet order.
  * These 2 modes have their own constructor.
+ *
+ * <P>
+ * The constructor (of the result class, or of any "new object" in the result) is resolved for the argument types of a row and
+ * then reused for later rows with the same argument types, invoking it through a MethodHandle. Similarly the setters/fields/put
+ * method used when creating a result object with the default constructor are resolved once, and the reflective process is only
+ * used for a row whose values can't be set directly (e.g. they need converting to the type of the member).
  */
 public class ResultClassROF implements ResultObjectFactory
 {
+    /** Type of the handles used to set a result field value on a result object. */
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
     private final RDBMSStoreManager storeMgr;
 
     /** The result class that we should create for each row of results. */
@@ -84,6 +99,21 @@ public class ResultClassROF implements ResultObjectFactory
     /** Map of the ResultClass Fields, keyed by the field names (only for user-defined result classes). */
     private final Map resultClassFieldsByName = new HashMap();
 
+    /** Constructors of the result class resolved for the argument types of previous rows (only for user-defined result classes). */
+    private volatile ConstructorBinding resultCtrBinding = null;
+
+    /** Handle for the default constructor of the result class, when creating results using setters. */
+    private volatile MethodHandle defaultCtrHandle = null;
+
+    /** Handles to set each result field on a result object, when creating results using setters. Null if not settable via handles. */
+    private volatile MethodHandle[] setterHandles = null;
+
+    /** Type of value taken by each of the setter handles. */
+    private volatile Class[] setterValueTypes = null;
+
+    /** Whether we have tried to resolve the setter handles. */
+    private volatile boolean settersResolved = false;
+
     /**
      * Constructor for a resultClass object factory where we have a result clause specified.
      * @param storeMgr RDBMS StoreManager
@@ -348,7 +378,7 @@ public class ResultClassROF implements ResultObjectFactory
             }
 
             // A. Find a constructor with the correct constructor arguments
-            Object obj = QueryUtils.createResultObjectUsingArgumentedConstructor(resultClass, fieldValues, resultFieldTypes);
+            Object obj = createResultObjectUsingArgumentedConstructor(fieldValues);
             if (obj != null)
             {
                 return obj;
@@ -390,7 +420,11 @@ public class ResultClassROF implements ResultObjectFactory
             }
 
             // B. No argumented constructor exists so create an object and update fields using fields/put method/set method
-            obj = QueryUtils.createResultObjectUsingDefaultConstructorAndSetters(resultClass, resultFieldNames, resultClassFieldsByName, fieldValues);
+            obj = createResultObjectUsingSetterHandles(fieldValues);
+            if (obj == null)
+            {
+                obj = QueryUtils.createResultObjectUsingDefaultConstructorAndSetters(resultClass, resultFieldNames, resultClassFieldsByName, fieldValues);
+            }
 
             return obj;
         }
@@ -401,6 +435,320 @@ public class ResultClassROF implements ResultObjectFactory
         throw new NucleusUserException(msg);
     }
 
+    /**
+     * Method to create a result object using a constructor of the result class taking the field values.
+     * The constructor is resolved for the types of the field values, and reused for later rows with the same types.
+     * @param fieldValues The field values
+     * @return The result object, or null if there is no such constructor
+     */
+    private Object createResultObjectUsingArgumentedConstructor(Object[] fieldValues)
+    {
+        Class[] argTypes = getArgumentTypes(fieldValues);
+        ConstructorBinding binding = ConstructorBinding.find(resultCtrBinding, argTypes);
+        if (binding == null)
+        {
+            Constructor ctr = ClassUtils.getConstructorWithArguments(resultClass, argTypes);
+            MethodHandle handle = (ctr != null ? ConstructorBinding.getHandleForConstructor(ctr) : null);
+            if (handle == null)
+            {
+                // No (accessible) constructor for the value types, so use the generic process (which also considers the declared
+                // result types), and record whether it succeeded so later rows with these types don't look for the constructor again
+                Object obj = QueryUtils.createResultObjectUsingArgumentedConstructor(resultClass, fieldValues, resultFieldTypes);
+                resultCtrBinding = ConstructorBinding.add(resultCtrBinding, argTypes, null, obj != null);
+                return obj;
+            }
+            binding = ConstructorBinding.add(resultCtrBinding, argTypes, handle, false);
+            resultCtrBinding = binding;
+        }
+
+        if (binding.handle == null)
+        {
+            // Already found that there is no constructor for these argument types that can be bound
+            return binding.generic ? QueryUtils.createResultObjectUsingArgumentedConstructor(resultClass, fieldValues, resultFieldTypes) : null;
+        }
+        try
+        {
+            return binding.newInstance(fieldValues);
+        }
+        catch (Error e)
+        {
+            throw e;
+        }
+        catch (Throwable e)
+        {
+            throw new NucleusUserException(Localiser.msg("037015", resultClass.getName(), e));
+        }
+    }
+
+    /**
+     * Method to create a result object using the default constructor of the result class and then set the field values
+     * using the public fields, setters, or put method of the result class, resolved on first use.
+     * @param fieldValues The field values
+     * @return The result object, or null if the values can't be set directly so the reflective process should be used
+     */
+    private Object createResultObjectUsingSetterHandles(Object[] fieldValues)
+    {
+        if (!settersResolved)
+        {
+            resolveSetterHandles();
+        }
+        MethodHandle[] handles = setterHandles;
+        if (handles == null)
+        {
+            return null;
+        }
+
+        // Check the values before creating the object, so a value that needs converting (or a null for a primitive) doesn't
+        // fail part way through setting the fields, leaving the reflective process to set them all again
+        Class[] valueTypes = setterValueTypes;
+        for (int i=0;i<handles.length;i++)
+        {
+            if (!isValueOfType(fieldValues[i], valueTypes[i]))
+            {
+                return null;
+            }
+        }
+
+        try
+        {
+            Object obj = (Object) defaultCtrHandle.invokeExact();
+            for (int i=0;i<handles.length;i++)
+            {
+                handles[i].invokeExact(obj, fieldValues[i]);
+            }
+            return obj;
+        }
+        catch (RuntimeException | Error e)
+        {
+            // Thrown by the constructor or a setter, so not for the reflective process to retry
+            throw e;
+        }
+        catch (Throwable e)
+        {
+            throw new NucleusUserException("Attempt to create object for query result row of type " + resultClass.getName() + " threw an exception", e);
+        }
+    }
+
+    /**
+     * Convenience method to return whether a value can be passed to a handle taking the specified type without conversion.
+     * @param value The value
+     * @param type The type taken by the handle
+     * @return Whether the value is of the type (or the wrapper of the primitive type)
+     */
+    private static boolean isValueOfType(Object value, Class type)
+    {
+        if (value == null)
+        {
+            return !type.isPrimitive();
+        }
+        else if (type.isPrimitive())
+        {
+            return value.getClass() == ClassUtils.getWrapperTypeForPrimitiveType(type);
+        }
+        return type.isInstance(value);
+    }
+
+    /**
+     * Method to resolve the handles for the default constructor of the result class and to set each result field.
+     * If any result field can't be resolved to a single field/setter/put method, no handles are used.
+     */
+    private synchronized void resolveSetterHandles()
+    {
+        if (settersResolved)
+        {
+            return;
+        }
+
+        try
+        {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            MethodHandle ctrHandle = lookup.findConstructor(resultClass, MethodType.methodType(void.class)).asType(MethodType.methodType(Object.class));
+            MethodHandle[] handles = new MethodHandle[resultFieldNames.length];
+            Class[] valueTypes = new Class[resultFieldNames.length];
+            for (int i=0;i<resultFieldNames.length;i++)
+            {
+                MethodHandle handle = getSetterHandle(lookup, resultFieldNames[i]);
+                if (handle == null)
+                {
+                    return;
+                }
+                valueTypes[i] = handle.type().parameterType(1);
+                handles[i] = handle.asType(SETTER_TYPE);
+            }
+            defaultCtrHandle = ctrHandle;
+            setterValueTypes = valueTypes;
+            setterHandles = handles;
+        }
+        catch (NoSuchMethodException | IllegalAccessException e)
+        {
+            // Not accessible via handles, so leave to the reflective process
+        }
+        finally
+        {
+            settersResolved = true;
+        }
+    }
+
+    /**
+     * Method to return a handle to set the specified result field on a result object. Follows the same order as the
+     * reflective process, namely a public field, then a public setter, then a public put(Object, Object) method.
+     * @param lookup Lookup for the handles
+     * @param fieldName Name of the result field
+     * @return The handle taking the result object and the value, or null if there is none, or the setter to use depends on the
+     *     type of the value
+     * @throws IllegalAccessException if the member is not accessible
+     */
+    private MethodHandle getSetterHandle(MethodHandles.Lookup lookup, String fieldName)
+    throws IllegalAccessException
+    {
+        String declaredFieldName = fieldName;
+        Field declaredField = (Field) resultClassFieldsByName.get(fieldName.toUpperCase());
+        if (declaredField != null)
+        {
+            declaredFieldName = declaredField.getName();
+        }
+
+        Field field = ClassUtils.getFieldForClass(resultClass, declaredFieldName);
+        if (field != null && Modifier.isPublic(field.getModifiers()))
+        {
+            if (Modifier.isStatic(field.getModifiers()) || Modifier.isFinal(field.getModifiers()))
+            {
+                return null;
+            }
+            return lookup.unreflectSetter(field);
+        }
+
+        String setMethodName = "set" + declaredFieldName.substring(0,1).toUpperCase() + declaredFieldName.substring(1);
+        Method setMethod = null;
+        for (Method method : resultClass.getMethods())
+        {
+            if (method.getName().equals(setMethodName) && method.getParameterTypes().length == 1 && !Modifier.isStatic(method.getModifiers()))
+            {
+                if (setMethod != null)
+                {
+                    // Overloaded setter, so choice depends on the value
+                    return null;
+                }
+                setMethod = method;
+            }
+        }
+        if (setMethod != null)
+        {
+            return lookup.unreflect(setMethod);
+        }
+
+        try
+        {
+            Method putMethod = resultClass.getMethod("put", Object.class, Object.class);
+            return MethodHandles.insertArguments(lookup.unreflect(putMethod), 1, fieldName);
+        }
+        catch (NoSuchMethodException e)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * Convenience method to return the types of the supplied values, with null for any null value.
+     * @param values The values
+     * @return The types
+     */
+    private static Class[] getArgumentTypes(Object[] values)
+    {
+        Class[] types = new Class[values.length];
+        for (int i=0;i<values.length;i++)
+        {
+            types[i] = (values[i] != null ? values[i].getClass() : null);
+        }
+        return types;
+    }
+
+    /**
+     * Constructor resolved for a set of argument types, invoked through a MethodHandle taking the arguments as an Object[].
+     * A binding with no handle records that there is no constructor for those argument types that can be bound, and whether the
+     * generic (reflective) process created the object instead. Bindings for different argument types (e.g where some values
+     * are null) are chained, up to a limit.
+     */
+    static class ConstructorBinding
+    {
+        private static final int MAX_BINDINGS = 8;
+
+        final Class[] argTypes;
+
+        final MethodHandle handle;
+
+        /** Whether the generic process is used for these argument types (when there is no handle). */
+        final boolean generic;
+
+        final ConstructorBinding next;
+
+        final int depth;
+
+        private ConstructorBinding(Class[] argTypes, MethodHandle handle, boolean generic, ConstructorBinding next)
+        {
+            this.argTypes = argTypes;
+            this.handle = handle;
+            this.generic = generic;
+            this.next = next;
+            this.depth = (next != null ? next.depth + 1 : 1);
+        }
+
+        /**
+         * Method to find the binding for the specified argument types.
+         * @param first First binding in the chain (or null)
+         * @param types The argument types
+         * @return The binding, or null if not yet resolved
+         */
+        static ConstructorBinding find(ConstructorBinding first, Class[] types)
+        {
+            for (ConstructorBinding binding = first; binding != null; binding = binding.next)
+            {
+                if (Arrays.equals(binding.argTypes, types))
+                {
+                    return binding;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Method to add a binding for the specified argument types to the start of the chain.
+         * @param first First binding in the chain (or null)
+         * @param types The argument types
+         * @param handle Handle for the constructor (or null if no constructor)
+         * @param generic Whether to use the generic process (when no constructor)
+         * @return The new first binding in the chain
+         */
+        static ConstructorBinding add(ConstructorBinding first, Class[] types, MethodHandle handle, boolean generic)
+        {
+            return new ConstructorBinding(types, handle, generic, (first != null && first.depth < MAX_BINDINGS) ? first : null);
+        }
+
+        /**
+         * Method to return a handle for the constructor, taking the arguments as an Object[].
+         * @param ctr The constructor
+         * @return The handle, or null if the constructor is not accessible
+         */
+        static MethodHandle getHandleForConstructor(Constructor ctr)
+        {
+            try
+            {
+                MethodHandle handle = MethodHandles.publicLookup().unreflectConstructor(ctr).asFixedArity();
+                return handle.asSpreader(Object[].class, ctr.getParameterTypes().length).asType(MethodType.methodType(Object.class, Object[].class));
+            }
+            catch (IllegalAccessException e)
+            {
+                return null;
+            }
+        }
+
+        Object newInstance(Object[] args)
+        throws Throwable
+        {
+            return (Object) handle.invokeExact(args);
+        }
+    }
+
     /**
      * Convenience method to return the value of a NewObject mapping for the current row of the provided
      * query results.
@@ -457,6 +805,24 @@ public class ResultClassROF implements ResultObjectFactory
                 }
             }
 
+            ConstructorBinding binding = ConstructorBinding.find(newMap.ctrBinding, ctrArgTypes);
+            if (binding != null)
+            {
+                // Constructor already resolved for these argument types
+                try
+                {
+                    return binding.newInstance(ctrArgValues);
+                }
+                catch (Error e)
+                {
+                    throw e;
+                }
+                catch (Throwable e)
+                {
+                    throw new NucleusUserException(Localiser.msg("037015", newMap.getObjectClass().getName(), e));
+                }
+            }
+
             Constructor ctr = ClassUtils.getConstructorWithArguments(newMap.getObjectClass(), ctrArgTypes);
             if (ctr == null)
             {
@@ -474,6 +840,13 @@ public class ResultClassROF implements ResultObjectFactory
                 throw new NucleusUserException(Localiser.msg("037013", str.toString()));
             }
 
+            MethodHandle handle = ConstructorBinding.getHandleForConstructor(ctr);
+            if (handle != null)
+            {
+                // Bind the constructor to these argument types for use by later rows
+                newMap.ctrBinding = ConstructorBinding.add(newMap.ctrBinding, ctrArgTypes, handle, false);
+            }
+
             try
             {
                 value = ctr.newInstance(ctrArgValues);
@@ -0,0 +1,178 @@
+/**********************************************************************
+Copyright (c) 2026 DataNucleus contributors. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+package org.datanucleus.store.rdbms.query;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache of result objects for a scrollable query result, holding the results as blocks of consecutive rows.
+ * Blocks are aligned relative to a base row position, and at most "maxBlocks" blocks are held, evicting the least
+ * recently used block when a new block is added. This bounds the memory used by the cache to "blockSize * maxBlocks"
+ * result objects, irrespective of how many rows the results have, and without the per-row overhead of a map entry.
+ * The limit can be removed, for example when the results have to be retained after the ResultSet is closed.
+ * A result object can be null (e.g a result clause selecting a field that is null), so each block also records which of
+ * its rows have been loaded.
+ * @param <E> Type of the result objects
+ */
+public class ResultWindowCache<E>
+{
+    /** Row position that blocks are aligned relative to. */
+    private final int baseIndex;
+
+    /** Number of rows in each block. */
+    private final int blockSize;
+
+    /** Maximum number of blocks to hold (when limited). */
+    private final int maxBlocks;
+
+    /** Whether the number of blocks is currently limited. */
+    private boolean limited = true;
+
+    /** Blocks of result objects, keyed by the block number, in access order. */
+    private final Map<Integer, Block> blocksByNumber;
+
+    /**
+     * Constructor.
+     * @param baseIndex Row position that blocks are aligned relative to
+     * @param blockSize Number of rows in each block
+     * @param maxBlocks Maximum number of blocks to hold
+     */
+    public ResultWindowCache(int baseIndex, int blockSize, int maxBlocks)
+    {
+        this.baseIndex = baseIndex;
+        this.blockSize = (blockSize > 0 ? blockSize : 1);
+        this.maxBlocks = (maxBlocks > 0 ? maxBlocks : 1);
+        this.blocksByNumber = new LinkedHashMap<Integer, Block>(16, 0.75f, true)
+        {
+            private static final long serialVersionUID = -3185617036734502411L;
+
+            protected boolean removeEldestEntry(Map.Entry<Integer, Block> eldest)
+            {
+                return limited && size() > ResultWindowCache.this.maxBlocks;
+            }
+        };
+    }
+
+    public int getBlockSize()
+    {
+        return blockSize;
+    }
+
+    /**
+     * Accessor for the first row position of the block containing the specified row.
+     * @param index The row position
+     * @return First row position of its block
+     */
+    public int getBlockStart(int index)
+    {
+        return baseIndex + getBlockNumber(index) * blockSize;
+    }
+
+    /**
+     * Method to remove the limit on the number of blocks held, so that no further blocks are evicted.
+     */
+    public void setUnlimited()
+    {
+        limited = false;
+    }
+
+    /**
+     * Accessor for whether the result object at a row position is cached.
+     * @param index The row position
+     * @return Whether it is cached
+     */
+    public boolean isLoaded(int index)
+    {
+        if (index < baseIndex)
+        {
+            return false;
+        }
+        Block block = blocksByNumber.get(getBlockNumber(index));
+        return block != null && block.loaded[(index - baseIndex) % blockSize];
+    }
+
+    /**
+     * Accessor for the cached result object at a row position.
+     * @param index The row position
+     * @return The result object, or null if not cached (or the result object is null, see {@link #isLoaded(int)})
+     */
+    public E get(int index)
+    {
+        if (index < baseIndex)
+        {
+            return null;
+        }
+        Block block = blocksByNumber.get(getBlockNumber(index));
+        if (block == null)
+        {
+            return null;
+        }
+        return (E) block.objects[(index - baseIndex) % blockSize];
+    }
+
+    /**
+     * Method to cache a result object at a row position, creating its block if necessary (which may evict the least
+     * recently used block).
+     * @param index The row position
+     * @param obj The result object
+     */
+    public void put(int index, E obj)
+    {
+        if (index < baseIndex)
+        {
+            return;
+        }
+        Integer blockNumber = getBlockNumber(index);
+        Block block = blocksByNumber.get(blockNumber);
+        if (block == null)
+        {
+            block = new Block(blockSize);
+            blocksByNumber.put(blockNumber, block);
+        }
+        int position = (index - baseIndex) % blockSize;
+        block.objects[position] = obj;
+        block.loaded[position] = true;
+    }
+
+    public void clear()
+    {
+        blocksByNumber.clear();
+    }
+
+    private int getBlockNumber(int index)
+    {
+        return (index - baseIndex) / blockSize;
+    }
+
+    /**
+     * Block of consecutive rows, with the result object of each row and whether it has been loaded.
+     */
+    private static class Block
+    {
+        final Object[] objects;
+
+        final boolean[] loaded;
+
+        Block(int size)
+        {
+            objects = new Object[size];
+            loaded = new boolean[size];
+        }
+    }
+}
@@ -40,6 +40,7 @@ import org.datanucleus.state.ObjectProvider;
 import org.datanucleus.store.query.AbstractQueryResultIterator;
 import org.datanucleus.store.query.Query;
 import org.datanucleus.store.rdbms.JDBCUtils;
+import org.datanucleus.store.rdbms.RDBMSPropertyNames;
 import org.datanucleus.util.Localiser;
 import org.datanucleus.util.NucleusLogger;
 import org.datanucleus.util.SoftValueMap;
@@ -50,7 +51,11 @@ import org.datanucleus.util.WeakValueMap;
  * Supports the following query extensions (in addition to those supported by superclasses) :-
  * <ul>
  * <li><b>datanucleus.query.resultCacheType</b> Type of caching of result objects.
- * Supports strong, weak, soft, none</li>
+ * Supports strong, weak, soft, window, none</li>
+ * <li><b>datanucleus.rdbms.query.resultWindowBlockSize</b> Number of rows in each block of the "window" cache. Rows are
+ * loaded a block at a time, positioning the ResultSet at the start of the block</li>
+ * <li><b>datanucleus.rdbms.query.resultWindowMaxRows</b> Maximum number of result objects held by the "window" cache,
+ * the least recently used block being evicted when exceeded</li>
  * </ul>
  * If there is no transaction present, or if the FetchPlan is in "greedy" mode, and where caching is being used
  * will load all results at startup. Otherwise results are only loaded when accessed.
@@ -60,6 +65,9 @@ public final class ScrollableQueryResult<E> extends AbstractRDBMSQueryResult<E>
     /** Map of ResultSet object values, keyed by the list index ("0", "1", etc). */
     private Map<Integer, E> resultsObjsByIndex = null;
 
+    /** Cache of ResultSet object values as blocks of rows, when using the "window" cache type. */
+    private ResultWindowCache<E> resultsWindow = null;
+
     protected Map<Integer, Object> resultIds = null;
 
     /** Position of first result (origin=0). */
@@ -92,6 +100,12 @@ public final class ScrollableQueryResult<E> extends AbstractRDBMSQueryResult<E>
             resultIds = new HashMap();
         }
 
+        applyRangeChecks = !query.processesRangeInDatastoreQuery();
+        if (applyRangeChecks)
+        {
+            startIndex = (int) query.getRangeFromIncl();
+        }
+
         // Process any supported extensions
         String ext = (String)query.getExtension(Query.EXTENSION_RESULT_CACHE_TYPE);
         if (ext != null)
@@ -108,6 +122,18 @@ public final class ScrollableQueryResult<E> extends AbstractRDBMSQueryResult<E>
             {
                 resultsObjsByIndex = new HashMap();
             }
+            else if (ext.equalsIgnoreCase("window"))
+            {
+                resultsObjsByIndex = null;
+                int blockSize = getIntPropertyForQuery(RDBMSPropertyNames.PROPERTY_RDBMS_QUERY_RESULT_WINDOW_BLOCK_SIZE);
+                if (blockSize <= 0)
+                {
+                    blockSize = 1;
+                }
+                int maxRows = getIntPropertyForQuery(RDBMSPropertyNames.PROPERTY_RDBMS_QUERY_RESULT_WINDOW_MAX_ROWS);
+                int maxBlocks = Math.max(1, (maxRows + blockSize - 1) / blockSize);
+                resultsWindow = new ResultWindowCache<>(startIndex, blockSize, maxBlocks);
+            }
             else if (ext.equalsIgnoreCase("none"))
             {
                 resultsObjsByIndex = null;
@@ -121,23 +147,37 @@ public final class ScrollableQueryResult<E> extends AbstractRDBMSQueryResult<E>
         {
             resultsObjsByIndex = new WeakValueMap();
         }
+    }
 
-        applyRangeChecks = !query.processesRangeInDatastoreQuery();
-        if (applyRangeChecks)
+    /**
+     * Accessor for an integer property for this query, taking the value from the query extension if specified,
+     * otherwise from the persistence property.
+     * @param name Name of the property
+     * @return The value
+     */
+    private int getIntPropertyForQuery(String name)
+    {
+        Object ext = query.getExtension(name);
+        if (ext != null)
         {
-            startIndex = (int) query.getRangeFromIncl();
+            return Integer.parseInt(ext.toString());
         }
+        return query.getExecutionContext().getNucleusContext().getConfiguration().getIntProperty(name);
     }
 
     public void initialise()
     {
-        if (resultsObjsByIndex != null)
+        if (resultsObjsByIndex != null || resultsWindow != null)
         {
             // Caching results so load up any result objects needed right now
             int fetchSize = query.getFetchPlan().getFetchSize();
             if (fetchSize == FetchPlan.FETCH_SIZE_GREEDY)
             {
                 // "greedy" mode, so load all results now
+                if (resultsWindow != null)
+                {
+                    resultsWindow.setUnlimited();
+                }
                 loadObjects(startIndex, -1);
 
                 // Cache the query results
@@ -222,6 +262,15 @@ public final class ScrollableQueryResult<E> extends AbstractRDBMSQueryResult<E>
                 return obj;
             }
         }
+        else if (resultsWindow != null)
+        {
+            // Caching blocks of objects, so check the cache for this index, else load its block
+            if (resultsWindow.isLoaded(index))
+            {
+                return resultsWindow.get(index);
+            }
+            return loadBlockForIndex(index);
+        }
 
         if (rs == null)
         {
@@ -232,26 +281,7 @@ public final class ScrollableQueryResult<E> extends AbstractRDBMSQueryResult<E>
             // ResultSet is numbered 1, 2, ... N
             // List is indexed 0, 1, 2, ... N-1
             rs.absolute(index+1);
-            E obj = rof.getObject(query.getExecutionContext(), rs);
-            JDBCUtils.logWarnings(rs);
-
-            // Process any bulk loaded members
-            if (bulkLoadedValueByMemberNumber != null)
-            {
-                ExecutionContext ec = query.getExecutionContext();
-                Map<Integer, Object> memberValues = bulkLoadedValueByMemberNumber.get(api.getIdForObject(obj));
-                if (memberValues != null)
-                {
-                    ObjectProvider op = ec.findObjectProvider(obj);
-                    Iterator<Map.Entry<Integer, Object>> memberValIter = memberValues.entrySet().iterator();
-                    while (memberValIter.hasNext())
-                    {
-                        Map.Entry<Integer, Object> memberValueEntry = memberValIter.next();
-                        op.replaceField(memberValueEntry.getKey(), memberValueEntry.getValue());
-                    }
-                    op.replaceAllLoadedSCOFieldsWithWrappers();
-                }
-            }
+            E obj = getObjectForCurrentRow();
 
             if (resultsObjsByIndex != null)
             {
@@ -271,6 +301,117 @@ public final class ScrollableQueryResult<E> extends AbstractRDBMSQueryResult<E>
         }
     }
 
+    /**
+     * Method to load the block of rows containing the specified index into the window cache.
+     * Positions the ResultSet at the start of the block and then reads the rows of the block in order, with the fetch
+     * size of the ResultSet set to the block size so that the block is typically retrieved in one round trip.
+     * @param index The list index position
+     * @return The result object at the index
+     */
+    private E loadBlockForIndex(int index)
+    {
+        if (rs == null)
+        {
+            throw new NucleusUserException("Results for query have already been closed. Perhaps you called flush(), closed the query, or ended a transaction");
+        }
+
+        int blockSize = resultsWindow.getBlockSize();
+        int blockStart = resultsWindow.getBlockStart(index);
+        int blockEnd = blockStart + blockSize;
+        if (applyRangeChecks && blockEnd > query.getRangeToExcl())
+        {
+            blockEnd = (int) query.getRangeToExcl();
+        }
+        if (endIndex >= 0 && blockEnd > endIndex+1)
+        {
+            blockEnd = endIndex+1;
+        }
+
+        try
+        {
+            if (rs.getFetchSize() < blockSize)
+            {
+                try
+                {
+                    rs.setFetchSize(blockSize);
+                }
+                catch (SQLException sqle)
+                {
+                    // Fetch size is only a hint, so just use the existing fetch size
+                    NucleusLogger.QUERY.debug("Unable to set fetch size of ResultSet to " + blockSize + " : " + sqle.getMessage());
+                }
+            }
+
+            E result = null;
+            int rowIndex = blockStart;
+            boolean rowExists = rs.absolute(rowIndex+1);
+            while (rowExists && rowIndex < blockEnd)
+            {
+                E obj = getObjectForCurrentRow();
+                resultsWindow.put(rowIndex, obj);
+                if (resultIds != null)
+                {
+                    resultIds.put(rowIndex, api.getIdForObject(obj));
+                }
+                if (rowIndex == index)
+                {
+                    result = obj;
+                }
+
+                rowIndex++;
+                if (rowIndex < blockEnd)
+                {
+                    rowExists = rs.next();
+                }
+            }
+
+            if (!rowExists)
+            {
+                // Reached the end of the results, so we know the size now
+                size = rowIndex;
+                if (applyRangeChecks)
+                {
+                    size = (int) (rowIndex - query.getRangeFromIncl());
+                }
+                endIndex = rowIndex-1;
+            }
+            return result;
+        }
+        catch (SQLException sqe)
+        {
+            throw api.getDataStoreExceptionForException(Localiser.msg("052601", sqe.getMessage()), sqe);
+        }
+    }
+
+    /**
+     * Method to get the result object for the current row of the ResultSet, applying any bulk loaded member values.
+     * @return The result object
+     */
+    private E getObjectForCurrentRow()
+    {
+        E obj = rof.getObject(query.getExecutionContext(), rs);
+        JDBCUtils.logWarnings(rs);
+
+        // Process any bulk loaded members
+        if (bulkLoadedValueByMemberNumber != null)
+        {
+            ExecutionContext ec = query.getExecutionContext();
+            Map<Integer, Object> memberValues = bulkLoadedValueByMemberNumber.get(api.getIdForObject(obj));
+            if (memberValues != null)
+            {
+                ObjectProvider op = ec.findObjectProvider(obj);
+                Iterator<Map.Entry<Integer, Object>> memberValIter = memberValues.entrySet().iterator();
+                while (memberValIter.hasNext())
+                {
+                    Map.Entry<Integer, Object> memberValueEntry = memberValIter.next();
+                    op.replaceField(memberValueEntry.getKey(), memberValueEntry.getValue());
+                }
+                op.replaceAllLoadedSCOFieldsWithWrappers();
+            }
+        }
+        return obj;
+    }
+
     /**
      * Method to close the results, making the results unusable thereafter.
      */
@@ -280,6 +421,10 @@ public final class ScrollableQueryResult<E> extends AbstractRDBMSQueryResult<E>
         {
             resultsObjsByIndex.clear();
         }
+        if (resultsWindow != null)
+        {
+            resultsWindow.clear();
+        }
 
         super.close();
     }
@@ -296,6 +441,12 @@ public final class ScrollableQueryResult<E> extends AbstractRDBMSQueryResult<E>
             // Query connection closing message
             NucleusLogger.QUERY.debug(Localiser.msg("052606", query.toString()));
 
+            if (resultsWindow != null)
+            {
+                // Results have to be available without the ResultSet, so retain all blocks from now on
+                resultsWindow.setUnlimited();
+            }
+
             if (endIndex < 0)
             {
                 endIndex = size()-1;
@@ -693,9 +844,19 @@ public final class ScrollableQueryResult<E> extends AbstractRDBMSQueryResult<E>
     {
         disconnect();
         List results = new java.util.ArrayList();
-        for (int i=0;i<resultsObjsByIndex.size();i++)
+        if (resultsWindow != null)
         {
-            results.add(resultsObjsByIndex.get(i));
+            for (int i=startIndex;i<=endIndex;i++)
+            {
+                results.add(resultsWindow.get(i));
+            }
+        }
+        else
+        {
+            for (int i=0;i<resultsObjsByIndex.size();i++)
+            {
+                results.add(resultsObjsByIndex.get(i));
+            }
         }
         return results;
     }
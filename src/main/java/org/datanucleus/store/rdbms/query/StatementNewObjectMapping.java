@@ -33,6 +33,9 @@ public class StatementNewObjectMapping
     /** Mappings for the constructor objects keyed by the position (in the constructor). */
     Map<Integer, Object> ctrArgMappings = null;
 
+    /** Constructor resolved for the argument types of previous results, so it can be reused for later rows and executions. */
+    volatile ResultClassROF.ConstructorBinding ctrBinding = null;
+
     public StatementNewObjectMapping(Class cls)
     {
         this.cls = cls;
@@ -163,6 +163,7 @@ public class DeleteRequest extends Request
         whereFieldNumbers = consumer.getWhereFieldNumbers();
         callbacks = (MappingCallbacks[])consumer.getMappingCallBacks().toArray(new MappingCallbacks[consumer.getMappingCallBacks().size()]);
         oneToOneNonOwnerFields = consumer.getOneToOneNonOwnerFields();
+        batchDependencies = getBatchDependencies(clr, true);
     }
 
     /**
@@ -264,7 +265,7 @@ public class DeleteRequest extends Request
                     // or if using nontransactional writes (since we want it sending to the datastore now)
                     batch = false;
                 }
-                PreparedStatement ps = sqlControl.getStatementForUpdate(mconn, stmt, batch);
+                PreparedStatement ps = sqlControl.getStatementForUpdate(mconn, stmt, batch, false, batchDependencies);
                 try
                 {
                     // provide WHERE clause field(s)
@@ -23,13 +23,17 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.datanucleus.ClassLoaderResolver;
 import org.datanucleus.ExecutionContext;
 import org.datanucleus.exceptions.NucleusDataStoreException;
 import org.datanucleus.exceptions.NucleusObjectNotFoundException;
+import org.datanucleus.identity.IdentityUtils;
 import org.datanucleus.metadata.AbstractClassMetaData;
 import org.datanucleus.metadata.AbstractMemberMetaData;
 import org.datanucleus.metadata.IdentityType;
@@ -50,12 +54,14 @@ import org.datanucleus.store.rdbms.sql.SQLStatement;
 import org.datanucleus.store.rdbms.sql.SQLStatementHelper;
 import org.datanucleus.store.rdbms.sql.SQLTable;
 import org.datanucleus.store.rdbms.sql.SelectStatement;
+import org.datanucleus.store.rdbms.sql.expression.InExpression;
 import org.datanucleus.store.rdbms.sql.expression.SQLExpression;
 import org.datanucleus.store.rdbms.sql.expression.SQLExpressionFactory;
 import org.datanucleus.store.rdbms.table.AbstractClassTable;
 import org.datanucleus.store.rdbms.table.DatastoreClass;
 import org.datanucleus.util.Localiser;
 import org.datanucleus.util.NucleusLogger;
+import org.datanucleus.util.TypeConversionHelper;
 
 /**
  * Class to retrieve the fields of an object of a specified class from the datastore.
@@ -66,9 +72,19 @@ import org.datanucleus.util.NucleusLogger;
  * already have a value for it. If the caller wants the surrogate version to be updated then
  * they should nullify the "transactional" version before calling.
  * </p>
+ * <p>
+ * The fields can also be fetched for many objects at once (see {@link #execute(ObjectProvider[])}), using a statement like
+ * <pre>
+ * SELECT ID, FIELD1, FIELD2 FROM CANDIDATE_TABLE WHERE ID IN (?, ?, ?)
+ * </pre>
+ * This is only supported where the identity is stored in a single column, otherwise each object is fetched in turn.
+ * </p>
  */
 public class FetchRequest extends Request
 {
+    /** Maximum number of objects to fetch in a single bulk statement. */
+    public static final int MAX_OBJECTS_PER_BULK_STATEMENT = 512;
+
     /** JDBC fetch statement without locking. */
     private String statementUnlocked;
 
@@ -95,6 +111,12 @@ public class FetchRequest extends Request
     /** Name of the version field. Only applies if the class has a version field (not surrogate). */
     private String versionFieldName = null;
 
+    /** MetaData of the fields/properties to retrieve (for generating bulk statements). */
+    private final AbstractMemberMetaData[] memberMetaData;
+
+    /** Statements to fetch the members for many objects, keyed by the number of objects. */
+    private final Map<Integer, BulkFetchStatement> bulkStatementsBySize = new ConcurrentHashMap<>();
+
     /**
      * Constructor, taking the table. Uses the structure of the datastore table to build a basic query.
      * @param classTable The Class Table representing the datastore table to retrieve
@@ -138,6 +160,7 @@ public class FetchRequest extends Request
         }
         this.table = candidateTable;
         this.key = ((AbstractClassTable)table).getPrimaryKey();
+        this.memberMetaData = mmds;
 
         // Extract version information, from this table and any super-tables
         DatastoreClass currentTable = table;
@@ -316,7 +339,7 @@ public class FetchRequest extends Request
             }*/
             try
             {
-                ManagedConnection mconn = storeMgr.getConnection(ec);
+                ManagedConnection mconn = storeMgr.getConnectionForRead(ec);
                 SQLController sqlControl = storeMgr.getSQLController();
 
                 try
@@ -422,6 +445,347 @@ public class FetchRequest extends Request
         }
     }
 
+    /**
+     * Method to fetch the members of this request for many objects, using a single statement restricting the identity
+     * to those of the objects (or several statements where there are more than {@link #MAX_OBJECTS_PER_BULK_STATEMENT} objects).
+     * Falls back to fetching each object in turn where the identity is not stored in a single column.
+     * @param ops ObjectProviders of the objects (all of the same class hierarchy, using this table)
+     * @throws NucleusObjectNotFoundException with nested exceptions for each of the objects that weren't found (if any)
+     */
+    public void execute(ObjectProvider[] ops)
+    {
+        if (ops == null || ops.length == 0)
+        {
+            return;
+        }
+
+        // Only fetch for objects where we need to perform a SELECT
+        List<ObjectProvider> opsToFetch = new ArrayList<>(ops.length);
+        List<ObjectProvider> opsNotToFetch = null;
+        for (int i=0;i<ops.length;i++)
+        {
+            if (((fetchingSurrogateVersion || versionFieldName != null) && numberOfFieldsToFetch == 0) && ops[i].isVersionLoaded())
+            {
+                // Fetching only the version and it is already loaded
+                if (opsNotToFetch == null)
+                {
+                    opsNotToFetch = new ArrayList<>();
+                }
+                opsNotToFetch.add(ops[i]);
+                continue;
+            }
+            opsToFetch.add(ops[i]);
+        }
+
+        JavaTypeMapping idMapping = getSingleColumnIdMapping(ops[0].getClassMetaData());
+        if (statementLocked == null || opsToFetch.size() < 2 || idMapping == null)
+        {
+            for (int i=0;i<ops.length;i++)
+            {
+                execute(ops[i]);
+            }
+            return;
+        }
+
+        if (opsNotToFetch != null)
+        {
+            // Process the objects that need no SELECT in the same way as when fetching them individually
+            for (ObjectProvider op : opsNotToFetch)
+            {
+                execute(op);
+            }
+        }
+
+        Collection<ObjectProvider> missingOps = new HashSet<>();
+        for (int i=0;i<opsToFetch.size();i+=MAX_OBJECTS_PER_BULK_STATEMENT)
+        {
+            List<ObjectProvider> subOps = opsToFetch.subList(i, Math.min(i + MAX_OBJECTS_PER_BULK_STATEMENT, opsToFetch.size()));
+            missingOps.addAll(executeBulk(subOps.toArray(new ObjectProvider[subOps.size()]), idMapping));
+        }
+
+        // Execute any mapping actions now that we have fetched the fields, for the objects that were fetched
+        for (ObjectProvider op : opsToFetch)
+        {
+            if (!missingOps.contains(op))
+            {
+                for (int j = 0; j < callbacks.length; ++j)
+                {
+                    callbacks[j].postFetch(op);
+                }
+            }
+        }
+
+        if (!missingOps.isEmpty())
+        {
+            NucleusObjectNotFoundException[] nfes = new NucleusObjectNotFoundException[missingOps.size()];
+            int i = 0;
+            for (ObjectProvider missingOp : missingOps)
+            {
+                if (NucleusLogger.DATASTORE_RETRIEVE.isInfoEnabled())
+                {
+                    NucleusLogger.DATASTORE_RETRIEVE.info(Localiser.msg("050018", missingOp.getInternalObjectId()));
+                }
+                nfes[i++] = new NucleusObjectNotFoundException("No such database row", missingOp.getInternalObjectId());
+            }
+            throw new NucleusObjectNotFoundException("Some objects were not found. Look at nested exceptions for details", nfes);
+        }
+    }
+
+    /**
+     * Method to fetch the members of this request for the specified objects in a single statement.
+     * @param ops ObjectProviders of the objects (no more than {@link #MAX_OBJECTS_PER_BULK_STATEMENT})
+     * @param idMapping Mapping for the (single column) identity
+     * @return ObjectProviders of any objects that weren't found
+     */
+    private Collection<ObjectProvider> executeBulk(ObjectProvider[] ops, JavaTypeMapping idMapping)
+    {
+        ExecutionContext ec = ops[0].getExecutionContext();
+        RDBMSStoreManager storeMgr = table.getStoreManager();
+        AbstractClassMetaData cmd = ops[0].getClassMetaData();
+        boolean datastoreId = (cmd.getIdentityType() == IdentityType.DATASTORE);
+
+        // Round up the number of objects so that only a few distinct statements are generated, padding with the last object
+        int numIds = 1;
+        while (numIds < ops.length)
+        {
+            numIds <<= 1;
+        }
+        numIds = Math.min(numIds, MAX_OBJECTS_PER_BULK_STATEMENT);
+        BulkFetchStatement bulkStmt = bulkStatementsBySize.get(numIds);
+        if (bulkStmt == null)
+        {
+            bulkStmt = generateBulkStatement(numIds, idMapping, ec.getClassLoaderResolver());
+            bulkStatementsBySize.put(numIds, bulkStmt);
+        }
+
+        boolean locked = ec.getSerializeReadForClass(cmd.getFullClassName());
+        Map<Object, ObjectProvider> opsByKey = new HashMap<>();
+        for (int i=0;i<ops.length;i++)
+        {
+            if (fieldsToFetch != null && NucleusLogger.PERSISTENCE.isDebugEnabled())
+            {
+                NucleusLogger.PERSISTENCE.debug(Localiser.msg("052218", ops[i].getObjectAsPrintable(), fieldsToFetch, table));
+            }
+            short lockType = ec.getLockManager().getLockMode(ops[i].getInternalObjectId());
+            if (lockType == LockManager.LOCK_MODE_PESSIMISTIC_READ || lockType == LockManager.LOCK_MODE_PESSIMISTIC_WRITE)
+            {
+                // Override with pessimistic lock
+                locked = true;
+            }
+            opsByKey.put(getIdKey(ops[i].getInternalObjectId(), datastoreId), ops[i]);
+        }
+        String statement = (locked ? bulkStmt.statementLocked : bulkStmt.statementUnlocked);
+        StatementClassMapping mappingDef = bulkStmt.mappingDefinition;
+        Class keyType = opsByKey.keySet().iterator().next().getClass();
+
+        try
+        {
+            ManagedConnection mconn = storeMgr.getConnectionForRead(ec);
+            SQLController sqlControl = storeMgr.getSQLController();
+
+            try
+            {
+                PreparedStatement ps = sqlControl.getStatementForQuery(mconn, statement);
+                try
+                {
+                    // Provide the identity of each object to the JDBC statement
+                    for (int i=0;i<numIds;i++)
+                    {
+                        Object id = ops[Math.min(i, ops.length-1)].getInternalObjectId();
+                        idMapping.setObject(ec, ps, new int[] {i+1}, datastoreId ? id : IdentityUtils.getTargetKeyForSingleFieldIdentity(id));
+                    }
+
+                    if (table.getMultitenancyMapping() != null)
+                    {
+                        // Provide the tenant id to the JDBC statement
+                        String tenantId = ec.getNucleusContext().getMultiTenancyId(ec, cmd);
+                        table.getMultitenancyMapping().setObject(ec, ps, new int[] {numIds+1}, tenantId);
+                    }
+
+                    // Execute the statement
+                    ResultSet rs = sqlControl.executeStatementQuery(ec, mconn, statement, ps);
+                    try
+                    {
+                        while (rs.next())
+                        {
+                            Object key = idMapping.getObject(ec, rs, bulkStmt.idColumnPositions);
+                            if (datastoreId && IdentityUtils.isDatastoreIdentity(key))
+                            {
+                                // If mapping is OIDMapping then returns an OID rather than the column value
+                                key = IdentityUtils.getTargetKeyForDatastoreIdentity(key);
+                            }
+                            if (key != null && key.getClass() != keyType)
+                            {
+                                key = TypeConversionHelper.convertTo(key, keyType);
+                            }
+
+                            ObjectProvider op = opsByKey.remove(key);
+                            if (op == null)
+                            {
+                                // Row repeated, or not for an object requested
+                                continue;
+                            }
+
+                            // Copy the results into the object
+                            op.replaceFields(memberNumbersToFetch, storeMgr.getFieldManagerForResultProcessing(op, rs, mappingDef));
+
+                            if (op.getTransactionalVersion() == null)
+                            {
+                                // Object has no version set so update it from this fetch
+                                Object datastoreVersion = null;
+                                if (fetchingSurrogateVersion)
+                                {
+                                    // Surrogate version column - get from the result set using the version mapping
+                                    StatementMappingIndex verIdx = mappingDef.getMappingForMemberPosition(StatementClassMapping.MEMBER_VERSION);
+                                    datastoreVersion = table.getVersionMapping(true).getObject(ec, rs, verIdx.getColumnPositions());
+                                }
+                                else if (versionFieldName != null)
+                                {
+                                    // Version field - now populated in the field in the object from the results
+                                    datastoreVersion = op.provideField(cmd.getAbsolutePositionOfMember(versionFieldName));
+                                }
+                                op.setVersion(datastoreVersion);
+                            }
+
+                            if (opsByKey.isEmpty())
+                            {
+                                break;
+                            }
+                        }
+                    }
+                    finally
+                    {
+                        rs.close();
+                    }
+                }
+                finally
+                {
+                    sqlControl.closeStatement(mconn, ps);
+                }
+            }
+            finally
+            {
+                mconn.release();
+            }
+        }
+        catch (SQLException sqle)
+        {
+            String msg = Localiser.msg("052219", ops[0].getObjectAsPrintable(), statement, sqle.getMessage());
+            NucleusLogger.DATASTORE_RETRIEVE.warn(msg);
+            List exceptions = new ArrayList();
+            exceptions.add(sqle);
+            while ((sqle = sqle.getNextException()) != null)
+            {
+                exceptions.add(sqle);
+            }
+            throw new NucleusDataStoreException(msg, (Throwable[])exceptions.toArray(new Throwable[exceptions.size()]));
+        }
+
+        return opsByKey.values();
+    }
+
+    /**
+     * Method to generate the statement to fetch the members of this request for the specified number of objects.
+     * @param numIds Number of objects
+     * @param idMapping Mapping for the (single column) identity
+     * @param clr ClassLoader resolver
+     * @return The statement
+     */
+    private BulkFetchStatement generateBulkStatement(int numIds, JavaTypeMapping idMapping, ClassLoaderResolver clr)
+    {
+        RDBMSStoreManager storeMgr = table.getStoreManager();
+        SQLExpressionFactory exprFactory = storeMgr.getSQLExpressionFactory();
+
+        SelectStatement sqlStatement = new SelectStatement(storeMgr, table, null, null);
+        StatementClassMapping mappingDef = new StatementClassMapping();
+        processMembersOfClass(sqlStatement, memberMetaData, table, sqlStatement.getPrimaryTable(), mappingDef, new HashSet<MappingCallbacks>(), clr);
+
+        // Select the identity so we can match each row to its object
+        SQLTable idSqlTbl = SQLStatementHelper.getSQLTableForMappingOfTable(sqlStatement, sqlStatement.getPrimaryTable(), idMapping);
+        int[] idCols = sqlStatement.select(idSqlTbl, idMapping, null);
+
+        // Add WHERE clause restricting to the identities of the objects
+        SQLExpression idExpr = exprFactory.newExpression(sqlStatement, idSqlTbl, idMapping);
+        SQLExpression[] idVals = new SQLExpression[numIds];
+        for (int i=0;i<numIds;i++)
+        {
+            idVals[i] = exprFactory.newLiteralParameter(sqlStatement, idMapping, null, "ID" + i);
+        }
+        sqlStatement.whereAnd(new InExpression(idExpr, idVals), true);
+
+        if (table.getMultitenancyMapping() != null)
+        {
+            // Add restriction on multi-tenancy
+            JavaTypeMapping tenantMapping = table.getMultitenancyMapping();
+            SQLExpression tenantExpr = exprFactory.newExpression(sqlStatement, sqlStatement.getPrimaryTable(), tenantMapping);
+            SQLExpression tenantVal = exprFactory.newLiteralParameter(sqlStatement, tenantMapping, null, "TENANT");
+            sqlStatement.whereAnd(tenantExpr.eq(tenantVal), true);
+        }
+
+        String unlocked = sqlStatement.getSQLText().toSQL();
+        sqlStatement.addExtension(SQLStatement.EXTENSION_LOCK_FOR_UPDATE, Boolean.TRUE);
+        return new BulkFetchStatement(unlocked, sqlStatement.getSQLText().toSQL(), mappingDef, idCols);
+    }
+
+    /**
+     * Accessor for the mapping of the identity of the objects when it is stored in a single column.
+     * @param cmd Metadata for the class of the objects
+     * @return The identity mapping, or null if not a single column
+     */
+    private JavaTypeMapping getSingleColumnIdMapping(AbstractClassMetaData cmd)
+    {
+        JavaTypeMapping idMapping = null;
+        if (cmd.getIdentityType() == IdentityType.DATASTORE)
+        {
+            idMapping = table.getDatastoreIdMapping();
+        }
+        else if (cmd.getIdentityType() == IdentityType.APPLICATION && cmd.usesSingleFieldIdentityClass())
+        {
+            AbstractMemberMetaData mmd = cmd.getMetaDataForManagedMemberAtAbsolutePosition(cmd.getPKMemberPositions()[0]);
+            idMapping = table.getMemberMapping(mmd);
+            if (idMapping instanceof PersistableMapping)
+            {
+                // Identity is a relation so can't compare to the target key
+                idMapping = null;
+            }
+        }
+        return (idMapping != null && idMapping.getNumberOfDatastoreMappings() == 1) ? idMapping : null;
+    }
+
+    /**
+     * Convenience method to return the key of the identity as stored in the (single) identity column.
+     * @param id The identity
+     * @param datastoreId Whether datastore identity
+     * @return The key
+     */
+    private static Object getIdKey(Object id, boolean datastoreId)
+    {
+        return datastoreId ? IdentityUtils.getTargetKeyForDatastoreIdentity(id) : IdentityUtils.getTargetKeyForSingleFieldIdentity(id);
+    }
+
+    /**
+     * Statement to fetch the members of this request for a number of objects.
+     */
+    private static class BulkFetchStatement
+    {
+        final String statementUnlocked;
+        final String statementLocked;
+
+        /** The mapping of the results of the SQL statement. */
+        final StatementClassMapping mappingDefinition;
+
+        /** Positions of the identity column in the results. */
+        final int[] idColumnPositions;
+
+        BulkFetchStatement(String statementUnlocked, String statementLocked, StatementClassMapping mappingDefinition, int[] idColumnPositions)
+        {
+            this.statementUnlocked = statementUnlocked;
+            this.statementLocked = statementLocked;
+            this.mappingDefinition = mappingDefinition;
+            this.idColumnPositions = idColumnPositions;
+        }
+    }
+
     /**
      * Method to process the supplied members of the class, adding to the SQLStatement as required.
      * Can recurse if some of the requested fields are persistent objects in their own right, so we
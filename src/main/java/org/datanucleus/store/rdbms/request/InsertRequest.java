@@ -93,6 +93,9 @@ public class InsertRequest extends Request
 {
     private static final int IDPARAMNUMBER = 1;
 
+    /** Key of the associated value marking an object whose INSERT is pending in a batch, awaiting its identity. */
+    private static final String INSERT_PENDING_KEY = "DN_INSERT_PENDING";
+
     private final MappingCallbacks[] callbacks;
 
     /** Numbers of fields in the INSERT statement (excluding PK). */
@@ -140,6 +143,12 @@ public class InsertRequest extends Request
     /** Whether to batch the INSERT SQL. */
     private boolean batch = false;
 
+    /** Whether to batch the INSERT SQL when the related objects of the object being inserted are already flushed. */
+    private boolean batchWhenRelatedObjectsFlushed = false;
+
+    /** Numbers of the fields holding a related object via FK columns in this table, when batching with related objects flushed. */
+    private int[] relatedObjectFieldNumbers = null;
+
     /**
      * Constructor, taking the table. Uses the structure of the datastore table to build a basic query.
      * @param table The Class Table representing the datastore table to insert.
@@ -182,12 +191,35 @@ public class InsertRequest extends Request
 
         insertStmt = consumer.getInsertStmt();
 
+        // An identity value is only known once the INSERT is executed, and the rest of the insert needs it (callbacks, insert status,
+        // related inserts). So only batch with identity when the datastore returns the generated keys of a batch, so the insert can
+        // be completed when the batch is processed, and the object has no other table (whose INSERT would need the identity)
+        boolean batchIdentity = false;
+        if (hasIdentityColumn)
+        {
+            RDBMSStoreManager storeMgr = table.getStoreManager();
+            DatastoreAdapter dba = storeMgr.getDatastoreAdapter();
+            batchIdentity = dba.supportsOption(DatastoreAdapter.GET_GENERATED_KEYS_STATEMENT) &&
+                dba.supportsOption(DatastoreAdapter.GET_GENERATED_KEYS_STATEMENT_BATCH) &&
+                storeMgr.getDatastoreClass(cmd.getFullClassName(), clr) == table &&
+                (table.getSecondaryDatastoreClasses() == null || table.getSecondaryDatastoreClasses().isEmpty());
+        }
+
         // TODO Need to also check on whether there is inheritance with multiple tables
-        if (!hasIdentityColumn && !cmd.hasRelations(clr, table.getStoreManager().getMetaDataManager()) && 
-            externalFKStmtMappings == null)
+        if ((!hasIdentityColumn || batchIdentity) && externalFKStmtMappings == null)
         {
-            // No identity, no persistence-by-reachability and no external FKs so should be safe to batch this
-            batch = true;
+            if (!cmd.hasRelations(clr, table.getStoreManager().getMetaDataManager()))
+            {
+                // No identity (or identity available from the batch), no persistence-by-reachability and no external FKs so should be safe to batch this
+                batch = true;
+            }
+            else
+            {
+                // Relations, so only batch when the related objects are already in the datastore (so no persistence-by-reachability)
+                relatedObjectFieldNumbers = getRelatedObjectFieldNumbers(cmd, clr);
+                batchWhenRelatedObjectsFlushed = (relatedObjectFieldNumbers != null);
+            }
+            batchDependencies = getBatchDependencies(clr, false);
         }
     }
 
@@ -232,12 +264,19 @@ public class InsertRequest extends Request
             // Set the state to "inserting" (may already be at this state if multiple inheritance level INSERT)
             op.changeActivityState(ActivityState.INSERTING);
 
+            boolean batchInsert = batch || (batchWhenRelatedObjectsFlushed && isRelatedObjectsFlushed(op, relatedObjectFieldNumbers));
+            if (batchInsert && hasIdentityColumn && !ec.isFlushing())
+            {
+                // Not flushing, so the identity is needed when the persist returns rather than at the end of the flush
+                batchInsert = false;
+            }
+
             SQLController sqlControl = storeMgr.getSQLController();
             ManagedConnection mconn = storeMgr.getConnection(ec);
             try
             {
-                PreparedStatement ps = sqlControl.getStatementForUpdate(mconn, insertStmt, batch,
-                    hasIdentityColumn && storeMgr.getDatastoreAdapter().supportsOption(DatastoreAdapter.GET_GENERATED_KEYS_STATEMENT));
+                PreparedStatement ps = sqlControl.getStatementForUpdate(mconn, insertStmt, batchInsert,
+                    hasIdentityColumn && storeMgr.getDatastoreAdapter().supportsOption(DatastoreAdapter.GET_GENERATED_KEYS_STATEMENT), batchDependencies);
 
                 try
                 {
@@ -406,80 +445,42 @@ public class InsertRequest extends Request
                         }
                     }
 
-                    sqlControl.executeStatementUpdate(ec, mconn, insertStmt, ps, !batch);
-                    if (hasIdentityColumn)
-                    {
-                        // Identity was set in the datastore using auto-increment/identity/serial etc
-                        Object newId = getInsertedDatastoreIdentity(ec, sqlControl, op, mconn, ps);
-                        if (NucleusLogger.DATASTORE_PERSIST.isDebugEnabled())
-                        {
-                            NucleusLogger.DATASTORE_PERSIST.debug(Localiser.msg("052206",
-                                op.getObjectAsPrintable(), newId));
-                        }
-                        op.setPostStoreNewObjectId(newId);
-                    }
-
-                    // Execute any mapping actions on the insert of the fields (e.g Oracle CLOBs/BLOBs)
-                    for (int i = 0; i < callbacks.length; ++i)
+                    SQLController.GeneratedKeyCallback identityCallback = null;
+                    if (hasIdentityColumn && batchInsert)
                     {
-                        if (NucleusLogger.PERSISTENCE.isDebugEnabled())
+                        // Identity is set in the datastore, so complete the insert when the batch is processed and its keys are read
+                        final ObjectProvider insertedOP = op;
+                        final PreparedStatement insertedPS = ps;
+                        identityCallback = new SQLController.GeneratedKeyCallback()
                         {
-                            NucleusLogger.PERSISTENCE.debug(Localiser.msg("052222",
-                                op.getObjectAsPrintable(),
-                                ((JavaTypeMapping)callbacks[i]).getMemberMetaData().getFullFieldName()));
-                        }
-                        callbacks[i].insertPostProcessing(op);
+                            public void generatedKeyAvailable(Object generatedKey)
+                            {
+                                if (generatedKey == null)
+                                {
+                                    throw new NucleusDataStoreException(Localiser.msg("052205", table));
+                                }
+                                insertedOP.setAssociatedValue(INSERT_PENDING_KEY, null);
+                                completeInsert(insertedOP, generatedKey, insertedPS);
+                                insertedOP.changeActivityState(ActivityState.NONE);
+                            }
+                        };
                     }
 
-                    // Update the insert status for this table via the StoreManager
-                    storeMgr.setObjectIsInsertedToLevel(op, table);
-
-                    // Make sure all relation fields (1-1, N-1 with FK) we processed in the INSERT are attached.
-                    // This is necessary because with a bidir relation and the other end attached we can just
-                    // do the INSERT above first and THEN attach the other end here
-                    // (if we did it the other way around we would get a NotYetFlushedException thrown above).
-                    for (int i=0;i<relationFieldNumbers.length;i++)
+                    int[] updateCounts = sqlControl.executeStatementUpdate(ec, mconn, insertStmt, ps, !batchInsert, null, identityCallback);
+                    if (updateCounts == null && identityCallback != null)
                     {
-                        Object value = op.provideField(relationFieldNumbers[i]);
-                        if (value != null && ec.getApiAdapter().isDetached(value))
-                        {
-                            Object valueAttached = ec.persistObjectInternal(value, null, -1, ObjectProvider.PC);
-                            op.replaceField(relationFieldNumbers[i], valueAttached);
-                        }
+                        // Pending in a batch, so completed by the callback
+                        op.setAssociatedValue(INSERT_PENDING_KEY, Boolean.TRUE);
+                        return;
                     }
 
-                    // Perform reachability on all fields that have no datastore column (1-1 bi non-owner, N-1 bi join)
-                    if (reachableFieldNumbers.length > 0)
+                    Object newId = null;
+                    if (hasIdentityColumn)
                     {
-                        int numberOfReachableFields = 0;
-                        for (int i = 0; i < reachableFieldNumbers.length; i++)
-                        {
-                            if (reachableFieldNumbers[i] < op.getClassMetaData().getMemberCount())
-                            {
-                                numberOfReachableFields++;
-                            }
-                        }
-                        int[] fieldNums = new int[numberOfReachableFields];
-                        int j = 0;
-                        for (int i = 0; i < reachableFieldNumbers.length; i++)
-                        {
-                            if (reachableFieldNumbers[i] < op.getClassMetaData().getMemberCount())
-                            {
-                                fieldNums[j++] = reachableFieldNumbers[i];
-                            }
-                        }
-                        mappingDefinition = new StatementClassMapping();
-                        idxs = retrievedStmtMappings;
-                        for (int i=0;i<idxs.length;i++)
-                        {
-                            if (idxs[i] != null)
-                            {
-                                mappingDefinition.addMappingForMember(i, idxs[i]);
-                            }
-                        }
-                        NucleusLogger.PERSISTENCE.debug("Performing reachability on fields " + StringUtils.intArrayToString(fieldNums));
-                        op.provideFields(fieldNums, storeMgr.getFieldManagerForStatementGeneration(op, ps, mappingDefinition));
+                        // Identity was set in the datastore using auto-increment/identity/serial etc
+                        newId = getInsertedDatastoreIdentity(ec, sqlControl, op, mconn, ps);
                     }
+                    completeInsert(op, newId, ps);
                 }
                 finally
                 {
@@ -503,6 +504,91 @@ public class InsertRequest extends Request
             }
             throw new NucleusDataStoreException(msg, (Throwable[])exceptions.toArray(new Throwable[exceptions.size()]));
         }
+    }
+
+    /**
+     * Method to complete the insert of the object once its INSERT is executed, or once its batch is processed when the INSERT is
+     * batched and the identity is set in the datastore. Sets the identity, invokes the mapping callbacks, updates the insert
+     * status for this table, and attaches/persists the related objects.
+     * @param op ObjectProvider of the object being inserted
+     * @param newId The identity set in the datastore (or null if the table has no identity column)
+     * @param ps PreparedStatement of the INSERT
+     */
+    private void completeInsert(ObjectProvider op, Object newId, PreparedStatement ps)
+    {
+        ExecutionContext ec = op.getExecutionContext();
+        RDBMSStoreManager storeMgr = table.getStoreManager();
+        if (newId != null)
+        {
+            if (NucleusLogger.DATASTORE_PERSIST.isDebugEnabled())
+            {
+                NucleusLogger.DATASTORE_PERSIST.debug(Localiser.msg("052206",
+                    op.getObjectAsPrintable(), newId));
+            }
+            op.setPostStoreNewObjectId(newId);
+        }
+
+        // Execute any mapping actions on the insert of the fields (e.g Oracle CLOBs/BLOBs)
+        for (int i = 0; i < callbacks.length; ++i)
+        {
+            if (NucleusLogger.PERSISTENCE.isDebugEnabled())
+            {
+                NucleusLogger.PERSISTENCE.debug(Localiser.msg("052222",
+                    op.getObjectAsPrintable(),
+                    ((JavaTypeMapping)callbacks[i]).getMemberMetaData().getFullFieldName()));
+            }
+            callbacks[i].insertPostProcessing(op);
+        }
+
+        // Update the insert status for this table via the StoreManager
+        storeMgr.setObjectIsInsertedToLevel(op, table);
+
+        // Make sure all relation fields (1-1, N-1 with FK) we processed in the INSERT are attached.
+        // This is necessary because with a bidir relation and the other end attached we can just
+        // do the INSERT above first and THEN attach the other end here
+        // (if we did it the other way around we would get a NotYetFlushedException thrown above).
+        for (int i=0;i<relationFieldNumbers.length;i++)
+        {
+            Object value = op.provideField(relationFieldNumbers[i]);
+            if (value != null && ec.getApiAdapter().isDetached(value))
+            {
+                Object valueAttached = ec.persistObjectInternal(value, null, -1, ObjectProvider.PC);
+                op.replaceField(relationFieldNumbers[i], valueAttached);
+            }
+        }
+
+        // Perform reachability on all fields that have no datastore column (1-1 bi non-owner, N-1 bi join)
+        if (reachableFieldNumbers.length > 0)
+        {
+            int numberOfReachableFields = 0;
+            for (int i = 0; i < reachableFieldNumbers.length; i++)
+            {
+                if (reachableFieldNumbers[i] < op.getClassMetaData().getMemberCount())
+                {
+                    numberOfReachableFields++;
+                }
+            }
+            int[] fieldNums = new int[numberOfReachableFields];
+            int j = 0;
+            for (int i = 0; i < reachableFieldNumbers.length; i++)
+            {
+                if (reachableFieldNumbers[i] < op.getClassMetaData().getMemberCount())
+                {
+                    fieldNums[j++] = reachableFieldNumbers[i];
+                }
+            }
+            StatementClassMapping mappingDefinition = new StatementClassMapping();
+            StatementMappingIndex[] idxs = retrievedStmtMappings;
+            for (int i=0;i<idxs.length;i++)
+            {
+                if (idxs[i] != null)
+                {
+                    mappingDefinition.addMappingForMember(i, idxs[i]);
+                }
+            }
+            NucleusLogger.PERSISTENCE.debug("Performing reachability on fields " + StringUtils.intArrayToString(fieldNums));
+            op.provideFields(fieldNums, storeMgr.getFieldManagerForStatementGeneration(op, ps, mappingDefinition));
+        }
 
         // Execute any mapping actions now that we have inserted the element
         // (things like inserting any association parent-child).
@@ -525,6 +611,76 @@ public class InsertRequest extends Request
         }
     }
 
+    /**
+     * Convenience method to return the numbers of the fields holding a related object via FK columns in this table, which
+     * need to be already in the datastore for the INSERT to be batched.
+     * @param cmd ClassMetaData for the object being persisted
+     * @param clr ClassLoader resolver
+     * @return The field numbers, or null if a related object is embedded/serialised (so could need persisting with the INSERT)
+     */
+    private int[] getRelatedObjectFieldNumbers(AbstractClassMetaData cmd, ClassLoaderResolver clr)
+    {
+        int memberCount = cmd.getMemberCount();
+        int[] fieldNumbers = new int[insertFieldNumbers.length];
+        int numberOfFields = 0;
+        for (int i=0;i<insertFieldNumbers.length;i++)
+        {
+            int fieldNumber = insertFieldNumbers[i];
+            if (fieldNumber >= memberCount || stmtMappings[fieldNumber] == null)
+            {
+                continue;
+            }
+
+            JavaTypeMapping mapping = stmtMappings[fieldNumber].getMapping();
+            AbstractMemberMetaData mmd = mapping.getMemberMetaData();
+            if (mmd == null || mmd.getRelationType(clr) == RelationType.NONE)
+            {
+                continue;
+            }
+            if (!(mapping instanceof PersistableMapping) && !(mapping instanceof ReferenceMapping))
+            {
+                // Embedded/serialised related object, so could need persisting
+                return null;
+            }
+            fieldNumbers[numberOfFields++] = fieldNumber;
+        }
+
+        int[] relatedFieldNumbers = new int[numberOfFields];
+        System.arraycopy(fieldNumbers, 0, relatedFieldNumbers, 0, numberOfFields);
+        return relatedFieldNumbers;
+    }
+
+    /**
+     * Convenience method to check whether the objects related to the object being inserted (via FK columns in this table) are all
+     * already in the datastore, so that populating the INSERT will not persist any other object (persistence-by-reachability).
+     * An object whose INSERT is pending in a batch (awaiting its identity) is not yet in the datastore.
+     * @param op ObjectProvider of the object being inserted
+     * @param relatedFieldNumbers Numbers of the fields holding a related object via FK columns in this table
+     * @return Whether the related objects are all flushed
+     */
+    static boolean isRelatedObjectsFlushed(ObjectProvider op, int[] relatedFieldNumbers)
+    {
+        ExecutionContext ec = op.getExecutionContext();
+        for (int i=0;i<relatedFieldNumbers.length;i++)
+        {
+            Object value = op.provideField(relatedFieldNumbers[i]);
+            if (value != null)
+            {
+                if (ec.getApiAdapter().isDetached(value))
+                {
+                    return false;
+                }
+                ObjectProvider valueOP = ec.findObjectProvider(value);
+                if (valueOP == null || valueOP.isWaitingToBeFlushedToDatastore() || valueOP.isInserting() ||
+                    valueOP.getAssociatedValue(INSERT_PENDING_KEY) != null)
+                {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
     /**
      * Method to obtain the identity attributed by the datastore when using auto-increment/IDENTITY/SERIAL.
      * @param ec execution context
@@ -22,6 +22,8 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.datanucleus.ClassLoaderResolver;
 import org.datanucleus.ExecutionContext;
@@ -46,6 +48,7 @@ import org.datanucleus.store.rdbms.SQLController;
 import org.datanucleus.store.rdbms.sql.SQLStatement;
 import org.datanucleus.store.rdbms.sql.SelectStatement;
 import org.datanucleus.store.rdbms.sql.expression.BooleanExpression;
+import org.datanucleus.store.rdbms.sql.expression.InExpression;
 import org.datanucleus.store.rdbms.sql.expression.SQLExpression;
 import org.datanucleus.store.rdbms.sql.expression.SQLExpressionFactory;
 import org.datanucleus.store.rdbms.table.DatastoreClass;
@@ -58,18 +61,25 @@ import org.datanucleus.util.TypeConversionHelper;
  * Request to locate a series of records in the data store (all present in the same table). 
  * Performs an SQL statement like
  * <pre>
- * SELECT ID [,FIELD1,FIELD2] FROM CANDIDATE_TABLE WHERE ID = ? OR ID = ? OR ID = ?
+ * SELECT ID [,FIELD1,FIELD2] FROM CANDIDATE_TABLE WHERE ID IN (?, ?, ?)
  * </pre>
+ * or, where the identity has multiple columns,
+ * <pre>
+ * SELECT ID1, ID2 [,FIELD1,FIELD2] FROM CANDIDATE_TABLE WHERE (ID1 = ? AND ID2 = ?) OR (ID1 = ? AND ID2 = ?)
+ * </pre>
+ * The number of identities in a statement is rounded up to a power of 2 (padding with the last identity), and split into
+ * statements of at most {@link #MAX_IDENTITIES_PER_STATEMENT}, so that only a few distinct statements are generated for a table.
+ * These statements are cached in the request, so the request can be reused for the table.
  */
 public class LocateBulkRequest extends BulkRequest
 {
-    AbstractClassMetaData cmd = null;
+    /** Maximum number of identities to locate in a single statement. */
+    public static final int MAX_IDENTITIES_PER_STATEMENT = 256;
 
-    /** Definition of input mappings in the SQL statement. */
-    private StatementClassMapping[] mappingDefinitions;
+    AbstractClassMetaData cmd = null;
 
-    /** Result mapping for the SQL statement. */
-    private StatementClassMapping resultMapping;
+    /** Statements for this table, keyed by the number of identities and whether locking (and tenant where applicable). */
+    private Map<String, LocateBulkStatement> statementsByKey = new ConcurrentHashMap<>();
 
     /**
      * Constructor, taking the table. Uses the structure of the datastore table to build a basic query.
@@ -78,20 +88,50 @@ public class LocateBulkRequest extends BulkRequest
     public LocateBulkRequest(DatastoreClass table)
     {
         super(table);
+        RDBMSStoreManager storeMgr = table.getStoreManager();
+        ClassLoaderResolver clr = storeMgr.getNucleusContext().getClassLoaderResolver(null);
+        cmd = storeMgr.getMetaDataManager().getMetaDataForClass(table.getType(), clr);
     }
 
-    protected String getStatement(DatastoreClass table, ObjectProvider[] ops, boolean lock)
+    /**
+     * Accessor for the statement to locate the specified number of identities, generating it if not yet cached.
+     * @param ec ExecutionContext
+     * @param numIds Number of identities in the statement
+     * @param lock Whether to lock the located records
+     * @return The statement
+     */
+    protected LocateBulkStatement getStatement(ExecutionContext ec, int numIds, boolean lock)
+    {
+        String key = numIds + (lock ? "L" : "");
+        if (table.getMultitenancyMapping() != null)
+        {
+            key += ":" + ec.getNucleusContext().getMultiTenancyId(ec, cmd);
+        }
+        LocateBulkStatement stmt = statementsByKey.get(key);
+        if (stmt == null)
+        {
+            stmt = generateStatement(ec, numIds, lock);
+            statementsByKey.put(key, stmt);
+        }
+        return stmt;
+    }
+
+    /**
+     * Method to generate the statement to locate the specified number of identities.
+     * @param ec ExecutionContext
+     * @param numIds Number of identities in the statement
+     * @param lock Whether to lock the located records
+     * @return The statement
+     */
+    protected LocateBulkStatement generateStatement(ExecutionContext ec, int numIds, boolean lock)
     {
         RDBMSStoreManager storeMgr = table.getStoreManager();
-        ClassLoaderResolver clr = storeMgr.getNucleusContext().getClassLoaderResolver(null);
         SQLExpressionFactory exprFactory = storeMgr.getSQLExpressionFactory();
-        cmd = storeMgr.getMetaDataManager().getMetaDataForClass(table.getType(), clr);
-        ExecutionContext ec = ops[0].getExecutionContext();
 
         SelectStatement sqlStatement = new SelectStatement(storeMgr, table, null, null);
 
         // SELECT fields we require
-        resultMapping = new StatementClassMapping();
+        StatementClassMapping resultMapping = new StatementClassMapping();
 
         // a). PK fields
         if (table.getIdentityType() == IdentityType.DATASTORE)
@@ -176,59 +216,69 @@ public class LocateBulkRequest extends BulkRequest
         }
 
         // Add WHERE clause restricting to the identities of the objects
-        mappingDefinitions = new StatementClassMapping[ops.length];
-        int inputParamNum = 1;
-        for (int i=0;i<ops.length;i++)
+        StatementClassMapping[] mappingDefinitions = new StatementClassMapping[numIds];
+        JavaTypeMapping singleIdMapping = getSingleColumnIdMapping();
+        if (singleIdMapping != null)
         {
-            mappingDefinitions[i] = new StatementClassMapping();
-            if (table.getIdentityType() == IdentityType.DATASTORE)
+            // Identity is a single column so use "ID IN (?, ?, ...)"
+            SQLExpression expr = exprFactory.newExpression(sqlStatement, sqlStatement.getPrimaryTable(), singleIdMapping);
+            SQLExpression[] vals = new SQLExpression[numIds];
+            for (int i=0;i<numIds;i++)
             {
-                // Datastore identity value for input
-                JavaTypeMapping datastoreIdMapping = table.getDatastoreIdMapping();
-                SQLExpression expr = exprFactory.newExpression(sqlStatement, sqlStatement.getPrimaryTable(), datastoreIdMapping);
-                SQLExpression val = exprFactory.newLiteralParameter(sqlStatement, datastoreIdMapping, null, "ID");
-                sqlStatement.whereOr(expr.eq(val), true);
-
-                StatementMappingIndex datastoreIdx = new StatementMappingIndex(datastoreIdMapping);
-                mappingDefinitions[i].addMappingForMember(StatementClassMapping.MEMBER_DATASTORE_ID, datastoreIdx);
-                datastoreIdx.addParameterOccurrence(new int[] {inputParamNum++});
+                vals[i] = exprFactory.newLiteralParameter(sqlStatement, singleIdMapping, null, "ID" + i);
+
+                mappingDefinitions[i] = new StatementClassMapping();
+                StatementMappingIndex idIdx = new StatementMappingIndex(singleIdMapping);
+                int memberNum = (table.getIdentityType() == IdentityType.DATASTORE) ? StatementClassMapping.MEMBER_DATASTORE_ID : cmd.getPKMemberPositions()[0];
+                mappingDefinitions[i].addMappingForMember(memberNum, idIdx);
+                idIdx.addParameterOccurrence(new int[] {i+1});
             }
-            else if (table.getIdentityType() == IdentityType.APPLICATION)
+            sqlStatement.whereAnd(new InExpression(expr, vals), true);
+        }
+        else
+        {
+            // Identity has multiple columns so use "(ID1 = ? AND ID2 = ?) OR (ID1 = ? AND ID2 = ?) ..."
+            int inputParamNum = 1;
+            for (int i=0;i<numIds;i++)
             {
-                // Application identity value(s) for input
-                BooleanExpression pkExpr = null;
-                int[] pkNums = cmd.getPKMemberPositions();
-                for (int j=0;j<pkNums.length;j++)
+                mappingDefinitions[i] = new StatementClassMapping();
+                if (table.getIdentityType() == IdentityType.APPLICATION)
                 {
-                    AbstractMemberMetaData mmd = cmd.getMetaDataForManagedMemberAtAbsolutePosition(pkNums[j]);
-                    JavaTypeMapping pkMapping = table.getMemberMappingInDatastoreClass(mmd);
-                    if (pkMapping == null)
-                    {
-                        pkMapping = table.getMemberMapping(mmd);
-                    }
-                    SQLExpression expr = exprFactory.newExpression(sqlStatement, sqlStatement.getPrimaryTable(), pkMapping);
-                    SQLExpression val = exprFactory.newLiteralParameter(sqlStatement, pkMapping, null, "PK" + j);
-                    BooleanExpression fieldEqExpr = expr.eq(val);
-                    if (pkExpr == null)
+                    // Application identity value(s) for input
+                    BooleanExpression pkExpr = null;
+                    int[] pkNums = cmd.getPKMemberPositions();
+                    for (int j=0;j<pkNums.length;j++)
                     {
-                        pkExpr = fieldEqExpr;
-                    }
-                    else
-                    {
-                        pkExpr = pkExpr.and(fieldEqExpr);
-                    }
+                        AbstractMemberMetaData mmd = cmd.getMetaDataForManagedMemberAtAbsolutePosition(pkNums[j]);
+                        JavaTypeMapping pkMapping = table.getMemberMappingInDatastoreClass(mmd);
+                        if (pkMapping == null)
+                        {
+                            pkMapping = table.getMemberMapping(mmd);
+                        }
+                        SQLExpression expr = exprFactory.newExpression(sqlStatement, sqlStatement.getPrimaryTable(), pkMapping);
+                        SQLExpression val = exprFactory.newLiteralParameter(sqlStatement, pkMapping, null, "PK" + j);
+                        BooleanExpression fieldEqExpr = expr.eq(val);
+                        if (pkExpr == null)
+                        {
+                            pkExpr = fieldEqExpr;
+                        }
+                        else
+                        {
+                            pkExpr = pkExpr.and(fieldEqExpr);
+                        }
 
-                    StatementMappingIndex pkIdx = new StatementMappingIndex(pkMapping);
-                    mappingDefinitions[i].addMappingForMember(mmd.getAbsoluteFieldNumber(), pkIdx);
-                    int[] inputParams = new int[pkMapping.getNumberOfDatastoreMappings()];
-                    for (int k=0;k<pkMapping.getNumberOfDatastoreMappings();k++)
-                    {
-                        inputParams[k] = inputParamNum++;
+                        StatementMappingIndex pkIdx = new StatementMappingIndex(pkMapping);
+                        mappingDefinitions[i].addMappingForMember(mmd.getAbsoluteFieldNumber(), pkIdx);
+                        int[] inputParams = new int[pkMapping.getNumberOfDatastoreMappings()];
+                        for (int k=0;k<pkMapping.getNumberOfDatastoreMappings();k++)
+                        {
+                            inputParams[k] = inputParamNum++;
+                        }
+                        pkIdx.addParameterOccurrence(inputParams);
                     }
-                    pkIdx.addParameterOccurrence(inputParams);
+                    pkExpr = (BooleanExpression)pkExpr.encloseInParentheses();
+                    sqlStatement.whereOr(pkExpr, true);
                 }
-                pkExpr = (BooleanExpression)pkExpr.encloseInParentheses();
-                sqlStatement.whereOr(pkExpr, true);
             }
         }
 
@@ -236,9 +286,50 @@ public class LocateBulkRequest extends BulkRequest
         if (lock)
         {
             sqlStatement.addExtension(SQLStatement.EXTENSION_LOCK_FOR_UPDATE, Boolean.TRUE);
-            return sqlStatement.getSQLText().toSQL();
         }
-        return sqlStatement.getSQLText().toSQL();
+        return new LocateBulkStatement(sqlStatement.getSQLText().toSQL(), mappingDefinitions, resultMapping);
+    }
+
+    /**
+     * Accessor for the mapping of the identity when it is stored in a single column.
+     * @return The identity mapping, or null if the identity has multiple columns
+     */
+    protected JavaTypeMapping getSingleColumnIdMapping()
+    {
+        JavaTypeMapping idMapping = null;
+        if (table.getIdentityType() == IdentityType.DATASTORE)
+        {
+            return table.getDatastoreIdMapping();
+        }
+        else if (table.getIdentityType() == IdentityType.APPLICATION)
+        {
+            int[] pkNums = cmd.getPKMemberPositions();
+            if (pkNums.length == 1)
+            {
+                AbstractMemberMetaData mmd = cmd.getMetaDataForManagedMemberAtAbsolutePosition(pkNums[0]);
+                idMapping = table.getMemberMappingInDatastoreClass(mmd);
+                if (idMapping == null)
+                {
+                    idMapping = table.getMemberMapping(mmd);
+                }
+            }
+        }
+        return (idMapping != null && idMapping.getNumberOfDatastoreMappings() == 1) ? idMapping : null;
+    }
+
+    /**
+     * Method to return the number of identities to use in a statement for the specified number of objects.
+     * @param numObjects Number of objects (no more than {@link #MAX_IDENTITIES_PER_STATEMENT})
+     * @return The next power of 2 at or above the number of objects
+     */
+    protected static int getNumberOfIdentitiesForStatement(int numObjects)
+    {
+        int numIds = 1;
+        while (numIds < numObjects)
+        {
+            numIds <<= 1;
+        }
+        return Math.min(numIds, MAX_IDENTITIES_PER_STATEMENT);
     }
 
     /**
@@ -268,6 +359,35 @@ public class LocateBulkRequest extends BulkRequest
             NucleusLogger.PERSISTENCE.debug(Localiser.msg("052223", str.toString(), table));
         }
 
+        if (ops.length > MAX_IDENTITIES_PER_STATEMENT)
+        {
+            // Split into statements of the maximum size, collecting any objects not found
+            List<NucleusObjectNotFoundException> nfes = new ArrayList<>();
+            for (int i=0;i<ops.length;i+=MAX_IDENTITIES_PER_STATEMENT)
+            {
+                ObjectProvider[] subOps = new ObjectProvider[Math.min(MAX_IDENTITIES_PER_STATEMENT, ops.length - i)];
+                System.arraycopy(ops, i, subOps, 0, subOps.length);
+                try
+                {
+                    execute(subOps);
+                }
+                catch (NucleusObjectNotFoundException nfe)
+                {
+                    Throwable[] nested = nfe.getNestedExceptions();
+                    for (int j=0;j<nested.length;j++)
+                    {
+                        nfes.add((NucleusObjectNotFoundException)nested[j]);
+                    }
+                }
+            }
+            if (!nfes.isEmpty())
+            {
+                throw new NucleusObjectNotFoundException("Some objects were not found. Look at nested exceptions for details", 
+                    nfes.toArray(new NucleusObjectNotFoundException[nfes.size()]));
+            }
+            return;
+        }
+
         ExecutionContext ec = ops[0].getExecutionContext();
         RDBMSStoreManager storeMgr = table.getStoreManager();
         AbstractClassMetaData cmd = ops[0].getClassMetaData();
@@ -281,7 +401,10 @@ public class LocateBulkRequest extends BulkRequest
                 locked = true;
             }
         }
-        String statement = getStatement(table, ops, locked);
+        int numIds = getNumberOfIdentitiesForStatement(ops.length);
+        LocateBulkStatement locateStmt = getStatement(ec, numIds, locked);
+        String statement = locateStmt.sql;
+        StatementClassMapping[] mappingDefinitions = locateStmt.mappingDefinitions;
 
         try
         {
@@ -293,20 +416,21 @@ public class LocateBulkRequest extends BulkRequest
 
                 try
                 {
-                    // Provide the primary key field(s)
-                    for (int i=0;i<ops.length;i++)
+                    // Provide the primary key field(s), padding with the last object to fill the statement
+                    for (int i=0;i<numIds;i++)
                     {
+                        ObjectProvider op = ops[Math.min(i, ops.length-1)];
                         if (cmd.getIdentityType() == IdentityType.DATASTORE)
                         {
                             StatementMappingIndex datastoreIdx = mappingDefinitions[i].getMappingForMemberPosition(StatementClassMapping.MEMBER_DATASTORE_ID);
                             for (int j=0;j<datastoreIdx.getNumberOfParameterOccurrences();j++)
                             {
-                                table.getDatastoreIdMapping().setObject(ec, ps, datastoreIdx.getParameterPositionsForOccurrence(j), ops[i].getInternalObjectId());
+                                table.getDatastoreIdMapping().setObject(ec, ps, datastoreIdx.getParameterPositionsForOccurrence(j), op.getInternalObjectId());
                             }
                         }
                         else if (cmd.getIdentityType() == IdentityType.APPLICATION)
                         {
-                            ops[i].provideFields(cmd.getPKMemberPositions(), storeMgr.getFieldManagerForStatementGeneration(ops[i], ps, mappingDefinitions[i]));
+                            op.provideFields(cmd.getPKMemberPositions(), storeMgr.getFieldManagerForStatementGeneration(op, ps, mappingDefinitions[i]));
                         }
                     }
 
@@ -314,7 +438,7 @@ public class LocateBulkRequest extends BulkRequest
                     ResultSet rs = sqlControl.executeStatementQuery(ec, mconn, statement, ps);
                     try
                     {
-                        ObjectProvider[] missingOps = processResults(rs, ops);
+                        ObjectProvider[] missingOps = processResults(rs, ops, locateStmt.resultMapping);
                         if (missingOps != null && missingOps.length > 0)
                         {
                             NucleusObjectNotFoundException[] nfes = new NucleusObjectNotFoundException[missingOps.length];
@@ -354,7 +478,7 @@ public class LocateBulkRequest extends BulkRequest
         }
     }
 
-    private ObjectProvider[] processResults(ResultSet rs, ObjectProvider[] ops)
+    private ObjectProvider[] processResults(ResultSet rs, ObjectProvider[] ops, StatementClassMapping resultMapping)
     throws SQLException
     {
         List<ObjectProvider> missingOps = new ArrayList<>();
@@ -514,4 +638,26 @@ public class LocateBulkRequest extends BulkRequest
         }
         return null;
     }
+
+    /**
+     * Statement to locate a number of identities, together with its input and result mappings.
+     */
+    protected static class LocateBulkStatement
+    {
+        /** SQL of the statement. */
+        final String sql;
+
+        /** Definition of input mappings in the SQL statement, for each identity. */
+        final StatementClassMapping[] mappingDefinitions;
+
+        /** Result mapping for the SQL statement. */
+        final StatementClassMapping resultMapping;
+
+        LocateBulkStatement(String sql, StatementClassMapping[] mappingDefinitions, StatementClassMapping resultMapping)
+        {
+            this.sql = sql;
+            this.mappingDefinitions = mappingDefinitions;
+            this.resultMapping = resultMapping;
+        }
+    }
 }
\ No newline at end of file
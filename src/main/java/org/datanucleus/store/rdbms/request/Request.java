@@ -19,10 +19,16 @@ Contributors:
 **********************************************************************/
 package org.datanucleus.store.rdbms.request;
 
+import java.util.Set;
+
+import org.datanucleus.ClassLoaderResolver;
 import org.datanucleus.state.ObjectProvider;
+import org.datanucleus.store.rdbms.SQLController.BatchDependencies;
 import org.datanucleus.store.rdbms.key.PrimaryKey;
 import org.datanucleus.store.rdbms.table.AbstractClassTable;
 import org.datanucleus.store.rdbms.table.DatastoreClass;
+import org.datanucleus.store.rdbms.table.Table;
+import org.datanucleus.store.rdbms.table.TableUtils;
 
 /**
  * Base class representing a request to perform an action on the datastore.
@@ -33,6 +39,9 @@ public abstract class Request
     protected DatastoreClass table;
     protected PrimaryKey key;
 
+    /** Tables affected by the statement of this request, used when batching it (null if not known). */
+    protected BatchDependencies batchDependencies = null;
+
     /**
      * Constructor, taking the table to use for the request.
      * @param table The Table to use for the request.
@@ -43,6 +52,18 @@ public abstract class Request
         this.key = ((AbstractClassTable)table).getPrimaryKey();
     }
 
+    /**
+     * Convenience method to determine the tables affected by the statement of this request, for use when batching it.
+     * @param clr ClassLoader resolver
+     * @param delete Whether the statement is a DELETE
+     * @return The dependencies, or null if the tables that this table references can't be determined
+     */
+    protected BatchDependencies getBatchDependencies(ClassLoaderResolver clr, boolean delete)
+    {
+        Set<Table> referencedTables = TableUtils.getReferencedTables(table, clr);
+        return (referencedTables != null) ? new BatchDependencies(table, referencedTables, delete) : null;
+    }
+
     /**
      * Method to execute the request - to be implemented by deriving classes.
      * @param op The ObjectProvider for the object in question. 
@@ -40,6 +40,7 @@ import org.datanucleus.metadata.AbstractMemberMetaData;
 import org.datanucleus.metadata.ColumnMetaData;
 import org.datanucleus.metadata.IdentityType;
 import org.datanucleus.metadata.MetaData;
+import org.datanucleus.metadata.RelationType;
 import org.datanucleus.metadata.VersionMetaData;
 import org.datanucleus.metadata.VersionStrategy;
 import org.datanucleus.state.ObjectProvider;
@@ -48,6 +49,7 @@ import org.datanucleus.store.connection.ManagedConnection;
 import org.datanucleus.store.fieldmanager.FieldManager;
 import org.datanucleus.store.rdbms.RDBMSStoreManager;
 import org.datanucleus.store.rdbms.SQLController;
+import org.datanucleus.store.rdbms.adapter.DatastoreAdapter;
 import org.datanucleus.store.rdbms.fieldmanager.OldValueParameterSetter;
 import org.datanucleus.store.rdbms.identifier.DatastoreIdentifier;
 import org.datanucleus.store.rdbms.mapping.MappingCallbacks;
@@ -95,6 +97,9 @@ public class UpdateRequest extends Request
     /** Whether we should make checks on optimistic version before updating. */
     protected boolean versionChecks = false;
 
+    /** Whether the UPDATE can be batched, since no other SQL is invoked while populating it. */
+    protected boolean batchable = true;
+
     /**
      * Constructor, taking the table. Uses the structure of the datastore
      * table to build a basic query. The query will be of the form
@@ -214,6 +219,20 @@ public class UpdateRequest extends Request
         callbacks = (MappingCallbacks[])consumer.getMappingCallbacks().toArray(new MappingCallbacks[consumer.getMappingCallbacks().size()]);
         whereFieldNumbers = consumer.getWhereFieldNumbers();
         updateFieldNumbers = consumer.getUpdateFieldNumbers();
+
+        for (int i=0;i<reqFieldMetaData.length;i++)
+        {
+            if (reqFieldMetaData[i].getRelationType(clr) != RelationType.NONE)
+            {
+                // Setting a relation field can cause persistence-by-reachability (hence other SQL) so don't batch this
+                batchable = false;
+                break;
+            }
+        }
+        if (batchable)
+        {
+            batchDependencies = getBatchDependencies(clr, false);
+        }
     }
 
     /**
@@ -268,8 +287,9 @@ public class UpdateRequest extends Request
 
             RDBMSStoreManager storeMgr = table.getStoreManager();
 
-            boolean batch = false;
-            // TODO Set the batch flag based on whether we have no other SQL being invoked in here just our UPDATE
+            // Batch the UPDATE when no other SQL is invoked in here, and any optimistic check can be made when the batch is processed
+            boolean batch = batchable && ec.getTransaction().isActive() &&
+                (!optimisticChecks || storeMgr.getDatastoreAdapter().supportsOption(DatastoreAdapter.STATEMENT_BATCHING_UPDATE_COUNTS));
             try
             {
                 ManagedConnection mconn = storeMgr.getConnection(ec);
@@ -278,7 +298,7 @@ public class UpdateRequest extends Request
                 try
                 {
                     // Perform the update
-                    PreparedStatement ps = sqlControl.getStatementForUpdate(mconn, stmt, batch);
+                    PreparedStatement ps = sqlControl.getStatementForUpdate(mconn, stmt, batch, false, batchDependencies);
                     try
                     {
                         Object currentVersion = op.getTransactionalVersion();
@@ -392,15 +412,28 @@ public class UpdateRequest extends Request
                             }
                         }
 
-                        int[] rcs = sqlControl.executeStatementUpdate(ec, mconn, stmt, ps, !batch);
-                        if (rcs[0] == 0 && optimisticChecks)
+                        SQLController.UpdateCountCheck versionCheck = null;
+                        if (optimisticChecks)
                         {
-                            // No object updated so either object disappeared or failed optimistic version checks
-                            // TODO Batching : when we use batching here we need to process these somehow
-                            String msg = Localiser.msg("052203", op.getObjectAsPrintable(), op.getInternalObjectId(), "" + currentVersion);
-                            NucleusLogger.PERSISTENCE.error(msg);
-                            throw new NucleusOptimisticException(msg, op.getObject());
+                            // Check made when the statement is processed (now, or when the batch is processed)
+                            final Object checkedVersion = currentVersion;
+                            final ObjectProvider checkedOP = op;
+                            versionCheck = new SQLController.UpdateCountCheck()
+                            {
+                                public void checkUpdateCount(int updateCount)
+                                {
+                                    if (updateCount == 0)
+                                    {
+                                        // No object updated so either object disappeared or failed optimistic version checks
+                                        String msg = Localiser.msg("052203", checkedOP.getObjectAsPrintable(), checkedOP.getInternalObjectId(), "" + checkedVersion);
+                                        NucleusLogger.PERSISTENCE.error(msg);
+                                        throw new NucleusOptimisticException(msg, checkedOP.getObject());
+                                    }
+                                }
+                            };
                         }
+
+                        sqlControl.executeStatementUpdate(ec, mconn, stmt, ps, !batch, versionCheck);
                     }
                     finally
                     {
@@ -17,6 +17,7 @@ Contributors:
 **********************************************************************/
 package org.datanucleus.store.rdbms.schema;
 
+import java.io.Serializable;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.HashMap;
@@ -45,8 +46,10 @@ import org.datanucleus.store.schema.StoreSchemaData;
  * <li>deferrability</li>
  * </ul>
  */
-public class ForeignKeyInfo implements StoreSchemaData
+public class ForeignKeyInfo implements StoreSchemaData, Serializable
 {
+    private static final long serialVersionUID = 2169402401859679906L;
+
     /** Properties of the foreign-key. */
     Map properties = new HashMap();
 
@@ -17,6 +17,7 @@ Contributors:
 **********************************************************************/
 package org.datanucleus.store.rdbms.schema;
 
+import java.io.Serializable;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.HashMap;
@@ -39,8 +40,10 @@ import org.datanucleus.store.schema.StoreSchemaData;
  * <li>ordinal_position</li>
  * </ul>
  */
-public class IndexInfo implements StoreSchemaData
+public class IndexInfo implements StoreSchemaData, Serializable
 {
+    private static final long serialVersionUID = -1726743141438732731L;
+
     /** Properties of the index. */
     Map properties = new HashMap();
 
@@ -17,6 +17,7 @@ Contributors:
 **********************************************************************/
 package org.datanucleus.store.rdbms.schema;
 
+import java.io.Serializable;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
@@ -29,8 +30,10 @@ import org.datanucleus.store.schema.StoreSchemaData;
  * Each JDBC type info has a map of SQL type info for this JDBC type.
  * Has the property "jdbc_type" as a Short of the java.sql.Types value.
  */
-public class JDBCTypeInfo implements MapStoreSchemaData
+public class JDBCTypeInfo implements MapStoreSchemaData, Serializable
 {
+    private static final long serialVersionUID = -5543295995037540672L;
+
     /** Hashcode. Set on first use. */
     private int hash = 0;
 
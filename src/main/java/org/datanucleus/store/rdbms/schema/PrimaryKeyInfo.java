@@ -17,6 +17,7 @@ Contributors:
 **********************************************************************/
 package org.datanucleus.store.rdbms.schema;
 
+import java.io.Serializable;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.HashMap;
@@ -37,8 +38,10 @@ import org.datanucleus.store.schema.StoreSchemaData;
  * <li>pk_name</li>
  * </ul>
  */
-public class PrimaryKeyInfo implements StoreSchemaData
+public class PrimaryKeyInfo implements StoreSchemaData, Serializable
 {
+    private static final long serialVersionUID = -1578347820262966098L;
+
     /** Properties of the primary-key. */
     Map properties = new HashMap();
 
@@ -17,6 +17,7 @@ Contributors:
 **********************************************************************/
 package org.datanucleus.store.rdbms.schema;
 
+import java.io.Serializable;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.List;
@@ -28,8 +29,10 @@ import org.datanucleus.store.schema.StoreSchemaData;
 /**
  * Representation of column schema information in the datastore.
  */
-public class RDBMSColumnInfo implements ListStoreSchemaData
+public class RDBMSColumnInfo implements ListStoreSchemaData, Serializable
 {
+    private static final long serialVersionUID = -773483427561048400L;
+
     /** The table catalog, which may be <tt>null</tt>. */
     protected String tableCat;
 
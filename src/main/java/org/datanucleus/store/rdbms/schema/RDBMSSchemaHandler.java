@@ -17,18 +17,26 @@ Contributors:
 **********************************************************************/
 package org.datanucleus.store.rdbms.schema;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
 
 import org.datanucleus.exceptions.NucleusDataStoreException;
 import org.datanucleus.exceptions.NucleusException;
@@ -81,9 +89,15 @@ public class RDBMSSchemaHandler extends AbstractStoreSchemaHandler
     /** 
      * Map of schema data, keyed by its symbolic name where the data is cached. 
      * Can be "types", "tables" etc. The "tables" cached here are "known tables" and not
-     * just all tables for the catalog/schema.
+     * just all tables for the catalog/schema. Can be accessed by multiple threads (e.g parallel schema validation).
      */
-    protected Map<String, StoreSchemaData> schemaDataByName = new HashMap();
+    protected Map<String, StoreSchemaData> schemaDataByName = new ConcurrentHashMap<>();
+
+    /** Snapshot of the schema information that is persisted between runs (when enabled and valid for this datastore). */
+    protected RDBMSSchemaInfoSnapshot snapshot = null;
+
+    /** Whether we have attempted to load the snapshot. */
+    protected boolean snapshotInitialised = false;
 
     public RDBMSSchemaHandler(StoreManager storeMgr)
     {
@@ -102,6 +116,211 @@ public class RDBMSSchemaHandler extends AbstractStoreSchemaHandler
     public void clear()
     {
         schemaDataByName.clear();
+        if (snapshot != null)
+        {
+            // Reseed the cached schema data from the snapshot
+            seedFromSnapshot();
+        }
+    }
+
+    /**
+     * Accessor for the snapshot of schema information persisted from a previous run, loading it on first call.
+     * The snapshot is only used when the persistence property "datanucleus.rdbms.schemaInfoSnapshot.file" is set, and when
+     * DataNucleus is not auto-creating schema components (since it would then change the schema that the snapshot represents).
+     * A snapshot from a different datastore, or where the schema fingerprint has changed, is discarded and a new one started.
+     * @param conn Connection to the datastore (to compute the fingerprint)
+     * @return The snapshot, or null if not in use
+     */
+    protected synchronized RDBMSSchemaInfoSnapshot getSnapshot(Connection conn)
+    {
+        if (snapshotInitialised || conn == null)
+        {
+            return snapshot;
+        }
+        snapshotInitialised = true;
+
+        String fileName = storeMgr.getStringProperty(RDBMSPropertyNames.PROPERTY_RDBMS_SCHEMA_INFO_SNAPSHOT_FILE);
+        if (StringUtils.isWhitespace(fileName))
+        {
+            return null;
+        }
+        if (isAutoCreateTables() || isAutoCreateColumns() || isAutoCreateConstraints())
+        {
+            NucleusLogger.DATASTORE_SCHEMA.info(Localiser.msg("050060", fileName));
+            return null;
+        }
+
+        String datastoreKey = getSnapshotDatastoreKey();
+        String fingerprint = getSnapshotFingerprint(conn);
+        File file = new File(fileName);
+        if (file.exists())
+        {
+            try
+            {
+                RDBMSSchemaInfoSnapshot loaded = RDBMSSchemaInfoSnapshot.load(file);
+                if (loaded.isValidFor(datastoreKey, fingerprint))
+                {
+                    snapshot = loaded;
+                    seedFromSnapshot();
+                    if (NucleusLogger.DATASTORE_SCHEMA.isDebugEnabled())
+                    {
+                        NucleusLogger.DATASTORE_SCHEMA.debug(Localiser.msg("050061", fileName,
+                            snapshot.getTablesInfo() != null ? snapshot.getTablesInfo().getNumberOfChildren() : 0));
+                    }
+                    return snapshot;
+                }
+                NucleusLogger.DATASTORE_SCHEMA.info(Localiser.msg("050062", fileName));
+            }
+            catch (IOException ioe)
+            {
+                NucleusLogger.DATASTORE_SCHEMA.warn(Localiser.msg("050063", fileName, ioe.getMessage()));
+            }
+        }
+
+        // No valid snapshot, so start a new one, to be populated as schema information is read from the datastore
+        snapshot = new RDBMSSchemaInfoSnapshot(datastoreKey, fingerprint);
+        return snapshot;
+    }
+
+    /**
+     * Method to write the snapshot of schema information (when in use, and updated during this run) to its file.
+     * Any error is logged, since the snapshot is only an optimisation.
+     */
+    public synchronized void saveSnapshot()
+    {
+        if (snapshot == null)
+        {
+            return;
+        }
+
+        if (!snapshot.isModified())
+        {
+            return;
+        }
+
+        String fileName = storeMgr.getStringProperty(RDBMSPropertyNames.PROPERTY_RDBMS_SCHEMA_INFO_SNAPSHOT_FILE);
+        try
+        {
+            snapshot.save(new File(fileName));
+            if (NucleusLogger.DATASTORE_SCHEMA.isDebugEnabled())
+            {
+                NucleusLogger.DATASTORE_SCHEMA.debug(Localiser.msg("050064", fileName));
+            }
+        }
+        catch (IOException ioe)
+        {
+            NucleusLogger.DATASTORE_SCHEMA.warn(Localiser.msg("050063", fileName, ioe.getMessage()));
+        }
+    }
+
+    /**
+     * Convenience method to put the types and tables information from the snapshot into the cached schema data.
+     * The tables information is a copy, since the cached information is changed during the run, and the tables are marked as
+     * read now, so aren't refreshed until they expire.
+     */
+    private void seedFromSnapshot()
+    {
+        if (snapshot.getTypesInfo() != null)
+        {
+            schemaDataByName.put(TYPE_TYPES, snapshot.getTypesInfo());
+        }
+        RDBMSSchemaInfo tablesInfo = snapshot.copyTablesInfo();
+        if (tablesInfo != null)
+        {
+            Long now = Long.valueOf(System.currentTimeMillis());
+            Iterator<StoreSchemaData> tableIter = tablesInfo.getChildren().values().iterator();
+            while (tableIter.hasNext())
+            {
+                ((RDBMSTableInfo)tableIter.next()).addProperty("time", now);
+            }
+            schemaDataByName.put(TYPE_TABLES, tablesInfo);
+        }
+    }
+
+    /**
+     * Accessor for the key of the datastore for use with a snapshot.
+     * @return Key for the datastore product/version, driver version, and catalog/schema
+     */
+    private String getSnapshotDatastoreKey()
+    {
+        DatastoreAdapter dba = getDatastoreAdapter();
+        return dba.getDatastoreProductName() + " " + dba.getDatastoreProductVersion() + " " + dba.getDatastoreDriverName() + " " +
+            dba.getDatastoreDriverVersion() + " " + rdbmsStoreMgr.getCatalogName() + "." + rdbmsStoreMgr.getSchemaName();
+    }
+
+    /**
+     * Method to compute a fingerprint of the schema, used to check whether a snapshot is still valid.
+     * When the persistence property "datanucleus.rdbms.schemaInfoSnapshot.validationQuery" is set, the fingerprint is the (first column
+     * of the first row) result of that query, for example the last DDL time of the schema. Otherwise it is a checksum of the name and type
+     * of each table in the catalog/schema, and the name, type, size and nullability of each of their columns (from a single call each to
+     * DatabaseMetaData.getTables and DatabaseMetaData.getColumns), so detects added and removed tables and columns, and changed columns.
+     * @param conn Connection to the datastore
+     * @return The fingerprint
+     */
+    private String getSnapshotFingerprint(Connection conn)
+    {
+        String validationQuery = storeMgr.getStringProperty(RDBMSPropertyNames.PROPERTY_RDBMS_SCHEMA_INFO_SNAPSHOT_VALIDATION_QUERY);
+        try
+        {
+            if (!StringUtils.isWhitespace(validationQuery))
+            {
+                Statement stmt = conn.createStatement();
+                try
+                {
+                    ResultSet rs = stmt.executeQuery(validationQuery);
+                    return rs.next() ? "query:" + rs.getString(1) : "query:";
+                }
+                finally
+                {
+                    stmt.close();
+                }
+            }
+
+            List<String> entries = new ArrayList<>();
+            String catalogName = getIdentifierForUseWithDatabaseMetaData(rdbmsStoreMgr.getCatalogName());
+            String schemaName = getIdentifierForUseWithDatabaseMetaData(rdbmsStoreMgr.getSchemaName());
+            DatabaseMetaData dmd = conn.getMetaData();
+            ResultSet rs = dmd.getTables(catalogName, schemaName, null, null);
+            try
+            {
+                while (rs.next())
+                {
+                    // TABLE_NAME, TABLE_TYPE
+                    entries.add("table:" + rs.getString(3) + ":" + rs.getString(4));
+                }
+            }
+            finally
+            {
+                rs.close();
+            }
+            rs = dmd.getColumns(catalogName, schemaName, null, null);
+            try
+            {
+                while (rs.next())
+                {
+                    // TABLE_NAME, COLUMN_NAME, DATA_TYPE, TYPE_NAME, COLUMN_SIZE, DECIMAL_DIGITS, NULLABLE
+                    entries.add("column:" + rs.getString(3) + ":" + rs.getString(4) + ":" + rs.getInt(5) + ":" + rs.getString(6) + ":" +
+                        rs.getInt(7) + ":" + rs.getInt(9) + ":" + rs.getInt(11));
+                }
+            }
+            finally
+            {
+                rs.close();
+            }
+            Collections.sort(entries);
+
+            CRC32 crc = new CRC32();
+            for (String entry : entries)
+            {
+                crc.update(entry.getBytes(StandardCharsets.UTF_8));
+                crc.update('\n');
+            }
+            return "schema:" + entries.size() + ":" + crc.getValue();
+        }
+        catch (SQLException sqle)
+        {
+            throw new NucleusDataStoreException("Exception thrown computing fingerprint of schema for snapshot", sqle);
+        }
     }
 
     /* (non-Javadoc)
@@ -292,6 +511,11 @@ public class RDBMSSchemaHandler extends AbstractStoreSchemaHandler
             {
                 // Types information
                 StoreSchemaData info = schemaDataByName.get(TYPE_TYPES);
+                if (info == null && getSnapshot((Connection)connection) != null)
+                {
+                    // Snapshot may provide the types info
+                    info = schemaDataByName.get(TYPE_TYPES);
+                }
                 if (info == null)
                 {
                     // No types info defined yet so load it
@@ -459,6 +683,8 @@ public class RDBMSSchemaHandler extends AbstractStoreSchemaHandler
 
     /**
      * Convenience method to read and cache the types information for this datastore.
+     * The types are read without holding the lock of this handler, so concurrent callers may each read them, but only the first
+     * to finish is cached (and returned to all).
      * @param conn Connection to the datastore
      * @return The RDBMSTypesInfo
      */
@@ -510,12 +736,72 @@ public class RDBMSSchemaHandler extends AbstractStoreSchemaHandler
             throw new NucleusDataStoreException("Exception thrown retrieving type information from datastore", sqle);
         }
 
-        // Cache it
-        schemaDataByName.put(TYPE_TYPES, info);
+        // Cache it, unless another thread has done so in the meantime
+        RDBMSTypesInfo cachedInfo = (RDBMSTypesInfo)cacheSchemaData(TYPE_TYPES, info);
+        if (cachedInfo != info)
+        {
+            return cachedInfo;
+        }
+        RDBMSSchemaInfoSnapshot snapshot = getSnapshot(conn);
+        if (snapshot != null)
+        {
+            snapshot.setTypesInfo(info);
+        }
 
         return info;        
     }
 
+    /**
+     * Convenience method to cache schema data under the specified name, unless schema data is already cached under that name.
+     * Only the lookup and insert hold the lock of this handler (so the datastore isn't queried while holding it).
+     * @param name Name of the schema data
+     * @param data The schema data
+     * @return The schema data now cached under the name
+     */
+    protected StoreSchemaData cacheSchemaData(String name, StoreSchemaData data)
+    {
+        synchronized (this)
+        {
+            StoreSchemaData existing = schemaDataByName.get(name);
+            if (existing != null)
+            {
+                return existing;
+            }
+            schemaDataByName.put(name, data);
+            return data;
+        }
+    }
+
+    /**
+     * Accessor for the cached tables information, creating it when not yet cached.
+     * @return The tables information
+     */
+    private RDBMSSchemaInfo getTablesInfo()
+    {
+        RDBMSSchemaInfo info = (RDBMSSchemaInfo)schemaDataByName.get(TYPE_TABLES);
+        if (info == null)
+        {
+            // No schema info defined yet
+            info = (RDBMSSchemaInfo)cacheSchemaData(TYPE_TABLES, new RDBMSSchemaInfo(rdbmsStoreMgr.getCatalogName(), rdbmsStoreMgr.getSchemaName()));
+        }
+        return info;
+    }
+
+    /**
+     * Accessor for the cached information for a table.
+     * The table information is replaced (rather than updated) when refreshed, so can be used without holding the lock.
+     * @param info The tables information
+     * @param tableKey Key of the table
+     * @return The table information, or null if not cached
+     */
+    private RDBMSTableInfo getCachedTableInfo(RDBMSSchemaInfo info, String tableKey)
+    {
+        synchronized (this)
+        {
+            return (RDBMSTableInfo)info.getChild(tableKey);
+        }
+    }
+
     /**
      * Convenience method to read the schemas information for this datastore.
      * @param conn Connection to the datastore
@@ -644,7 +930,14 @@ public class RDBMSSchemaHandler extends AbstractStoreSchemaHandler
     protected RDBMSTableFKInfo getRDBMSTableFKInfoForTable(Connection conn,
             String catalogName, String schemaName, String tableName)
     {
-        // We don't cache FK info, so retrieve it directly
+        // We don't cache FK info, so retrieve it directly (unless present in the snapshot)
+        RDBMSSchemaInfoSnapshot snapshot = getSnapshot(conn);
+        String tableKey = getTableKeyInRDBMSSchemaInfo(catalogName, schemaName, tableName);
+        if (snapshot != null && snapshot.getForeignKeyInfo(tableKey) != null)
+        {
+            return snapshot.getForeignKeyInfo(tableKey);
+        }
+
         RDBMSTableFKInfo info = new RDBMSTableFKInfo(catalogName, schemaName, tableName);
 
         DatastoreAdapter dba = getDatastoreAdapter();
@@ -672,6 +965,10 @@ public class RDBMSSchemaHandler extends AbstractStoreSchemaHandler
         {
             throw new NucleusDataStoreException("Exception thrown while querying foreign keys for table=" + tableName, sqle);
         }
+        if (snapshot != null)
+        {
+            snapshot.setForeignKeyInfo(tableKey, info);
+        }
         return info;
     }
 
@@ -718,7 +1015,14 @@ public class RDBMSSchemaHandler extends AbstractStoreSchemaHandler
      */
     protected RDBMSTablePKInfo getRDBMSTablePKInfoForTable(Connection conn, String catalogName, String schemaName, String tableName)
     {
-        // We don't cache PK info, so retrieve it directly
+        // We don't cache PK info, so retrieve it directly (unless present in the snapshot)
+        RDBMSSchemaInfoSnapshot snapshot = getSnapshot(conn);
+        String tableKey = getTableKeyInRDBMSSchemaInfo(catalogName, schemaName, tableName);
+        if (snapshot != null && snapshot.getPrimaryKeyInfo(tableKey) != null)
+        {
+            return snapshot.getPrimaryKeyInfo(tableKey);
+        }
+
         RDBMSTablePKInfo info = new RDBMSTablePKInfo(catalogName, schemaName, tableName);
 
         try
@@ -745,6 +1049,10 @@ public class RDBMSSchemaHandler extends AbstractStoreSchemaHandler
         {
             throw new NucleusDataStoreException("Exception thrown while querying primary keys for table=" + tableName, sqle);
         }
+        if (snapshot != null)
+        {
+            snapshot.setPrimaryKeyInfo(tableKey, info);
+        }
         return info;
     }
 
@@ -794,7 +1102,14 @@ public class RDBMSSchemaHandler extends AbstractStoreSchemaHandler
      */
     protected RDBMSTableIndexInfo getRDBMSTableIndexInfoForTable(Connection conn, String catalogName, String schemaName, String tableName)
     {
-        // We don't cache Index info, so retrieve it directly
+        // We don't cache Index info, so retrieve it directly (unless present in the snapshot)
+        RDBMSSchemaInfoSnapshot snapshot = getSnapshot(conn);
+        String tableKey = getTableKeyInRDBMSSchemaInfo(catalogName, schemaName, tableName);
+        if (snapshot != null && snapshot.getIndexInfo(tableKey) != null)
+        {
+            return snapshot.getIndexInfo(tableKey);
+        }
+
         RDBMSTableIndexInfo info = new RDBMSTableIndexInfo(catalogName, schemaName, tableName);
         DatastoreAdapter dba = getDatastoreAdapter();
         try
@@ -843,6 +1158,10 @@ public class RDBMSSchemaHandler extends AbstractStoreSchemaHandler
             throw new NucleusDataStoreException("Exception thrown while querying indices for table=" + tableName, sqle);
         }
 
+        if (snapshot != null)
+        {
+            snapshot.setIndexInfo(tableKey, info);
+        }
         return info;
     }
 
@@ -967,6 +1286,7 @@ public class RDBMSSchemaHandler extends AbstractStoreSchemaHandler
 
     /**
      * Convenience method to get the column info for the catalog+schema+tableName in the datastore.
+     * The datastore is queried without holding the lock of this handler, so concurrent callers can each refresh the table.
      * @param conn Connection to use
      * @param catalogName Catalog
      * @param schemaName Schema
@@ -975,17 +1295,12 @@ public class RDBMSSchemaHandler extends AbstractStoreSchemaHandler
      */
     protected RDBMSTableInfo getRDBMSTableInfoForTable(Connection conn, String catalogName, String schemaName, String tableName)
     {
-        RDBMSSchemaInfo info = (RDBMSSchemaInfo)getSchemaData(conn, TYPE_TABLES, null);
-        if (info == null)
-        {
-            // No schema info defined yet
-            info = new RDBMSSchemaInfo(rdbmsStoreMgr.getCatalogName(), rdbmsStoreMgr.getSchemaName());
-            schemaDataByName.put(TYPE_TABLES, info);
-        }
+        RDBMSSchemaInfoSnapshot snapshot = getSnapshot(conn);
+        RDBMSSchemaInfo info = getTablesInfo();
 
         // Check existence
         String tableKey = getTableKeyInRDBMSSchemaInfo(catalogName, schemaName, tableName);
-        RDBMSTableInfo tableInfo = (RDBMSTableInfo)info.getChild(tableKey);
+        RDBMSTableInfo tableInfo = getCachedTableInfo(info, tableKey);
         if (tableInfo != null)
         {
             long time = ((Long)tableInfo.getProperty("time")).longValue();
@@ -997,10 +1312,10 @@ public class RDBMSSchemaHandler extends AbstractStoreSchemaHandler
             }
         }
 
-        // Refresh all existing tables plus this requested one
+        // Refresh all existing tables plus this requested one (just this one when the others are provided by the snapshot)
         boolean insensitiveIdentifiers = identifiersCaseInsensitive();
         Collection tableNames = new HashSet();
-        Collection tables = rdbmsStoreMgr.getManagedTables(catalogName, schemaName);
+        Collection tables = (snapshot != null && snapshot.getTablesInfo() != null) ? Collections.EMPTY_SET : rdbmsStoreMgr.getManagedTables(catalogName, schemaName);
         if (tables.size() > 0)
         {
             Iterator iter = tables.iterator();
@@ -1014,7 +1329,7 @@ public class RDBMSSchemaHandler extends AbstractStoreSchemaHandler
 
         refreshTableData(conn, catalogName, schemaName, tableNames);
 
-        tableInfo = (RDBMSTableInfo)info.getChild(tableKey);
+        tableInfo = getCachedTableInfo(getTablesInfo(), tableKey);
         if (NucleusLogger.DATASTORE_SCHEMA.isDebugEnabled())
         {
             if (tableInfo == null || tableInfo.getNumberOfChildren() == 0)
@@ -1074,19 +1389,12 @@ public class RDBMSSchemaHandler extends AbstractStoreSchemaHandler
             return;
         }
 
-        RDBMSSchemaInfo info = (RDBMSSchemaInfo)getSchemaData(connection, TYPE_TABLES, null);
-        if (info == null)
-        {
-            info = new RDBMSSchemaInfo(rdbmsStoreMgr.getCatalogName(), rdbmsStoreMgr.getSchemaName());
-            schemaDataByName.put(TYPE_TABLES, info);
-        }
-
         // Get timestamp to mark the tables that are refreshed
         Long now = Long.valueOf(System.currentTimeMillis());
 
-        // Retrieve all column info for the required catalog/schema
+        // Retrieve all column info for the required catalog/schema, into new table info that replaces the cached info when complete
         ResultSet rs = null;
-        Set<String> tablesProcessed = new HashSet();
+        Map<String, RDBMSTableInfo> tablesProcessed = new HashMap<>();
         try
         {
             Connection conn = (Connection)connection;
@@ -1147,23 +1455,14 @@ public class RDBMSSchemaHandler extends AbstractStoreSchemaHandler
                 {
                     // Required table, so refresh/add it
                     String tableKey = getTableKeyInRDBMSSchemaInfo(catalog, schema, colTableName);
-                    RDBMSTableInfo table = (RDBMSTableInfo)info.getChild(tableKey);
-                    if (tablesProcessed.add(tableKey))
+                    RDBMSTableInfo table = tablesProcessed.get(tableKey);
+                    if (table == null)
                     {
                         // Table met for first time in this refresh
-                        if (table == null)
-                        {
-                            // No current info for table
-                            table = new RDBMSTableInfo(colCatalogName, colSchemaName, colTableName);
-                            table.addProperty("table_key", tableKey);
-                            info.addChild(table);
-                        }
-                        else
-                        {
-                            // Current info, so clean out columns
-                            table.clearChildren();
-                        }
+                        table = new RDBMSTableInfo(colCatalogName, colSchemaName, colTableName);
+                        table.addProperty("table_key", tableKey);
                         table.addProperty("time", now);
+                        tablesProcessed.put(tableKey, table);
                     }
 
                     RDBMSColumnInfo col = getDatastoreAdapter().newRDBMSColumnInfo(rs);
@@ -1204,6 +1503,24 @@ public class RDBMSSchemaHandler extends AbstractStoreSchemaHandler
             }
         }
 
+        RDBMSSchemaInfo info = getTablesInfo();
+        synchronized (this)
+        {
+            for (RDBMSTableInfo table : tablesProcessed.values())
+            {
+                info.addChild(table);
+            }
+        }
+
+        if (snapshot != null)
+        {
+            // Tables info has been updated, so is to be written to the snapshot
+            for (RDBMSTableInfo table : tablesProcessed.values())
+            {
+                snapshot.addTableInfo(rdbmsStoreMgr.getCatalogName(), rdbmsStoreMgr.getSchemaName(), table);
+            }
+        }
+
         if (NucleusLogger.DATASTORE_SCHEMA.isDebugEnabled())
         {
             NucleusLogger.DATASTORE_SCHEMA.debug(Localiser.msg("050029", catalog, schema,
@@ -17,6 +17,7 @@ Contributors:
 **********************************************************************/
 package org.datanucleus.store.rdbms.schema;
 
+import java.io.Serializable;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
@@ -34,8 +35,10 @@ import org.datanucleus.store.schema.StoreSchemaData;
  * <li><b>schema</b> Schema containing the tables</li>
  * </ul>
  */
-public class RDBMSSchemaInfo implements MapStoreSchemaData
+public class RDBMSSchemaInfo implements MapStoreSchemaData, Serializable
 {
+    private static final long serialVersionUID = 1562551593639072302L;
+
     /** Hashcode. Set on first use. */
     private int hash = 0;
 
@@ -0,0 +1,329 @@
+/**********************************************************************
+Copyright (c) 2026 DataNucleus contributors. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+package org.datanucleus.store.rdbms.schema;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.datanucleus.store.schema.StoreSchemaData;
+
+/**
+ * Snapshot of the schema information read from the datastore (types, columns, and PK/FK/index info of tables), that is
+ * persisted to a file so that a later start against the same datastore can use it instead of querying DatabaseMetaData.
+ * The snapshot is only valid for the datastore (product, version, catalog, schema) that it was taken from, and whilst the
+ * fingerprint of the schema is unchanged.
+ * The tables information is held separately to the cached schema information of the schema handler, since that is changed
+ * during the run (for example the information of a table is discarded after validating it).
+ */
+public class RDBMSSchemaInfoSnapshot implements Serializable
+{
+    private static final long serialVersionUID = 2318907425518430931L;
+
+    /** Classes (other than those of this package) that can be read from a snapshot file. */
+    private static final Set<String> ALLOWED_CLASS_NAMES = new HashSet<String>(Arrays.asList(new String[] {
+        String.class.getName(), Boolean.class.getName(), Character.class.getName(), Number.class.getName(), Byte.class.getName(),
+        Short.class.getName(), Integer.class.getName(), Long.class.getName(), Float.class.getName(), Double.class.getName(),
+        HashMap.class.getName(), HashSet.class.getName(), ArrayList.class.getName()}));
+
+    /** Key for the datastore that the snapshot was taken from. */
+    protected final String datastoreKey;
+
+    /** Fingerprint of the schema when the snapshot was taken. */
+    protected final String fingerprint;
+
+    protected RDBMSTypesInfo typesInfo;
+
+    /** Information of the tables (and their columns), holding copies of the cached table information. */
+    protected RDBMSSchemaInfo tablesInfo;
+
+    protected Map<String, RDBMSTablePKInfo> pkInfoByTable = new HashMap<>();
+
+    protected Map<String, RDBMSTableFKInfo> fkInfoByTable = new HashMap<>();
+
+    protected Map<String, RDBMSTableIndexInfo> indexInfoByTable = new HashMap<>();
+
+    /** Whether the snapshot has been updated since it was loaded/created. */
+    protected transient boolean modified = false;
+
+    public RDBMSSchemaInfoSnapshot(String datastoreKey, String fingerprint)
+    {
+        this.datastoreKey = datastoreKey;
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * Accessor for whether this snapshot is for the specified datastore and schema fingerprint.
+     * @param key Key for the datastore
+     * @param fp Fingerprint of the schema
+     * @return Whether the snapshot is valid for these
+     */
+    public boolean isValidFor(String key, String fp)
+    {
+        return datastoreKey.equals(key) && fingerprint.equals(fp);
+    }
+
+    public boolean isModified()
+    {
+        return modified;
+    }
+
+    public RDBMSTypesInfo getTypesInfo()
+    {
+        return typesInfo;
+    }
+
+    public synchronized void setTypesInfo(RDBMSTypesInfo info)
+    {
+        this.typesInfo = info;
+        this.modified = true;
+    }
+
+    /**
+     * Accessor for the information of the tables in the snapshot. This is not to be updated, use {@link #addTableInfo} or
+     * {@link #copyTablesInfo} instead.
+     * @return The tables information, or null if no tables are in the snapshot
+     */
+    public RDBMSSchemaInfo getTablesInfo()
+    {
+        return tablesInfo;
+    }
+
+    /**
+     * Method to add (or replace) the information of a table in the snapshot. A copy of the information is added, so later
+     * changes to the table information don't change the snapshot.
+     * @param catalog Catalog of the tables information (when creating it)
+     * @param schema Schema of the tables information (when creating it)
+     * @param info The table information
+     */
+    public synchronized void addTableInfo(String catalog, String schema, RDBMSTableInfo info)
+    {
+        if (tablesInfo == null)
+        {
+            tablesInfo = new RDBMSSchemaInfo(catalog, schema);
+        }
+        tablesInfo.addChild(copyTableInfo(info));
+        modified = true;
+    }
+
+    /**
+     * Accessor for a copy of the information of the tables in the snapshot, to use as the cached schema information.
+     * @return The tables information, or null if no tables are in the snapshot
+     */
+    public synchronized RDBMSSchemaInfo copyTablesInfo()
+    {
+        if (tablesInfo == null)
+        {
+            return null;
+        }
+        RDBMSSchemaInfo info = new RDBMSSchemaInfo((String)tablesInfo.getProperty("catalog"), (String)tablesInfo.getProperty("schema"));
+        info.properties.putAll(tablesInfo.properties);
+        for (StoreSchemaData table : tablesInfo.getChildren().values())
+        {
+            info.addChild(copyTableInfo((RDBMSTableInfo)table));
+        }
+        return info;
+    }
+
+    /**
+     * Convenience method to copy the information of a table. The column information isn't changed once read, so is shared.
+     * @param info The table information
+     * @return The copy
+     */
+    private static RDBMSTableInfo copyTableInfo(RDBMSTableInfo info)
+    {
+        RDBMSTableInfo copy = new RDBMSTableInfo();
+        copy.properties.putAll(info.properties);
+        for (Object col : info.getChildren())
+        {
+            copy.addChild((StoreSchemaData)col);
+        }
+        return copy;
+    }
+
+    public synchronized RDBMSTablePKInfo getPrimaryKeyInfo(String tableKey)
+    {
+        return pkInfoByTable.get(tableKey);
+    }
+
+    public synchronized void setPrimaryKeyInfo(String tableKey, RDBMSTablePKInfo info)
+    {
+        pkInfoByTable.put(tableKey, info);
+        modified = true;
+    }
+
+    public synchronized RDBMSTableFKInfo getForeignKeyInfo(String tableKey)
+    {
+        return fkInfoByTable.get(tableKey);
+    }
+
+    public synchronized void setForeignKeyInfo(String tableKey, RDBMSTableFKInfo info)
+    {
+        fkInfoByTable.put(tableKey, info);
+        modified = true;
+    }
+
+    public synchronized RDBMSTableIndexInfo getIndexInfo(String tableKey)
+    {
+        return indexInfoByTable.get(tableKey);
+    }
+
+    public synchronized void setIndexInfo(String tableKey, RDBMSTableIndexInfo info)
+    {
+        indexInfoByTable.put(tableKey, info);
+        modified = true;
+    }
+
+    /**
+     * Method to write this snapshot to the specified file.
+     * Writes to a temporary file (unique to this write) in the same directory first and then atomically moves it over the file,
+     * so a concurrent reader never sees a partial snapshot, and concurrent writers don't overwrite each other's temporary file.
+     * @param file The file
+     * @throws IOException Thrown if an error occurs writing the file
+     */
+    public synchronized void save(File file)
+    throws IOException
+    {
+        File dir = file.getAbsoluteFile().getParentFile();
+        File tmpFile = File.createTempFile(file.getName(), ".tmp", dir);
+        boolean moved = false;
+        try
+        {
+            ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)));
+            try
+            {
+                out.writeObject(this);
+            }
+            finally
+            {
+                out.close();
+            }
+
+            Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            moved = true;
+        }
+        finally
+        {
+            if (!moved)
+            {
+                tmpFile.delete();
+            }
+        }
+        modified = false;
+    }
+
+    /**
+     * Method to read a snapshot from the specified file.
+     * Only the schema information classes of this package, and the basic JDK types they hold, are allowed in the file.
+     * @param file The file
+     * @return The snapshot
+     * @throws IOException Thrown if an error occurs reading the file, or it doesn't contain a snapshot of this version
+     */
+    public static RDBMSSchemaInfoSnapshot load(File file)
+    throws IOException
+    {
+        ObjectInputStream in = new SnapshotInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try
+        {
+            return (RDBMSSchemaInfoSnapshot) in.readObject();
+        }
+        catch (ClassNotFoundException | ClassCastException e)
+        {
+            throw new IOException("File " + file + " does not contain a valid schema snapshot", e);
+        }
+        finally
+        {
+            in.close();
+        }
+    }
+
+    /**
+     * Accessor for whether a class can be read from a snapshot file.
+     * @param className Name of the class (as in the serialised stream)
+     * @return Whether it is allowed
+     */
+    static boolean isAllowedClass(String className)
+    {
+        String name = className;
+        while (name.startsWith("["))
+        {
+            name = name.substring(1);
+        }
+        if (name.length() == 1)
+        {
+            // Array of primitives
+            return className.startsWith("[");
+        }
+        if (name.startsWith("L") && name.endsWith(";"))
+        {
+            name = name.substring(1, name.length() - 1);
+        }
+
+        String packagePrefix = RDBMSSchemaInfoSnapshot.class.getPackage().getName() + ".";
+        if (name.startsWith(packagePrefix) && name.indexOf('.', packagePrefix.length()) < 0)
+        {
+            return true;
+        }
+        return ALLOWED_CLASS_NAMES.contains(name);
+    }
+
+    /**
+     * ObjectInputStream that only resolves the classes allowed in a snapshot file, so that a tampered file can't instantiate
+     * arbitrary serialisable classes.
+     */
+    private static class SnapshotInputStream extends ObjectInputStream
+    {
+        SnapshotInputStream(InputStream in) throws IOException
+        {
+            super(in);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException
+        {
+            if (!isAllowedClass(desc.getName()))
+            {
+                throw new InvalidClassException(desc.getName(), "Class is not allowed in a schema snapshot");
+            }
+            return super.resolveClass(desc);
+        }
+
+        @Override
+        protected Class<?> resolveProxyClass(String[] interfaces) throws IOException, ClassNotFoundException
+        {
+            throw new InvalidClassException("Proxy classes are not allowed in a schema snapshot");
+        }
+    }
+}
@@ -17,6 +17,7 @@ Contributors:
 **********************************************************************/
 package org.datanucleus.store.rdbms.schema;
 
+import java.io.Serializable;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
@@ -41,8 +42,10 @@ import org.datanucleus.store.schema.StoreSchemaData;
  * <li><b>time</b> : time at which the information was provided</li>
  * </ul>
  */
-public class RDBMSTableInfo implements ListStoreSchemaData
+public class RDBMSTableInfo implements ListStoreSchemaData, Serializable
 {
+    private static final long serialVersionUID = -4407322358007601963L;
+
     /** Hashcode. Set on first use. */
     private int hash = 0;
 
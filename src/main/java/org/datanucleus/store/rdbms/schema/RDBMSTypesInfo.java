@@ -17,6 +17,7 @@ Contributors:
 **********************************************************************/
 package org.datanucleus.store.rdbms.schema;
 
+import java.io.Serializable;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
@@ -28,8 +29,10 @@ import org.datanucleus.store.schema.StoreSchemaData;
  * Representation of types information in the datastore.
  * Contains a map of child JDBCTypeInfo objects, which turn contain child SQLTypeInfo objects.
  */
-public class RDBMSTypesInfo implements MapStoreSchemaData
+public class RDBMSTypesInfo implements MapStoreSchemaData, Serializable
 {
+    private static final long serialVersionUID = 377534015780530059L;
+
     /** Properties of the types. */
     Map<String, Object> properties = new HashMap();
 
@@ -17,6 +17,7 @@ Contributors:
 **********************************************************************/
 package org.datanucleus.store.rdbms.schema;
 
+import java.io.Serializable;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Types;
@@ -29,8 +30,10 @@ import org.datanucleus.util.NucleusLogger;
 /**
  * Representation of SQL type information in the datastore.
  */
-public class SQLTypeInfo implements StoreSchemaData
+public class SQLTypeInfo implements StoreSchemaData, Serializable
 {
+    private static final long serialVersionUID = -2023974724277413917L;
+
     /** The RDBMS-specific name for this data type. */
     protected String typeName;
 
@@ -23,6 +23,8 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
 
 import org.datanucleus.ClassLoaderResolver;
 import org.datanucleus.ExecutionContext;
@@ -36,8 +38,11 @@ import org.datanucleus.store.rdbms.mapping.java.EmbeddedElementPCMapping;
 import org.datanucleus.store.rdbms.mapping.java.JavaTypeMapping;
 import org.datanucleus.store.rdbms.mapping.java.ReferenceMapping;
 import org.datanucleus.store.rdbms.JDBCUtils;
+import org.datanucleus.store.rdbms.RDBMSPropertyNames;
 import org.datanucleus.store.rdbms.RDBMSStoreManager;
 import org.datanucleus.store.rdbms.SQLController;
+import org.datanucleus.store.rdbms.adapter.DatastoreAdapter;
+import org.datanucleus.store.rdbms.query.ResultObjectFactory;
 import org.datanucleus.store.rdbms.table.JoinTable;
 import org.datanucleus.store.rdbms.table.Table;
 import org.datanucleus.store.types.scostore.CollectionStore;
@@ -338,6 +343,52 @@ public abstract class AbstractCollectionStore<E> extends ElementContainerStore i
         return stmt.toString();
     }
 
+    /**
+     * Whether iterators of this store should read their elements from the ResultSet as they are requested, rather than
+     * reading all elements when created (see "datanucleus.rdbms.streamingCollectionIterators").
+     * Only applies in a transaction, since otherwise the ResultSet is closed when the connection is released.
+     * @param ec ExecutionContext
+     * @return Whether to use a streaming iterator
+     */
+    protected boolean useStreamingIterator(ExecutionContext ec)
+    {
+        return ec.getTransaction().isActive() && storeMgr.getBooleanProperty(RDBMSPropertyNames.PROPERTY_RDBMS_STREAMING_COLLECTION_ITERATORS);
+    }
+
+    /**
+     * Method to create a streaming iterator, taking over the ResultSet and its statement. The iterator is told the container
+     * and element tables, so it only reads in its unread elements before statements that could change its rows (or before any
+     * statement when the datastore can't have several ResultSets open on a connection).
+     * @param op ObjectProvider of the owner
+     * @param mconn The connection the statement was executed on
+     * @param sqlControl The SQLController that the statement was executed with
+     * @param ps The statement
+     * @param rs ResultSet of the statement
+     * @param rof Factory for the elements (when persistable)
+     * @return The iterator
+     */
+    protected CollectionStoreIterator<E> newStreamingIterator(ObjectProvider op, ManagedConnection mconn, SQLController sqlControl,
+            PreparedStatement ps, ResultSet rs, ResultObjectFactory rof)
+    {
+        Set<String> tableNames = new HashSet<>();
+        if (containerTable != null)
+        {
+            tableNames.add(containerTable.toString());
+        }
+        if (elementInfo != null)
+        {
+            for (int i=0;i<elementInfo.length;i++)
+            {
+                if (elementInfo[i].getDatastoreClass() != null)
+                {
+                    tableNames.add(elementInfo[i].getDatastoreClass().toString());
+                }
+            }
+        }
+        boolean multipleOpenResultSets = storeMgr.getDatastoreAdapter().supportsOption(DatastoreAdapter.MULTIPLE_OPEN_RESULTSETS);
+        return new CollectionStoreIterator<>(op, mconn, sqlControl, ps, rs, rof, this, multipleOpenResultSets, tableNames);
+    }
+
     public boolean updateEmbeddedElement(ObjectProvider op, E element, int fieldNumber, Object value, JavaTypeMapping fieldMapping)
     {
         boolean modified = false;
@@ -39,6 +39,7 @@ import org.datanucleus.exceptions.NucleusDataStoreException;
 import org.datanucleus.metadata.CollectionMetaData;
 import org.datanucleus.state.ObjectProvider;
 import org.datanucleus.store.connection.ManagedConnection;
+import org.datanucleus.store.rdbms.adapter.DatastoreAdapter;
 import org.datanucleus.store.rdbms.exceptions.MappedDatastoreException;
 import org.datanucleus.store.rdbms.mapping.datastore.AbstractDatastoreMapping;
 import org.datanucleus.store.rdbms.mapping.java.ReferenceMapping;
@@ -59,7 +60,8 @@ public abstract class AbstractListStore<E> extends AbstractCollectionStore<E> im
     protected String indexOfStmt;
     protected String lastIndexOfStmt;
     protected String removeAtStmt;
-    protected String shiftStmt;
+    protected String shiftRangeStmt;
+    protected String shiftRangeNegateStmt;
 
     /**
      * Constructor. Protected to prevent instantiation.
@@ -547,11 +549,8 @@ public abstract class AbstractListStore<E> extends AbstractCollectionStore<E> im
                 // shift down
                 if (index != currentListSize - 1)
                 {
-                    for (int i = index + 1; i < currentListSize; i++)
-                    {
-                        // Shift this index down 1
-                        internalShift(op, mconn, false, i, -1, true);
-                    }
+                    // Shift all indices after this one down 1
+                    internalShiftRange(op, mconn, index + 1, currentListSize, -1);
                 }
             }
             finally
@@ -570,38 +569,91 @@ public abstract class AbstractListStore<E> extends AbstractCollectionStore<E> im
     }
 
     /**
-     * Method to process a "shift" statement, updating the index in the list of the specified index.
+     * Method to shift the index of all rows of this list with index in the range [fromIndex, toIndex) by the specified amount.
+     * If the datastore checks unique constraints only at the end of an UPDATE statement then this is performed with a single
+     * statement. Otherwise it is performed in two phases, firstly moving the rows to (distinct) negative indices, and then
+     * restoring them to their final (positive) indices, so that the (owner, index) uniqueness is never violated mid-statement.
      * @param op ObjectProvider
      * @param conn The connection
-     * @param batched Whether the statement is batched
-     * @param oldIndex The old index
+     * @param fromIndex The first index to shift (inclusive)
+     * @param toIndex The last index to shift (exclusive)
+     * @param amount Amount to shift by (negative means shift down)
+     * @return Number of rows shifted
+     * @throws MappedDatastoreException Thrown if an error occurs
+     */
+    protected int internalShiftRange(ObjectProvider op, ManagedConnection conn, int fromIndex, int toIndex, int amount)
+    throws MappedDatastoreException
+    {
+        if (fromIndex >= toIndex || amount == 0)
+        {
+            return 0;
+        }
+
+        if (storeMgr.getDatastoreAdapter().supportsOption(DatastoreAdapter.UPDATE_STATEMENT_UNIQUE_CHECK_AT_END))
+        {
+            // UPDATE LISTTABLE SET IDX = {amount} + IDX WHERE OWNER=? AND IDX>={fromIndex} AND IDX<{toIndex}
+            return internalShiftRange(op, conn, getShiftRangeStmt(), amount, fromIndex, toIndex);
+        }
+
+        String negateStmt = getShiftRangeNegateStmt();
+        int[][] updates = getTwoPhaseShiftRangeUpdates(fromIndex, toIndex, amount);
+        int rows = internalShiftRange(op, conn, negateStmt, updates[0][0], updates[0][1], updates[0][2]);
+        internalShiftRange(op, conn, negateStmt, updates[1][0], updates[1][1], updates[1][2]);
+        return rows;
+    }
+
+    /**
+     * Convenience method returning the updates to perform to shift the index of the rows in the range [fromIndex, toIndex)
+     * by the specified amount in two phases. Each update is of the form {value, fromIndex, toIndex} and sets
+     * "IDX = value - IDX" for the rows with fromIndex &lt;= IDX &lt; toIndex.
+     * <ul>
+     * <li>Phase 1 : IDX -&gt; -(IDX + amount) - 2, so all shifted rows are below -1 (-1 is used for unpositioned elements)</li>
+     * <li>Phase 2 : IDX -&gt; -IDX - 2, restoring the rows to their final positions</li>
+     * </ul>
+     * @param fromIndex The first index to shift (inclusive)
+     * @param toIndex The last index to shift (exclusive)
      * @param amount Amount to shift by (negative means shift down)
-     * @param executeNow Whether to execute the statement now (or wait for batching)
-     * @return Return code(s) from any executed statements
+     * @return The two updates
+     */
+    static int[][] getTwoPhaseShiftRangeUpdates(int fromIndex, int toIndex, int amount)
+    {
+        return new int[][] {{-amount - 2, fromIndex, toIndex}, {-2, -(toIndex + amount) - 1, -(fromIndex + amount) - 1}};
+    }
+
+    /**
+     * Convenience method to execute a range shift statement of the form
+     * "UPDATE LISTTABLE SET IDX = ? {op} IDX WHERE OWNER=? AND IDX&gt;=? AND IDX&lt;? [AND DISTINGUISHER=?]".
+     * @param op ObjectProvider
+     * @param conn The connection
+     * @param stmt The range shift statement
+     * @param value Value for the SET clause parameter
+     * @param fromIndex The first index to update (inclusive)
+     * @param toIndex The last index to update (exclusive)
+     * @return Number of rows updated
      * @throws MappedDatastoreException Thrown if an error occurs
      */
-    protected int[] internalShift(ObjectProvider op, ManagedConnection conn, boolean batched, int oldIndex, int amount, boolean executeNow) 
+    private int internalShiftRange(ObjectProvider op, ManagedConnection conn, String stmt, int value, int fromIndex, int toIndex)
     throws MappedDatastoreException
     {
         ExecutionContext ec = op.getExecutionContext();
         SQLController sqlControl = storeMgr.getSQLController();
-        String shiftStmt = getShiftStmt();
         try
         {
-            PreparedStatement ps = sqlControl.getStatementForUpdate(conn, shiftStmt, batched);
+            PreparedStatement ps = sqlControl.getStatementForUpdate(conn, stmt, false);
             try
             {
                 int jdbcPosition = 1;
-                jdbcPosition = BackingStoreHelper.populateOrderInStatement(ec, ps, amount, jdbcPosition, orderMapping);
+                jdbcPosition = BackingStoreHelper.populateOrderInStatement(ec, ps, value, jdbcPosition, orderMapping);
                 jdbcPosition = BackingStoreHelper.populateOwnerInStatement(op, ec, ps, jdbcPosition, this);
-                jdbcPosition = BackingStoreHelper.populateOrderInStatement(ec, ps, oldIndex, jdbcPosition, orderMapping);
+                jdbcPosition = BackingStoreHelper.populateOrderInStatement(ec, ps, fromIndex, jdbcPosition, orderMapping);
+                jdbcPosition = BackingStoreHelper.populateOrderInStatement(ec, ps, toIndex, jdbcPosition, orderMapping);
                 if (relationDiscriminatorMapping != null)
                 {
                     jdbcPosition = BackingStoreHelper.populateRelationDiscriminatorInStatement(ec, ps, jdbcPosition, this);
                 }
 
-                // Execute the statement
-                return sqlControl.executeStatementUpdate(ec, conn, shiftStmt, ps, executeNow);
+                int[] rows = sqlControl.executeStatementUpdate(ec, conn, stmt, ps, true);
+                return rows != null && rows.length > 0 ? rows[0] : 0;
             }
             finally
             {
@@ -610,7 +662,7 @@ public abstract class AbstractListStore<E> extends AbstractCollectionStore<E> im
         }
         catch (SQLException sqle)
         {
-            throw new MappedDatastoreException(shiftStmt, sqle);
+            throw new MappedDatastoreException(stmt, sqle);
         }
     }
 
@@ -832,47 +884,85 @@ public abstract class AbstractListStore<E> extends AbstractCollectionStore<E> im
     }
 
     /**
-     * Generates the statement for shifting items.
+     * Generates the statement for shifting a range of items in a single statement.
      * 
      * <PRE>
      * UPDATE LISTTABLE SET INDEXCOL = ? + INDEXCOL
      * WHERE OWNERCOL = ?
-     * AND INDEXCOL = ?
+     * AND INDEXCOL &gt;= ? AND INDEXCOL &lt; ?
      * [AND DISTINGUISHER=?]
      * </PRE>
-     * @return The Statement for shifting elements
+     * @return The Statement for shifting a range of elements
      */
-    protected String getShiftStmt()
+    protected String getShiftRangeStmt()
     {
-        if (shiftStmt == null)
+        if (shiftRangeStmt == null)
         {
             synchronized (this)
             {
-                StringBuilder stmt = new StringBuilder("UPDATE ").append(containerTable.toString()).append(" SET ");
+                shiftRangeStmt = getShiftRangeStatementString(" + ");
+            }
+        }
+        return shiftRangeStmt;
+    }
 
-                for (int i = 0; i < orderMapping.getNumberOfDatastoreMappings(); i++)
-                {
-                    if (i > 0)
-                    {
-                        stmt.append(",");
-                    }
-                    stmt.append(orderMapping.getDatastoreMapping(i).getColumn().getIdentifier().toString());
-                    stmt.append(" = ");
-                    stmt.append(((AbstractDatastoreMapping) orderMapping.getDatastoreMapping(i)).getUpdateInputParameter());
-                    stmt.append(" + ");
-                    stmt.append(orderMapping.getDatastoreMapping(i).getColumn().getIdentifier().toString());
-                }
+    /**
+     * Generates the statement for negating (and offsetting) a range of items, used where the datastore checks unique
+     * constraints row by row and so a range shift has to be performed in two phases.
+     * 
+     * <PRE>
+     * UPDATE LISTTABLE SET INDEXCOL = ? - INDEXCOL
+     * WHERE OWNERCOL = ?
+     * AND INDEXCOL &gt;= ? AND INDEXCOL &lt; ?
+     * [AND DISTINGUISHER=?]
+     * </PRE>
+     * @return The Statement for negating a range of elements
+     */
+    protected String getShiftRangeNegateStmt()
+    {
+        if (shiftRangeNegateStmt == null)
+        {
+            synchronized (this)
+            {
+                shiftRangeNegateStmt = getShiftRangeStatementString(" - ");
+            }
+        }
+        return shiftRangeNegateStmt;
+    }
 
-                stmt.append(" WHERE ");
-                BackingStoreHelper.appendWhereClauseForMapping(stmt, ownerMapping, null, true);
-                BackingStoreHelper.appendWhereClauseForMapping(stmt, orderMapping, null, false);
-                if (relationDiscriminatorMapping != null)
-                {
-                    BackingStoreHelper.appendWhereClauseForMapping(stmt, relationDiscriminatorMapping, null, false);
-                }
-                shiftStmt = stmt.toString();
+    private String getShiftRangeStatementString(String operator)
+    {
+        StringBuilder stmt = new StringBuilder("UPDATE ").append(containerTable.toString()).append(" SET ");
+
+        for (int i = 0; i < orderMapping.getNumberOfDatastoreMappings(); i++)
+        {
+            if (i > 0)
+            {
+                stmt.append(",");
             }
+            stmt.append(orderMapping.getDatastoreMapping(i).getColumn().getIdentifier().toString());
+            stmt.append(" = ");
+            stmt.append(((AbstractDatastoreMapping) orderMapping.getDatastoreMapping(i)).getUpdateInputParameter());
+            stmt.append(operator);
+            stmt.append(orderMapping.getDatastoreMapping(i).getColumn().getIdentifier().toString());
+        }
+
+        stmt.append(" WHERE ");
+        BackingStoreHelper.appendWhereClauseForMapping(stmt, ownerMapping, null, true);
+        for (int i = 0; i < orderMapping.getNumberOfDatastoreMappings(); i++)
+        {
+            stmt.append(" AND ").append(orderMapping.getDatastoreMapping(i).getColumn().getIdentifier().toString()).append(">=");
+            stmt.append(((AbstractDatastoreMapping) orderMapping.getDatastoreMapping(i)).getInsertionInputParameter());
         }
-        return shiftStmt;
+        for (int i = 0; i < orderMapping.getNumberOfDatastoreMappings(); i++)
+        {
+            stmt.append(" AND ").append(orderMapping.getDatastoreMapping(i).getColumn().getIdentifier().toString()).append("<");
+            stmt.append(((AbstractDatastoreMapping) orderMapping.getDatastoreMapping(i)).getInsertionInputParameter());
+        }
+        if (relationDiscriminatorMapping != null)
+        {
+            BackingStoreHelper.appendWhereClauseForMapping(stmt, relationDiscriminatorMapping, null, false);
+        }
+        return stmt.toString();
     }
 }
\ No newline at end of file
@@ -503,6 +503,16 @@ public abstract class AbstractMapStore<K, V> extends BaseContainerStore implemen
         return valueCmd;
     }
 
+    /**
+     * Method to return the SQLStatement and key/value mappings for an iterator through the entries of this map.
+     * @param addRestrictionOnOwner Whether to restrict to a particular owner (otherwise functions as bulk fetch for many owners).
+     * @return The SQLStatement and its associated key/value mapping indices
+     */
+    public IteratorStatement getIteratorStatement(boolean addRestrictionOnOwner)
+    {
+        return ((MapEntrySetStore)entrySetStore()).getIteratorStatement(addRestrictionOnOwner);
+    }
+
     /**
      * Generate statement to check if a value is contained in the Map.
      * <PRE>
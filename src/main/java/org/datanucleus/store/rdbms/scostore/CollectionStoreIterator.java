@@ -17,14 +17,23 @@ Contributors:
 **********************************************************************/
 package org.datanucleus.store.rdbms.scostore;
 
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
 
 import org.datanucleus.ExecutionContext;
+import org.datanucleus.exceptions.NucleusDataStoreException;
+import org.datanucleus.exceptions.NucleusUserException;
 import org.datanucleus.metadata.AbstractMemberMetaData;
 import org.datanucleus.state.ObjectProvider;
+import org.datanucleus.store.connection.ManagedConnection;
+import org.datanucleus.store.connection.ManagedConnectionResourceListener;
+import org.datanucleus.store.rdbms.SQLController;
 import org.datanucleus.store.rdbms.exceptions.MappedDatastoreException;
 import org.datanucleus.store.rdbms.mapping.java.EmbeddedElementPCMapping;
 import org.datanucleus.store.rdbms.mapping.java.ReferenceMapping;
@@ -33,9 +42,19 @@ import org.datanucleus.store.rdbms.mapping.java.SerialisedReferenceMapping;
 import org.datanucleus.store.rdbms.query.ResultObjectFactory;
 import org.datanucleus.store.rdbms.table.JoinTable;
 import org.datanucleus.store.rdbms.table.Table;
+import org.datanucleus.util.Localiser;
+import org.datanucleus.util.NucleusLogger;
 
 /**
  * RDBMS-specific implementation of {@link Iterator} for Collections/Sets.
+ * By default all elements are read from the ResultSet when the iterator is created. Alternatively the iterator can be
+ * created "streaming", taking over the open ResultSet and reading each element as it is requested, so that iterating a
+ * large collection doesn't need to hold all elements in memory. A streaming iterator closes the ResultSet when all elements
+ * are read. It reads in any unread elements before an element is removed, or before an update statement that could change the
+ * rows being read (an INSERT, UPDATE or DELETE of the container or element tables) is created on the connection. When the
+ * datastore can't have several ResultSets open on a connection it also reads them in before any other statement is created
+ * on the connection. When the connection is closed (at transaction end, or on release when non-transactional) it closes the
+ * ResultSet without reading the unread elements, and can't be iterated any further.
  * @param <E> Type of element in the collection backing store
  */
 class CollectionStoreIterator<E> implements Iterator<E>
@@ -43,77 +62,182 @@ class CollectionStoreIterator<E> implements Iterator<E>
     private final AbstractCollectionStore<E> collStore;
     private final ObjectProvider op;
     private final ExecutionContext ec;
-    private final Iterator<E> delegate;
+    private final ResultObjectFactory rof;
+    private Iterator<E> delegate;
     private E lastElement = null;
 
+    /** ResultSet being read, when streaming and not yet exhausted/disconnected. */
+    private ResultSet rs;
+
+    /** Statement of the ResultSet, when streaming. */
+    private PreparedStatement ps;
+
+    /** Connection of the ResultSet, when streaming. */
+    private ManagedConnection mconn;
+
+    /** Controller that the statement was executed with, when streaming. */
+    private SQLController sqlControl;
+
+    /** Listener for closure of the connection, when streaming. */
+    private ManagedConnectionResourceListener connListener;
+
+    /** Reader registered with the SQLController to read in the unread elements before another statement, when streaming. */
+    private SQLController.OpenResultSetReader openReader;
+
+    /** Whether the connection can have other ResultSets open while the ResultSet is streamed (when streaming). */
+    private boolean multipleOpenResultSets;
+
+    /** Names of the tables whose rows are being read, being the container and element tables (when streaming). */
+    private Collection<String> tableNames;
+
+    /** Whether the ResultSet is positioned at a row that hasn't yet been returned (when streaming). */
+    private boolean rowAvailable = false;
+
+    /** Whether an element is currently being read from the ResultSet (when streaming). */
+    private boolean readingElement = false;
+
+    /** Whether the unread elements are to be read in once the element currently being read is complete (when streaming). */
+    private boolean readRemainingRequested = false;
+
+    /** Whether the ResultSet was closed, without reading the unread elements, when the connection was closed (when streaming). */
+    private boolean connectionClosed = false;
+
     CollectionStoreIterator(ObjectProvider op, ResultSet rs, ResultObjectFactory rof, AbstractCollectionStore<E> store)
         throws MappedDatastoreException
     {
         this.op = op;
         this.ec = op.getExecutionContext();
         this.collStore = store;
-        ArrayList results = new ArrayList();
+        this.rof = rof;
+        List<E> results = new ArrayList<>();
         if (rs != null)
         {
             while (next(rs))
             {
-                Object nextElement;
-                if (collStore.elementsAreEmbedded || collStore.elementsAreSerialised)
-                {
-                    int param[] = new int[collStore.elementMapping.getNumberOfDatastoreMappings()];
-                    for (int i = 0; i < param.length; ++i)
-                    {
-                        param[i] = i + 1;
-                    }
-
-                    if (collStore.elementMapping instanceof SerialisedPCMapping ||
-                        collStore.elementMapping instanceof SerialisedReferenceMapping ||
-                        collStore.elementMapping instanceof EmbeddedElementPCMapping)
-                    {
-                        // Element = Serialised
-                        int ownerFieldNumber = -1;
-                        if (collStore.containerTable != null)
-                        {
-                            ownerFieldNumber = getOwnerMemberMetaData(collStore.containerTable).getAbsoluteFieldNumber();
-                        }
-                        nextElement = collStore.elementMapping.getObject(ec, rs, param, op, ownerFieldNumber);
-                    }
-                    else
-                    {
-                        // Element = Non-PC
-                        nextElement = collStore.elementMapping.getObject(ec, rs, param);
-                    }
-                }
-                else if (collStore.elementMapping instanceof ReferenceMapping)
+                results.add(getElement(rs));
+            }
+        }
+        delegate = results.iterator();
+    }
+
+    /**
+     * Constructor for a streaming iterator, which takes over the ResultSet and its statement, closing them when done.
+     * @param op ObjectProvider of the owner
+     * @param mconn The connection the statement was executed on
+     * @param sqlControl The SQLController that the statement was executed with
+     * @param ps The statement
+     * @param rs ResultSet of the statement
+     * @param rof Factory for the elements (when persistable)
+     * @param store The backing store
+     * @param multipleOpenResultSets Whether the connection can have other ResultSets open while this ResultSet is open
+     * @param tableNames Names of the tables whose rows are being read
+     */
+    CollectionStoreIterator(ObjectProvider op, ManagedConnection mconn, SQLController sqlControl, PreparedStatement ps, ResultSet rs,
+            ResultObjectFactory rof, AbstractCollectionStore<E> store, boolean multipleOpenResultSets, Collection<String> tableNames)
+    {
+        this.op = op;
+        this.ec = op.getExecutionContext();
+        this.collStore = store;
+        this.rof = rof;
+        this.mconn = mconn;
+        this.sqlControl = sqlControl;
+        this.ps = ps;
+        this.rs = rs;
+        this.multipleOpenResultSets = multipleOpenResultSets;
+        this.tableNames = tableNames;
+
+        final ManagedConnection mconn1 = mconn;
+        connListener = new ManagedConnectionResourceListener()
+        {
+            public void transactionFlushed(){}
+            public void transactionPreClose()
+            {
+                // Tx : disconnect from ManagedConnection (without reading the unread rows)
+                disconnect();
+            }
+            public void managedConnectionPreClose()
+            {
+                if (!ec.getTransaction().isActive())
                 {
-                    // Element = Reference (Interface/Object)
-                    int param[] = new int[collStore.elementMapping.getNumberOfDatastoreMappings()];
-                    for (int i = 0; i < param.length; ++i)
-                    {
-                        param[i] = i + 1;
-                    }
-                    nextElement = collStore.elementMapping.getObject(ec, rs, param);
+                    // Non-Tx : disconnect from ManagedConnection (without reading the unread rows)
+                    disconnect();
                 }
-                else
+            }
+            public void managedConnectionPostClose(){}
+            public void resourcePostClose()
+            {
+                mconn1.removeListener(this);
+            }
+        };
+        mconn.addListener(connListener);
+
+        openReader = new SQLController.OpenResultSetReader()
+        {
+            public void otherStatementCreating(String stmtText, boolean update)
+            {
+                if (!multipleOpenResultSets || (update && isUpdateOfTables(stmtText, tableNames)))
                 {
-                    // Element = PC
-                    nextElement = rof.getObject(ec, rs);
+                    readRemainingElements();
                 }
-
-                results.add(nextElement);
             }
-        }
-        delegate = results.iterator();
+        };
+        sqlControl.registerOpenResultSetReader(mconn, openReader);
     }
 
     public boolean hasNext()
     {
-        return delegate.hasNext();
+        if (connectionClosed)
+        {
+            throw new NucleusUserException("Elements of the collection were still being read from the datastore when the connection was closed. " +
+                "Perhaps you ended the transaction while iterating the collection");
+        }
+        if (rs != null)
+        {
+            if (!rowAvailable)
+            {
+                rowAvailable = nextRow();
+                if (!rowAvailable)
+                {
+                    // All elements read so release the ResultSet
+                    mconn.removeListener(connListener);
+                    close();
+                }
+            }
+            return rowAvailable;
+        }
+        return delegate != null && delegate.hasNext();
     }
 
     public E next()
     {
-        lastElement = delegate.next();
+        if (!hasNext())
+        {
+            throw new NoSuchElementException();
+        }
+
+        if (rs != null)
+        {
+            readingElement = true;
+            try
+            {
+                lastElement = getElement(rs);
+            }
+            finally
+            {
+                readingElement = false;
+            }
+            rowAvailable = false;
+
+            if (readRemainingRequested)
+            {
+                // Another statement was created while reading the element
+                readRemainingElements();
+            }
+        }
+        else
+        {
+            lastElement = delegate.next();
+        }
 
         return lastElement;
     }
@@ -125,12 +249,189 @@ class CollectionStoreIterator<E> implements Iterator<E>
             throw new IllegalStateException("No entry to remove");
         }
 
+        // Read in the unread elements before the removal changes the rows being read
+        readRemainingElements();
+
         collStore.remove(op, lastElement, -1, true);
-        delegate.remove();
 
         lastElement = null;
     }
 
+    /**
+     * Method to read in any unread elements from the ResultSet (when streaming) and close it, so that the iterator no longer
+     * needs the ResultSet. If an element is currently being read, the unread elements are read once it is complete.
+     */
+    protected void readRemainingElements()
+    {
+        if (rs == null)
+        {
+            return;
+        }
+        if (readingElement)
+        {
+            readRemainingRequested = true;
+            return;
+        }
+        readRemainingRequested = false;
+
+        List<E> results = new ArrayList<>();
+        if (rowAvailable)
+        {
+            results.add(getElement(rs));
+            rowAvailable = false;
+        }
+        while (nextRow())
+        {
+            results.add(getElement(rs));
+        }
+        delegate = results.iterator();
+        mconn.removeListener(connListener);
+        close();
+    }
+
+    /**
+     * Method to close the ResultSet (when streaming) without reading any unread elements, for when the connection is closing.
+     * The iterator can't be used after this.
+     */
+    protected void disconnect()
+    {
+        if (rs == null)
+        {
+            return;
+        }
+
+        connectionClosed = true;
+        rowAvailable = false;
+        close();
+    }
+
+    /**
+     * Method to close the ResultSet and its statement (when streaming).
+     */
+    protected void close()
+    {
+        sqlControl.deregisterOpenResultSetReader(mconn, openReader);
+        try
+        {
+            rs.close();
+            sqlControl.closeStatement(mconn, ps);
+        }
+        catch (SQLException e)
+        {
+            NucleusLogger.DATASTORE.error(Localiser.msg("052605", e));
+        }
+        finally
+        {
+            rs = null;
+            ps = null;
+            mconn = null;
+        }
+    }
+
+    /**
+     * Convenience method to check whether an update statement could change the rows of the specified tables. This is the case
+     * for an INSERT, UPDATE or DELETE of one of the tables, or any other update statement (whose table isn't known).
+     * @param stmtText Text of the update statement
+     * @param tableNames Names of the tables
+     * @return Whether the statement could change the rows of the tables
+     */
+    static boolean isUpdateOfTables(String stmtText, Collection<String> tableNames)
+    {
+        String text = stmtText.trim();
+        int tableStart;
+        if (text.regionMatches(true, 0, "INSERT INTO ", 0, 12) || text.regionMatches(true, 0, "DELETE FROM ", 0, 12))
+        {
+            tableStart = 12;
+        }
+        else if (text.regionMatches(true, 0, "UPDATE ", 0, 7))
+        {
+            tableStart = 7;
+        }
+        else
+        {
+            return true;
+        }
+
+        for (String tableName : tableNames)
+        {
+            int tableEnd = tableStart + tableName.length();
+            if (text.regionMatches(true, tableStart, tableName, 0, tableName.length()) &&
+                (tableEnd == text.length() || Character.isWhitespace(text.charAt(tableEnd)) || text.charAt(tableEnd) == '('))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Method to convert the current row of the ResultSet into its element.
+     * @param rs The ResultSet
+     * @return The element
+     */
+    protected E getElement(ResultSet rs)
+    {
+        Object nextElement;
+        if (collStore.elementsAreEmbedded || collStore.elementsAreSerialised)
+        {
+            int param[] = new int[collStore.elementMapping.getNumberOfDatastoreMappings()];
+            for (int i = 0; i < param.length; ++i)
+            {
+                param[i] = i + 1;
+            }
+
+            if (collStore.elementMapping instanceof SerialisedPCMapping ||
+                collStore.elementMapping instanceof SerialisedReferenceMapping ||
+                collStore.elementMapping instanceof EmbeddedElementPCMapping)
+            {
+                // Element = Serialised
+                int ownerFieldNumber = -1;
+                if (collStore.containerTable != null)
+                {
+                    ownerFieldNumber = getOwnerMemberMetaData(collStore.containerTable).getAbsoluteFieldNumber();
+                }
+                nextElement = collStore.elementMapping.getObject(ec, rs, param, op, ownerFieldNumber);
+            }
+            else
+            {
+                // Element = Non-PC
+                nextElement = collStore.elementMapping.getObject(ec, rs, param);
+            }
+        }
+        else if (collStore.elementMapping instanceof ReferenceMapping)
+        {
+            // Element = Reference (Interface/Object)
+            int param[] = new int[collStore.elementMapping.getNumberOfDatastoreMappings()];
+            for (int i = 0; i < param.length; ++i)
+            {
+                param[i] = i + 1;
+            }
+            nextElement = collStore.elementMapping.getObject(ec, rs, param);
+        }
+        else
+        {
+            // Element = PC
+            nextElement = rof.getObject(ec, rs);
+        }
+        return (E)nextElement;
+    }
+
+    /**
+     * Method to move the (streaming) ResultSet to its next row.
+     * @return Whether there is a next row
+     */
+    private boolean nextRow()
+    {
+        try
+        {
+            return next(rs);
+        }
+        catch (MappedDatastoreException e)
+        {
+            throw new NucleusDataStoreException(e.getMessage(), e.getCause());
+        }
+    }
+
     protected boolean next(Object rs) throws MappedDatastoreException
     {
         try
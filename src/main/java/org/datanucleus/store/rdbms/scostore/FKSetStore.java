@@ -1066,6 +1066,12 @@ public class FKSetStore<E> extends AbstractSetStore<E>
                     ownerStmtMapIdx.getMapping().setObject(ec, ps, ownerStmtMapIdx.getParameterPositionsForOccurrence(paramInstance), op.getObject());
                 }
 
+                boolean streaming = useStreamingIterator(ec);
+                if (streaming && ec.getFetchPlan().getFetchSize() > 0)
+                {
+                    ps.setFetchSize(ec.getFetchPlan().getFetchSize());
+                }
+                CollectionStoreIterator iter = null;
                 try
                 {
                     ResultSet rs = sqlControl.executeStatementQuery(ec, mconn, stmt, ps);
@@ -1078,16 +1084,24 @@ public class FKSetStore<E> extends AbstractSetStore<E>
                         }
                         rof = new PersistentClassROF(storeMgr, elementCmd, iteratorMappingClass, false, null, clr.classForName(elementType));
 
-                        return new CollectionStoreIterator(op, rs, rof, this);
+                        // When streaming the iterator takes over the ResultSet and statement
+                        iter = streaming ? newStreamingIterator(op, mconn, sqlControl, ps, rs, rof) : new CollectionStoreIterator(op, rs, rof, this);
+                        return iter;
                     }
                     finally
                     {
-                        rs.close();
+                        if (!streaming || iter == null)
+                        {
+                            rs.close();
+                        }
                     }
                 }
                 finally
                 {
-                    sqlControl.closeStatement(mconn, ps);
+                    if (!streaming || iter == null)
+                    {
+                        sqlControl.closeStatement(mconn, ps);
+                    }
                 }
             }
             finally
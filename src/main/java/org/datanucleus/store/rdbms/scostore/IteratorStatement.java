@@ -26,6 +26,7 @@ import org.datanucleus.store.types.scostore.Store;
  * Representation of the SQLStatement for an iterator of a container, together with the class mapping for the element.
  * An iterator statement can be an iterator for a single owner, or a bulk iterator for multiple owners (in which case
  * the <cite>ownerMapIndex</cite> will be set so we can check the owner for the element.
+ * An iterator of the entries of a map will have the <cite>keyMapIndex</cite> and <cite>valueMapIndex</cite> set.
  */
 public class IteratorStatement
 {
@@ -40,6 +41,12 @@ public class IteratorStatement
     /** Mapping index for the owner in the statement (only specified on bulk fetch iterators). */
     StatementMappingIndex ownerMapIndex = null;
 
+    /** Mapping index for the key in the statement (only specified on map entry iterators). */
+    StatementMappingIndex keyMapIndex = null;
+
+    /** Mapping index for the value in the statement (only specified on map entry iterators). */
+    StatementMappingIndex valueMapIndex = null;
+
     public IteratorStatement(Store store, SelectStatement stmt, StatementClassMapping stmtClassMapping)
     {
         this.backingStore = store;
@@ -66,4 +73,20 @@ public class IteratorStatement
     {
         this.ownerMapIndex = idx;
     }
+    public StatementMappingIndex getKeyMapIndex()
+    {
+        return keyMapIndex;
+    }
+    public void setKeyMapIndex(StatementMappingIndex idx)
+    {
+        this.keyMapIndex = idx;
+    }
+    public StatementMappingIndex getValueMapIndex()
+    {
+        return valueMapIndex;
+    }
+    public void setValueMapIndex(StatementMappingIndex idx)
+    {
+        this.valueMapIndex = idx;
+    }
 }
\ No newline at end of file
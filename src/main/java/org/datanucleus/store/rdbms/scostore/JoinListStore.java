@@ -258,13 +258,8 @@ public class JoinListStore<E> extends AbstractListStore<E>
                 // Shift any existing elements so that we can insert the new element(s) at their position
                 if (!atEnd && start != currentListSize)
                 {
-                    boolean batched = currentListSize - start > 0;
-
-                    for (int i = currentListSize - 1; i >= start; i--)
-                    {
-                        // Shift the index for this row by "shift"
-                        internalShift(op, mconn, batched, i, shift, (i == start));
-                    }
+                    // Shift the index for all rows from "start" by "shift"
+                    internalShiftRange(op, mconn, start, currentListSize, shift);
                 }
                 else
                 {
@@ -633,31 +628,17 @@ public class JoinListStore<E> extends AbstractListStore<E>
         // Shift the remaining indices to remove the holes in ordering
         try
         {
-            boolean batched = storeMgr.allowsBatching();
             ManagedConnection mconn = storeMgr.getConnection(ec);
             try
             {
-                for (int i = 0; i < currentListSize; i++)
+                // Shift each block of indices between removed indices down by the number of removed indices below it.
+                // The indices are highest first, so process from the end of the array to shift the lowest block first
+                int shift = 0;
+                for (int j = indices.length - 1; j >= 0; j--)
                 {
-                    // Find the number of deleted indexes above this index
-                    int shift = 0;
-                    boolean removed = false;
-                    for (int j = 0; j < indices.length; j++)
-                    {
-                        if (indices[j] == i)
-                        {
-                            removed = true;
-                            break;
-                        }
-                        if (indices[j] < i)
-                        {
-                            shift++;
-                        }
-                    }
-                    if (!removed && shift > 0)
-                    {
-                        internalShift(op, mconn, batched, i, -1 * shift, (i == currentListSize - 1));
-                    }
+                    shift++;
+                    int blockEnd = (j > 0 ? indices[j - 1] : currentListSize);
+                    internalShiftRange(op, mconn, indices[j] + 1, blockEnd, -1 * shift);
                 }
             }
             finally
@@ -20,9 +20,12 @@ package org.datanucleus.store.rdbms.scostore;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 
@@ -182,25 +185,50 @@ public class JoinMapStore<K, V> extends AbstractMapStore<K, V>
         while (i.hasNext())
         {
             Map.Entry e = (Map.Entry)i.next();
-            Object key = e.getKey();
-            Object value = e.getValue();
 
             // Make sure the related objects are persisted (persistence-by-reachability)
-            validateKeyForWriting(op, key);
-            validateValueForWriting(op, value);
+            validateKeyForWriting(op, e.getKey());
+            validateValueForWriting(op, e.getValue());
+        }
+
+        // Retrieve the current values for all keys in as few statements as possible
+        ExecutionContext ec = op.getExecutionContext();
+        Map<Object, Object> currentValues = getValues(op, m.keySet());
+
+        i = m.entrySet().iterator();
+        while (i.hasNext())
+        {
+            Map.Entry e = (Map.Entry)i.next();
+            Object key = e.getKey();
+            Object value = e.getValue();
 
             // Check if this is a new entry, or an update
-            try
+            if (currentValues != null)
             {
-                Object oldValue = getValue(op, key);
-                if (oldValue != value)
+                Object lookupKey = getLookupKeyForKey(ec, key);
+                if (!currentValues.containsKey(lookupKey))
+                {
+                    puts.add(e);
+                }
+                else if (currentValues.get(lookupKey) != value)
                 {
                     updates.add(e);
                 }
             }
-            catch (NoSuchElementException nsee)
+            else
             {
-                puts.add(e);
+                try
+                {
+                    Object oldValue = getValue(op, key);
+                    if (oldValue != value)
+                    {
+                        updates.add(e);
+                    }
+                }
+                catch (NoSuchElementException nsee)
+                {
+                    puts.add(e);
+                }
             }
         }
 
@@ -211,7 +239,6 @@ public class JoinMapStore<K, V> extends AbstractMapStore<K, V>
         {
             try
             {
-                ExecutionContext ec = op.getExecutionContext();
                 ManagedConnection mconn = storeMgr.getConnection(ec);
                 try
                 {
@@ -240,7 +267,6 @@ public class JoinMapStore<K, V> extends AbstractMapStore<K, V>
         {
             try
             {
-                ExecutionContext ec = op.getExecutionContext();
                 ManagedConnection mconn = storeMgr.getConnection(ec);
                 try
                 {
@@ -778,6 +804,287 @@ public class JoinMapStore<K, V> extends AbstractMapStore<K, V>
         return (V) value;
     }
 
+    /**
+     * Method to retrieve the current values for a collection of keys in the Map, using one statement per chunk of
+     * keys (see DatastoreAdapter.getMaxStatementParameters) rather than one statement per key.
+     * The returned Map is keyed by the lookup key (see getLookupKeyForKey), and only has entries for keys present.
+     * Returns null if the values cannot be retrieved in bulk for this map (embedded/serialised/reference keys, or
+     * when reads have to lock), in which case the caller should use getValue for each key.
+     * @param ownerOP ObjectProvider for the owner of the map.
+     * @param keys The keys to retrieve the values for
+     * @return The current values, keyed by the lookup key
+     */
+    protected Map<Object, Object> getValues(final ObjectProvider ownerOP, Collection keys)
+    {
+        if (keysAreEmbedded || keysAreSerialised || keyMapping instanceof ReferenceMapping || keyMapping instanceof SerialisedMapping ||
+            valueMapping == null)
+        {
+            return null;
+        }
+
+        final ExecutionContext ec = ownerOP.getExecutionContext();
+        Transaction tx = ec.getTransaction();
+        if (tx.getSerializeRead() != null && tx.getSerializeRead())
+        {
+            return null;
+        }
+
+        List keyList = new ArrayList(keys);
+        int maxParams = storeMgr.getDatastoreAdapter().getMaxStatementParameters() - ownerMapping.getNumberOfDatastoreMappings();
+        int chunkSize = Math.max(1, maxParams / keyMapping.getNumberOfDatastoreMappings());
+
+        int numKeyCols = keyMapping.getNumberOfDatastoreMappings();
+        final int[] keyPositions = new int[numKeyCols];
+        for (int i = 0; i < numKeyCols; i++)
+        {
+            keyPositions[i] = i + 1;
+        }
+        final int[] valuePositions = new int[valueMapping.getNumberOfDatastoreMappings()];
+        for (int i = 0; i < valuePositions.length; i++)
+        {
+            valuePositions[i] = numKeyCols + i + 1;
+        }
+
+        final String[] stmt = new String[1];
+        try
+        {
+            final ManagedConnection mconn = storeMgr.getConnection(ec);
+            final SQLController sqlControl = storeMgr.getSQLController();
+            try
+            {
+                return getValues(keyList, chunkSize, new ValuesLookup()
+                {
+                    public int getValues(List chunk, Map<Object, Object> values) throws SQLException
+                    {
+                        stmt[0] = getGetValuesStmt(chunk.size());
+                        PreparedStatement ps = sqlControl.getStatementForQuery(mconn, stmt[0]);
+                        try
+                        {
+                            int jdbcPosition = 1;
+                            jdbcPosition = BackingStoreHelper.populateOwnerInStatement(ownerOP, ec, ps, jdbcPosition, JoinMapStore.this);
+                            for (Object key : chunk)
+                            {
+                                jdbcPosition = BackingStoreHelper.populateKeyInStatement(ec, ps, key, jdbcPosition, keyMapping);
+                            }
+
+                            int numRows = 0;
+                            ResultSet rs = sqlControl.executeStatementQuery(ec, mconn, stmt[0], ps);
+                            try
+                            {
+                                while (rs.next())
+                                {
+                                    numRows++;
+                                    Object key = keyMapping.getObject(ec, rs, keyPositions);
+                                    Object value = null;
+                                    if ((valuesAreEmbedded || valuesAreSerialised) &&
+                                        (valueMapping instanceof SerialisedPCMapping || valueMapping instanceof SerialisedReferenceMapping ||
+                                         valueMapping instanceof EmbeddedKeyPCMapping))
+                                    {
+                                        // Value = Serialised
+                                        int ownerFieldNumber = ((JoinTable)mapTable).getOwnerMemberMetaData().getAbsoluteFieldNumber();
+                                        value = valueMapping.getObject(ec, rs, valuePositions, ownerOP, ownerFieldNumber);
+                                    }
+                                    else
+                                    {
+                                        // Value = Non-PC, Reference, or PC (FK in the join table)
+                                        value = valueMapping.getObject(ec, rs, valuePositions);
+                                    }
+                                    values.put(getLookupKeyForKey(ec, key), value);
+                                }
+                                JDBCUtils.logWarnings(rs);
+                            }
+                            finally
+                            {
+                                rs.close();
+                            }
+                            return numRows;
+                        }
+                        finally
+                        {
+                            sqlControl.closeStatement(mconn, ps);
+                        }
+                    }
+
+                    public Object getValue(Object key)
+                    {
+                        return JoinMapStore.this.getValue(ownerOP, key);
+                    }
+
+                    public Object getLookupKey(Object key)
+                    {
+                        return getLookupKeyForKey(ec, key);
+                    }
+                });
+            }
+            finally
+            {
+                mconn.release();
+            }
+        }
+        catch (SQLException e)
+        {
+            throw new NucleusDataStoreException(Localiser.msg("056014", stmt[0]), e);
+        }
+    }
+
+    /**
+     * Lookup of the values for keys of the map in the datastore, for use by {@link JoinMapStore#getValues(List, int, ValuesLookup)}.
+     */
+    interface ValuesLookup
+    {
+        /**
+         * Method to retrieve the values for the keys using a single statement, adding them to the values keyed by the lookup key.
+         * @param keys The keys
+         * @param values The values retrieved so far
+         * @return The number of rows retrieved
+         * @throws SQLException Thrown if an error occurs retrieving the values
+         */
+        int getValues(List keys, Map<Object, Object> values) throws SQLException;
+
+        /**
+         * Method to retrieve the value for a single key.
+         * @param key The key
+         * @return The value
+         * @throws NoSuchElementException if the map has no entry for the key
+         */
+        Object getValue(Object key);
+
+        /**
+         * Accessor for the key to use when matching the key against those retrieved.
+         * @param key The key
+         * @return The lookup key
+         */
+        Object getLookupKey(Object key);
+    }
+
+    /**
+     * Method to retrieve the values for the keys, one chunk of keys at a time. The datastore can consider a key equal to one
+     * that is not equal in Java (e.g BigDecimal of different scale, padded CHAR, case-insensitive collation), so a key that
+     * isn't matched by a row retrieved for its chunk may still have an entry in the map. Such keys are retrieved individually,
+     * unless no rows were retrieved for the chunk, in which case the datastore has no entry for any of its keys.
+     * @param keys The keys
+     * @param chunkSize Maximum number of keys to retrieve the values for with one statement
+     * @param lookup Lookup of the values
+     * @return The current values, keyed by the lookup key, with entries only for keys present
+     * @throws SQLException Thrown if an error occurs retrieving the values
+     */
+    static Map<Object, Object> getValues(List keys, int chunkSize, ValuesLookup lookup) throws SQLException
+    {
+        Map<Object, Object> values = new HashMap<>();
+        List keysToCheck = new ArrayList();
+        for (int start = 0; start < keys.size(); start += chunkSize)
+        {
+            List chunk = keys.subList(start, Math.min(start + chunkSize, keys.size()));
+            if (lookup.getValues(chunk, values) > 0)
+            {
+                keysToCheck.addAll(chunk);
+            }
+        }
+
+        for (Object key : keysToCheck)
+        {
+            Object lookupKey = lookup.getLookupKey(key);
+            if (!values.containsKey(lookupKey))
+            {
+                try
+                {
+                    values.put(lookupKey, lookup.getValue(key));
+                }
+                catch (NoSuchElementException nsee)
+                {
+                    // No entry for this key
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Convenience accessor for the key to use when matching a map key against those retrieved by getValues.
+     * Persistable keys are matched by their identity, since the key passed in may not be the same object as
+     * that retrieved from the datastore (e.g detached).
+     * @param ec ExecutionContext
+     * @param key The map key
+     * @return The lookup key
+     */
+    private Object getLookupKeyForKey(ExecutionContext ec, Object key)
+    {
+        if (keyCmd != null && key != null)
+        {
+            Object id = ec.getApiAdapter().getIdForObject(key);
+            if (id != null)
+            {
+                return id;
+            }
+        }
+        return key;
+    }
+
+    /**
+     * Generates the statement for retrieving the values for a number of keys in the Map.
+     * <PRE>
+     * SELECT KEYCOL, VALUECOL FROM MAPTABLE
+     * WHERE OWNERCOL = ?
+     * AND KEYCOL IN (?, ?, ...)
+     * </PRE>
+     * or, where the key has multiple columns
+     * <PRE>
+     * SELECT KEYCOL1, KEYCOL2, VALUECOL FROM MAPTABLE
+     * WHERE OWNERCOL = ?
+     * AND ((KEYCOL1 = ? AND KEYCOL2 = ?) OR (KEYCOL1 = ? AND KEYCOL2 = ?) ...)
+     * </PRE>
+     * @param numKeys Number of keys to retrieve the values for
+     * @return Statement to retrieve the values
+     */
+    private String getGetValuesStmt(int numKeys)
+    {
+        StringBuilder stmt = new StringBuilder("SELECT ");
+        for (int i = 0; i < keyMapping.getNumberOfDatastoreMappings(); i++)
+        {
+            if (i > 0)
+            {
+                stmt.append(",");
+            }
+            stmt.append(keyMapping.getDatastoreMapping(i).getColumn().getIdentifier().toString());
+        }
+        for (int i = 0; i < valueMapping.getNumberOfDatastoreMappings(); i++)
+        {
+            stmt.append(",");
+            stmt.append(valueMapping.getDatastoreMapping(i).getColumn().getIdentifier().toString());
+        }
+        stmt.append(" FROM ").append(mapTable.toString()).append(" WHERE ");
+        BackingStoreHelper.appendWhereClauseForMapping(stmt, ownerMapping, null, true);
+
+        stmt.append(" AND ");
+        if (keyMapping.getNumberOfDatastoreMappings() == 1)
+        {
+            stmt.append(keyMapping.getDatastoreMapping(0).getColumn().getIdentifier().toString()).append(" IN (");
+            String param = ((AbstractDatastoreMapping) keyMapping.getDatastoreMapping(0)).getInsertionInputParameter();
+            for (int i = 0; i < numKeys; i++)
+            {
+                if (i > 0)
+                {
+                    stmt.append(",");
+                }
+                stmt.append(param);
+            }
+            stmt.append(")");
+        }
+        else
+        {
+            stmt.append("(");
+            for (int i = 0; i < numKeys; i++)
+            {
+                stmt.append(i > 0 ? " OR (" : "(");
+                BackingStoreHelper.appendWhereClauseForMapping(stmt, keyMapping, null, true);
+                stmt.append(")");
+            }
+            stmt.append(")");
+        }
+
+        return stmt.toString();
+    }
+
     /**
      * Method to return an SQLStatement for retrieving the value for a key.
      * Selects the join table and optionally joins to the value table if it has its own table.
@@ -969,7 +1276,7 @@ public class JoinMapStore<K, V> extends AbstractMapStore<K, V>
         ExecutionContext ec = ownerOP.getExecutionContext();
         SQLController sqlControl = storeMgr.getSQLController();
         try {
-            PreparedStatement ps = sqlControl.getStatementForUpdate(conn, updateStmt, false);
+            PreparedStatement ps = sqlControl.getStatementForUpdate(conn, updateStmt, batched);
             try
             {
                 int jdbcPosition = 1;
@@ -984,14 +1291,8 @@ public class JoinMapStore<K, V> extends AbstractMapStore<K, V>
                 jdbcPosition = BackingStoreHelper.populateOwnerInStatement(ownerOP, ec, ps, jdbcPosition, this);
                 jdbcPosition = BackingStoreHelper.populateKeyInStatement(ec, ps, key, jdbcPosition, keyMapping);
 
-                if (batched)
-                {
-                    ps.addBatch();
-                }
-                else
-                {
-                    sqlControl.executeStatementUpdate(ec, conn, updateStmt, ps, true);
-                }
+                // Execute the statement (or leave it in the batch)
+                sqlControl.executeStatementUpdate(ec, conn, updateStmt, ps, executeNow);
             }
             finally
             {
@@ -1022,7 +1323,7 @@ public class JoinMapStore<K, V> extends AbstractMapStore<K, V>
         SQLController sqlControl = storeMgr.getSQLController();
         try
         {
-            PreparedStatement ps = sqlControl.getStatementForUpdate(conn, putStmt, false);
+            PreparedStatement ps = sqlControl.getStatementForUpdate(conn, putStmt, batched);
             try
             {
                 int jdbcPosition = 1;
@@ -1044,8 +1345,8 @@ public class JoinMapStore<K, V> extends AbstractMapStore<K, V>
                 }
                 jdbcPosition = BackingStoreHelper.populateKeyInStatement(ec, ps, key, jdbcPosition, keyMapping);
 
-                // Execute the statement
-                return sqlControl.executeStatementUpdate(ec, conn, putStmt, ps, true);
+                // Execute the statement (or leave it in the batch)
+                return sqlControl.executeStatementUpdate(ec, conn, putStmt, ps, executeNow);
             }
             finally
             {
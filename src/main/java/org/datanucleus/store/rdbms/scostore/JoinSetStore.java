@@ -905,35 +905,45 @@ public class JoinSetStore<E> extends AbstractSetStore<E>
                     ownerStmtMapIdx.getMapping().setObject(ec, ps, ownerStmtMapIdx.getParameterPositionsForOccurrence(paramInstance), ownerOP.getObject());
                 }
 
+                boolean streaming = useStreamingIterator(ec);
+                if (streaming && ec.getFetchPlan().getFetchSize() > 0)
+                {
+                    ps.setFetchSize(ec.getFetchPlan().getFetchSize());
+                }
+                CollectionStoreIterator iter = null;
                 try
                 {
                     ResultSet rs = sqlControl.executeStatementQuery(ec, mconn, stmt, ps);
                     try
                     {
-                        if (elementsAreEmbedded || elementsAreSerialised)
-                        {
-                            // No ResultObjectFactory needed - handled by SetStoreIterator
-                            return new CollectionStoreIterator(ownerOP, rs, null, this);
-                        }
-                        else if (elementMapping instanceof ReferenceMapping)
+                        ResultObjectFactory rof = null;
+                        if (elementsAreEmbedded || elementsAreSerialised || elementMapping instanceof ReferenceMapping)
                         {
                             // No ResultObjectFactory needed - handled by SetStoreIterator
-                            return new CollectionStoreIterator(ownerOP, rs, null, this);
                         }
                         else
                         {
-                            ResultObjectFactory rof = new PersistentClassROF(storeMgr, elementCmd, iteratorMappingClass, false, null, clr.classForName(elementType));
-                            return new CollectionStoreIterator(ownerOP, rs, rof, this);
+                            rof = new PersistentClassROF(storeMgr, elementCmd, iteratorMappingClass, false, null, clr.classForName(elementType));
                         }
+
+                        // When streaming the iterator takes over the ResultSet and statement
+                        iter = streaming ? newStreamingIterator(ownerOP, mconn, sqlControl, ps, rs, rof) : new CollectionStoreIterator(ownerOP, rs, rof, this);
+                        return iter;
                     }
                     finally
                     {
-                        rs.close();
+                        if (!streaming || iter == null)
+                        {
+                            rs.close();
+                        }
                     }
                 }
                 finally
                 {
-                    sqlControl.closeStatement(mconn, ps);
+                    if (!streaming || iter == null)
+                    {
+                        sqlControl.closeStatement(mconn, ps);
+                    }
                 }
             }
             finally
@@ -432,6 +432,52 @@ class MapEntrySetStore<K, V> extends BaseContainerStore implements SetStore<Map.
      * @return The SQLStatement
      */
     protected SQLStatement getSQLStatementForIterator(ObjectProvider ownerOP)
+    {
+        IteratorStatement iterStmt = getIteratorStatement(true);
+        SelectStatement sqlStmt = iterStmt.getSelectStatement();
+        iteratorKeyResultCols = iterStmt.getKeyMapIndex().getColumnPositions();
+        iteratorValueResultCols = iterStmt.getValueMapIndex().getColumnPositions();
+
+        // Input parameter(s) - the owner
+        int inputParamNum = 1;
+        StatementMappingIndex ownerIdx = new StatementMappingIndex(ownerMapping);
+        if (sqlStmt.getNumberOfUnions() > 0)
+        {
+            // Add parameter occurrence for each union of statement
+            for (int j=0;j<sqlStmt.getNumberOfUnions()+1;j++)
+            {
+                int[] paramPositions = new int[ownerMapping.getNumberOfDatastoreMappings()];
+                for (int k=0;k<ownerMapping.getNumberOfDatastoreMappings();k++)
+                {
+                    paramPositions[k] = inputParamNum++;
+                }
+                ownerIdx.addParameterOccurrence(paramPositions);
+            }
+        }
+        else
+        {
+            int[] paramPositions = new int[ownerMapping.getNumberOfDatastoreMappings()];
+            for (int k=0;k<ownerMapping.getNumberOfDatastoreMappings();k++)
+            {
+                paramPositions[k] = inputParamNum++;
+            }
+            ownerIdx.addParameterOccurrence(paramPositions);
+        }
+        iteratorMappingParams = new StatementParameterMapping();
+        iteratorMappingParams.addMappingForParameter("owner", ownerIdx);
+
+        return sqlStmt;
+    }
+
+    /**
+     * Method to return the SQLStatement and key/value mappings for an iterator through the entries of the map.
+     * <pre>
+     * SELECT KEY, VALUE FROM MAP_TABLE WHERE [OWNER_ID=? AND] KEY IS NOT NULL
+     * </pre>
+     * @param addRestrictionOnOwner Whether to restrict to a particular owner (otherwise functions as bulk fetch for many owners).
+     * @return The SQLStatement and its associated key/value mapping indices
+     */
+    public IteratorStatement getIteratorStatement(boolean addRestrictionOnOwner)
     {
         SelectStatement sqlStmt = new SelectStatement(storeMgr, mapTable, null, null);
         sqlStmt.setClassLoaderResolver(clr);
@@ -463,7 +509,7 @@ class MapEntrySetStore<K, V> extends BaseContainerStore implements SetStore<Map.
                     keyMapping.getTable(), null, keyMapping.getTable().getIdMapping(), null, null);
             }
         }
-        iteratorKeyResultCols = sqlStmt.select(entrySqlTblForKey, keyMapping, null);
+        int[] keyResultCols = sqlStmt.select(entrySqlTblForKey, keyMapping, null);
 
         // Select the value mapping
         // TODO If value is persistable and has inheritance also select a discriminator to get the type
@@ -478,49 +524,31 @@ class MapEntrySetStore<K, V> extends BaseContainerStore implements SetStore<Map.
                     valueMapping.getTable(), null, valueMapping.getTable().getIdMapping(), null, null);
             }
         }
-        iteratorValueResultCols = sqlStmt.select(entrySqlTblForVal, valueMapping, null);
+        int[] valueResultCols = sqlStmt.select(entrySqlTblForVal, valueMapping, null);
 
-        // Apply condition on owner field to filter by owner
         SQLExpressionFactory exprFactory = storeMgr.getSQLExpressionFactory();
-        SQLTable ownerSqlTbl = SQLStatementHelper.getSQLTableForMappingOfTable(sqlStmt, sqlStmt.getPrimaryTable(), ownerMapping);
-        SQLExpression ownerExpr = exprFactory.newExpression(sqlStmt, ownerSqlTbl, ownerMapping);
-        SQLExpression ownerVal = exprFactory.newLiteralParameter(sqlStmt, ownerMapping, null, "OWNER");
-        sqlStmt.whereAnd(ownerExpr.eq(ownerVal), true);
+        if (addRestrictionOnOwner)
+        {
+            // Apply condition on owner field to filter by owner
+            SQLTable ownerSqlTbl = SQLStatementHelper.getSQLTableForMappingOfTable(sqlStmt, sqlStmt.getPrimaryTable(), ownerMapping);
+            SQLExpression ownerExpr = exprFactory.newExpression(sqlStmt, ownerSqlTbl, ownerMapping);
+            SQLExpression ownerVal = exprFactory.newLiteralParameter(sqlStmt, ownerMapping, null, "OWNER");
+            sqlStmt.whereAnd(ownerExpr.eq(ownerVal), true);
+        }
 
         // Apply condition that key is not null
         SQLExpression keyExpr = exprFactory.newExpression(sqlStmt, sqlStmt.getPrimaryTable(), keyMapping);
         SQLExpression nullExpr = exprFactory.newLiteral(sqlStmt, null, null);
         sqlStmt.whereAnd(keyExpr.ne(nullExpr), true);
 
-        // Input parameter(s) - the owner
-        int inputParamNum = 1;
-        StatementMappingIndex ownerIdx = new StatementMappingIndex(ownerMapping);
-        if (sqlStmt.getNumberOfUnions() > 0)
-        {
-            // Add parameter occurrence for each union of statement
-            for (int j=0;j<sqlStmt.getNumberOfUnions()+1;j++)
-            {
-                int[] paramPositions = new int[ownerMapping.getNumberOfDatastoreMappings()];
-                for (int k=0;k<ownerMapping.getNumberOfDatastoreMappings();k++)
-                {
-                    paramPositions[k] = inputParamNum++;
-                }
-                ownerIdx.addParameterOccurrence(paramPositions);
-            }
-        }
-        else
-        {
-            int[] paramPositions = new int[ownerMapping.getNumberOfDatastoreMappings()];
-            for (int k=0;k<ownerMapping.getNumberOfDatastoreMappings();k++)
-            {
-                paramPositions[k] = inputParamNum++;
-            }
-            ownerIdx.addParameterOccurrence(paramPositions);
-        }
-        iteratorMappingParams = new StatementParameterMapping();
-        iteratorMappingParams.addMappingForParameter("owner", ownerIdx);
-
-        return sqlStmt;
+        IteratorStatement iterStmt = new IteratorStatement(mapStore, sqlStmt, null);
+        StatementMappingIndex keyIdx = new StatementMappingIndex(keyMapping);
+        keyIdx.setColumnPositions(keyResultCols);
+        iterStmt.setKeyMapIndex(keyIdx);
+        StatementMappingIndex valueIdx = new StatementMappingIndex(valueMapping);
+        valueIdx.setColumnPositions(valueResultCols);
+        iterStmt.setValueMapIndex(valueIdx);
+        return iterStmt;
     }
 
     /**
@@ -500,6 +500,24 @@ public class SelectStatement extends SQLStatement
         setOrdering(exprs, descending, null);
     }
 
+    /**
+     * Accessor for the ordering expressions (if any).
+     * @return The ordering expressions
+     */
+    public SQLExpression[] getOrderingExpressions()
+    {
+        return orderingExpressions;
+    }
+
+    /**
+     * Accessor for whether each ordering expression is descending (if any ordering).
+     * @return The ordering directions
+     */
+    public boolean[] getOrderingDirections()
+    {
+        return orderingDirections;
+    }
+
     /**
      * Mutator for the ordering criteria.
      * @param exprs The expressions to order by
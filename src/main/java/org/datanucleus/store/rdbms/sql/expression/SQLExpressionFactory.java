@@ -17,11 +17,11 @@ Contributors:
 **********************************************************************/
 package org.datanucleus.store.rdbms.sql.expression;
 
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.datanucleus.ClassLoaderResolver;
 import org.datanucleus.exceptions.ClassNotResolvedException;
@@ -59,25 +59,31 @@ public class SQLExpressionFactory
         new Class[] {SQLStatement.class, JavaTypeMapping.class, Object.class, String.class};
 
     /** Cache of expression class, keyed by the mapping class name. */
-    Map<String, Class> expressionClassByMappingName = new HashMap();
+    Map<String, Class> expressionClassByMappingName = new ConcurrentHashMap<>();
 
     /** Cache of literal class, keyed by the mapping class name. */
-    Map<String, Class> literalClassByMappingName = new HashMap();
+    Map<String, Class> literalClassByMappingName = new ConcurrentHashMap<>();
 
     /** Names of methods that are supported. */
     Set<MethodKey> methodNamesSupported = new HashSet<>();
 
-    /** Cache of already created SQLMethod instances, keyed by their class+method[+datastore] name. */
-    Map<MethodKey, SQLMethod> methodByClassMethodName = new HashMap<>();
+    /** SQLMethod instances registered by the user via registerMethod, keyed by their class+method[+datastore] name. */
+    Map<MethodKey, SQLMethod> methodByClassMethodName = new ConcurrentHashMap<>();
+
+    /**
+     * Cache of the SQLMethod classes already loaded from the plugin mechanism, keyed by their class+method[+datastore] name.
+     * SQLMethods hold the statement they are being invoked for, so a new instance is created for each invocation.
+     */
+    Map<MethodKey, Class<? extends SQLMethod>> methodClassByClassMethodName = new ConcurrentHashMap<>();
 
     /** Names of operations that are supported. */
     Set<String> operationNamesSupported = new HashSet<>();
 
-    /** Cache of already created SQLOperation instances, keyed by their name. */
-    Map<String, SQLOperation> operationByOperationName = new HashMap<>();
+    /** Cache of already created SQLOperation instances, keyed by their name. These hold no per-invocation state so are shared. */
+    Map<String, SQLOperation> operationByOperationName = new ConcurrentHashMap<>();
 
     /** Map of JavaTypeMapping for use in query expressions, keyed by the type being represented. */
-    Map<Class, JavaTypeMapping> mappingByClass = new HashMap<>();
+    Map<Class, JavaTypeMapping> mappingByClass = new ConcurrentHashMap<>();
 
     private class MethodKey
     {
@@ -300,11 +306,18 @@ public class SQLExpressionFactory
         SQLMethod method = getMethod(className, methodName, args);
         if (method != null)
         {
-            synchronized (method) // Only permit sole usage at any time
+            if (!methodByClassMethodName.isEmpty() && methodByClassMethodName.containsValue(method))
             {
-                method.setStatement(stmt);
-                return method.getExpression(expr, args);
+                // User-registered instance is shared, so only permit sole usage at any time
+                synchronized (method)
+                {
+                    method.setStatement(stmt);
+                    return method.getExpression(expr, args);
+                }
             }
+
+            method.setStatement(stmt);
+            return method.getExpression(expr, args);
         }
         return null;
     }
@@ -356,6 +369,8 @@ public class SQLExpressionFactory
      * Throws a NucleusException is the method is not supported.
      * Note that if the class name passed in is not for a listed class with that method defined then
      * will check all remaining defined methods for a superclass. TODO Make more efficient lookups
+     * SQLMethods defined via the plugin mechanism are returned as a new instance for each call, so that concurrent
+     * query compilations don't share the statement state; SQLMethods registered via registerMethod are returned as is.
      * @param className Class we are invoking the method on
      * @param methodName Name of the method
      * @param args Any arguments to the method call (ignored currently) TODO Check the arguments
@@ -368,12 +383,12 @@ public class SQLExpressionFactory
         // Try to find datastore-dependent evaluator for class+method
         MethodKey methodKey1 = getSQLMethodKey(datastoreId, className, methodName);
         MethodKey methodKey2 = null;
-        SQLMethod method = methodByClassMethodName.get(methodKey1);
+        SQLMethod method = getMethodForKey(methodKey1);
         if (method == null)
         {
             // Try to find datastore-independent evaluator for class+method
             methodKey2 = getSQLMethodKey(null, className, methodName);
-            method = methodByClassMethodName.get(methodKey2);
+            method = getMethodForKey(methodKey2);
         }
         if (method != null)
         {
@@ -412,7 +427,7 @@ public class SQLExpressionFactory
                             if (methodCls != null && methodCls.isAssignableFrom(cls))
                             {
                                 // This one is usable here, for superclass
-                                method = methodByClassMethodName.get(methodKey);
+                                method = getMethodForKey(methodKey);
                                 if (method != null)
                                 {
                                     return method;
@@ -445,7 +460,7 @@ public class SQLExpressionFactory
                                 if (methodCls != null && methodCls.isAssignableFrom(cls))
                                 {
                                     // This one is usable here, for superclass
-                                    method = methodByClassMethodName.get(methodKey);
+                                    method = getMethodForKey(methodKey);
                                     if (method != null)
                                     {
                                         return method;
@@ -484,9 +499,9 @@ public class SQLExpressionFactory
             method = (SQLMethod)pluginMgr.createExecutableExtension("org.datanucleus.store.rdbms.sql_method", 
                 attrNames, attrValues, "evaluator", new Class[]{}, new Object[]{});
 
-            // Register the method
+            // Register the method class, for creating further instances
             MethodKey key = getSQLMethodKey(datastoreDependent ? datastoreId : null, className, methodName);
-            methodByClassMethodName.put(key, method);
+            methodClassByClassMethodName.put(key, method.getClass());
 
             return method;
         }
@@ -496,6 +511,34 @@ public class SQLExpressionFactory
         }
     }
 
+    /**
+     * Convenience method to return the SQLMethod for the specified key, if already registered or loaded.
+     * @param methodKey The key
+     * @return The SQLMethod (a new instance when loaded from the plugin mechanism), or null if not yet known
+     */
+    private SQLMethod getMethodForKey(MethodKey methodKey)
+    {
+        SQLMethod method = methodByClassMethodName.get(methodKey);
+        if (method != null)
+        {
+            return method;
+        }
+
+        Class<? extends SQLMethod> methodCls = methodClassByClassMethodName.get(methodKey);
+        if (methodCls != null)
+        {
+            try
+            {
+                return methodCls.newInstance();
+            }
+            catch (Exception e)
+            {
+                throw new NucleusUserException(Localiser.msg("060011", "class=" + methodKey.clsName + " method=" + methodKey.methodName), e);
+            }
+        }
+        return null;
+    }
+
     /**
      * Accessor for the result of an operation call on the supplied expression with the supplied args.
      * Throws a NucleusException is the method is not supported.
@@ -541,11 +584,10 @@ public class SQLExpressionFactory
             operation = (SQLOperation)pluginMgr.createExecutableExtension("org.datanucleus.store.rdbms.sql_operation", 
                 attrNames, attrValues, "evaluator", null, null);
             operation.setExpressionFactory(this);
-            synchronized (operation)
-            {
-                operationByOperationName.put(key, operation);
-                return operation.getExpression(expr, expr2);
-            }
+
+            // Cache under the name used for lookup; the datastore is fixed for this factory
+            operationByOperationName.put(name, operation);
+            return operation.getExpression(expr, expr2);
         }
         catch (Exception e)
         {
@@ -601,7 +643,10 @@ public class SQLExpressionFactory
             }
         }
         mapping = storeMgr.getMappingManager().getMappingWithDatastoreMapping(cls, false, false, clr);
-        mappingByClass.put(cls, mapping);
+        if (mapping != null)
+        {
+            mappingByClass.put(cls, mapping);
+        }
         return mapping;
     }
 }
\ No newline at end of file
@@ -20,7 +20,9 @@ package org.datanucleus.store.rdbms.table;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.datanucleus.ClassLoaderResolver;
 import org.datanucleus.metadata.AbstractClassMetaData;
@@ -37,6 +39,7 @@ import org.datanucleus.store.rdbms.key.CandidateKey;
 import org.datanucleus.store.rdbms.key.ForeignKey;
 import org.datanucleus.store.rdbms.key.Index;
 import org.datanucleus.store.rdbms.mapping.java.JavaTypeMapping;
+import org.datanucleus.store.rdbms.mapping.java.PersistableMapping;
 import org.datanucleus.store.rdbms.mapping.java.ReferenceMapping;
 
 /**
@@ -140,6 +143,62 @@ public class TableUtils
         return null;
     }
 
+    /**
+     * Convenience method to find the tables that rows of the specified table can reference. These are the tables of any related
+     * persistable types held in columns of this table (whether or not a foreign key constraint exists), the superclass tables, and the
+     * primary table of a secondary table.
+     * @param table The table
+     * @param clr ClassLoader resolver
+     * @return The referenced tables, or null if they can't all be determined (e.g a related type using "subclass-table")
+     */
+    public static Set<Table> getReferencedTables(DatastoreClass table, ClassLoaderResolver clr)
+    {
+        RDBMSStoreManager storeMgr = table.getStoreManager();
+        Set<Table> referencedTables = new HashSet<>();
+        DatastoreClass superTable = table.getSuperDatastoreClass();
+        while (superTable != null)
+        {
+            referencedTables.add(superTable);
+            superTable = superTable.getSuperDatastoreClass();
+        }
+        if (table instanceof SecondaryDatastoreClass)
+        {
+            referencedTables.add(((SecondaryDatastoreClass)table).getPrimaryDatastoreClass());
+        }
+
+        for (org.datanucleus.store.schema.table.Column col : table.getColumns())
+        {
+            JavaTypeMapping mapping = ((Column)col).getJavaTypeMapping();
+            JavaTypeMapping[] relatedMappings = null;
+            if (mapping instanceof ReferenceMapping)
+            {
+                relatedMappings = ((ReferenceMapping)mapping).getJavaTypeMapping();
+            }
+            else if (mapping instanceof PersistableMapping)
+            {
+                relatedMappings = new JavaTypeMapping[] {mapping};
+            }
+
+            if (relatedMappings != null)
+            {
+                for (JavaTypeMapping relatedMapping : relatedMappings)
+                {
+                    DatastoreClass referencedTable = storeMgr.getDatastoreClass(relatedMapping.getType(), clr);
+                    if (referencedTable == null)
+                    {
+                        // Related type has no table of its own so we can't tell which tables its objects are in
+                        return null;
+                    }
+                    if (referencedTable != table)
+                    {
+                        referencedTables.add(referencedTable);
+                    }
+                }
+            }
+        }
+        return referencedTables;
+    }
+
     /**
      * Convenience method to create an Index for a field.
      * @param table Container for the index
@@ -18,24 +18,71 @@ Contributors:
 **********************************************************************/
 package org.datanucleus.store.rdbms.valuegenerator;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
+import org.datanucleus.PropertyNames;
 import org.datanucleus.store.connection.ManagedConnection;
+import org.datanucleus.store.rdbms.RDBMSPropertyNames;
+import org.datanucleus.store.rdbms.RDBMSStoreManager;
 import org.datanucleus.store.valuegenerator.AbstractDatastoreGenerator;
 import org.datanucleus.store.valuegenerator.ValueGenerationBlock;
+import org.datanucleus.store.valuegenerator.ValueGenerationConnectionProvider;
 import org.datanucleus.store.valuegenerator.ValueGenerationException;
+import org.datanucleus.transaction.TransactionUtils;
 import org.datanucleus.util.Localiser;
 import org.datanucleus.util.NucleusLogger;
 
 /**
  * Abstract representation of a ValueGenerator for RDBMS datastores.
  * Builds on the base AbstractValueGenerator, and providing datastore connection and StoreManager information.
+ * <p>
+ * Where the generator supports it, values are reserved as a range of long values (next value, end, increment) and handed out
+ * from this range, so no block of values is created other than when one is explicitly requested via
+ * {@link #obtainGenerationBlock(int)}.
+ * <p>
+ * Where the generator supports ranges, and the persistence property "datanucleus.rdbms.valuegeneration.prefetchThreshold" is set,
+ * the next range of values is reserved in the background (using its own connection) when the number of values remaining in the
+ * current range drops to the threshold, so that the calling thread need not wait for the datastore when the range is exhausted.
+ * <p>
+ * Where the generator supports it, and the persistence property "datanucleus.rdbms.valuegeneration.stripes" is greater than 1,
+ * values are handed out from a number of stripes, with each calling thread using the stripe for its thread id. Each stripe takes
+ * a sub-range of the current block when it runs out, so only these refills synchronise on the generator. Values are then unique
+ * but no longer strictly increasing across threads, hence this is not the default.
  */
 public abstract class AbstractRDBMSGenerator<T> extends AbstractDatastoreGenerator<T>
 {
     /** Connection to the datastore. */
     protected ManagedConnection connection;
 
+    /** Lock held while reserving values, since the connection is shared by the calling thread and any background reservation. */
+    protected final Object blockLock = new Object();
+
+    /** Next value of the current range, when the generator supports ranges. */
+    protected long rangeNext = 0;
+
+    /** End (exclusive) of the current range. The range is exhausted when the next value reaches it. */
+    protected long rangeEnd = 0;
+
+    /** Increment between consecutive values of the current range. */
+    protected long rangeIncrement = 1;
+
+    /** The last value handed out from a range, or null if none yet. */
+    protected T currentValue = null;
+
+    /** Number of remaining values at which to reserve the next range in the background (0 = no prefetch). Set on first use. */
+    protected Integer prefetchThreshold = null;
+
+    /** Reservation of the next range in the background, if one is in progress or not yet taken. */
+    protected Future<ValueRange> prefetchedRange = null;
+
+    /** Stripes that values are handed out from, when striping. Empty when not striping, and null until first used. */
+    private volatile ValueStripe[] stripes = null;
+
     /**
      * Constructor.
      * @param name Symbolic name for the generator
@@ -56,14 +103,330 @@ public abstract class AbstractRDBMSGenerator<T> extends AbstractDatastoreGenerat
         return true;
     }
 
+    /**
+     * Whether this generator reserves its values as a range of long values, using {@link #reserveRange(long)}.
+     * @return Whether ranges are supported
+     */
+    protected boolean supportsRange()
+    {
+        return false;
+    }
+
+    /**
+     * Method to reserve a range of values in the datastore, for generators that support ranges.
+     * Uses the connection of this generator.
+     * @param size Number of values
+     * @return The reserved range
+     */
+    protected ValueRange reserveRange(long size)
+    {
+        throw new UnsupportedOperationException("Generator " + getName() + " doesn't reserve ranges of values");
+    }
+
+    /**
+     * Whether this generator can reserve its next range in the background. Only applies to generators where reserving a range
+     * doesn't depend on the values already used (so not for "max" for example).
+     * @return Whether prefetch of ranges is supported
+     */
+    protected boolean supportsPrefetch()
+    {
+        return false;
+    }
+
+    /**
+     * Accessor for whether this generator is reserving its next block in the background.
+     * @return Whether prefetching blocks
+     */
+    protected boolean isPrefetching()
+    {
+        if (prefetchThreshold == null)
+        {
+            int threshold = 0;
+            if (supportsRange() && supportsPrefetch() && ((RDBMSStoreManager)storeMgr).isNewConnectionForGenerator(this))
+            {
+                // Only when using a new connection, since a range reserved in the ExecutionContext connection can't be moved to another
+                threshold = storeMgr.getIntProperty(RDBMSPropertyNames.PROPERTY_RDBMS_VALUEGEN_PREFETCH_THRESHOLD);
+            }
+            prefetchThreshold = threshold;
+        }
+        return prefetchThreshold > 0;
+    }
+
+    /* (non-Javadoc)
+     * @see org.datanucleus.store.valuegenerator.AbstractValueGenerator#next()
+     */
+    @Override
+    public synchronized T next()
+    {
+        if (!supportsRange())
+        {
+            return super.next();
+        }
+
+        if (rangeNext == rangeEnd)
+        {
+            setRange(obtainRange(-1));
+        }
+        currentValue = (T)Long.valueOf(rangeNext);
+        rangeNext += rangeIncrement;
+        if (prefetchedRange == null && isPrefetching() && (rangeEnd - rangeNext) / rangeIncrement <= prefetchThreshold)
+        {
+            prefetchedRange = ((RDBMSStoreManager)storeMgr).getValueGenerationExecutor().submit(new Callable<ValueRange>()
+            {
+                public ValueRange call()
+                {
+                    return obtainRangeInBackground();
+                }
+            });
+        }
+        return currentValue;
+    }
+
+    /* (non-Javadoc)
+     * @see org.datanucleus.store.valuegenerator.AbstractValueGenerator#current()
+     */
+    @Override
+    public synchronized T current()
+    {
+        if (!supportsRange())
+        {
+            return super.current();
+        }
+        return currentValue;
+    }
+
+    /* (non-Javadoc)
+     * @see org.datanucleus.store.valuegenerator.AbstractValueGenerator#allocate(int)
+     */
+    @Override
+    public synchronized void allocate(int additional)
+    {
+        if (!supportsRange())
+        {
+            super.allocate(additional);
+            return;
+        }
+
+        ValueRange range = obtainRange(additional);
+        if (rangeNext != rangeEnd && range.start == rangeEnd && range.increment == rangeIncrement)
+        {
+            // Continues the current range
+            rangeEnd = range.end;
+        }
+        else
+        {
+            // Any values remaining in the current range are not used
+            setRange(range);
+        }
+    }
+
+    /**
+     * Method to make the supplied range the current range, handing out values from its start.
+     * @param range The range
+     */
+    private void setRange(ValueRange range)
+    {
+        rangeNext = range.start;
+        rangeEnd = range.end;
+        rangeIncrement = range.increment;
+    }
+
+    /**
+     * Whether this generator can hand out its values from stripes. Only applies to generators whose values remain unique
+     * when taken out of order, and that reserve them independently of the ExecutionContext.
+     * @return Whether striping is supported
+     */
+    protected boolean supportsStriping()
+    {
+        return false;
+    }
+
+    /**
+     * Accessor for the next value, using the supplied connection provider if more values need reserving.
+     * Only synchronises on this generator when not striping, or when the stripe of the calling thread needs refilling.
+     * @param connProvider Provider for the connection of the calling ExecutionContext
+     * @return The next value
+     */
+    public T next(ValueGenerationConnectionProvider connProvider)
+    {
+        ValueStripe[] valueStripes = getStripes();
+        if (valueStripes.length == 0)
+        {
+            synchronized (this)
+            {
+                setConnectionProvider(connProvider);
+                return next();
+            }
+        }
+
+        ValueStripe stripe = valueStripes[(int)(Thread.currentThread().getId() % valueStripes.length)];
+        synchronized (stripe)
+        {
+            if (stripe.position == stripe.values.length)
+            {
+                synchronized (this)
+                {
+                    setConnectionProvider(connProvider);
+                    for (int i=0;i<stripe.values.length;i++)
+                    {
+                        stripe.values[i] = next();
+                    }
+                }
+                stripe.position = 0;
+            }
+            return (T)stripe.values[stripe.position++];
+        }
+    }
+
+    /**
+     * Accessor for the stripes to hand out values from, creating them on first use.
+     * @return The stripes (empty when not striping)
+     */
+    private ValueStripe[] getStripes()
+    {
+        ValueStripe[] valueStripes = stripes;
+        if (valueStripes == null)
+        {
+            synchronized (this)
+            {
+                if (stripes == null)
+                {
+                    int numStripes = 0;
+                    if (supportsStriping() && ((RDBMSStoreManager)storeMgr).isNewConnectionForGenerator(this))
+                    {
+                        // Only when using a new connection, since values reserved in one ExecutionContext connection could be rolled back
+                        numStripes = storeMgr.getIntProperty(RDBMSPropertyNames.PROPERTY_RDBMS_VALUEGEN_STRIPES);
+                    }
+                    if (numStripes > 1)
+                    {
+                        int stripeSize = Math.max(1, allocationSize / numStripes);
+                        stripes = new ValueStripe[numStripes];
+                        for (int i=0;i<numStripes;i++)
+                        {
+                            stripes[i] = new ValueStripe(stripeSize);
+                        }
+                    }
+                    else
+                    {
+                        stripes = new ValueStripe[0];
+                    }
+                }
+                valueStripes = stripes;
+            }
+        }
+        return valueStripes;
+    }
+
+    /**
+     * Sub-range of values taken from the current block, for handing out to the threads using this stripe.
+     */
+    private static class ValueStripe
+    {
+        final Object[] values;
+        int position;
+
+        ValueStripe(int size)
+        {
+            values = new Object[size];
+            position = size;
+        }
+    }
+
     /**
      * Get a new PoidBlock with the specified number of ids.
+     * For a generator that supports ranges the values are reserved as a range, and the block created from it.
      * @param number The number of additional ids required
      * @return the PoidBlock
      */
     protected ValueGenerationBlock<T> obtainGenerationBlock(int number)
     {
-        ValueGenerationBlock<T> block = null;
+        if (supportsRange())
+        {
+            return (ValueGenerationBlock<T>)obtainRange(number).toBlock();
+        }
+
+        synchronized (blockLock)
+        {
+            return (ValueGenerationBlock<T>)obtainValues(number, connectionProvider);
+        }
+    }
+
+    /**
+     * Get a new range with the specified number of values, for a generator that supports ranges.
+     * Uses the range reserved in the background when one is available.
+     * @param number The number of values required (-1 for the allocation size)
+     * @return The range
+     */
+    protected ValueRange obtainRange(int number)
+    {
+        ValueRange range = null;
+        if (number < 0 && prefetchedRange != null)
+        {
+            try
+            {
+                range = prefetchedRange.get();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                NucleusLogger.VALUEGENERATION.warn(Localiser.msg("061002", getName(), e));
+            }
+            catch (ExecutionException e)
+            {
+                NucleusLogger.VALUEGENERATION.warn(Localiser.msg("061002", getName(), e.getCause()));
+            }
+            prefetchedRange = null;
+        }
+
+        if (range == null)
+        {
+            synchronized (blockLock)
+            {
+                range = (ValueRange)obtainValues(number, connectionProvider);
+            }
+        }
+        return range;
+    }
+
+    /**
+     * Method to reserve a range of values in a background thread, using its own connection.
+     * @return The range
+     */
+    protected ValueRange obtainRangeInBackground()
+    {
+        final RDBMSStoreManager srm = (RDBMSStoreManager)storeMgr;
+        ValueGenerationConnectionProvider connProvider = new ValueGenerationConnectionProvider()
+        {
+            ManagedConnection mconn;
+            public ManagedConnection retrieveConnection()
+            {
+                mconn = srm.getConnection(TransactionUtils.getTransactionIsolationLevelForName(srm.getStringProperty(PropertyNames.PROPERTY_VALUEGEN_TXN_ISOLATION)));
+                return mconn;
+            }
+
+            public void releaseConnection()
+            {
+                mconn.release();
+                mconn = null;
+            }
+        };
+
+        synchronized (blockLock)
+        {
+            return (ValueRange)obtainValues(-1, connProvider);
+        }
+    }
+
+    /**
+     * Reserve the specified number of ids, using the supplied connection provider.
+     * Must be called holding the block lock.
+     * @param number The number of additional ids required
+     * @param connProvider Provider for the connection
+     * @return The range when the generator supports ranges, otherwise the PoidBlock
+     */
+    private Object obtainValues(int number, ValueGenerationConnectionProvider connProvider)
+    {
+        Object block = null;
 
         // Try getting the block
         boolean repository_exists=true; // TODO Ultimately this can be removed when "repositoryExists()" is implemented
@@ -71,7 +434,7 @@ public abstract class AbstractRDBMSGenerator<T> extends AbstractDatastoreGenerat
         {
             if (requiresConnection())
             {
-                connection = connectionProvider.retrieveConnection();
+                connection = connProvider.retrieveConnection();
             }
 
             if (requiresRepository() && !repositoryExists)
@@ -89,11 +452,11 @@ public abstract class AbstractRDBMSGenerator<T> extends AbstractDatastoreGenerat
             {
                 if (number < 0)
                 {
-                    block = reserveBlock();
+                    block = supportsRange() ? reserveRange(allocationSize) : reserveBlock();
                 }
                 else
                 {
-                    block = reserveBlock(number);
+                    block = supportsRange() ? reserveRange(number) : reserveBlock(number);
                 }
             }
             catch (ValueGenerationException vge)
@@ -137,7 +500,7 @@ public abstract class AbstractRDBMSGenerator<T> extends AbstractDatastoreGenerat
         {
             if (connection != null && requiresConnection())
             {
-                connectionProvider.releaseConnection();
+                connProvider.releaseConnection();
                 connection = null;
             }
         }
@@ -149,7 +512,7 @@ public abstract class AbstractRDBMSGenerator<T> extends AbstractDatastoreGenerat
             {
                 if (requiresConnection())
                 {
-                    connection = connectionProvider.retrieveConnection();
+                    connection = connProvider.retrieveConnection();
                 }
 
                 NucleusLogger.VALUEGENERATION.info(Localiser.msg("040005"));
@@ -160,22 +523,59 @@ public abstract class AbstractRDBMSGenerator<T> extends AbstractDatastoreGenerat
 
                 if (number < 0)
                 {
-                    block = reserveBlock();
+                    block = supportsRange() ? reserveRange(allocationSize) : reserveBlock();
                 }
                 else
                 {
-                    block = reserveBlock(number);
+                    block = supportsRange() ? reserveRange(number) : reserveBlock(number);
                 }
             }
             finally
             {
                 if (requiresConnection())
                 {
-                    connectionProvider.releaseConnection();
+                    connProvider.releaseConnection();
                     connection = null;
                 }
             }
         }
         return block;
     }
+
+    /**
+     * Range of long values reserved in the datastore, defined by its first value, end (exclusive) and increment.
+     */
+    protected static final class ValueRange
+    {
+        final long start;
+        final long end;
+        final long increment;
+
+        /**
+         * Constructor for a range of values.
+         * @param start First value
+         * @param size Number of values
+         * @param increment Increment between consecutive values
+         */
+        public ValueRange(long start, long size, long increment)
+        {
+            this.start = start;
+            this.end = start + size * increment;
+            this.increment = increment;
+        }
+
+        /**
+         * Method to create a block containing the values of this range.
+         * @return The block
+         */
+        ValueGenerationBlock<Long> toBlock()
+        {
+            List<Long> values = new ArrayList<>((int)((end - start) / increment));
+            for (long value = start; value != end; value += increment)
+            {
+                values.add(value);
+            }
+            return new ValueGenerationBlock<>(values);
+        }
+    }
 }
\ No newline at end of file
@@ -25,8 +25,6 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Properties;
 
 import org.datanucleus.exceptions.NucleusUserException;
@@ -99,7 +97,19 @@ public final class SequenceGenerator extends AbstractRDBMSGenerator<Long>
      * @param size Block size
      * @return The reserved block
      */
-    protected synchronized ValueGenerationBlock<Long> reserveBlock(long size)
+    protected ValueGenerationBlock<Long> reserveBlock(long size)
+    {
+        ValueRange range = reserveRange(size);
+        return (range != null) ? range.toBlock() : null;
+    }
+
+    /**
+     * Reserve a range of ids.
+     * @param size Number of ids
+     * @return The reserved range
+     */
+    @Override
+    protected ValueRange reserveRange(long size)
     {
         if (size < 1)
         {
@@ -108,7 +118,6 @@ public final class SequenceGenerator extends AbstractRDBMSGenerator<Long>
 
         PreparedStatement ps = null;
         ResultSet rs = null;
-        List oid = new ArrayList();
         RDBMSStoreManager srm = (RDBMSStoreManager)storeMgr;
         SQLController sqlControl = srm.getSQLController();
         try
@@ -120,24 +129,18 @@ public final class SequenceGenerator extends AbstractRDBMSGenerator<Long>
             ps = sqlControl.getStatementForQuery(connection, stmt);
             rs = sqlControl.executeStatementQuery(null, connection, stmt, ps);
  
-            Long nextId = Long.valueOf(0);
+            long nextId = 0;
             if (rs.next())
             {
-                nextId = Long.valueOf(rs.getLong(1));
-                oid.add(nextId);
-            }
-            for (int i=1; i<size; i++)
-            {
-                // size must match key-increment-by otherwise it will
-                // cause duplicates keys
-                nextId = Long.valueOf(nextId.longValue()+1);
-                oid.add(nextId);
+                nextId = rs.getLong(1);
             }
+
+            // size must match key-increment-by otherwise it will cause duplicates keys
             if (NucleusLogger.VALUEGENERATION.isDebugEnabled())
             {
                 NucleusLogger.VALUEGENERATION.debug(Localiser.msg("040004", "" + size));
             }
-            return new ValueGenerationBlock<>(oid);
+            return new ValueRange(nextId, size, 1);
         }
         catch (SQLException e)
         {
@@ -163,6 +166,33 @@ public final class SequenceGenerator extends AbstractRDBMSGenerator<Long>
         }
     }
 
+    /* (non-Javadoc)
+     * @see org.datanucleus.store.rdbms.valuegenerator.AbstractRDBMSGenerator#supportsRange()
+     */
+    @Override
+    protected boolean supportsRange()
+    {
+        return true;
+    }
+
+    /* (non-Javadoc)
+     * @see org.datanucleus.store.rdbms.valuegenerator.AbstractRDBMSGenerator#supportsPrefetch()
+     */
+    @Override
+    protected boolean supportsPrefetch()
+    {
+        return true;
+    }
+
+    /* (non-Javadoc)
+     * @see org.datanucleus.store.rdbms.valuegenerator.AbstractRDBMSGenerator#supportsStriping()
+     */
+    @Override
+    protected boolean supportsStriping()
+    {
+        return true;
+    }
+
     /**
      * Accessor for the sequence name to use (fully qualified with catalog/schema).
      * @return The sequence name
@@ -22,8 +22,6 @@ package org.datanucleus.store.rdbms.valuegenerator;
 
 import java.sql.Connection;
 import java.sql.SQLException;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Properties;
 
 import org.datanucleus.exceptions.NucleusUserException;
@@ -165,6 +163,18 @@ public final class TableGenerator extends AbstractRDBMSGenerator<Long>
      * @return The reserved block
      */
     public ValueGenerationBlock<Long> reserveBlock(long size)
+    {
+        ValueRange range = reserveRange(size);
+        return (range != null) ? range.toBlock() : null;
+    }
+
+    /**
+     * Method to reserve a range of "size" identities.
+     * @param size Number of identities
+     * @return The reserved range
+     */
+    @Override
+    protected ValueRange reserveRange(long size)
     {
         if (size < 1)
         {
@@ -172,7 +182,6 @@ public final class TableGenerator extends AbstractRDBMSGenerator<Long>
         }
 
         // search for an ID in the database
-        List<Long> oid = new ArrayList<>();
         try
         {
             if (sequenceTable == null)
@@ -187,16 +196,11 @@ public final class TableGenerator extends AbstractRDBMSGenerator<Long>
                 // TODO Apply passed in catalog/schema to this identifier rather than the default for the factory
             }
             Long nextId = sequenceTable.getNextVal(sequenceName, connection, (int)size, sourceTableIdentifier, properties.getProperty(ValueGenerator.PROPERTY_COLUMN_NAME), initialValue);
-            for (int i=0; i<size; i++)
-            {
-                oid.add(nextId);
-                nextId = Long.valueOf(nextId.longValue()+1);
-            }
             if (NucleusLogger.VALUEGENERATION.isDebugEnabled())
             {
                 NucleusLogger.VALUEGENERATION.debug(Localiser.msg("040004", "" + size));
             }
-            return new ValueGenerationBlock<>(oid);
+            return new ValueRange(nextId.longValue(), size, 1);
         }
         catch (SQLException e)
         {
@@ -204,6 +208,33 @@ public final class TableGenerator extends AbstractRDBMSGenerator<Long>
         }
     }
 
+    /* (non-Javadoc)
+     * @see org.datanucleus.store.rdbms.valuegenerator.AbstractRDBMSGenerator#supportsRange()
+     */
+    @Override
+    protected boolean supportsRange()
+    {
+        return true;
+    }
+
+    /* (non-Javadoc)
+     * @see org.datanucleus.store.rdbms.valuegenerator.AbstractRDBMSGenerator#supportsPrefetch()
+     */
+    @Override
+    protected boolean supportsPrefetch()
+    {
+        return true;
+    }
+
+    /* (non-Javadoc)
+     * @see org.datanucleus.store.rdbms.valuegenerator.AbstractRDBMSGenerator#supportsStriping()
+     */
+    @Override
+    protected boolean supportsStriping()
+    {
+        return true;
+    }
+
     /**
      * Indicator for whether the generator requires its own repository.
      * This class needs a repository so returns true.
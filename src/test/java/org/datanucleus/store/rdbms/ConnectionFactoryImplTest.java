@@ -0,0 +1,113 @@
+/**********************************************************************
+Copyright (c) 2026 DataNucleus contributors. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+package org.datanucleus.store.rdbms;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for finding the physical connection underlying the connection returned by a pool, which the state of the connection
+ * is cached against by {@link ConnectionFactoryImpl} when caching connection state.
+ */
+public class ConnectionFactoryImplTest extends TestCase
+{
+    /**
+     * Connection of a pool providing its innermost delegate (as DBCP does).
+     */
+    public interface DelegatingConnection extends Connection
+    {
+        Connection getInnermostDelegate();
+    }
+
+    public void testInnermostDelegate()
+    {
+        Connection physicalCnx = newConnection(null);
+        assertSame(physicalCnx, ConnectionFactoryImpl.getPhysicalConnection(newDelegatingConnection(physicalCnx, null)));
+    }
+
+    /**
+     * When the pool doesn't allow access to the innermost delegate it is null, so the connection is unwrapped.
+     */
+    public void testInnermostDelegateNotAllowed()
+    {
+        Connection physicalCnx = newConnection(null);
+        assertSame(physicalCnx, ConnectionFactoryImpl.getPhysicalConnection(newDelegatingConnection(null, physicalCnx)));
+        assertNull(ConnectionFactoryImpl.getPhysicalConnection(newDelegatingConnection(null, null)));
+    }
+
+    public void testUnwrap()
+    {
+        Connection physicalCnx = newConnection(null);
+        assertSame(physicalCnx, ConnectionFactoryImpl.getPhysicalConnection(newConnection(physicalCnx)));
+    }
+
+    /**
+     * A connection that unwraps to itself (a pool wrapper, or a connection that isn't pooled) has no physical connection
+     * to keep the state against.
+     */
+    public void testUnwrapToSelf()
+    {
+        assertNull(ConnectionFactoryImpl.getPhysicalConnection(newConnection(null)));
+    }
+
+    /**
+     * Create a stub connection that unwraps to the specified connection, or to itself when null.
+     */
+    static Connection newConnection(final Connection unwrapped)
+    {
+        return StubProxies.newProxy(Connection.class, new UnwrapHandler(null, unwrapped));
+    }
+
+    static Connection newDelegatingConnection(Connection delegate, Connection unwrapped)
+    {
+        return StubProxies.newProxy(DelegatingConnection.class, new UnwrapHandler(delegate, unwrapped));
+    }
+
+    static class UnwrapHandler implements InvocationHandler
+    {
+        Connection delegate;
+        Connection unwrapped;
+
+        UnwrapHandler(Connection delegate, Connection unwrapped)
+        {
+            this.delegate = delegate;
+            this.unwrapped = unwrapped;
+        }
+
+        public Object invoke(Object proxy, Method method, Object[] args)
+        {
+            String name = method.getName();
+            if (name.equals("getInnermostDelegate"))
+            {
+                return delegate;
+            }
+            else if (name.equals("isWrapperFor"))
+            {
+                return Connection.class.equals(args[0]);
+            }
+            else if (name.equals("unwrap"))
+            {
+                return (unwrapped != null) ? unwrapped : proxy;
+            }
+            throw new UnsupportedOperationException(name);
+        }
+    }
+}
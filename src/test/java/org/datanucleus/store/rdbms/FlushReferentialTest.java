@@ -0,0 +1,219 @@
+/**********************************************************************
+Copyright (c) 2026 DataNucleus contributors. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+package org.datanucleus.store.rdbms;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+import org.datanucleus.ExecutionContext;
+import org.datanucleus.api.ApiAdapter;
+import org.datanucleus.exceptions.NucleusOptimisticException;
+import org.datanucleus.metadata.AbstractClassMetaData;
+import org.datanucleus.state.ObjectProvider;
+
+/**
+ * Tests for the grouping of new objects into rounds of INSERTs by {@link FlushReferential}, where the objects of a round have
+ * their related objects (via FK) flushed in earlier rounds, and the batched statements are processed after each round.
+ */
+public class FlushReferentialTest extends TestCase
+{
+    /** ObjectProvider of each managed object. */
+    Map<Object, ObjectProvider> objectProviders = new HashMap<Object, ObjectProvider>();
+
+    /** Related object (field 0) of each managed object, if any. */
+    Map<ObjectProvider, Object> relatedObjects = new HashMap<ObjectProvider, Object>();
+
+    /** ObjectProviders that are flushed. */
+    Set<ObjectProvider> flushedOPs = new HashSet<ObjectProvider>();
+
+    /** ObjectProviders flushed in each round, and the number of batch processings after each round. */
+    List<Object> flushLog = new ArrayList<Object>();
+
+    ExecutionContext ec = newExecutionContext();
+
+    TestFlushReferential flush = new TestFlushReferential();
+
+    /**
+     * A chain of objects (C relates to B, which relates to A) is inserted in one round per object, and the batches are processed
+     * after each round so the next round can refer to the objects inserted.
+     */
+    public void testChainInsertedInRounds()
+    {
+        ObjectProvider a = newObjectProvider(null);
+        ObjectProvider b = newObjectProvider(a);
+        ObjectProvider c = newObjectProvider(b);
+        List<ObjectProvider> primaryOPs = new ArrayList<ObjectProvider>(Arrays.asList(c, b, a));
+
+        assertNull(flush.flushNewObjectsWithRelatedObjectsFlushed(ec, primaryOPs, null));
+        assertEquals(Arrays.asList(set(a), "processed", set(b), "processed", set(c), "processed"), flushLog);
+        assertTrue(primaryOPs.isEmpty());
+    }
+
+    /**
+     * Objects whose related objects are flushed are inserted in the same round, whatever their list, and objects relating to
+     * an object that is not flushed or not managed are left for the ordered flush.
+     */
+    public void testObjectsGroupedIntoRound()
+    {
+        ObjectProvider flushed = newObjectProvider(null);
+        flushedOPs.add(flushed);
+        ObjectProvider a = newObjectProvider(null);
+        ObjectProvider b = newObjectProvider(flushed);
+        ObjectProvider c = newObjectProvider(b);
+        ObjectProvider unmanaged = newObjectProvider(new Object());
+        ObjectProvider notInserted = newObjectProvider(null);
+        ObjectProvider relatingToNotInserted = newObjectProvider(notInserted);
+
+        List<ObjectProvider> primaryOPs = new ArrayList<ObjectProvider>(Arrays.asList(c, a, unmanaged, relatingToNotInserted));
+        List<ObjectProvider> secondaryOPs = new ArrayList<ObjectProvider>(Arrays.asList(b, flushed));
+
+        assertNull(flush.flushNewObjectsWithRelatedObjectsFlushed(ec, primaryOPs, secondaryOPs));
+        assertEquals(Arrays.asList(set(a, b), "processed", set(c), "processed"), flushLog);
+        assertEquals(Arrays.asList(unmanaged, relatingToNotInserted), primaryOPs);
+        assertEquals("Flushed object should be left", Arrays.asList(flushed), secondaryOPs);
+    }
+
+    public void testNothingToInsert()
+    {
+        ObjectProvider flushed = newObjectProvider(null);
+        flushedOPs.add(flushed);
+        List<ObjectProvider> primaryOPs = new ArrayList<ObjectProvider>(Arrays.asList(flushed));
+
+        assertNull(flush.flushNewObjectsWithRelatedObjectsFlushed(ec, primaryOPs, null));
+        assertNull(flush.flushNewObjectsWithRelatedObjectsFlushed(ec, null, null));
+        assertTrue(flushLog.isEmpty());
+        assertEquals(1, primaryOPs.size());
+    }
+
+    /**
+     * FlushReferential with the metadata and datastore replaced by the relations of the test objects.
+     */
+    class TestFlushReferential extends FlushReferential
+    {
+        @Override
+        List<NucleusOptimisticException> flushGrouped(ExecutionContext ec, Set<ObjectProvider> ops)
+        {
+            flushLog.add(new HashSet<ObjectProvider>(ops));
+            flushedOPs.addAll(ops);
+            return null;
+        }
+
+        @Override
+        void processBatchedStatements(ExecutionContext ec)
+        {
+            flushLog.add("processed");
+        }
+
+        @Override
+        boolean isClassTablesSuitableForBatching(ExecutionContext ec, AbstractClassMetaData cmd)
+        {
+            return true;
+        }
+
+        @Override
+        int[] getRelatedObjectMemberPositions(ExecutionContext ec, AbstractClassMetaData cmd)
+        {
+            return new int[] {0};
+        }
+    }
+
+    static Set<ObjectProvider> set(ObjectProvider... ops)
+    {
+        return new HashSet<ObjectProvider>(Arrays.asList(ops));
+    }
+
+    /**
+     * Create a stub ObjectProvider for a new managed object.
+     * @param related ObjectProvider of the related object, or the related object when not managed (or null)
+     * @return The ObjectProvider
+     */
+    ObjectProvider newObjectProvider(Object related)
+    {
+        ObjectProvider op = StubProxies.newProxy(ObjectProvider.class, new InvocationHandler()
+        {
+            public Object invoke(Object proxy, Method method, Object[] args)
+            {
+                String name = method.getName();
+                if (name.equals("isEmbedded"))
+                {
+                    return false;
+                }
+                else if (name.equals("isWaitingToBeFlushedToDatastore"))
+                {
+                    return !flushedOPs.contains(proxy);
+                }
+                else if (name.equals("getClassMetaData"))
+                {
+                    return null;
+                }
+                else if (name.equals("provideField"))
+                {
+                    assertEquals(0, args[0]);
+                    return relatedObjects.get(proxy);
+                }
+                throw new UnsupportedOperationException(name);
+            }
+        });
+        // The ObjectProvider stands for its object
+        objectProviders.put(op, op);
+        if (related != null)
+        {
+            relatedObjects.put(op, related);
+        }
+        return op;
+    }
+
+    ExecutionContext newExecutionContext()
+    {
+        final ApiAdapter api = StubProxies.newProxy(ApiAdapter.class, new InvocationHandler()
+        {
+            public Object invoke(Object proxy, Method method, Object[] args)
+            {
+                if (method.getName().equals("isDetached"))
+                {
+                    return false;
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        });
+        return StubProxies.newProxy(ExecutionContext.class, new InvocationHandler()
+        {
+            public Object invoke(Object proxy, Method method, Object[] args)
+            {
+                if (method.getName().equals("getApiAdapter"))
+                {
+                    return api;
+                }
+                else if (method.getName().equals("findObjectProvider"))
+                {
+                    return objectProviders.get(args[0]);
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+}
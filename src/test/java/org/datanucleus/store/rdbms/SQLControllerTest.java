@@ -0,0 +1,393 @@
+/**********************************************************************
+Copyright (c) 2026 DataNucleus contributors. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+package org.datanucleus.store.rdbms;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.datanucleus.store.connection.ManagedConnection;
+import org.datanucleus.store.rdbms.SQLController.BatchDependencies;
+import org.datanucleus.store.rdbms.SQLController.GeneratedKeyCallback;
+import org.datanucleus.store.rdbms.table.Table;
+
+/**
+ * Tests for the batching of update statements by {@link SQLController}, using a stub JDBC connection that records the
+ * statements executed.
+ */
+public class SQLControllerTest extends TestCase
+{
+    static final String INSERT_A = "INSERT INTO A (ID,NAME) VALUES (?,?)";
+    static final String INSERT_B = "INSERT INTO B (NAME) VALUES (?)";
+    static final String INSERT_B_WITH_ID = "INSERT INTO B (ID,NAME) VALUES (?,?)";
+    static final String INSERT_C = "INSERT INTO C (ID,NAME) VALUES (?,?)";
+    static final String DELETE_A = "DELETE FROM A WHERE ID = ?";
+    static final String DELETE_B = "DELETE FROM B WHERE ID = ?";
+
+    /** Log of the JDBC calls made on the stub statements. */
+    List<String> log;
+
+    ManagedConnection mconn;
+
+    protected void setUp() throws Exception
+    {
+        log = new ArrayList<String>();
+        mconn = newManagedConnection(log);
+    }
+
+    public void testBatchedInsertsPendingUntilProcessed()
+        throws Exception
+    {
+        SQLController sqlControl = new SQLController(true, 50, 0, "jdbc");
+
+        PreparedStatement ps1 = sqlControl.getStatementForUpdate(mconn, INSERT_A, true);
+        assertNull(sqlControl.executeStatementUpdate(null, mconn, INSERT_A, ps1, false));
+        PreparedStatement ps2 = sqlControl.getStatementForUpdate(mconn, INSERT_A, true);
+        assertSame("Second INSERT should be added to the pending batch", ps1, ps2);
+        assertNull(sqlControl.executeStatementUpdate(null, mconn, INSERT_A, ps2, false));
+        assertEquals(Arrays.asList("addBatch " + INSERT_A, "addBatch " + INSERT_A), log);
+
+        sqlControl.processStatementsForConnection(mconn);
+        assertEquals(Arrays.asList("addBatch " + INSERT_A, "addBatch " + INSERT_A, "executeBatch(2) " + INSERT_A), log);
+    }
+
+    /**
+     * An INSERT into a table with an identity column is not batchable, since its identity is needed straight away. Any pending
+     * batch has to be processed before it, and it is executed immediately.
+     */
+    public void testIdentityInsertProcessesPendingBatchFirst()
+        throws Exception
+    {
+        SQLController sqlControl = new SQLController(true, 50, 0, "jdbc");
+
+        PreparedStatement ps1 = sqlControl.getStatementForUpdate(mconn, INSERT_A, true);
+        sqlControl.executeStatementUpdate(null, mconn, INSERT_A, ps1, false);
+
+        PreparedStatement ps2 = sqlControl.getStatementForUpdate(mconn, INSERT_B, false, true);
+        assertEquals(Arrays.asList("addBatch " + INSERT_A, "executeBatch(1) " + INSERT_A), log);
+
+        int[] counts = sqlControl.executeStatementUpdate(null, mconn, INSERT_B, ps2, true);
+        assertNotNull(counts);
+        assertEquals(1, counts[0]);
+        assertEquals("executeUpdate " + INSERT_B, log.get(log.size() - 1));
+    }
+
+    /**
+     * INSERTs into a table with an identity column can be batched when the generated keys of the batch are returned, with the
+     * key of each row passed to the callback of its INSERT once the batch is processed. Another statement may need these keys
+     * (e.g. as FK values) so the batch is processed before it.
+     */
+    public void testGeneratedKeysOfBatchPassedToCallbacks()
+        throws Exception
+    {
+        SQLController sqlControl = new SQLController(true, 50, 0, "jdbc");
+        final List<String> keys = new ArrayList<String>();
+        for (int i=0;i<2;i++)
+        {
+            final int row = i;
+            PreparedStatement ps = sqlControl.getStatementForUpdate(mconn, INSERT_B, true, true);
+            assertNull(sqlControl.executeStatementUpdate(null, mconn, INSERT_B, ps, false, null, new GeneratedKeyCallback()
+            {
+                public void generatedKeyAvailable(Object generatedKey)
+                {
+                    keys.add(row + "=" + generatedKey);
+                }
+            }));
+        }
+        assertTrue("Keys should not be available before the batch is processed", keys.isEmpty());
+
+        sqlControl.getStatementForUpdate(mconn, INSERT_A, true);
+        assertEquals(Arrays.asList("addBatch " + INSERT_B, "addBatch " + INSERT_B, "executeBatch(2) " + INSERT_B), log);
+        assertEquals(Arrays.asList("0=1", "1=2"), keys);
+    }
+
+    public void testBatchProcessedWhenLimitReached()
+        throws Exception
+    {
+        SQLController sqlControl = new SQLController(true, 2, 0, "jdbc");
+
+        for (int i=0;i<3;i++)
+        {
+            PreparedStatement ps = sqlControl.getStatementForUpdate(mconn, INSERT_A, true);
+            sqlControl.executeStatementUpdate(null, mconn, INSERT_A, ps, false);
+        }
+        assertEquals(Arrays.asList("addBatch " + INSERT_A, "addBatch " + INSERT_A, "executeBatch(2) " + INSERT_A, "addBatch " + INSERT_A), log);
+
+        sqlControl.processStatementsForConnection(mconn);
+        assertEquals("executeBatch(1) " + INSERT_A, log.get(log.size() - 1));
+    }
+
+    public void testBatchingDisabled()
+        throws Exception
+    {
+        SQLController sqlControl = new SQLController(true, 0, 0, "jdbc");
+
+        PreparedStatement ps = sqlControl.getStatementForUpdate(mconn, INSERT_A, true);
+        int[] counts = sqlControl.executeStatementUpdate(null, mconn, INSERT_A, ps, false);
+        assertNotNull(counts);
+        assertEquals(Arrays.asList("executeUpdate " + INSERT_A), log);
+    }
+
+    /**
+     * Statements for unrelated tables can be batched alongside each other, so alternating between them keeps batching, and the
+     * batches are executed in the order they were started.
+     */
+    public void testInterleavedStatementsKeepBatching()
+        throws Exception
+    {
+        SQLController sqlControl = new SQLController(true, 50, 5, 0, "jdbc");
+        Table tableA = newTable();
+        Table tableB = newTable();
+
+        for (int i=0;i<2;i++)
+        {
+            addToBatch(sqlControl, INSERT_A, new BatchDependencies(tableA, Collections.<Table>emptySet(), false));
+            addToBatch(sqlControl, INSERT_B_WITH_ID, new BatchDependencies(tableB, Collections.<Table>emptySet(), false));
+        }
+        assertEquals(Arrays.asList("addBatch " + INSERT_A, "addBatch " + INSERT_B_WITH_ID, "addBatch " + INSERT_A, "addBatch " + INSERT_B_WITH_ID),
+            log);
+
+        sqlControl.processStatementsForConnection(mconn);
+        assertEquals(Arrays.asList("executeBatch(2) " + INSERT_A, "executeBatch(2) " + INSERT_B_WITH_ID), log.subList(4, log.size()));
+    }
+
+    /**
+     * An INSERT that references the table of a batch started after its own batch may need the rows pending in that batch, so
+     * can't be added to its batch ahead of them. The pending batches are processed first.
+     */
+    public void testInsertReferencingLaterBatchProcessesPendingBatches()
+        throws Exception
+    {
+        SQLController sqlControl = new SQLController(true, 50, 5, 0, "jdbc");
+        Table tableA = newTable();
+        Table tableB = newTable();
+        BatchDependencies insertA = new BatchDependencies(tableA, Collections.singleton(tableB), false);
+
+        addToBatch(sqlControl, INSERT_A, insertA);
+        addToBatch(sqlControl, INSERT_B_WITH_ID, new BatchDependencies(tableB, Collections.<Table>emptySet(), false));
+        addToBatch(sqlControl, INSERT_A, insertA);
+        assertEquals(Arrays.asList("addBatch " + INSERT_A, "addBatch " + INSERT_B_WITH_ID,
+            "executeBatch(1) " + INSERT_A, "executeBatch(1) " + INSERT_B_WITH_ID, "addBatch " + INSERT_A), log);
+    }
+
+    /**
+     * A DELETE from a table that is referenced by the table of a batch started after its own batch has to follow the statements
+     * of that batch, so the pending batches are processed first.
+     */
+    public void testDeleteReferencedByLaterBatchProcessesPendingBatches()
+        throws Exception
+    {
+        SQLController sqlControl = new SQLController(true, 50, 5, 0, "jdbc");
+        Table tableA = newTable();
+        Table tableB = newTable();
+        BatchDependencies deleteA = new BatchDependencies(tableA, Collections.<Table>emptySet(), true);
+
+        addToBatch(sqlControl, DELETE_A, deleteA);
+        addToBatch(sqlControl, DELETE_B, new BatchDependencies(tableB, Collections.singleton(tableA), true));
+        addToBatch(sqlControl, DELETE_A, deleteA);
+        assertEquals(Arrays.asList("addBatch " + DELETE_A, "addBatch " + DELETE_B,
+            "executeBatch(1) " + DELETE_A, "executeBatch(1) " + DELETE_B, "addBatch " + DELETE_A), log);
+    }
+
+    /**
+     * A DELETE from a table that references the table of a later batch doesn't affect the rows of that batch, so can be batched.
+     */
+    public void testDeleteReferencingLaterBatchKeepsBatching()
+        throws Exception
+    {
+        SQLController sqlControl = new SQLController(true, 50, 5, 0, "jdbc");
+        Table tableA = newTable();
+        Table tableB = newTable();
+        BatchDependencies deleteB = new BatchDependencies(tableB, Collections.singleton(tableA), true);
+
+        addToBatch(sqlControl, DELETE_B, deleteB);
+        addToBatch(sqlControl, DELETE_A, new BatchDependencies(tableA, Collections.<Table>emptySet(), true));
+        addToBatch(sqlControl, DELETE_B, deleteB);
+        assertEquals(Arrays.asList("addBatch " + DELETE_B, "addBatch " + DELETE_A, "addBatch " + DELETE_B), log);
+
+        sqlControl.processStatementsForConnection(mconn);
+        assertEquals(Arrays.asList("executeBatch(2) " + DELETE_B, "executeBatch(1) " + DELETE_A), log.subList(3, log.size()));
+    }
+
+    public void testMaxPendingBatches()
+        throws Exception
+    {
+        SQLController sqlControl = new SQLController(true, 50, 2, 0, "jdbc");
+
+        addToBatch(sqlControl, INSERT_A, new BatchDependencies(newTable(), Collections.<Table>emptySet(), false));
+        addToBatch(sqlControl, INSERT_B_WITH_ID, new BatchDependencies(newTable(), Collections.<Table>emptySet(), false));
+        addToBatch(sqlControl, INSERT_C, new BatchDependencies(newTable(), Collections.<Table>emptySet(), false));
+        assertEquals(Arrays.asList("addBatch " + INSERT_A, "addBatch " + INSERT_B_WITH_ID,
+            "executeBatch(1) " + INSERT_A, "executeBatch(1) " + INSERT_B_WITH_ID, "addBatch " + INSERT_C), log);
+    }
+
+    /**
+     * A statement whose dependencies aren't known can't be batched alongside other pending batches.
+     */
+    public void testStatementWithoutDependenciesProcessesPendingBatches()
+        throws Exception
+    {
+        SQLController sqlControl = new SQLController(true, 50, 5, 0, "jdbc");
+        addToBatch(sqlControl, INSERT_A, new BatchDependencies(newTable(), Collections.<Table>emptySet(), false));
+        addToBatch(sqlControl, INSERT_C, null);
+        assertEquals(Arrays.asList("addBatch " + INSERT_A, "executeBatch(1) " + INSERT_A, "addBatch " + INSERT_C), log);
+    }
+
+    /**
+     * Convenience method to add a batchable update statement to its batch.
+     */
+    void addToBatch(SQLController sqlControl, String sql, BatchDependencies dependencies)
+        throws Exception
+    {
+        PreparedStatement ps = sqlControl.getStatementForUpdate(mconn, sql, true, false, dependencies);
+        assertNull(sqlControl.executeStatementUpdate(null, mconn, sql, ps, false));
+    }
+
+    /**
+     * Create a stub Table, only used for its identity.
+     */
+    static Table newTable()
+    {
+        return StubProxies.newProxy(Table.class, new InvocationHandler()
+        {
+            public Object invoke(Object proxy, Method method, Object[] args)
+            {
+                throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    /**
+     * Create a stub ManagedConnection, whose JDBC connection creates statements that record the calls made to the log.
+     * @param log The log
+     * @return The ManagedConnection
+     */
+    static ManagedConnection newManagedConnection(final List<String> log)
+    {
+        final Connection conn = StubProxies.newProxy(Connection.class, new InvocationHandler()
+        {
+            public Object invoke(Object proxy, Method method, Object[] args)
+            {
+                if (method.getName().equals("prepareStatement"))
+                {
+                    return newPreparedStatement((String) args[0], log);
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        });
+        return StubProxies.newProxy(ManagedConnection.class, new InvocationHandler()
+        {
+            public Object invoke(Object proxy, Method method, Object[] args)
+            {
+                if (method.getName().equals("getConnection"))
+                {
+                    return conn;
+                }
+                else if (method.getName().equals("addListener") || method.getName().equals("removeListener"))
+                {
+                    return null;
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    static PreparedStatement newPreparedStatement(final String sql, final List<String> log)
+    {
+        return StubProxies.newProxy(PreparedStatement.class, new InvocationHandler()
+        {
+            int numBatched = 0;
+
+            int numExecuted = 0;
+
+            public Object invoke(Object proxy, Method method, Object[] args)
+            {
+                String name = method.getName();
+                if (name.equals("addBatch"))
+                {
+                    numBatched++;
+                    log.add("addBatch " + sql);
+                    return null;
+                }
+                else if (name.equals("executeBatch"))
+                {
+                    log.add("executeBatch(" + numBatched + ") " + sql);
+                    int[] counts = new int[numBatched];
+                    Arrays.fill(counts, 1);
+                    numExecuted = numBatched;
+                    numBatched = 0;
+                    return counts;
+                }
+                else if (name.equals("getGeneratedKeys"))
+                {
+                    return newGeneratedKeys(numExecuted);
+                }
+                else if (name.equals("executeUpdate"))
+                {
+                    log.add("executeUpdate " + sql);
+                    return 1;
+                }
+                else if (name.equals("clearBatch") || name.equals("close") || name.startsWith("set"))
+                {
+                    return null;
+                }
+                throw new UnsupportedOperationException(name);
+            }
+        });
+    }
+
+    /**
+     * Create a stub ResultSet of generated keys, numbered from 1.
+     * @param numKeys Number of keys
+     * @return The ResultSet
+     */
+    static ResultSet newGeneratedKeys(final int numKeys)
+    {
+        return StubProxies.newProxy(ResultSet.class, new InvocationHandler()
+        {
+            int row = 0;
+
+            public Object invoke(Object proxy, Method method, Object[] args)
+            {
+                String name = method.getName();
+                if (name.equals("next"))
+                {
+                    return ++row <= numKeys;
+                }
+                else if (name.equals("getObject"))
+                {
+                    assertEquals(1, args[0]);
+                    return Long.valueOf(row);
+                }
+                else if (name.equals("close"))
+                {
+                    return null;
+                }
+                throw new UnsupportedOperationException(name);
+            }
+        });
+    }
+}
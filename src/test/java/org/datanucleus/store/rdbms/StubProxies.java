@@ -0,0 +1,65 @@
+/**********************************************************************
+Copyright (c) 2026 DataNucleus contributors. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+package org.datanucleus.store.rdbms;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * Factory for stub implementations of interfaces (JDBC objects, connections, tables etc) used by the tests, where the
+ * stub provides only the methods that the test needs.
+ */
+public class StubProxies
+{
+    private StubProxies()
+    {
+        // Static methods only
+    }
+
+    /**
+     * Create a proxy for the interface, handling the methods of Object using the identity of the proxy and passing all
+     * other methods to the handler.
+     * @param iface The interface
+     * @param handler Handler for the methods of the interface
+     * @return The proxy
+     * @param <T> Type of the interface
+     */
+    public static <T> T newProxy(final Class<T> iface, final InvocationHandler handler)
+    {
+        return iface.cast(Proxy.newProxyInstance(StubProxies.class.getClassLoader(), new Class[] {iface}, new InvocationHandler()
+        {
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+            {
+                if (method.getDeclaringClass() == Object.class)
+                {
+                    if (method.getName().equals("equals"))
+                    {
+                        return proxy == args[0];
+                    }
+                    else if (method.getName().equals("hashCode"))
+                    {
+                        return System.identityHashCode(proxy);
+                    }
+                    return iface.getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(proxy));
+                }
+                return handler.invoke(proxy, method, args);
+            }
+        }));
+    }
+}
@@ -0,0 +1,266 @@
+/**********************************************************************
+Copyright (c) 2026 DataNucleus contributors. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+package org.datanucleus.store.rdbms.fieldmanager;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import junit.framework.TestCase;
+
+import org.datanucleus.exceptions.NucleusDataStoreException;
+import org.datanucleus.metadata.ColumnMetaData;
+import org.datanucleus.store.rdbms.StubProxies;
+import org.datanucleus.store.rdbms.exceptions.NullValueException;
+import org.datanucleus.store.rdbms.mapping.datastore.AbstractDatastoreMapping;
+import org.datanucleus.store.rdbms.mapping.datastore.BigIntRDBMSMapping;
+import org.datanucleus.store.rdbms.mapping.datastore.DatastoreMapping;
+import org.datanucleus.store.rdbms.mapping.datastore.DoubleRDBMSMapping;
+import org.datanucleus.store.rdbms.mapping.datastore.IntegerRDBMSMapping;
+import org.datanucleus.store.rdbms.table.Column;
+
+/**
+ * Tests that a compiled {@link ResultSetRowReader} reads the same values as the datastore mapping of the member, which is what
+ * the mapping definition is read through otherwise. This includes null values, for columns that allow nulls and those that
+ * don't (giving a NullValueException).
+ */
+public class ResultSetRowReaderTest extends TestCase
+{
+    /** Absolute number of the member read. */
+    static final int MEMBER_NUMBER = 3;
+
+    /** Position of the column of the member in the ResultSet. */
+    static final int COLUMN_POSITION = 2;
+
+    static final Object[] VALUES = new Object[] {0, 17, -5, Integer.MAX_VALUE, (1L << 33) + 7, 2.75d, null};
+
+    public void testIntegerColumn() throws Exception
+    {
+        assertSameAsMapping(IntegerRDBMSMapping.class, "int", "long");
+    }
+
+    public void testBigIntColumn() throws Exception
+    {
+        assertSameAsMapping(BigIntRDBMSMapping.class, "int", "long");
+    }
+
+    public void testDoubleColumn() throws Exception
+    {
+        assertSameAsMapping(DoubleRDBMSMapping.class, "int", "long", "double");
+    }
+
+    /**
+     * A null value for a column that doesn't allow nulls (or has no metadata) is a NullValueException, for either path.
+     */
+    public void testNullForColumnNotAllowingNull() throws Exception
+    {
+        for (Boolean allowsNull : new Boolean[] {Boolean.FALSE, null})
+        {
+            ResultSetRowReader reader = newReader(newDatastoreMapping(IntegerRDBMSMapping.class, newColumn(allowsNull)));
+            try
+            {
+                reader.getInt(newResultSet(null, false), MEMBER_NUMBER);
+                fail("Null value for column not allowing nulls should throw NullValueException");
+            }
+            catch (NullValueException nve)
+            {
+                // Expected
+            }
+        }
+
+        ResultSetRowReader reader = newReader(newDatastoreMapping(BigIntRDBMSMapping.class, null));
+        try
+        {
+            reader.getLong(newResultSet(null, false), MEMBER_NUMBER);
+            fail("Null value for column without metadata should throw NullValueException");
+        }
+        catch (NullValueException nve)
+        {
+            // Expected
+        }
+    }
+
+    /**
+     * A member with any other datastore mapping is read by its datastore mapping.
+     */
+    public void testOtherColumnReadByMapping()
+    {
+        DatastoreMapping dsMapping = StubProxies.newProxy(DatastoreMapping.class, new InvocationHandler()
+        {
+            public Object invoke(Object proxy, Method method, Object[] args)
+            {
+                if (method.getName().equals("getInt"))
+                {
+                    assertEquals(COLUMN_POSITION, args[1]);
+                    return 42;
+                }
+                else if (method.getName().equals("getColumn"))
+                {
+                    return null;
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        });
+        ResultSetRowReader reader = newReader(dsMapping);
+        assertTrue(reader.isCompiled(MEMBER_NUMBER));
+        assertFalse(reader.isCompiled(MEMBER_NUMBER - 1));
+        assertEquals(42, reader.getInt(newResultSet(17, false), MEMBER_NUMBER));
+    }
+
+    /**
+     * Check that reading each of the values as each of the types supported by the specified mapping gives the same result
+     * (value or exception) from the reader and from the datastore mapping, for a column that allows nulls, doesn't allow nulls,
+     * and has no metadata.
+     */
+    void assertSameAsMapping(Class<? extends AbstractDatastoreMapping> dsMappingType, String... types) throws Exception
+    {
+        int numNullValueExceptions = 0;
+        for (Column col : new Column[] {newColumn(Boolean.TRUE), newColumn(Boolean.FALSE), null})
+        {
+            DatastoreMapping dsMapping = newDatastoreMapping(dsMappingType, col);
+            ResultSetRowReader reader = newReader(dsMapping);
+            for (String type : types)
+            {
+                for (Object value : VALUES)
+                {
+                    for (boolean fail : new boolean[] {false, true})
+                    {
+                        Object expected = read(type, dsMapping, null, newResultSet(value, fail));
+                        Object actual = read(type, null, reader, newResultSet(value, fail));
+                        assertEquals(dsMappingType.getSimpleName() + " " + type + " of " + value + (fail ? " failing" : "") + " for " + col,
+                            expected, actual);
+                        if (expected == NullValueException.class)
+                        {
+                            numNullValueExceptions++;
+                        }
+                    }
+                }
+            }
+        }
+        assertTrue("Null values should have been rejected", numNullValueExceptions > 0);
+    }
+
+    /**
+     * Read a value of the specified type from the ResultSet using either the datastore mapping or the reader.
+     * @return The value read, or the class of the exception thrown
+     */
+    static Object read(String type, DatastoreMapping dsMapping, ResultSetRowReader reader, ResultSet rs)
+    {
+        try
+        {
+            if (type.equals("int"))
+            {
+                return (reader != null) ? reader.getInt(rs, MEMBER_NUMBER) : dsMapping.getInt(rs, COLUMN_POSITION);
+            }
+            else if (type.equals("long"))
+            {
+                return (reader != null) ? reader.getLong(rs, MEMBER_NUMBER) : dsMapping.getLong(rs, COLUMN_POSITION);
+            }
+            return (reader != null) ? reader.getDouble(rs, MEMBER_NUMBER) : dsMapping.getDouble(rs, COLUMN_POSITION);
+        }
+        catch (NucleusDataStoreException e)
+        {
+            return e.getClass();
+        }
+    }
+
+    static ResultSetRowReader newReader(DatastoreMapping dsMapping)
+    {
+        DatastoreMapping[] dsMappings = new DatastoreMapping[MEMBER_NUMBER + 1];
+        int[] colPositions = new int[MEMBER_NUMBER + 1];
+        dsMappings[MEMBER_NUMBER] = dsMapping;
+        colPositions[MEMBER_NUMBER] = COLUMN_POSITION;
+        return new ResultSetRowReader(null, dsMappings, colPositions);
+    }
+
+    /**
+     * Create a datastore mapping of the specified type for the column. Constructing a datastore mapping needs a store manager
+     * (for the type info of the column) so it is allocated without running its constructor, and only the column set, which
+     * is all that reading a value uses.
+     */
+    static DatastoreMapping newDatastoreMapping(Class<? extends AbstractDatastoreMapping> dsMappingType, Column col) throws Exception
+    {
+        Class unsafeCls = Class.forName("sun.misc.Unsafe");
+        Field unsafeField = unsafeCls.getDeclaredField("theUnsafe");
+        unsafeField.setAccessible(true);
+        Object unsafe = unsafeField.get(null);
+        DatastoreMapping dsMapping = (DatastoreMapping) unsafeCls.getMethod("allocateInstance", Class.class).invoke(unsafe, dsMappingType);
+
+        Field colField = AbstractDatastoreMapping.class.getDeclaredField("column");
+        colField.setAccessible(true);
+        colField.set(dsMapping, col);
+        return dsMapping;
+    }
+
+    static Column newColumn(Boolean allowsNull)
+    {
+        final ColumnMetaData colmd = (allowsNull != null) ? new ColumnMetaData() : null;
+        if (colmd != null)
+        {
+            colmd.setAllowsNull(allowsNull);
+        }
+        return StubProxies.newProxy(Column.class, new InvocationHandler()
+        {
+            public Object invoke(Object proxy, Method method, Object[] args)
+            {
+                if (method.getName().equals("getColumnMetaData"))
+                {
+                    return colmd;
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    /**
+     * Create a stub ResultSet with the value in column {@link #COLUMN_POSITION}, converted as by a JDBC driver.
+     * @param value The value (null for SQL NULL)
+     * @param fail Whether getting the value should throw an SQLException
+     */
+    static ResultSet newResultSet(final Object value, final boolean fail)
+    {
+        return StubProxies.newProxy(ResultSet.class, new InvocationHandler()
+        {
+            public Object invoke(Object proxy, Method method, Object[] args) throws SQLException
+            {
+                String name = method.getName();
+                if (name.equals("wasNull"))
+                {
+                    return value == null;
+                }
+                else if (name.equals("getInt") || name.equals("getLong") || name.equals("getDouble"))
+                {
+                    assertEquals(COLUMN_POSITION, args[0]);
+                    if (fail)
+                    {
+                        throw new SQLException("Value can't be read");
+                    }
+                    Number number = (value != null) ? (Number) value : Integer.valueOf(0);
+                    if (name.equals("getInt"))
+                    {
+                        return number.intValue();
+                    }
+                    return name.equals("getLong") ? (Object) number.longValue() : (Object) number.doubleValue();
+                }
+                throw new UnsupportedOperationException(name);
+            }
+        });
+    }
+}
@@ -0,0 +1,193 @@
+/**********************************************************************
+Copyright (c) 2026 DataNucleus contributors. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+package org.datanucleus.store.rdbms.query;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.datanucleus.ExecutionContext;
+import org.datanucleus.api.ApiAdapter;
+
+/**
+ * Tests for reading a bulk-fetch ResultSet in step with the candidates, using {@link BulkFetchResultSetReader}.
+ * Each row of the (stub) ResultSet is {ownerId, element}, and the owner id is used as the owner itself.
+ */
+public class BulkFetchResultSetReaderTest extends TestCase
+{
+    /**
+     * Reader that converts the rows of the stub ResultSet itself, rather than via the mappings of a backing store.
+     */
+    private static class TestReader extends BulkFetchResultSetReader
+    {
+        TestReader(Object[][] rows)
+        {
+            super(newExecutionContext(), null, null, newResultSet(rows));
+        }
+
+        protected Object getOwner()
+        {
+            try
+            {
+                return rs.getObject(1);
+            }
+            catch (SQLException e)
+            {
+                throw new RuntimeException(e);
+            }
+        }
+
+        public Object newContainer()
+        {
+            return new ArrayList();
+        }
+
+        protected void addRowToContainer(Object owner, Object container)
+        {
+            try
+            {
+                ((Collection) container).add(rs.getObject(2));
+            }
+            catch (SQLException e)
+            {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    public void testOwnersInStep()
+        throws SQLException
+    {
+        TestReader reader = new TestReader(new Object[][] {{1, "a"}, {1, "b"}, {3, "c"}, {4, "d"}, {4, "e"}});
+        reader.start();
+
+        assertEquals(Arrays.asList("a", "b"), reader.getValueForOwner(1));
+        assertEquals(new ArrayList(), reader.getValueForOwner(2));
+        assertEquals(Arrays.asList("c"), reader.getValueForOwner(3));
+        assertNull("Repeated candidate row should not be given a value", reader.getValueForOwner(3));
+        assertEquals(Arrays.asList("d", "e"), reader.getValueForOwner(4));
+        assertEquals(new ArrayList(), reader.getValueForOwner(5));
+        assertNull(reader.getUnreadOwnerId());
+    }
+
+    /**
+     * The ResultSet has rows for owner 2, which is not a candidate. The rows for the candidates after it cannot be read, and this
+     * must be detectable once all candidates are processed.
+     */
+    public void testOwnerNotInCandidates()
+        throws SQLException
+    {
+        TestReader reader = new TestReader(new Object[][] {{1, "a"}, {2, "x"}, {3, "c"}});
+        reader.start();
+
+        assertEquals(Arrays.asList("a"), reader.getValueForOwner(1));
+        reader.getValueForOwner(3);
+        assertEquals(2, reader.getUnreadOwnerId());
+    }
+
+    /**
+     * The last candidate has no rows, but the ResultSet has rows after it for an owner that is not a candidate.
+     */
+    public void testTrailingOwnerNotInCandidates()
+        throws SQLException
+    {
+        TestReader reader = new TestReader(new Object[][] {{1, "a"}, {9, "x"}});
+        reader.start();
+
+        assertEquals(Arrays.asList("a"), reader.getValueForOwner(1));
+        assertEquals(new ArrayList(), reader.getValueForOwner(2));
+        assertEquals(9, reader.getUnreadOwnerId());
+    }
+
+    public void testNoUnreadOwnerAfterClose()
+        throws SQLException
+    {
+        TestReader reader = new TestReader(new Object[][] {{1, "a"}});
+        reader.start();
+        reader.close();
+        assertNull(reader.getUnreadOwnerId());
+    }
+
+    private static ExecutionContext newExecutionContext()
+    {
+        final ApiAdapter api = (ApiAdapter) Proxy.newProxyInstance(ApiAdapter.class.getClassLoader(), new Class[] {ApiAdapter.class},
+            new InvocationHandler()
+            {
+                public Object invoke(Object proxy, Method method, Object[] args)
+                {
+                    if (method.getName().equals("getIdForObject"))
+                    {
+                        return args[0];
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                }
+            });
+        return (ExecutionContext) Proxy.newProxyInstance(ExecutionContext.class.getClassLoader(), new Class[] {ExecutionContext.class},
+            new InvocationHandler()
+            {
+                public Object invoke(Object proxy, Method method, Object[] args)
+                {
+                    if (method.getName().equals("getApiAdapter"))
+                    {
+                        return api;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                }
+            });
+    }
+
+    private static ResultSet newResultSet(final Object[][] rows)
+    {
+        final List<Object[]> rowList = Arrays.asList(rows);
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class[] {ResultSet.class}, new InvocationHandler()
+        {
+            int rowNum = -1;
+
+            public Object invoke(Object proxy, Method method, Object[] args)
+            {
+                String name = method.getName();
+                if (name.equals("next"))
+                {
+                    rowNum++;
+                    return rowNum < rowList.size();
+                }
+                else if (name.equals("getObject"))
+                {
+                    return rowList.get(rowNum)[(Integer) args[0] - 1];
+                }
+                else if (name.equals("getStatement"))
+                {
+                    return null;
+                }
+                else if (name.equals("close"))
+                {
+                    return null;
+                }
+                throw new UnsupportedOperationException(name);
+            }
+        });
+    }
+}
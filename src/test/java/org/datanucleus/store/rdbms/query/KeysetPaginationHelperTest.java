@@ -0,0 +1,92 @@
+/**********************************************************************
+Copyright (c) 2026 DataNucleus contributors. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+package org.datanucleus.store.rdbms.query;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.datanucleus.exceptions.NucleusUserException;
+
+/**
+ * Tests for the parameters and caching of a query using keyset pagination, by {@link KeysetPaginationHelper}.
+ */
+public class KeysetPaginationHelperTest extends TestCase
+{
+    public void testKeysetValues()
+    {
+        assertNull(KeysetPaginationHelper.getKeysetValues(null));
+        assertTrue(Arrays.equals(new Object[] {"Smith", 12L}, KeysetPaginationHelper.getKeysetValues(new Object[] {"Smith", 12L})));
+        assertTrue(Arrays.equals(new Object[] {"Smith", 12L}, KeysetPaginationHelper.getKeysetValues(Arrays.asList("Smith", 12L))));
+        assertTrue(Arrays.equals(new Object[] {12L}, KeysetPaginationHelper.getKeysetValues(12L)));
+    }
+
+    /**
+     * The values are added to the query parameters under the names of the parameters of the keyset predicate, so the
+     * statement can be reused for the next page.
+     */
+    public void testParameterValues()
+    {
+        Map<String, Object> parameters = new HashMap<String, Object>();
+        parameters.put("status", "OPEN");
+
+        Map paramValues = KeysetPaginationHelper.getParameterValues(parameters, Arrays.asList("Smith", 12L));
+        assertEquals(3, paramValues.size());
+        assertEquals("OPEN", paramValues.get("status"));
+        assertEquals("Smith", paramValues.get(KeysetPaginationHelper.getParameterName(0)));
+        assertEquals(12L, paramValues.get(KeysetPaginationHelper.getParameterName(1)));
+        assertEquals("Query parameters should not be changed", 1, parameters.size());
+
+        paramValues = KeysetPaginationHelper.getParameterValues(null, new Object[] {"Jones", 20L});
+        assertEquals("Jones", paramValues.get(KeysetPaginationHelper.getParameterName(0)));
+        assertEquals(20L, paramValues.get(KeysetPaginationHelper.getParameterName(1)));
+
+        assertSame(parameters, KeysetPaginationHelper.getParameterValues(parameters, null));
+        assertNull(KeysetPaginationHelper.getParameterValues(null, null));
+    }
+
+    public void testNullValueRejected()
+    {
+        try
+        {
+            KeysetPaginationHelper.getParameterValues(null, new Object[] {"Smith", null});
+            fail("A null keyset value should be rejected");
+        }
+        catch (NucleusUserException nue)
+        {
+            // Expected
+        }
+    }
+
+    /**
+     * A compilation with the keyset predicate must not be reused for the query without it, or with a different number of values.
+     */
+    public void testQueryCacheKey()
+    {
+        String key = "SELECT FROM mydomain.Person ORDER BY lastName, id";
+        assertEquals(key, KeysetPaginationHelper.getQueryCacheKey(key, null));
+        assertNull(KeysetPaginationHelper.getQueryCacheKey(null, new Object[] {"Smith", 12L}));
+
+        String keysetKey = KeysetPaginationHelper.getQueryCacheKey(key, new Object[] {"Smith", 12L});
+        assertFalse(key.equals(keysetKey));
+        assertEquals("Key should not depend on the values", keysetKey, KeysetPaginationHelper.getQueryCacheKey(key, Arrays.asList("Jones", 20L)));
+        assertFalse(keysetKey.equals(KeysetPaginationHelper.getQueryCacheKey(key, new Object[] {"Smith"})));
+    }
+}
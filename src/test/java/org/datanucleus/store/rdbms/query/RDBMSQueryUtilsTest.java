@@ -0,0 +1,68 @@
+/**********************************************************************
+Copyright (c) 2026 DataNucleus contributors. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+package org.datanucleus.store.rdbms.query;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for the key for caching the datastore compilation of a query, by {@link RDBMSQueryUtils}.
+ */
+public class RDBMSQueryUtilsTest extends TestCase
+{
+    static final String KEY = "SELECT FROM mydomain.Person";
+
+    static final String FORWARD_ONLY = RDBMSQueryUtils.QUERY_RESULTSET_TYPE_FORWARD_ONLY;
+
+    /**
+     * The bulk-fetch ordered by owner is only compiled for a query without range or candidate collection, using a forward-only
+     * ResultSet, so its compilation must not be reused for a query with any of these different.
+     */
+    public void testQueryCacheKeyForOrderedBulkFetch()
+    {
+        String key = RDBMSQueryUtils.getQueryCacheKeyForBulkFetch(KEY, "exists-ordered", false, false, FORWARD_ONLY);
+        assertFalse(key.equals(KEY));
+        assertEquals(key, RDBMSQueryUtils.getQueryCacheKeyForBulkFetch(KEY, "EXISTS-ORDERED", false, false, FORWARD_ONLY));
+
+        String rangeKey = RDBMSQueryUtils.getQueryCacheKeyForBulkFetch(KEY, "exists-ordered", false, true, FORWARD_ONLY);
+        String candidatesKey = RDBMSQueryUtils.getQueryCacheKeyForBulkFetch(KEY, "exists-ordered", true, false, FORWARD_ONLY);
+        String scrollKey = RDBMSQueryUtils.getQueryCacheKeyForBulkFetch(KEY, "exists-ordered", false, false,
+            RDBMSQueryUtils.QUERY_RESULTSET_TYPE_SCROLL_INSENSITIVE);
+        assertFalse(key.equals(rangeKey));
+        assertFalse(key.equals(candidatesKey));
+        assertFalse(key.equals(scrollKey));
+        assertFalse(rangeKey.equals(candidatesKey));
+    }
+
+    public void testQueryCacheKeyForBulkFetchByOwnerIds()
+    {
+        String key = RDBMSQueryUtils.getQueryCacheKeyForBulkFetch(KEY, "in", false, false, FORWARD_ONLY);
+        assertFalse(key.equals(RDBMSQueryUtils.getQueryCacheKeyForBulkFetch(KEY, "in", true, false, FORWARD_ONLY)));
+        assertFalse(key.equals(RDBMSQueryUtils.getQueryCacheKeyForBulkFetch(KEY, "exists-ordered", false, false, FORWARD_ONLY)));
+    }
+
+    /**
+     * Other bulk-fetch types don't depend on the range, candidates or ResultSet type, so the key is unchanged.
+     */
+    public void testQueryCacheKeyForOtherBulkFetch()
+    {
+        assertEquals(KEY, RDBMSQueryUtils.getQueryCacheKeyForBulkFetch(KEY, null, true, true, FORWARD_ONLY));
+        assertEquals(KEY, RDBMSQueryUtils.getQueryCacheKeyForBulkFetch(KEY, "exists", true, true, FORWARD_ONLY));
+        assertEquals(KEY, RDBMSQueryUtils.getQueryCacheKeyForBulkFetch(KEY, "none", false, true, FORWARD_ONLY));
+        assertNull(RDBMSQueryUtils.getQueryCacheKeyForBulkFetch(null, "exists-ordered", true, false, FORWARD_ONLY));
+    }
+}
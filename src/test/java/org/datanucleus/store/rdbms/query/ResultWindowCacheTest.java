@@ -0,0 +1,98 @@
+/**********************************************************************
+Copyright (c) 2026 DataNucleus contributors. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+package org.datanucleus.store.rdbms.query;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for the caching of blocks of result objects by {@link ResultWindowCache}.
+ */
+public class ResultWindowCacheTest extends TestCase
+{
+    public void testBlocksAlignedToBaseIndex()
+    {
+        ResultWindowCache<String> cache = new ResultWindowCache<String>(5, 10, 2);
+        assertEquals(5, cache.getBlockStart(5));
+        assertEquals(5, cache.getBlockStart(14));
+        assertEquals(15, cache.getBlockStart(15));
+
+        cache.put(14, "row14");
+        assertTrue(cache.isLoaded(14));
+        assertEquals("row14", cache.get(14));
+        assertFalse("Other rows of the block should not be loaded", cache.isLoaded(13));
+        assertFalse(cache.isLoaded(15));
+
+        // Rows before the base index are not cached
+        cache.put(4, "row4");
+        assertFalse(cache.isLoaded(4));
+        assertNull(cache.get(4));
+    }
+
+    /**
+     * A null result object is cached, and can be told apart from a row that is not loaded.
+     */
+    public void testNullResultIsLoaded()
+    {
+        ResultWindowCache<String> cache = new ResultWindowCache<String>(0, 4, 2);
+        cache.put(0, "row0");
+        cache.put(1, null);
+        assertTrue(cache.isLoaded(1));
+        assertNull(cache.get(1));
+        assertFalse(cache.isLoaded(2));
+    }
+
+    public void testLeastRecentlyUsedBlockEvicted()
+    {
+        ResultWindowCache<String> cache = new ResultWindowCache<String>(0, 2, 2);
+        cache.put(0, "row0");
+        cache.put(1, null);
+        cache.put(2, "row2");
+        assertEquals("row0", cache.get(0));
+
+        // Adding a third block evicts the block of row 2, since the block of row 0 was used more recently
+        cache.put(4, "row4");
+        assertTrue(cache.isLoaded(0));
+        assertTrue(cache.isLoaded(1));
+        assertFalse(cache.isLoaded(2));
+        assertNull(cache.get(2));
+        assertTrue(cache.isLoaded(4));
+
+        cache.put(6, null);
+        assertFalse(cache.isLoaded(1));
+        assertTrue(cache.isLoaded(4));
+        assertTrue(cache.isLoaded(6));
+    }
+
+    public void testUnlimited()
+    {
+        ResultWindowCache<String> cache = new ResultWindowCache<String>(0, 2, 1);
+        cache.setUnlimited();
+        for (int i=0;i<10;i++)
+        {
+            cache.put(i, (i % 3 == 0) ? null : ("row" + i));
+        }
+        for (int i=0;i<10;i++)
+        {
+            assertTrue(cache.isLoaded(i));
+            assertEquals((i % 3 == 0) ? null : ("row" + i), cache.get(i));
+        }
+
+        cache.clear();
+        assertFalse(cache.isLoaded(0));
+    }
+}
@@ -0,0 +1,183 @@
+/**********************************************************************
+Copyright (c) 2026 DataNucleus contributors. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+package org.datanucleus.store.rdbms.request;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+import org.datanucleus.ExecutionContext;
+import org.datanucleus.api.ApiAdapter;
+import org.datanucleus.state.ObjectProvider;
+import org.datanucleus.store.rdbms.StubProxies;
+
+/**
+ * Tests for the check of {@link InsertRequest} on whether the related objects of an object being inserted are in the datastore,
+ * which decides whether its INSERT can be batched.
+ */
+public class InsertRequestTest extends TestCase
+{
+    /** ObjectProvider of each managed object. */
+    Map<Object, ObjectProvider> objectProviders = new HashMap<Object, ObjectProvider>();
+
+    /** Objects that are detached. */
+    Set<Object> detachedObjects = new HashSet<Object>();
+
+    ExecutionContext ec = newExecutionContext();
+
+    public void testNoRelatedObjects()
+    {
+        ObjectProvider op = newObjectProvider(new Object[] {null, null}, false, false, false);
+        assertTrue(InsertRequest.isRelatedObjectsFlushed(op, new int[] {0, 1}));
+        assertTrue(InsertRequest.isRelatedObjectsFlushed(op, new int[0]));
+    }
+
+    public void testRelatedObjectsFlushed()
+    {
+        Object related1 = newManagedObject(false, false, false);
+        Object related2 = newManagedObject(false, false, false);
+        ObjectProvider op = newObjectProvider(new Object[] {related1, "name", related2}, false, false, false);
+        assertTrue(InsertRequest.isRelatedObjectsFlushed(op, new int[] {0, 2}));
+    }
+
+    public void testRelatedObjectNotFlushed()
+    {
+        Object flushed = newManagedObject(false, false, false);
+        Object notFlushed = newManagedObject(true, false, false);
+        ObjectProvider op = newObjectProvider(new Object[] {flushed, notFlushed}, false, false, false);
+        assertFalse(InsertRequest.isRelatedObjectsFlushed(op, new int[] {0, 1}));
+        assertTrue("Only the specified fields should be checked", InsertRequest.isRelatedObjectsFlushed(op, new int[] {0}));
+    }
+
+    /**
+     * A related object that is being inserted (e.g. in a cycle of relations) is not yet in the datastore.
+     */
+    public void testRelatedObjectInserting()
+    {
+        Object inserting = newManagedObject(false, true, false);
+        ObjectProvider op = newObjectProvider(new Object[] {inserting}, false, false, false);
+        assertFalse(InsertRequest.isRelatedObjectsFlushed(op, new int[] {0}));
+    }
+
+    /**
+     * A related object whose INSERT is pending in a batch has no identity yet, so can't be referred to by a FK.
+     */
+    public void testRelatedObjectPendingInBatch()
+    {
+        Object pending = newManagedObject(false, false, true);
+        ObjectProvider op = newObjectProvider(new Object[] {pending}, false, false, false);
+        assertFalse(InsertRequest.isRelatedObjectsFlushed(op, new int[] {0}));
+    }
+
+    /**
+     * A detached or transient related object would be persisted (or attached) when populating the INSERT.
+     */
+    public void testRelatedObjectDetachedOrTransient()
+    {
+        Object detached = new Object();
+        detachedObjects.add(detached);
+        ObjectProvider op = newObjectProvider(new Object[] {detached}, false, false, false);
+        assertFalse(InsertRequest.isRelatedObjectsFlushed(op, new int[] {0}));
+
+        op = newObjectProvider(new Object[] {new Object()}, false, false, false);
+        assertFalse(InsertRequest.isRelatedObjectsFlushed(op, new int[] {0}));
+    }
+
+    Object newManagedObject(boolean waitingToBeFlushed, boolean inserting, boolean insertPending)
+    {
+        Object pc = new Object();
+        objectProviders.put(pc, newObjectProvider(new Object[0], waitingToBeFlushed, inserting, insertPending));
+        return pc;
+    }
+
+    /**
+     * Create a stub ObjectProvider.
+     * @param fieldValues Values of the fields, by field number
+     * @param waitingToBeFlushed Whether the object is waiting to be flushed
+     * @param inserting Whether the object is being inserted
+     * @param insertPending Whether the INSERT of the object is pending in a batch
+     * @return The ObjectProvider
+     */
+    ObjectProvider newObjectProvider(final Object[] fieldValues, final boolean waitingToBeFlushed, final boolean inserting,
+        final boolean insertPending)
+    {
+        return StubProxies.newProxy(ObjectProvider.class, new InvocationHandler()
+        {
+            public Object invoke(Object proxy, Method method, Object[] args)
+            {
+                String name = method.getName();
+                if (name.equals("getExecutionContext"))
+                {
+                    return ec;
+                }
+                else if (name.equals("provideField"))
+                {
+                    return fieldValues[(Integer) args[0]];
+                }
+                else if (name.equals("isWaitingToBeFlushedToDatastore"))
+                {
+                    return waitingToBeFlushed;
+                }
+                else if (name.equals("isInserting"))
+                {
+                    return inserting;
+                }
+                else if (name.equals("getAssociatedValue"))
+                {
+                    return insertPending ? Boolean.TRUE : null;
+                }
+                throw new UnsupportedOperationException(name);
+            }
+        });
+    }
+
+    ExecutionContext newExecutionContext()
+    {
+        final ApiAdapter api = StubProxies.newProxy(ApiAdapter.class, new InvocationHandler()
+        {
+            public Object invoke(Object proxy, Method method, Object[] args)
+            {
+                if (method.getName().equals("isDetached"))
+                {
+                    return detachedObjects.contains(args[0]);
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        });
+        return StubProxies.newProxy(ExecutionContext.class, new InvocationHandler()
+        {
+            public Object invoke(Object proxy, Method method, Object[] args)
+            {
+                if (method.getName().equals("getApiAdapter"))
+                {
+                    return api;
+                }
+                else if (method.getName().equals("findObjectProvider"))
+                {
+                    return objectProviders.get(args[0]);
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+}
@@ -0,0 +1,74 @@
+/**********************************************************************
+Copyright (c) 2026 DataNucleus contributors. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+package org.datanucleus.store.rdbms.request;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for the sizing of the statements used by {@link LocateBulkRequest}.
+ */
+public class LocateBulkRequestTest extends TestCase
+{
+    public void testNumberOfIdentitiesIsPowerOfTwo()
+    {
+        assertEquals(1, LocateBulkRequest.getNumberOfIdentitiesForStatement(1));
+        assertEquals(2, LocateBulkRequest.getNumberOfIdentitiesForStatement(2));
+        assertEquals(4, LocateBulkRequest.getNumberOfIdentitiesForStatement(3));
+        assertEquals(8, LocateBulkRequest.getNumberOfIdentitiesForStatement(5));
+        assertEquals(128, LocateBulkRequest.getNumberOfIdentitiesForStatement(128));
+        assertEquals(256, LocateBulkRequest.getNumberOfIdentitiesForStatement(129));
+
+        for (int numObjects=1;numObjects<=LocateBulkRequest.MAX_IDENTITIES_PER_STATEMENT;numObjects++)
+        {
+            int numIds = LocateBulkRequest.getNumberOfIdentitiesForStatement(numObjects);
+            assertTrue("Statement for " + numObjects + " objects has too few identities", numIds >= numObjects);
+            assertTrue("Statement for " + numObjects + " objects has too many identities", numIds < 2 * numObjects);
+            assertEquals("Number of identities should be a power of 2", 0, numIds & (numIds - 1));
+        }
+    }
+
+    public void testNumberOfIdentitiesIsCapped()
+    {
+        assertEquals(LocateBulkRequest.MAX_IDENTITIES_PER_STATEMENT,
+            LocateBulkRequest.getNumberOfIdentitiesForStatement(LocateBulkRequest.MAX_IDENTITIES_PER_STATEMENT));
+        assertEquals(LocateBulkRequest.MAX_IDENTITIES_PER_STATEMENT,
+            LocateBulkRequest.getNumberOfIdentitiesForStatement(LocateBulkRequest.MAX_IDENTITIES_PER_STATEMENT + 1));
+    }
+
+    /**
+     * Any number of objects, split into statements of at most the maximum size, uses only a few distinct statements.
+     */
+    public void testDistinctStatementSizes()
+    {
+        Set<Integer> allSizes = new HashSet<Integer>();
+        for (int numObjects=1;numObjects<=1000;numObjects++)
+        {
+            Set<Integer> sizes = new HashSet<Integer>();
+            for (int remaining=numObjects;remaining>0;remaining-=LocateBulkRequest.MAX_IDENTITIES_PER_STATEMENT)
+            {
+                sizes.add(LocateBulkRequest.getNumberOfIdentitiesForStatement(Math.min(remaining, LocateBulkRequest.MAX_IDENTITIES_PER_STATEMENT)));
+            }
+            assertTrue("Locating " + numObjects + " objects uses " + sizes.size() + " statements", sizes.size() <= 2);
+            allSizes.addAll(sizes);
+        }
+        assertEquals("Only power of 2 sizes up to the maximum should be used", 9, allSizes.size());
+    }
+}
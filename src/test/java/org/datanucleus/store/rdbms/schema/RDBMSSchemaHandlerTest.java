@@ -0,0 +1,179 @@
+/**********************************************************************
+Copyright (c) 2026 DataNucleus contributors. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+package org.datanucleus.store.rdbms.schema;
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.sql.ResultSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import junit.framework.TestCase;
+
+import org.datanucleus.store.StoreManager;
+import org.datanucleus.store.rdbms.RDBMSPropertyNames;
+import org.datanucleus.store.rdbms.StubProxies;
+import org.datanucleus.store.schema.AbstractStoreSchemaHandler;
+
+/**
+ * Tests for the use of a {@link RDBMSSchemaInfoSnapshot} by {@link RDBMSSchemaHandler}, where the cached schema information
+ * seeded from the snapshot is changed during the run.
+ */
+public class RDBMSSchemaHandlerTest extends TestCase
+{
+    File dir;
+
+    protected void setUp() throws Exception
+    {
+        dir = File.createTempFile("snapshot", "");
+        dir.delete();
+        dir.mkdir();
+    }
+
+    protected void tearDown() throws Exception
+    {
+        for (File file : dir.listFiles())
+        {
+            file.delete();
+        }
+        dir.delete();
+    }
+
+    /**
+     * Validating a table discards its cached column information, which must not remove it from the snapshot that is saved.
+     */
+    public void testColumnInfoOfValidatedTableSaved() throws Exception
+    {
+        File file = new File(dir, "schema.ser");
+        RDBMSSchemaInfoSnapshot snapshot = new RDBMSSchemaInfoSnapshot("H2 1.4", "schema:1:1234");
+        snapshot.addTableInfo(null, null, newTableInfo("PERSON", "ID", "NAME"));
+        snapshot.save(file);
+
+        RDBMSSchemaHandler handler = newSchemaHandler(file);
+        handler.snapshot = RDBMSSchemaInfoSnapshot.load(file);
+        handler.clear();
+        RDBMSSchemaInfo tablesInfo = (RDBMSSchemaInfo)handler.getSchemaData(null, RDBMSSchemaHandler.TYPE_TABLES, null);
+        assertEquals(2, ((RDBMSTableInfo)tablesInfo.getChild("PERSON")).getNumberOfChildren());
+        assertNotNull("Seeded table should be marked as read", tablesInfo.getChild("PERSON").getProperty("time"));
+
+        // Validate the table, discarding its column info (as RDBMSStoreManager.invalidateColumnInfoForTable), and read another table
+        tablesInfo.getChildren().remove("PERSON");
+        handler.snapshot.addTableInfo(null, null, newTableInfo("ADDRESS", "ID"));
+        handler.saveSnapshot();
+
+        RDBMSSchemaInfoSnapshot reloaded = RDBMSSchemaInfoSnapshot.load(file);
+        RDBMSTableInfo person = (RDBMSTableInfo)reloaded.getTablesInfo().getChild("PERSON");
+        assertNotNull("Column info of the validated table should be in the saved snapshot", person);
+        assertEquals(2, person.getNumberOfChildren());
+        assertNotNull(person.getChild("NAME"));
+        assertNotNull(reloaded.getTablesInfo().getChild("ADDRESS"));
+
+        // Clearing the cached schema information seeds it again from the snapshot
+        handler.clear();
+        tablesInfo = (RDBMSSchemaInfo)handler.getSchemaData(null, RDBMSSchemaHandler.TYPE_TABLES, null);
+        assertNotNull(tablesInfo.getChild("PERSON"));
+        assertNotNull(tablesInfo.getChild("ADDRESS"));
+    }
+
+    /**
+     * Changing the table information added to a snapshot doesn't change the snapshot.
+     */
+    public void testSnapshotHoldsCopy()
+    {
+        RDBMSSchemaInfoSnapshot snapshot = new RDBMSSchemaInfoSnapshot("H2 1.4", "schema:1:1234");
+        RDBMSTableInfo tableInfo = newTableInfo("PERSON", "ID", "NAME");
+        snapshot.addTableInfo(null, null, tableInfo);
+        tableInfo.clearChildren();
+        assertEquals(2, ((RDBMSTableInfo)snapshot.getTablesInfo().getChild("PERSON")).getNumberOfChildren());
+
+        RDBMSSchemaInfo tablesInfo = snapshot.copyTablesInfo();
+        tablesInfo.getChildren().remove("PERSON");
+        assertNotNull(snapshot.getTablesInfo().getChild("PERSON"));
+    }
+
+    static RDBMSTableInfo newTableInfo(String tableName, String... columnNames)
+    {
+        RDBMSTableInfo tableInfo = new RDBMSTableInfo(null, null, tableName);
+        tableInfo.addProperty("table_key", tableName);
+        for (String columnName : columnNames)
+        {
+            tableInfo.addChild(new RDBMSColumnInfo(newColumnsResultSet(tableName, columnName)));
+        }
+        return tableInfo;
+    }
+
+    /**
+     * Create a stub ResultSet positioned on the row of DatabaseMetaData.getColumns for the column.
+     */
+    static ResultSet newColumnsResultSet(final String tableName, final String columnName)
+    {
+        return StubProxies.newProxy(ResultSet.class, new InvocationHandler()
+        {
+            public Object invoke(Object proxy, Method method, Object[] args)
+            {
+                String name = method.getName();
+                if (name.equals("getString"))
+                {
+                    int position = (Integer)args[0];
+                    return (position == 3) ? tableName : (position == 4) ? columnName : null;
+                }
+                else if (name.equals("getShort"))
+                {
+                    return (short)0;
+                }
+                else if (name.equals("getInt"))
+                {
+                    return 0;
+                }
+                throw new UnsupportedOperationException(name);
+            }
+        });
+    }
+
+    /**
+     * Create a schema handler using the snapshot file. Constructing a schema handler needs an RDBMSStoreManager, so it is
+     * allocated without running its constructor, and only the fields used by the snapshot set.
+     */
+    static RDBMSSchemaHandler newSchemaHandler(final File file) throws Exception
+    {
+        Class unsafeCls = Class.forName("sun.misc.Unsafe");
+        Field unsafeField = unsafeCls.getDeclaredField("theUnsafe");
+        unsafeField.setAccessible(true);
+        Object unsafe = unsafeField.get(null);
+        RDBMSSchemaHandler handler = (RDBMSSchemaHandler) unsafeCls.getMethod("allocateInstance", Class.class).invoke(unsafe, RDBMSSchemaHandler.class);
+
+        StoreManager storeMgr = StubProxies.newProxy(StoreManager.class, new InvocationHandler()
+        {
+            public Object invoke(Object proxy, Method method, Object[] args)
+            {
+                if (method.getName().equals("getStringProperty") && RDBMSPropertyNames.PROPERTY_RDBMS_SCHEMA_INFO_SNAPSHOT_FILE.equals(args[0]))
+                {
+                    return file.getPath();
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        });
+        Field storeMgrField = AbstractStoreSchemaHandler.class.getDeclaredField("storeMgr");
+        storeMgrField.setAccessible(true);
+        storeMgrField.set(handler, storeMgr);
+        handler.schemaDataByName = new ConcurrentHashMap<>();
+        handler.snapshotInitialised = true;
+        return handler;
+    }
+}
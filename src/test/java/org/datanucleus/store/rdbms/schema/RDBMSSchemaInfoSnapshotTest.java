@@ -0,0 +1,111 @@
+/**********************************************************************
+Copyright (c) 2026 DataNucleus contributors. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+package org.datanucleus.store.rdbms.schema;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for the saving and loading of a {@link RDBMSSchemaInfoSnapshot}.
+ */
+public class RDBMSSchemaInfoSnapshotTest extends TestCase
+{
+    File dir;
+
+    protected void setUp() throws Exception
+    {
+        dir = File.createTempFile("snapshot", "");
+        dir.delete();
+        dir.mkdir();
+    }
+
+    protected void tearDown() throws Exception
+    {
+        for (File file : dir.listFiles())
+        {
+            file.delete();
+        }
+        dir.delete();
+    }
+
+    public void testSaveAndLoad()
+        throws IOException
+    {
+        File file = new File(dir, "schema.ser");
+        new RDBMSSchemaInfoSnapshot("H2 1.4", "schema:1:1234").save(file);
+        assertTrue(RDBMSSchemaInfoSnapshot.load(file).isValidFor("H2 1.4", "schema:1:1234"));
+
+        // Replace the existing file
+        new RDBMSSchemaInfoSnapshot("H2 1.4", "schema:2:5678").save(file);
+        RDBMSSchemaInfoSnapshot snapshot = RDBMSSchemaInfoSnapshot.load(file);
+        assertTrue(snapshot.isValidFor("H2 1.4", "schema:2:5678"));
+        assertFalse(snapshot.isValidFor("H2 1.4", "schema:1:1234"));
+        assertFalse(snapshot.isModified());
+
+        assertEquals("Temporary file should not be left behind", 1, dir.listFiles().length);
+    }
+
+    public void testLoadRejectsOtherClasses()
+        throws IOException
+    {
+        File file = new File(dir, "schema.ser");
+        Map<String, Object> map = new HashMap<String, Object>();
+        map.put("time", new Date());
+        ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(file));
+        try
+        {
+            out.writeObject(map);
+        }
+        finally
+        {
+            out.close();
+        }
+
+        try
+        {
+            RDBMSSchemaInfoSnapshot.load(file);
+            fail("Snapshot containing a class that is not allowed should not be loaded");
+        }
+        catch (IOException ioe)
+        {
+            assertTrue(ioe.getMessage(), ioe.getMessage().contains(Date.class.getName()));
+        }
+    }
+
+    public void testAllowedClasses()
+    {
+        assertTrue(RDBMSSchemaInfoSnapshot.isAllowedClass(RDBMSTableInfo.class.getName()));
+        assertTrue(RDBMSSchemaInfoSnapshot.isAllowedClass(String.class.getName()));
+        assertTrue(RDBMSSchemaInfoSnapshot.isAllowedClass(Long.class.getName()));
+        assertTrue(RDBMSSchemaInfoSnapshot.isAllowedClass(HashMap.class.getName()));
+        assertTrue(RDBMSSchemaInfoSnapshot.isAllowedClass("[I"));
+        assertTrue(RDBMSSchemaInfoSnapshot.isAllowedClass("[Ljava.lang.String;"));
+
+        assertFalse(RDBMSSchemaInfoSnapshot.isAllowedClass(Date.class.getName()));
+        assertFalse(RDBMSSchemaInfoSnapshot.isAllowedClass("[Ljava.util.Date;"));
+        assertFalse(RDBMSSchemaInfoSnapshot.isAllowedClass("org.datanucleus.store.rdbms.schema.other.Gadget"));
+        assertFalse(RDBMSSchemaInfoSnapshot.isAllowedClass("I"));
+    }
+}
@@ -0,0 +1,440 @@
+/**********************************************************************
+Copyright (c) 2026 DataNucleus contributors. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+package org.datanucleus.store.rdbms.scostore;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.datanucleus.ExecutionContext;
+import org.datanucleus.Transaction;
+import org.datanucleus.exceptions.NucleusUserException;
+import org.datanucleus.state.ObjectProvider;
+import org.datanucleus.store.connection.ManagedConnection;
+import org.datanucleus.store.connection.ManagedConnectionResourceListener;
+import org.datanucleus.store.rdbms.SQLController;
+import org.datanucleus.store.rdbms.StubProxies;
+
+/**
+ * Tests for streaming iteration of a collection by {@link CollectionStoreIterator}, using stub JDBC objects and an
+ * iterator that reads a String element from the first column of each row.
+ */
+public class CollectionStoreIteratorTest extends TestCase
+{
+    static final List<String> ROWS = Arrays.asList("a", "b", "c", "d");
+
+    /** Names of the tables read by the iterator. */
+    static final List<String> TABLE_NAMES = Arrays.asList("ELEMENT", "\"OWNER_ELEMENTS\"");
+
+    /** Listeners registered on the stub connection. */
+    List<ManagedConnectionResourceListener> listeners;
+
+    ManagedConnection mconn;
+
+    SQLController sqlControl;
+
+    ObjectProvider op;
+
+    /** Number of rows of the stub ResultSet read so far. */
+    int rowsRead;
+
+    boolean rsClosed;
+
+    boolean psClosed;
+
+    protected void setUp() throws Exception
+    {
+        listeners = new ArrayList<ManagedConnectionResourceListener>();
+        rowsRead = 0;
+        rsClosed = false;
+        psClosed = false;
+        mconn = newManagedConnection();
+        sqlControl = new SQLController(false, 0, 0, "jdbc");
+
+        final Transaction tx = StubProxies.newProxy(Transaction.class, new InvocationHandler()
+        {
+            public Object invoke(Object proxy, Method method, Object[] args)
+            {
+                if (method.getName().equals("isActive"))
+                {
+                    return true;
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        });
+        final ExecutionContext ec = StubProxies.newProxy(ExecutionContext.class, new InvocationHandler()
+        {
+            public Object invoke(Object proxy, Method method, Object[] args)
+            {
+                if (method.getName().equals("getTransaction"))
+                {
+                    return tx;
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        });
+        op = StubProxies.newProxy(ObjectProvider.class, new InvocationHandler()
+        {
+            public Object invoke(Object proxy, Method method, Object[] args)
+            {
+                if (method.getName().equals("getExecutionContext"))
+                {
+                    return ec;
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    public void testElementsReadAsRequested()
+    {
+        TestIterator iter = new TestIterator(true);
+        assertEquals("a", iter.next());
+        assertEquals("Only the returned element should have been read", 1, rowsRead);
+        assertEquals("b", iter.next());
+        assertEquals(2, rowsRead);
+
+        assertEquals(Arrays.asList("c", "d"), readAll(iter));
+        assertTrue(rsClosed);
+        assertTrue(psClosed);
+        assertTrue("Listener should be removed once all elements are read", listeners.isEmpty());
+    }
+
+    /**
+     * An update of the element table on the connection while iterating (for example to remove an element) could change the
+     * rows being read, so the unread elements are read in first and the ResultSet closed.
+     */
+    public void testUpdateOfTableReadReadsRemainingElements()
+        throws SQLException
+    {
+        TestIterator iter = new TestIterator(true);
+        assertEquals("a", iter.next());
+
+        sqlControl.getStatementForUpdate(mconn, "DELETE FROM ELEMENT WHERE ID = ?", false);
+        assertEquals(ROWS.size(), rowsRead);
+        assertTrue(rsClosed);
+        assertTrue(psClosed);
+        assertTrue(listeners.isEmpty());
+
+        assertEquals(Arrays.asList("b", "c", "d"), readAll(iter));
+    }
+
+    /**
+     * Queries, and updates of other tables, don't change the rows being read, so when the connection can have several
+     * ResultSets open the iterator keeps streaming.
+     */
+    public void testOtherStatementsKeepStreaming()
+        throws SQLException
+    {
+        TestIterator iter = new TestIterator(true);
+        assertEquals("a", iter.next());
+
+        sqlControl.getStatementForQuery(mconn, "SELECT NAME FROM ELEMENT WHERE ID = ?");
+        sqlControl.getStatementForUpdate(mconn, "UPDATE OTHER SET NAME = ? WHERE ID = ?", false);
+        sqlControl.getStatementForUpdate(mconn, "INSERT INTO ELEMENT_AUDIT (ID) VALUES (?)", false);
+        assertEquals("Unread elements should not be read", 1, rowsRead);
+        assertFalse(rsClosed);
+
+        assertEquals(Arrays.asList("b", "c", "d"), readAll(iter));
+        assertTrue(rsClosed);
+    }
+
+    /**
+     * When the connection can't have several ResultSets open, any other statement on the connection has the unread elements
+     * read in first.
+     */
+    public void testSingleOpenResultSetReadsRemainingElements()
+        throws SQLException
+    {
+        TestIterator iter = new TestIterator(false);
+        assertEquals("a", iter.next());
+
+        sqlControl.getStatementForQuery(mconn, "SELECT NAME FROM OTHER WHERE ID = ?");
+        assertEquals(ROWS.size(), rowsRead);
+        assertTrue(rsClosed);
+
+        assertEquals(Arrays.asList("b", "c", "d"), readAll(iter));
+    }
+
+    /**
+     * A query issued while an element is being read (for example to load part of the element) doesn't change the rows being
+     * read, so the iterator keeps streaming.
+     */
+    public void testQueryWhileReadingElementKeepsStreaming()
+    {
+        TestIterator iter = new TestIterator(true)
+        {
+            protected String getElement(ResultSet rs)
+            {
+                String element = super.getElement(rs);
+                if (element.equals("b"))
+                {
+                    try
+                    {
+                        sqlControl.getStatementForQuery(mconn, "SELECT NAME FROM ELEMENT WHERE ID = ?");
+                    }
+                    catch (SQLException e)
+                    {
+                        fail(e.getMessage());
+                    }
+                }
+                return element;
+            }
+        };
+
+        assertEquals("a", iter.next());
+        assertEquals("b", iter.next());
+        assertEquals("Unread elements should not be read", 2, rowsRead);
+        assertFalse(rsClosed);
+
+        assertEquals(Arrays.asList("c", "d"), readAll(iter));
+        assertTrue(rsClosed);
+    }
+
+    /**
+     * A statement created while an element is being read, that needs the unread elements read in, can't interrupt the reading
+     * of that element, so the unread elements are read in once it is complete.
+     */
+    public void testStatementWhileReadingElement()
+    {
+        TestIterator iter = new TestIterator(false)
+        {
+            protected String getElement(ResultSet rs)
+            {
+                String element = super.getElement(rs);
+                if (element.equals("b"))
+                {
+                    try
+                    {
+                        sqlControl.getStatementForQuery(mconn, "SELECT NAME FROM ELEMENT WHERE ID = ?");
+                    }
+                    catch (SQLException e)
+                    {
+                        fail(e.getMessage());
+                    }
+                    assertEquals("Unread elements should not be read while reading an element", 2, rowsRead);
+                }
+                return element;
+            }
+        };
+
+        assertEquals(ROWS, readAll(iter));
+        assertTrue(rsClosed);
+    }
+
+    /**
+     * When the transaction ends the ResultSet is closed without reading the unread elements, and the iterator can't be used
+     * any further.
+     */
+    public void testTransactionEndClosesWithoutReading()
+    {
+        TestIterator iter = new TestIterator(true);
+        assertEquals("a", iter.next());
+        assertTrue(iter.hasNext());
+
+        for (ManagedConnectionResourceListener listener : new ArrayList<ManagedConnectionResourceListener>(listeners))
+        {
+            listener.transactionPreClose();
+        }
+        assertEquals("Unread elements should not be read when the transaction ends", 2, rowsRead);
+        assertTrue(rsClosed);
+        assertTrue(psClosed);
+
+        try
+        {
+            iter.hasNext();
+            fail("Iterating after the connection has closed should fail");
+        }
+        catch (NucleusUserException e)
+        {
+            // Expected
+        }
+
+        for (ManagedConnectionResourceListener listener : new ArrayList<ManagedConnectionResourceListener>(listeners))
+        {
+            listener.resourcePostClose();
+        }
+        assertTrue(listeners.isEmpty());
+    }
+
+    public void testNotNotifiedOnceAllElementsRead()
+        throws SQLException
+    {
+        TestIterator iter = new TestIterator(false);
+        assertEquals(ROWS, readAll(iter));
+
+        rsClosed = false;
+        sqlControl.getStatementForQuery(mconn, "SELECT NAME FROM ELEMENT WHERE ID = ?");
+        assertFalse(rsClosed);
+        assertFalse(iter.hasNext());
+    }
+
+    /**
+     * An INSERT, UPDATE or DELETE is only an update of the tables read when it names one of them, and any other update
+     * statement could be.
+     */
+    public void testUpdateOfTables()
+    {
+        assertTrue(CollectionStoreIterator.isUpdateOfTables("INSERT INTO ELEMENT (ID,NAME) VALUES (?,?)", TABLE_NAMES));
+        assertTrue(CollectionStoreIterator.isUpdateOfTables("INSERT INTO ELEMENT(ID,NAME) VALUES (?,?)", TABLE_NAMES));
+        assertTrue(CollectionStoreIterator.isUpdateOfTables("update element SET NAME = ?", TABLE_NAMES));
+        assertTrue(CollectionStoreIterator.isUpdateOfTables(" DELETE FROM \"OWNER_ELEMENTS\" WHERE OWNER_ID = ?", TABLE_NAMES));
+        assertTrue(CollectionStoreIterator.isUpdateOfTables("DELETE FROM ELEMENT", TABLE_NAMES));
+        assertTrue("Other update statements could update the tables", CollectionStoreIterator.isUpdateOfTables("CALL PURGE(?)", TABLE_NAMES));
+
+        assertFalse(CollectionStoreIterator.isUpdateOfTables("INSERT INTO ELEMENT_AUDIT (ID) VALUES (?)", TABLE_NAMES));
+        assertFalse(CollectionStoreIterator.isUpdateOfTables("UPDATE OTHER SET ELEMENT = ?", TABLE_NAMES));
+        assertFalse(CollectionStoreIterator.isUpdateOfTables("DELETE FROM OWNER_ELEMENTS WHERE OWNER_ID = ?", TABLE_NAMES));
+        assertFalse(CollectionStoreIterator.isUpdateOfTables("DELETE FROM ELEMENT", Collections.<String>emptyList()));
+    }
+
+    static List<String> readAll(TestIterator iter)
+    {
+        List<String> elements = new ArrayList<String>();
+        while (iter.hasNext())
+        {
+            elements.add(iter.next());
+        }
+        return elements;
+    }
+
+    /**
+     * Streaming iterator reading a String element from the first column of each row, of the tables {@link #TABLE_NAMES}.
+     */
+    class TestIterator extends CollectionStoreIterator<String>
+    {
+        TestIterator(boolean multipleOpenResultSets)
+        {
+            super(op, mconn, sqlControl, newPreparedStatement(), newResultSet(), null, null, multipleOpenResultSets, TABLE_NAMES);
+        }
+
+        protected String getElement(ResultSet rs)
+        {
+            try
+            {
+                return rs.getString(1);
+            }
+            catch (SQLException e)
+            {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    ManagedConnection newManagedConnection()
+    {
+        final Connection conn = StubProxies.newProxy(Connection.class, new InvocationHandler()
+        {
+            public Object invoke(Object proxy, Method method, Object[] args)
+            {
+                if (method.getName().equals("prepareStatement"))
+                {
+                    return newPreparedStatement();
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        });
+        return StubProxies.newProxy(ManagedConnection.class, new InvocationHandler()
+        {
+            public Object invoke(Object proxy, Method method, Object[] args)
+            {
+                if (method.getName().equals("getConnection"))
+                {
+                    return conn;
+                }
+                else if (method.getName().equals("addListener"))
+                {
+                    listeners.add((ManagedConnectionResourceListener) args[0]);
+                    return null;
+                }
+                else if (method.getName().equals("removeListener"))
+                {
+                    listeners.remove(args[0]);
+                    return null;
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    PreparedStatement newPreparedStatement()
+    {
+        return StubProxies.newProxy(PreparedStatement.class, new InvocationHandler()
+        {
+            public Object invoke(Object proxy, Method method, Object[] args)
+            {
+                if (method.getName().equals("close"))
+                {
+                    psClosed = true;
+                    return null;
+                }
+                else if (method.getName().equals("clearBatch"))
+                {
+                    return null;
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    /**
+     * Create a stub ResultSet over {@link #ROWS}, counting the rows read.
+     */
+    ResultSet newResultSet()
+    {
+        return StubProxies.newProxy(ResultSet.class, new InvocationHandler()
+        {
+            public Object invoke(Object proxy, Method method, Object[] args)
+            {
+                String name = method.getName();
+                if (name.equals("next"))
+                {
+                    if (rsClosed)
+                    {
+                        throw new IllegalStateException("ResultSet is closed");
+                    }
+                    if (rowsRead < ROWS.size())
+                    {
+                        rowsRead++;
+                        return true;
+                    }
+                    return false;
+                }
+                else if (name.equals("getString"))
+                {
+                    return ROWS.get(rowsRead - 1);
+                }
+                else if (name.equals("close"))
+                {
+                    rsClosed = true;
+                    return null;
+                }
+                throw new UnsupportedOperationException(name);
+            }
+        });
+    }
+}
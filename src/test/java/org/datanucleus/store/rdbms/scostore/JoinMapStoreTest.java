@@ -0,0 +1,187 @@
+/**********************************************************************
+Copyright (c) 2026 DataNucleus contributors. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+package org.datanucleus.store.rdbms.scostore;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for the retrieval of the values for keys of a map in bulk by {@link JoinMapStore}, where the datastore can consider
+ * keys equal that are not equal in Java.
+ */
+public class JoinMapStoreTest extends TestCase
+{
+    /** Equality of a NUMERIC column, ignoring the scale. */
+    static final Comparator<Object> NUMERIC = new Comparator<Object>()
+    {
+        public int compare(Object o1, Object o2)
+        {
+            return ((BigDecimal)o1).compareTo((BigDecimal)o2);
+        }
+    };
+
+    /** Equality of a CHAR column with a case-insensitive collation, ignoring trailing spaces. */
+    static final Comparator<Object> CHAR_CASE_INSENSITIVE = new Comparator<Object>()
+    {
+        public int compare(Object o1, Object o2)
+        {
+            return trimTrailing((String)o1).compareToIgnoreCase(trimTrailing((String)o2));
+        }
+    };
+
+    /**
+     * Simulation of the rows of the map in a join table, with the equality of the key column in the datastore.
+     */
+    static class JoinTableLookup implements JoinMapStore.ValuesLookup
+    {
+        final Map<Object, Object> rows = new LinkedHashMap<Object, Object>();
+        final Comparator<Object> keyEquality;
+        final List<List> statements = new ArrayList<List>();
+        final List<Object> individualLookups = new ArrayList<Object>();
+
+        JoinTableLookup(Comparator<Object> keyEquality, Object... keysAndValues)
+        {
+            this.keyEquality = keyEquality;
+            for (int i=0;i<keysAndValues.length;i+=2)
+            {
+                rows.put(keysAndValues[i], keysAndValues[i+1]);
+            }
+        }
+
+        /**
+         * "SELECT KEY, VALUE FROM MAPTABLE WHERE OWNER = ? AND KEY IN (...)", returning the key as stored.
+         */
+        public int getValues(List keys, Map<Object, Object> values)
+        {
+            statements.add(new ArrayList(keys));
+            int numRows = 0;
+            for (Map.Entry<Object, Object> row : rows.entrySet())
+            {
+                for (Object key : keys)
+                {
+                    if (keyEquality.compare(row.getKey(), key) == 0)
+                    {
+                        values.put(row.getKey(), row.getValue());
+                        numRows++;
+                        break;
+                    }
+                }
+            }
+            return numRows;
+        }
+
+        public Object getValue(Object key)
+        {
+            individualLookups.add(key);
+            for (Map.Entry<Object, Object> row : rows.entrySet())
+            {
+                if (keyEquality.compare(row.getKey(), key) == 0)
+                {
+                    return row.getValue();
+                }
+            }
+            throw new NoSuchElementException();
+        }
+
+        public Object getLookupKey(Object key)
+        {
+            return key;
+        }
+    }
+
+    public void testKeysMatchedInBulk() throws Exception
+    {
+        JoinTableLookup lookup = new JoinTableLookup(CHAR_CASE_INSENSITIVE, "a", 1, "c", null);
+        Map<Object, Object> values = JoinMapStore.getValues(Arrays.asList("a", "b", "c"), 10, lookup);
+        assertEquals(2, values.size());
+        assertEquals(1, values.get("a"));
+        assertTrue(values.containsKey("c"));
+        assertNull(values.get("c"));
+        assertEquals(1, lookup.statements.size());
+
+        // "b" is not in the map, but can't be told apart from a key that the datastore matched to another row
+        assertEquals(Arrays.asList((Object)"b"), lookup.individualLookups);
+    }
+
+    /**
+     * A key that is equal in the datastore to a key of the map but not in Java is retrieved individually, so it is an update
+     * of that entry rather than a new entry.
+     */
+    public void testKeyEqualInDatastoreRetrievedIndividually() throws Exception
+    {
+        JoinTableLookup lookup = new JoinTableLookup(NUMERIC, new BigDecimal("1.00"), "one", new BigDecimal("3"), "three");
+        Map<Object, Object> values = JoinMapStore.getValues(Arrays.asList(new BigDecimal("1.0"), new BigDecimal("2"), new BigDecimal("3")),
+            10, lookup);
+        assertEquals("one", values.get(new BigDecimal("1.0")));
+        assertEquals("three", values.get(new BigDecimal("3")));
+        assertFalse(values.containsKey(new BigDecimal("2")));
+        assertEquals(Arrays.asList((Object)new BigDecimal("1.0"), new BigDecimal("2")), lookup.individualLookups);
+
+        lookup = new JoinTableLookup(CHAR_CASE_INSENSITIVE, "ab  ", 1, "CD", 2);
+        values = JoinMapStore.getValues(Arrays.asList("ab", "cd", "ef"), 10, lookup);
+        assertEquals(1, values.get("ab"));
+        assertEquals(2, values.get("cd"));
+        assertFalse(values.containsKey("ef"));
+    }
+
+    /**
+     * Keys are retrieved with one statement per chunk, and only keys of chunks that retrieved rows are retrieved individually.
+     */
+    public void testChunks() throws Exception
+    {
+        JoinTableLookup lookup = new JoinTableLookup(CHAR_CASE_INSENSITIVE, "D", 4, "e", 5);
+        Map<Object, Object> values = JoinMapStore.getValues(Arrays.asList("a", "b", "c", "d", "e"), 2, lookup);
+        assertEquals(3, lookup.statements.size());
+        assertEquals(Arrays.asList("a", "b"), lookup.statements.get(0));
+        assertEquals(Arrays.asList("c", "d"), lookup.statements.get(1));
+        assertEquals(Arrays.asList("e"), lookup.statements.get(2));
+
+        assertEquals(4, values.get("d"));
+        assertEquals(5, values.get("e"));
+        assertFalse(values.containsKey("c"));
+        assertEquals(Arrays.asList((Object)"c", "d"), lookup.individualLookups);
+    }
+
+    public void testNoRows() throws Exception
+    {
+        JoinTableLookup lookup = new JoinTableLookup(NUMERIC);
+        Map<Object, Object> values = JoinMapStore.getValues(Arrays.asList(new BigDecimal("1"), new BigDecimal("2"), new BigDecimal("3")),
+            2, lookup);
+        assertTrue(values.isEmpty());
+        assertEquals(2, lookup.statements.size());
+        assertTrue("Keys should not be retrieved individually when no rows are retrieved", lookup.individualLookups.isEmpty());
+    }
+
+    static String trimTrailing(String str)
+    {
+        int end = str.length();
+        while (end > 0 && str.charAt(end - 1) == ' ')
+        {
+            end--;
+        }
+        return str.substring(0, end);
+    }
+}
@@ -0,0 +1,190 @@
+/**********************************************************************
+Copyright (c) 2026 DataNucleus contributors. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+package org.datanucleus.store.rdbms.scostore;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for the two-phase shift of list indices used where the datastore checks the unique index on (owner, index)
+ * row by row. Each update is applied to the rows one at a time, checking the unique index after every row.
+ */
+public class ListShiftRangeTest extends TestCase
+{
+    /**
+     * Simulation of the index column of a list table with a unique index on it, checked after every row updated.
+     */
+    private static class UniqueIndexColumn
+    {
+        private final List<Integer> rows = new ArrayList<Integer>();
+
+        UniqueIndexColumn(int size)
+        {
+            for (int i=0;i<size;i++)
+            {
+                rows.add(i);
+            }
+        }
+
+        UniqueIndexColumn(int... indices)
+        {
+            for (int i=0;i<indices.length;i++)
+            {
+                rows.add(indices[i]);
+            }
+        }
+
+        /**
+         * Perform "UPDATE SET IDX = value {op} IDX WHERE IDX &gt;= fromIndex AND IDX &lt; toIndex", row by row.
+         */
+        void update(int value, boolean add, int fromIndex, int toIndex, boolean ascending)
+        {
+            List<Integer> positions = new ArrayList<Integer>();
+            for (int i=0;i<rows.size();i++)
+            {
+                int idx = rows.get(i);
+                if (idx >= fromIndex && idx < toIndex)
+                {
+                    positions.add(i);
+                }
+            }
+            if (!ascending)
+            {
+                Collections.reverse(positions);
+            }
+            for (Integer pos : positions)
+            {
+                int idx = rows.get(pos);
+                rows.set(pos, add ? value + idx : value - idx);
+                assertUnique();
+            }
+        }
+
+        void assertUnique()
+        {
+            Set<Integer> seen = new HashSet<Integer>();
+            for (Integer idx : rows)
+            {
+                if (!seen.add(idx))
+                {
+                    throw new IllegalStateException("Unique index violated for index " + idx + " : " + rows);
+                }
+                if (idx == -1)
+                {
+                    throw new IllegalStateException("Shifted row clashes with unpositioned index -1 : " + rows);
+                }
+            }
+        }
+
+        void shiftTwoPhase(int fromIndex, int toIndex, int amount, boolean ascending)
+        {
+            int[][] updates = AbstractListStore.getTwoPhaseShiftRangeUpdates(fromIndex, toIndex, amount);
+            assertEquals(2, updates.length);
+            for (int[] update : updates)
+            {
+                update(update[0], false, update[1], update[2], ascending);
+            }
+        }
+    }
+
+    private void checkShift(int size, int fromIndex, int toIndex, int amount, boolean ascending)
+    {
+        UniqueIndexColumn column = new UniqueIndexColumn(size);
+        List<Integer> expected = new ArrayList<Integer>();
+        for (int i=0;i<size;i++)
+        {
+            expected.add(i >= fromIndex && i < toIndex ? i + amount : i);
+        }
+
+        column.shiftTwoPhase(fromIndex, toIndex, amount, ascending);
+        assertEquals(expected, column.rows);
+    }
+
+    /**
+     * Shift up by one, as when inserting an element at a position.
+     */
+    public void testShiftUpForInsert()
+    {
+        for (int pos=0;pos<5;pos++)
+        {
+            // Make room in the table for the new element by moving the rows [pos, 5) to [pos+1, 6)
+            checkShift(5, pos, 5, 1, true);
+            checkShift(5, pos, 5, 1, false);
+        }
+    }
+
+    /**
+     * Shift down by one, as when removing an element from a position.
+     */
+    public void testShiftDownForRemove()
+    {
+        for (int pos=0;pos<5;pos++)
+        {
+            // Simulate removal of the element at pos, then close the gap
+            UniqueIndexColumn column = new UniqueIndexColumn(6);
+            column.rows.remove(pos);
+            column.shiftTwoPhase(pos + 1, 6, -1, true);
+            List<Integer> expected = new ArrayList<Integer>();
+            for (int i=0;i<5;i++)
+            {
+                expected.add(i);
+            }
+            assertEquals(expected, column.rows);
+        }
+    }
+
+    /**
+     * Shift a range by more than its own length, in both directions.
+     */
+    public void testShiftByLargeAmount()
+    {
+        checkShift(4, 0, 3, 7, true);
+        checkShift(4, 0, 3, 7, false);
+
+        for (boolean ascending : new boolean[] {true, false})
+        {
+            UniqueIndexColumn column = new UniqueIndexColumn(0, 7, 8, 9);
+            column.shiftTwoPhase(7, 10, -6, ascending);
+            assertEquals(Arrays.asList(0, 1, 2, 3), column.rows);
+        }
+    }
+
+    /**
+     * Sanity check that a single statement shift does violate the unique index when checked row by row, so the
+     * simulation actually exercises the constraint.
+     */
+    public void testSingleStatementViolatesUniqueIndex()
+    {
+        UniqueIndexColumn column = new UniqueIndexColumn(5);
+        try
+        {
+            column.update(1, true, 1, 5, true);
+            fail("Expected unique index to be violated");
+        }
+        catch (IllegalStateException ise)
+        {
+            // Expected
+        }
+    }
+}